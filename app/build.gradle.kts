@@ -2,6 +2,37 @@ plugins {
     alias(libs.plugins.android.application)
 }
 
+// SQLite는 APK 안의 오프셋에서 열 수 없으므로, 첫 실행부터 복사 없이 그릴 수 있도록 빌드할 때 원본 MBTiles를
+// 타일 팩으로 변환해 에셋으로 넣습니다. APK에는 타일 팩만 들어가며, 지도 델타는 바뀐 타일만 담는 패치 파일에 적용합니다.
+val tilePackTool: Configuration by configurations.creating
+val mapAsset = file("src/map/south-korea-latest-non-military.mbtiles")
+val tilePackAssetDir = layout.buildDirectory.dir("generated/tilePackAsset")
+
+val generateTilePackAsset by tasks.registering(JavaExec::class) {
+    group = "tools"
+    description = "Converts the source MBTiles map to the tile pack asset that is mapped in place from the APK."
+    classpath = tilePackTool
+    mainClass.set("com.example.test_navigation.TilePackConverter")
+    val output = tilePackAssetDir.map { it.file(mapAsset.nameWithoutExtension + ".tilepack").asFile }
+    inputs.file(mapAsset)
+    outputs.dir(tilePackAssetDir)
+    argumentProviders.add(CommandLineArgumentProvider { listOf(mapAsset.path, output.get().path) })
+    // Git LFS 포인터만 받아 온 체크아웃에서는 변환하지 않습니다.
+    onlyIf { mapAsset.inputStream().use { String(it.readNBytes(15), Charsets.US_ASCII) } == "SQLite format 3" }
+}
+
+tasks.named("preBuild") {
+    dependsOn(generateTilePackAsset)
+}
+
+// 헤드리스 재생 부하 시험(TraceReplayLoadTest)은 초당 처리 수와 지연 백분위를 여기에 남깁니다.
+val traceReplayReportDir = layout.buildDirectory.dir("reports/traceReplay")
+
+tasks.withType<Test>().configureEach {
+    outputs.dir(traceReplayReportDir)
+    systemProperty("traceReplay.reportDir", traceReplayReportDir.get().asFile.path)
+}
+
 android {
     namespace = "com.example.test_navigation"
     compileSdk = 34
@@ -22,6 +53,15 @@ android {
             proguardFiles(getDefaultProguardFile("proguard-android-optimize.txt"), "proguard-rules.pro")
         }
     }
+    androidResources {
+        // 타일 팩은 APK 안에 압축하지 않고 저장하여 에셋 파일 설명자로 그 자리에서 매핑합니다.
+        noCompress += listOf("tilepack")
+    }
+    sourceSets {
+        getByName("main") {
+            assets.srcDir(tilePackAssetDir)
+        }
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
@@ -29,12 +69,15 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation ("org.osmdroid:osmdroid-android:6.1.14")
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
     testImplementation(libs.junit)
+    tilePackTool(project(":core"))
+    tilePackTool(libs.sqlite.jdbc)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
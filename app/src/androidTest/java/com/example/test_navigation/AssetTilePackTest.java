@@ -0,0 +1,48 @@
+package com.example.test_navigation;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * 빌드할 때 만든 타일 팩 에셋이 APK 안에 압축되지 않고 들어가, 복사 없이 에셋 오프셋에서 그대로 읽히는지 검증하는 계측 테스트입니다.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AssetTilePackTest {
+
+    @Test
+    public void assetTilePack_isReadInPlaceFromTheApk() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        long offset;
+        try (AssetFileDescriptor afd = context.getAssets().openFd(MainActivity.TILE_PACK_FILENAME)) {
+            // 파일 설명자로 열리면 압축되지 않은 에셋이고, 오프셋은 APK 안에서의 위치입니다.
+            offset = afd.getStartOffset();
+            assertTrue(afd.getLength() > 0);
+        }
+        assertTrue(offset > 0);
+
+        try (TilePackReader reader = MapUtils.openAssetTilePack(context, MainActivity.TILE_PACK_FILENAME)) {
+            assertNotNull(reader);
+            assertEquals(new File(context.getPackageResourcePath()), reader.getFile());
+            assertNotNull(reader.getMetadata("format"));
+            assertTrue(reader.getTileCount() > 0);
+            // 가장 낮은 줌의 타일을 모두 읽어 내용이 에셋 오프셋에서 읽히는지 확인합니다.
+            int zoom = reader.getMinZoom();
+            int last = (1 << zoom) - 1;
+            int[] bytes = new int[1];
+            int tiles = reader.getTiles(zoom, 0, last, 0, last, (z, x, y, data) -> bytes[0] += data.length);
+            assertTrue(tiles > 0);
+            assertTrue(bytes[0] > 0);
+        }
+    }
+}
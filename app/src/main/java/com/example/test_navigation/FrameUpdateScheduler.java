@@ -0,0 +1,272 @@
+package com.example.test_navigation;
+
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.Locale;
+
+/**
+ * FrameUpdateScheduler 클래스는 위치, 헤딩, 오버레이 변경을 화면 주사율에 맞춰 한 프레임에 한 번만 반영하는 클래스입니다.
+ * GNSS(10Hz), 나침반(50Hz), RV 수신처럼 서로 다른 주기의 변경을 바로 화면에 적용하지 않고
+ * 최신 값만 보관해 두었다가 다음 프레임(Choreographer 콜백)에서 한꺼번에 적용합니다.
+ * 프레임 사이에 덮어써진 변경 수를 집계하여 절약된 갱신 횟수를 확인할 수 있습니다.
+ * {@link Telemetry}가 켜져 있으면 프레임 간격, 적용 시간, 위치가 화면에 반영되기까지의 지연을 기록합니다.
+ *
+ * <p>post 메서드는 어느 스레드에서나 호출할 수 있고, {@link Target}의 메서드는 UI 스레드에서 호출됩니다.</p>
+ */
+public class FrameUpdateScheduler {
+    private static final String TAG = "FrameUpdateScheduler";
+    /** 이보다 긴 프레임 간격은 연속된 프레임이 아닌 것으로 봅니다. */
+    private static final long MAX_FRAME_INTERVAL_NANOS = 250_000_000L;
+
+    /**
+     * 프레임마다 모인 변경을 실제로 적용하는 대상입니다.
+     */
+    public interface Target {
+        /**
+         * 이번 프레임의 최신 위치를 적용합니다.
+         */
+        void applyLocation(double latitude, double longitude);
+
+        /**
+         * 이번 프레임의 최신 헤딩을 적용합니다.
+         */
+        void applyHeading(float heading);
+
+        /**
+         * 변경을 모두 적용한 뒤 프레임마다 한 번 호출됩니다. 지도를 다시 그리도록 요청하는 곳입니다.
+         *
+         * @param overlaysChanged 이번 프레임에 오버레이 변경이 있었는지 여부
+         */
+        void applyFrame(boolean overlaysChanged);
+    }
+
+    private final Target target;
+    private final Runnable frameRequester;
+    private final Runnable frameCanceller;
+
+    private boolean frameRequested;
+    private boolean released;
+
+    private boolean locationPending;
+    private double pendingLatitude;
+    private double pendingLongitude;
+    private boolean headingPending;
+    private float pendingHeading;
+    private boolean overlayPending;
+    /** 대기 중인 위치가 등록된 시각 (Telemetry가 꺼져 있으면 0) */
+    private long locationPostNanos;
+    private long lastFrameTimeNanos;
+
+    private long locationPosted;
+    private long locationApplied;
+    private long headingPosted;
+    private long headingApplied;
+    private long overlayPosted;
+    private long overlayApplied;
+    private long frameCount;
+
+    /**
+     * 현재 스레드(UI 스레드)의 Choreographer에 맞춰 동작하는 스케줄러를 만듭니다.
+     *
+     * @param target 변경을 적용할 대상
+     */
+    public FrameUpdateScheduler(Target target) {
+        this.target = target;
+        Choreographer choreographer = Choreographer.getInstance();
+        Choreographer.FrameCallback callback = this::doFrame;
+        this.frameRequester = () -> choreographer.postFrameCallback(callback);
+        this.frameCanceller = () -> choreographer.removeFrameCallback(callback);
+    }
+
+    /**
+     * 프레임 요청 방법을 직접 지정하는 생성자입니다. 테스트에서 사용합니다.
+     *
+     * @param target 변경을 적용할 대상
+     * @param frameRequester 다음 프레임에 {@link #doFrame(long)}이 호출되도록 예약하는 작업
+     * @param frameCanceller 예약한 프레임 콜백을 취소하는 작업
+     */
+    FrameUpdateScheduler(Target target, Runnable frameRequester, Runnable frameCanceller) {
+        this.target = target;
+        this.frameRequester = frameRequester;
+        this.frameCanceller = frameCanceller;
+    }
+
+    /**
+     * 새 위치를 등록합니다. 같은 프레임 안의 이전 위치는 버려집니다.
+     *
+     * @param latitude 위도
+     * @param longitude 경도
+     */
+    public void postLocation(double latitude, double longitude) {
+        synchronized (this) {
+            locationPosted++;
+            pendingLatitude = latitude;
+            pendingLongitude = longitude;
+            locationPending = true;
+            locationPostNanos = Telemetry.start();
+        }
+        requestFrame();
+    }
+
+    /**
+     * 새 헤딩을 등록합니다. 같은 프레임 안의 이전 헤딩은 버려집니다.
+     *
+     * @param heading 방향 (도, 북쪽 기준 시계 방향)
+     */
+    public void postHeading(float heading) {
+        synchronized (this) {
+            headingPosted++;
+            pendingHeading = heading;
+            headingPending = true;
+        }
+        requestFrame();
+    }
+
+    /**
+     * 오버레이 데이터가 바뀌었음을 알립니다. 같은 프레임 안의 변경은 한 번의 다시 그리기로 합쳐집니다.
+     */
+    public void postOverlayChange() {
+        synchronized (this) {
+            overlayPosted++;
+            overlayPending = true;
+        }
+        requestFrame();
+    }
+
+    private void requestFrame() {
+        synchronized (this) {
+            if (frameRequested || released) {
+                return;
+            }
+            frameRequested = true;
+        }
+        frameRequester.run();
+    }
+
+    /**
+     * 프레임 콜백입니다. 모인 변경 중 최신 값만 대상에 적용합니다.
+     *
+     * @param frameTimeNanos 프레임 시각 (나노초)
+     */
+    void doFrame(long frameTimeNanos) {
+        boolean applyLocation;
+        boolean applyHeading;
+        boolean overlaysChanged;
+        double latitude;
+        double longitude;
+        float heading;
+        long postNanos;
+        long previousFrameNanos;
+        synchronized (this) {
+            frameRequested = false;
+            if (released) {
+                return;
+            }
+            applyLocation = locationPending;
+            applyHeading = headingPending;
+            overlaysChanged = overlayPending;
+            latitude = pendingLatitude;
+            longitude = pendingLongitude;
+            heading = pendingHeading;
+            postNanos = locationPostNanos;
+            previousFrameNanos = lastFrameTimeNanos;
+            lastFrameTimeNanos = frameTimeNanos;
+            locationPending = false;
+            headingPending = false;
+            overlayPending = false;
+
+            frameCount++;
+            if (applyLocation) {
+                locationApplied++;
+            }
+            if (applyHeading) {
+                headingApplied++;
+            }
+            if (overlaysChanged) {
+                overlayApplied++;
+            }
+        }
+
+        long applyStart = Telemetry.start();
+        if (applyLocation) {
+            target.applyLocation(latitude, longitude);
+        }
+        if (applyHeading) {
+            target.applyHeading(heading);
+        }
+        target.applyFrame(overlaysChanged);
+
+        if (applyStart != 0L) {
+            Telemetry.stop(Telemetry.FRAME_APPLY, applyStart);
+            // 화면 그리기는 같은 프레임의 순회 단계에서 이어지므로 적용 완료 시점을 화면 반영 시점으로 봅니다.
+            if (applyLocation) {
+                Telemetry.stop(Telemetry.LOCATION_TO_SCREEN, postNanos);
+            }
+            // 쉬었다가 다시 시작한 프레임은 간격에서 제외합니다.
+            long interval = frameTimeNanos - previousFrameNanos;
+            if (previousFrameNanos != 0L && interval > 0 && interval < MAX_FRAME_INTERVAL_NANOS) {
+                Telemetry.record(Telemetry.FRAME_INTERVAL, interval);
+            }
+        }
+    }
+
+    /**
+     * 스케줄러를 중지합니다. 이후의 변경은 적용되지 않으며, 예약된 프레임 콜백은 취소하여
+     * Choreographer가 대상(액티비티)을 더 붙잡고 있지 않게 합니다.
+     */
+    public void release() {
+        boolean cancel;
+        synchronized (this) {
+            if (released) {
+                return;
+            }
+            released = true;
+            cancel = frameRequested;
+            frameRequested = false;
+        }
+        if (cancel) {
+            frameCanceller.run();
+        }
+    }
+
+    /** 적용된 프레임 수 */
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    /** 다음 값으로 덮어써져 적용되지 않은 위치 수 */
+    public synchronized long getMergedLocationCount() {
+        return locationPosted - locationApplied - (locationPending ? 1 : 0);
+    }
+
+    /** 다음 값으로 덮어써져 적용되지 않은 헤딩 수 */
+    public synchronized long getMergedHeadingCount() {
+        return headingPosted - headingApplied - (headingPending ? 1 : 0);
+    }
+
+    /** 다른 변경과 같은 프레임으로 합쳐진 오버레이 변경 수 */
+    public synchronized long getMergedOverlayCount() {
+        return overlayPosted - overlayApplied - (overlayPending ? 1 : 0);
+    }
+
+    /**
+     * 갱신 통계를 한 줄로 반환합니다.
+     *
+     * @return 통계 문자열
+     */
+    public synchronized String getStats() {
+        return String.format(Locale.US,
+                "frames=%d location=%d/%d heading=%d/%d overlay=%d/%d (applied/posted) merged=%d",
+                frameCount, locationApplied, locationPosted, headingApplied, headingPosted,
+                overlayApplied, overlayPosted,
+                getMergedLocationCount() + getMergedHeadingCount() + getMergedOverlayCount());
+    }
+
+    /**
+     * 현재 통계를 로그로 출력합니다.
+     */
+    public void logStats() {
+        Log.d(TAG, getStats());
+    }
+}
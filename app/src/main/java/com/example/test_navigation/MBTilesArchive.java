@@ -0,0 +1,224 @@
+package com.example.test_navigation;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MBTilesArchive 클래스는 MBTiles(SQLite) 파일에서 타일 바이트를 읽어오는 전용 모듈입니다.
+ * 읽기 전용 연결을 풀로 유지하여 연결마다 준비된 SQL 문(prepared statement) 캐시를 재사용하고,
+ * 뷰포트에 필요한 타일을 한 번의 범위 쿼리로 가져올 수 있습니다.
+ * MBTiles는 TMS 규칙(y축 아래에서 위)을 사용하므로 XYZ ↔ TMS 변환은 이 클래스 내부에서 처리합니다.
+ */
+public class MBTilesArchive implements TileArchive {
+    private static final String TAG = "MBTilesArchive";
+    /** 연결을 기다리는 동안 닫혔는지 다시 확인하는 간격 (밀리초) */
+    private static final long ACQUIRE_POLL_MILLIS = 100;
+
+    private final File file;
+    private final BlockingQueue<SQLiteDatabase> connections;
+    private final int connectionCount;
+    private volatile boolean closed;
+
+    /**
+     * 지정된 개수만큼 읽기 전용 연결을 열어 아카이브를 생성합니다.
+     *
+     * @param file MBTiles 파일
+     * @param connectionCount 풀에 유지할 연결 수 (동시에 실행 가능한 쿼리 수)
+     */
+    public MBTilesArchive(File file, int connectionCount) {
+        this.file = file;
+        int count = Math.max(1, connectionCount);
+        this.connections = new ArrayBlockingQueue<>(count);
+        this.connectionCount = count;
+        for (int i = 0; i < count; i++) {
+            SQLiteDatabase db = SQLiteDatabase.openDatabase(file.getAbsolutePath(), null,
+                    SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS);
+            db.setMaxSqlCacheSize(SQLiteDatabase.MAX_SQL_CACHE_SIZE);
+            connections.add(db);
+        }
+        Log.d(TAG, "Opened " + count + " read-only connections: " + file.getAbsolutePath());
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * XYZ 좌표의 y 값을 MBTiles(TMS)의 tile_row 값으로 변환합니다.
+     *
+     * @see MBTilesSchema#flipY(int, int)
+     */
+    public static int flipY(int zoom, int y) {
+        return MBTilesSchema.flipY(zoom, y);
+    }
+
+    /**
+     * 타일 하나를 읽어옵니다.
+     *
+     * @param zoom 줌 레벨
+     * @param x 타일 x 좌표
+     * @param y 타일 y 좌표 (XYZ)
+     * @return 타일 바이트, 없으면 null
+     */
+    @Override
+    public byte[] getTile(int zoom, int x, int y) {
+        SQLiteDatabase db = acquire();
+        if (db == null) {
+            return null;
+        }
+        Cursor cursor = null;
+        long start = Telemetry.start();
+        try {
+            cursor = db.rawQuery(MBTilesSchema.SQL_SINGLE_TILE, new String[]{
+                    Integer.toString(zoom), Integer.toString(x), Integer.toString(flipY(zoom, y))});
+            return cursor.moveToFirst() ? cursor.getBlob(0) : null;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Error reading tile " + zoom + "/" + x + "/" + y, e);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            release(db);
+            Telemetry.stop(Telemetry.TILE_LOOKUP, start);
+        }
+    }
+
+    /**
+     * 사각형 타일 범위를 한 번의 쿼리로 읽어와 consumer에 전달합니다.
+     *
+     * @param zoom 줌 레벨
+     * @param minX 최소 x (포함)
+     * @param maxX 최대 x (포함)
+     * @param minY 최소 y (XYZ, 포함)
+     * @param maxY 최대 y (XYZ, 포함)
+     * @param consumer 결과를 받을 콜백
+     * @return 전달된 타일 수
+     */
+    @Override
+    public int getTiles(int zoom, int minX, int maxX, int minY, int maxY, TileConsumer consumer) {
+        SQLiteDatabase db = acquire();
+        if (db == null) {
+            return 0;
+        }
+        Cursor cursor = null;
+        int count = 0;
+        long start = Telemetry.start();
+        try {
+            // y축이 뒤집히므로 TMS 범위의 최소/최대가 서로 바뀝니다.
+            cursor = db.rawQuery(MBTilesSchema.SQL_TILE_RANGE, new String[]{
+                    Integer.toString(zoom),
+                    Integer.toString(minX), Integer.toString(maxX),
+                    Integer.toString(flipY(zoom, maxY)), Integer.toString(flipY(zoom, minY))});
+            while (cursor.moveToNext()) {
+                int x = cursor.getInt(0);
+                int y = flipY(zoom, cursor.getInt(1));
+                consumer.onTile(zoom, x, y, cursor.getBlob(2));
+                count++;
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Error reading tile range at zoom " + zoom, e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            release(db);
+            Telemetry.stop(Telemetry.TILE_LOOKUP, start);
+        }
+        return count;
+    }
+
+    /**
+     * metadata 테이블에서 값을 읽어옵니다.
+     *
+     * @param name 메타데이터 이름 (예: "minzoom", "format")
+     * @return 값, 없으면 null
+     */
+    @Override
+    public String getMetadata(String name) {
+        SQLiteDatabase db = acquire();
+        if (db == null) {
+            return null;
+        }
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(MBTilesSchema.SQL_METADATA, new String[]{name});
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Error reading metadata: " + name, e);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            release(db);
+        }
+    }
+
+    /**
+     * 풀에서 연결을 하나 꺼냅니다. 기다리는 사이에 {@link #close()}가 풀을 비우면 연결이 다시 돌아오지 않으므로,
+     * 무한정 기다리지 않고 일정 간격으로 닫혔는지 확인합니다.
+     *
+     * @return 연결, 닫혔거나 인터럽트되면 null
+     */
+    private SQLiteDatabase acquire() {
+        try {
+            while (!closed) {
+                SQLiteDatabase db = connections.poll(ACQUIRE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (db == null) {
+                    continue;
+                }
+                if (closed) {
+                    // 꺼내는 사이에 닫혔으면 돌려놓아 닫히게 합니다.
+                    release(db);
+                    return null;
+                }
+                return db;
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void release(SQLiteDatabase db) {
+        connections.offer(db);
+        if (closed) {
+            closeIdleConnections();
+        }
+    }
+
+    private void closeIdleConnections() {
+        SQLiteDatabase db;
+        while ((db = connections.poll()) != null) {
+            db.close();
+        }
+    }
+
+    /**
+     * 풀에 있는 모든 연결을 닫습니다.
+     * 사용 중인 연결은 반환되는 시점에 닫힙니다.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeIdleConnections();
+        Log.d(TAG, "Closed: " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,576 @@
+package com.example.test_navigation;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
+import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.modules.ConfigurablePriorityThreadFactory;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.MapTileIndex;
+import org.osmdroid.util.TileSystem;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MBTilesTileModule 클래스는 {@link TileArchive}({@link MBTilesArchive} 또는 {@link TilePackReader})에서
+ * 타일을 읽어오는 osmdroid 타일 모듈입니다.
+ * 기본 모듈처럼 타일마다 쿼리를 실행하지 않고, 대기 중인 같은 줌 레벨의 요청을 모아
+ * 한 번의 범위 쿼리로 가져옵니다. 뷰포트가 한꺼번에 요청하는 타일들이 하나의 배치가 됩니다.
+ * 디코딩된 비트맵은 {@link TileBitmapCache}에 보관되어 다시 요청될 때 디코딩 없이 제공됩니다.
+ *
+ * <p>아카이브의 metadata format이 {@code pbf}이면 벡터 타일 모드로 동작합니다. 타일 바이트를
+ * {@link MvtTileRasterizer}로 배치 스레드에서 그려 같은 캐시에 넣으며, 아카이브의 최대 줌보다 큰 줌은
+ * 상위 타일을 읽어 확대해 그립니다.</p>
+ *
+ * <p>래스터 아카이브에서는 최대 줌보다 큰 타일을 {@link OverzoomTileSynthesizer}가 상위 타일 비트맵을 확대해 만듭니다.</p>
+ *
+ * <p>대기 요청은 {@link TileRequestQueue}가 화면 중심에 가까운 순서로 내주며, {@link #setViewport}로 화면이 바뀌면
+ * 보이지 않게 된 요청은 읽기 전에 버립니다. 읽기(아카이브 연결 수만큼)와 디코딩(코어 수에 맞춘 수)은 서로 다른
+ * 스레드에서 실행되므로 디코딩하는 동안에도 다음 배치를 읽을 수 있고, 디코딩 직전에 타일이 아직 보이는지 다시 확인합니다.</p>
+ */
+public class MBTilesTileModule extends MapTileModuleProviderBase {
+    private static final String TAG = "MBTilesTileModule";
+
+    /** 한 번의 범위 쿼리로 처리할 최대 요청 수 */
+    private static final int MAX_BATCH_TILES = 64;
+    /** 범위 사각형 면적이 요청 수의 이 배수를 넘으면 개별 쿼리로 처리합니다. */
+    private static final int MAX_BATCH_AREA_RATIO = 4;
+    /** 미리 읽기에서 한 번에 조회할 최대 타일 수 */
+    private static final int PREFETCH_CHUNK_TILES = 12;
+    /** 확대 타일 디스크 캐시 디렉토리 (앱 캐시 디렉토리 아래) */
+    private static final String OVERZOOM_CACHE_DIR = "overzoom";
+    /** 확대 타일을 만드는 작업 스레드 수 */
+    private static final int OVERZOOM_THREADS = 2;
+    /** 디코딩 스레드 수의 상한 */
+    private static final int MAX_DECODE_THREADS = 4;
+    /** 보이는 영역 바깥으로 더 유지할 타일 수 */
+    private static final int VIEWPORT_MARGIN_TILES = 1;
+
+    private final TileArchive archive;
+    private final TileBitmapCache bitmapCache;
+    private final Resources resources;
+    private final AtomicReference<ITileSource> tileSource = new AtomicReference<>();
+    private final ExecutorService batchExecutor;
+    private final ExecutorService decodeExecutor;
+    private final TileRequestQueue<MapTileRequestState> queue;
+    private final Runnable batchRunner = this::runNextBatch;
+    private final ExecutorService prefetchExecutor;
+    private final AtomicInteger prefetchGeneration = new AtomicInteger();
+    private volatile CacheHitListener cacheHitListener;
+    private final boolean vectorFormat;
+    private final int sourceMaxZoom;
+    private final ThreadLocal<MvtTileRasterizer> rasterizers;
+    /** 래스터 아카이브에서 최대 줌보다 큰 타일을 만드는 객체 (벡터 모드에서는 null) */
+    private final OverzoomTileSynthesizer overzoom;
+
+    /**
+     * 타일 바이트를 하나씩 전달받는 콜백입니다.
+     */
+    private interface TileBytesConsumer {
+        void onTile(long tileIndex, byte[] data);
+    }
+
+    /**
+     * 미리 읽은 타일이 디코딩된 캐시에 들어갔을 때 호출되는 리스너입니다.
+     */
+    public interface PrefetchListener {
+        void onTilePrefetched(long tileIndex);
+    }
+
+    /**
+     * 화면 요청이 디코딩된 캐시에서 바로 처리되었을 때 호출되는 리스너입니다.
+     */
+    public interface CacheHitListener {
+        void onCacheHit(long tileIndex);
+    }
+
+    /**
+     * @param context 리소스 접근용 컨텍스트
+     * @param archive 타일을 읽어올 아카이브
+     * @param bitmapCache 디코딩된 타일 캐시
+     * @param pTileSource 줌 범위를 제공하는 타일 소스
+     */
+    public MBTilesTileModule(Context context, TileArchive archive, TileBitmapCache bitmapCache,
+                             ITileSource pTileSource) {
+        // 기본 실행기는 사용하지 않으므로 최소 크기로 생성합니다.
+        super(1, Configuration.getInstance().getTileFileSystemMaxQueueSize());
+        this.archive = archive;
+        this.bitmapCache = bitmapCache;
+        this.resources = context.getResources();
+        this.queue = new TileRequestQueue<>(Configuration.getInstance().getTileFileSystemMaxQueueSize());
+        this.batchExecutor = Executors.newFixedThreadPool(archive.getConnectionCount(),
+                new ConfigurablePriorityThreadFactory(Thread.NORM_PRIORITY, getThreadGroupName()));
+        // UI 스레드 몫으로 코어 하나를 남겨 둡니다.
+        int decodeThreads = Math.max(1, Math.min(MAX_DECODE_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+        this.decodeExecutor = Executors.newFixedThreadPool(decodeThreads,
+                new ConfigurablePriorityThreadFactory(Thread.NORM_PRIORITY, getThreadGroupName() + "-decode"));
+        Log.d(TAG, "Tile lanes: read=" + archive.getConnectionCount() + " decode=" + decodeThreads);
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(
+                new ConfigurablePriorityThreadFactory(Thread.MIN_PRIORITY, getThreadGroupName() + "-prefetch"));
+        setTileSource(pTileSource);
+
+        this.vectorFormat = MBTilesSchema.FORMAT_PBF.equals(archive.getMetadata(MBTilesSchema.METADATA_FORMAT));
+        this.sourceMaxZoom = parseZoom(archive.getMetadata(MBTilesSchema.METADATA_MAXZOOM),
+                pTileSource.getMaximumZoomLevel());
+        final int tileSize = pTileSource.getTileSizePixels();
+        this.rasterizers = ThreadLocal.withInitial(() -> new MvtTileRasterizer(bitmapCache, tileSize));
+        if (vectorFormat) {
+            Log.d(TAG, "Vector tile archive, source max zoom " + sourceMaxZoom);
+            this.overzoom = null;
+        } else {
+            this.overzoom = new OverzoomTileSynthesizer(bitmapCache, archive, sourceMaxZoom, tileSize,
+                    new File(context.getCacheDir(), OVERZOOM_CACHE_DIR), overzoomCacheKey(archive),
+                    OverzoomTileSynthesizer.DEFAULT_DISK_CACHE_BYTES, OVERZOOM_THREADS);
+        }
+    }
+
+    /**
+     * 확대 타일 디스크 캐시를 구분하는 키입니다. 아카이브 버전이 바뀌면(지도 델타 적용 등) 새 캐시를 씁니다.
+     */
+    private static String overzoomCacheKey(TileArchive archive) {
+        String version = archive.getMetadata(MBTilesSchema.METADATA_VERSION);
+        File file = archive.getFile();
+        String name = file != null ? file.getName() : "archive";
+        return name + "-" + (version != null ? version : String.valueOf(file != null ? file.lastModified() : 0));
+    }
+
+    private static int parseZoom(String value, int fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * 아카이브가 벡터 타일(MVT) 형식인지 반환합니다.
+     */
+    public boolean isVectorFormat() {
+        return vectorFormat;
+    }
+
+    /**
+     * 아카이브에 실제로 들어 있는 최대 줌 레벨입니다. 이보다 큰 줌은 벡터 모드에서는 확대해 그리고,
+     * 래스터 모드에서는 {@link OverzoomTileSynthesizer#MAX_OVERZOOM_LEVELS}단계까지 상위 타일을 확대해 만듭니다.
+     */
+    public int getSourceMaxZoom() {
+        return sourceMaxZoom;
+    }
+
+    @Override
+    protected String getName() {
+        return "MBTiles Archive Provider";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+        return "mbtiles";
+    }
+
+    @Override
+    public TileLoader getTileLoader() {
+        return new SingleTileLoader();
+    }
+
+    @Override
+    public boolean getUsesDataConnection() {
+        return false;
+    }
+
+    @Override
+    public int getMinimumZoomLevel() {
+        ITileSource source = tileSource.get();
+        return source != null ? source.getMinimumZoomLevel() : 0;
+    }
+
+    @Override
+    public int getMaximumZoomLevel() {
+        ITileSource source = tileSource.get();
+        return source != null ? source.getMaximumZoomLevel() : TileSystem.getMaximumZoomLevel();
+    }
+
+    @Override
+    public void setTileSource(ITileSource pTileSource) {
+        tileSource.set(pTileSource);
+    }
+
+    /**
+     * 요청을 배치 대기열에 넣고 배치 실행을 예약합니다.
+     * 보이지 않는 타일의 요청이나, 대기열이 가득 찼을 때 화면 중심에서 가장 먼 요청은 포기합니다.
+     */
+    @Override
+    public void loadMapTileAsync(MapTileRequestState pState) {
+        if (batchExecutor.isShutdown()) {
+            return;
+        }
+        if (!isVisible(pState)) {
+            Telemetry.increment(Telemetry.TILE_REQUESTS_CANCELLED);
+            pState.getCallback().mapTileRequestFailedExceedsMaxQueueSize(pState);
+            return;
+        }
+        long index = pState.getMapTile();
+        List<MapTileRequestState> dropped = new ArrayList<>(1);
+        queue.offer(index, MapTileIndex.getZoom(index), MapTileIndex.getX(index), MapTileIndex.getY(index),
+                pState, dropped);
+        Telemetry.gauge(Telemetry.TILE_QUEUE_DEPTH, Telemetry.TILE_QUEUE_PEAK, queue.size());
+        giveUp(dropped);
+        try {
+            batchExecutor.execute(batchRunner);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "RejectedExecutionException", e);
+        }
+    }
+
+    /**
+     * 화면에 필요해지기 전에 타일을 미리 읽어 디코딩된 캐시에 넣도록 예약합니다.
+     * 우선순위가 낮은 별도 스레드에서 실행되며, 새 요청이 들어오면 이전 요청의 남은 작업은 버려집니다.
+     * 타일은 줌 레벨별로 묶여 있고 가까운 타일부터 순서대로 들어 있어야 합니다.
+     *
+     * @param tileIndexes 미리 읽을 osmdroid 타일 인덱스 목록
+     * @param listener 타일이 캐시에 들어갈 때마다 호출될 리스너
+     */
+    public void prefetch(Collection<Long> tileIndexes, PrefetchListener listener) {
+        if (prefetchExecutor.isShutdown() || tileIndexes.isEmpty()) {
+            return;
+        }
+        final int generation = prefetchGeneration.incrementAndGet();
+        final List<Long> tiles = new ArrayList<>(tileIndexes);
+        try {
+            prefetchExecutor.execute(() -> runPrefetch(generation, tiles, listener));
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "RejectedExecutionException", e);
+        }
+    }
+
+    private void runPrefetch(int generation, List<Long> tiles, PrefetchListener listener) {
+        List<Long> chunk = new ArrayList<>(PREFETCH_CHUNK_TILES);
+        for (int i = 0; i < tiles.size(); i++) {
+            long index = tiles.get(i);
+            if (overzoom != null && overzoom.handles(index)) {
+                // 확대 타일은 상위 타일별로 모아 만드는 작업에 맡깁니다.
+                if (!bitmapCache.contains(index) && generation == prefetchGeneration.get()) {
+                    overzoom.request(index, (tileIndex, bitmap) -> {
+                        if (bitmap != null) {
+                            listener.onTilePrefetched(tileIndex);
+                        }
+                    });
+                }
+                continue;
+            }
+            if (!bitmapCache.contains(index)) {
+                chunk.add(index);
+            }
+            boolean last = i == tiles.size() - 1;
+            boolean zoomChanges = !last && MapTileIndex.getZoom(tiles.get(i + 1)) != MapTileIndex.getZoom(index);
+            if (chunk.isEmpty() || (chunk.size() < PREFETCH_CHUNK_TILES && !last && !zoomChanges)) {
+                continue;
+            }
+            if (generation != prefetchGeneration.get()) {
+                // 더 새로운 예측 경로가 들어왔으므로 남은 작업은 버립니다.
+                return;
+            }
+            readSourceTiles(chunk, (tileIndex, data) -> {
+                if (data != null && decodeAndCache(tileIndex, data) != null) {
+                    listener.onTilePrefetched(tileIndex);
+                }
+            });
+            chunk.clear();
+        }
+    }
+
+    /**
+     * 화면에 보이는 영역을 알립니다. 여백 밖으로 벗어난 대기 요청은 바로 포기하고,
+     * 남은 요청은 새 화면 중심에 가까운 순서로 처리합니다.
+     *
+     * @param box 화면에 보이는 영역
+     * @param zoomLevel 지도 줌 레벨
+     */
+    public void setViewport(BoundingBox box, double zoomLevel) {
+        int zoom = TileSystem.getInputTileZoomLevel(zoomLevel);
+        double west = TileMath.longitudeToTileX(box.getLonWest(), zoom);
+        double east = TileMath.longitudeToTileX(box.getLonEast(), zoom);
+        double north = TileMath.latitudeToTileY(box.getLatNorth(), zoom);
+        double south = TileMath.latitudeToTileY(box.getLatSouth(), zoom);
+        List<MapTileRequestState> dropped = new ArrayList<>();
+        queue.setViewport(zoom, (west + east) / 2, (north + south) / 2,
+                TileMath.clampTile((int) Math.floor(west) - VIEWPORT_MARGIN_TILES, zoom),
+                TileMath.clampTile((int) Math.floor(north) - VIEWPORT_MARGIN_TILES, zoom),
+                TileMath.clampTile((int) Math.floor(east) + VIEWPORT_MARGIN_TILES, zoom),
+                TileMath.clampTile((int) Math.floor(south) + VIEWPORT_MARGIN_TILES, zoom),
+                dropped);
+        for (int i = 0; i < dropped.size(); i++) {
+            Telemetry.increment(Telemetry.TILE_REQUESTS_CANCELLED);
+        }
+        Telemetry.gauge(Telemetry.TILE_QUEUE_DEPTH, Telemetry.TILE_QUEUE_PEAK, queue.size());
+        giveUp(dropped);
+    }
+
+    /**
+     * 포기한 요청을 osmdroid에 알립니다. 처리 중 목록에서 빠지므로 다시 보이면 새로 요청됩니다.
+     */
+    private static void giveUp(List<MapTileRequestState> requests) {
+        for (MapTileRequestState state : requests) {
+            state.getCallback().mapTileRequestFailedExceedsMaxQueueSize(state);
+        }
+    }
+
+    /**
+     * 꺼낸 요청의 타일이 아직 보이는 영역에 있는지 반환합니다.
+     */
+    private boolean isVisible(MapTileRequestState state) {
+        long index = state.getMapTile();
+        return queue.isVisible(MapTileIndex.getZoom(index), MapTileIndex.getX(index), MapTileIndex.getY(index));
+    }
+
+    public void setCacheHitListener(CacheHitListener listener) {
+        this.cacheHitListener = listener;
+    }
+
+    private void onCacheHit(long tileIndex) {
+        Telemetry.increment(Telemetry.TILE_CACHE_HITS);
+        CacheHitListener listener = cacheHitListener;
+        if (listener != null) {
+            listener.onCacheHit(tileIndex);
+        }
+    }
+
+    @Override
+    public void detach() {
+        prefetchExecutor.shutdownNow();
+        batchExecutor.shutdownNow();
+        decodeExecutor.shutdownNow();
+        if (overzoom != null) {
+            overzoom.shutdown();
+        }
+        queue.clear(new ArrayList<>());
+        super.detach();
+    }
+
+    /**
+     * 화면 중심에 가장 가까운 요청과 같은 줌 레벨의 대기 요청을 모아 한 배치로 처리합니다.
+     */
+    private void runNextBatch() {
+        List<MapTileRequestState> batch = new ArrayList<>();
+        if (queue.pollBatch(MAX_BATCH_TILES, batch) == 0) {
+            return;
+        }
+        Telemetry.gauge(Telemetry.TILE_QUEUE_DEPTH, Telemetry.TILE_QUEUE_PEAK, queue.size());
+        loadBatch(batch);
+    }
+
+    private void loadBatch(List<MapTileRequestState> requests) {
+        // 디코딩된 캐시에 있는 타일은 바로 전달하고 나머지만 아카이브에서 읽습니다.
+        final Map<Long, MapTileRequestState> misses = new LinkedHashMap<>();
+        for (MapTileRequestState state : requests) {
+            Bitmap cached = bitmapCache.get(state.getMapTile());
+            if (cached != null) {
+                onCacheHit(state.getMapTile());
+                deliver(state, cached);
+            } else {
+                Telemetry.increment(Telemetry.TILE_CACHE_MISSES);
+                misses.put(state.getMapTile(), state);
+            }
+        }
+        if (misses.isEmpty()) {
+            return;
+        }
+        if (overzoom != null && overzoom.handles(requests.get(0).getMapTile())) {
+            for (MapTileRequestState state : misses.values()) {
+                overzoom.request(state.getMapTile(), (tileIndex, bitmap) -> deliver(state, bitmap));
+            }
+            return;
+        }
+        readSourceTiles(new ArrayList<>(misses.keySet()),
+                (tileIndex, data) -> submitDecode(misses.get(tileIndex), data));
+    }
+
+    /**
+     * 읽은 타일 바이트의 디코딩을 디코딩 스레드에 맡겨 읽기 스레드가 바로 다음 배치로 넘어가게 합니다.
+     */
+    private void submitDecode(MapTileRequestState state, byte[] data) {
+        if (data == null) {
+            deliver(state, null);
+            return;
+        }
+        try {
+            decodeExecutor.execute(() -> decodeAndDeliver(state, data));
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "RejectedExecutionException", e);
+            state.getCallback().mapTileRequestFailed(state);
+        }
+    }
+
+    /**
+     * 벡터 모드에서 아카이브 최대 줌보다 큰 타일을 요청하면 상위 타일을 한 번씩만 읽어
+     * 그 아래의 요청 타일마다 상위 타일 바이트를 전달합니다. 그 밖에는 {@link #readTiles}와 같습니다.
+     *
+     * @param tileIndexes 같은 줌 레벨의 osmdroid 타일 인덱스 목록
+     * @param consumer 요청 타일별로 결과를 받을 콜백
+     */
+    private void readSourceTiles(List<Long> tileIndexes, TileBytesConsumer consumer) {
+        int zoom = MapTileIndex.getZoom(tileIndexes.get(0));
+        if (!vectorFormat || zoom <= sourceMaxZoom) {
+            readTiles(tileIndexes, consumer);
+            return;
+        }
+        final Map<Long, List<Long>> children = new LinkedHashMap<>();
+        for (long index : tileIndexes) {
+            long parent = sourceTileIndex(index);
+            List<Long> list = children.get(parent);
+            if (list == null) {
+                list = new ArrayList<>(4);
+                children.put(parent, list);
+            }
+            list.add(index);
+        }
+        readTiles(new ArrayList<>(children.keySet()), (parent, data) -> {
+            for (long child : children.get(parent)) {
+                consumer.onTile(child, data);
+            }
+        });
+    }
+
+    /**
+     * 요청 타일을 그릴 때 읽어야 하는 아카이브 타일의 인덱스를 반환합니다.
+     */
+    private long sourceTileIndex(long tileIndex) {
+        int zoom = MapTileIndex.getZoom(tileIndex);
+        if (!vectorFormat || zoom <= sourceMaxZoom) {
+            return tileIndex;
+        }
+        int shift = zoom - sourceMaxZoom;
+        return MapTileIndex.getTileIndex(sourceMaxZoom,
+                MapTileIndex.getX(tileIndex) >> shift, MapTileIndex.getY(tileIndex) >> shift);
+    }
+
+    /**
+     * 같은 줌 레벨의 타일들을 읽어 각 타일마다 consumer를 호출합니다.
+     * 타일들이 밀집해 있으면 한 번의 범위 쿼리로, 흩어져 있으면 개별 쿼리로 읽습니다.
+     * 아카이브에 없는 타일은 data가 null로 전달됩니다.
+     *
+     * @param tileIndexes 같은 줌 레벨의 osmdroid 타일 인덱스 목록
+     * @param consumer 결과를 받을 콜백
+     */
+    private void readTiles(List<Long> tileIndexes, TileBytesConsumer consumer) {
+        int zoom = MapTileIndex.getZoom(tileIndexes.get(0));
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (long index : tileIndexes) {
+            int x = MapTileIndex.getX(index);
+            int y = MapTileIndex.getY(index);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        long area = (long) (maxX - minX + 1) * (maxY - minY + 1);
+
+        if (tileIndexes.size() > 1 && area <= (long) tileIndexes.size() * MAX_BATCH_AREA_RATIO) {
+            final Map<Long, byte[]> found = new HashMap<>();
+            archive.getTiles(zoom, minX, maxX, minY, maxY,
+                    (z, x, y, data) -> found.put(MapTileIndex.getTileIndex(z, x, y), data));
+            for (long index : tileIndexes) {
+                consumer.onTile(index, found.get(index));
+            }
+        } else {
+            for (long index : tileIndexes) {
+                consumer.onTile(index, archive.getTile(zoom, MapTileIndex.getX(index), MapTileIndex.getY(index)));
+            }
+        }
+    }
+
+    private void decodeAndDeliver(MapTileRequestState state, byte[] data) {
+        if (!isVisible(state)) {
+            // 읽는 동안 화면을 벗어났으므로 디코딩하지 않습니다.
+            Telemetry.increment(Telemetry.TILE_WASTED_READS);
+            state.getCallback().mapTileRequestFailedExceedsMaxQueueSize(state);
+            return;
+        }
+        Bitmap bitmap = decodeAndCache(state.getMapTile(), data);
+        if (bitmap != null && !isVisible(state)) {
+            // 캐시에는 남으므로 다시 보이면 디코딩 없이 쓰입니다.
+            Telemetry.increment(Telemetry.TILE_WASTED_DECODES);
+        }
+        deliver(state, bitmap);
+    }
+
+    private void deliver(MapTileRequestState state, Bitmap bitmap) {
+        if (bitmap == null) {
+            state.getCallback().mapTileRequestFailed(state);
+            return;
+        }
+        state.getCallback().mapTileRequestCompleted(state, toDrawable(state.getMapTile(), bitmap));
+    }
+
+    private Bitmap decodeAndCache(long tileIndex, byte[] data) {
+        Bitmap bitmap = null;
+        if (data != null) {
+            bitmap = vectorFormat
+                    ? rasterizers.get().render(tileIndex, Math.min(MapTileIndex.getZoom(tileIndex), sourceMaxZoom), data)
+                    : bitmapCache.decode(data);
+        }
+        if (bitmap != null) {
+            bitmapCache.put(tileIndex, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * osmdroid에 넘길 Drawable을 만들고, 비트맵이 화면에서 쓰이고 있음을 캐시에 알립니다.
+     */
+    private Drawable toDrawable(long tileIndex, Bitmap bitmap) {
+        if (StartupTrace.markFirstTile()) {
+            Log.i(TAG, StartupTrace.report());
+        }
+        bitmapCache.markDisplayed(tileIndex);
+        Drawable drawable = new BitmapDrawable(resources, bitmap);
+        ExpirableBitmapDrawable.setState(drawable, ExpirableBitmapDrawable.UP_TO_DATE);
+        return drawable;
+    }
+
+    /**
+     * 기본 실행 경로로 들어온 요청을 한 타일씩 처리하는 로더입니다.
+     */
+    private class SingleTileLoader extends TileLoader {
+        @Override
+        public Drawable loadTile(long pMapTileIndex) {
+            Bitmap bitmap = bitmapCache.get(pMapTileIndex);
+            if (bitmap != null) {
+                onCacheHit(pMapTileIndex);
+            } else {
+                Telemetry.increment(Telemetry.TILE_CACHE_MISSES);
+                if (overzoom != null && overzoom.handles(pMapTileIndex)) {
+                    bitmap = overzoom.load(pMapTileIndex);
+                    return bitmap != null ? toDrawable(pMapTileIndex, bitmap) : null;
+                }
+                long source = sourceTileIndex(pMapTileIndex);
+                byte[] data = archive.getTile(MapTileIndex.getZoom(source),
+                        MapTileIndex.getX(source), MapTileIndex.getY(source));
+                bitmap = decodeAndCache(pMapTileIndex, data);
+            }
+            return bitmap != null ? toDrawable(pMapTileIndex, bitmap) : null;
+        }
+    }
+}
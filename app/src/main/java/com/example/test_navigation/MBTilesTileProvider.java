@@ -0,0 +1,83 @@
+package com.example.test_navigation;
+
+import android.content.Context;
+
+import org.osmdroid.tileprovider.IRegisterReceiver;
+import org.osmdroid.tileprovider.MapTileProviderArray;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+import java.io.File;
+
+/**
+ * MBTilesTileProvider 클래스는 타일 아카이브 하나를 {@link MBTilesTileModule}로 제공하는 타일 프로바이더입니다.
+ * 아카이브는 MBTiles 파일({@link MBTilesArchive}) 또는 타일 팩({@link TilePackReader})입니다.
+ * {@link org.osmdroid.views.MapView#setTileProvider}에 그대로 전달할 수 있으며,
+ * osmdroid의 OfflineTileProvider를 대체합니다.
+ * 디코딩된 타일은 바이트 예산 기반의 {@link TileBitmapCache}에 보관됩니다.
+ */
+public class MBTilesTileProvider extends MapTileProviderArray {
+
+    private final TileArchive archive;
+    private final TileBitmapCache bitmapCache;
+    private final MBTilesTileModule module;
+
+    /**
+     * @param context 컨텍스트
+     * @param registerReceiver osmdroid 브로드캐스트 수신기
+     * @param mbtilesFile MBTiles 파일
+     * @param tileSource 줌 범위와 타일 크기를 정의하는 타일 소스
+     */
+    public MBTilesTileProvider(Context context, IRegisterReceiver registerReceiver,
+                               File mbtilesFile, ITileSource tileSource) {
+        this(context, registerReceiver, new MBTilesArchive(mbtilesFile, getDefaultConnectionCount()), tileSource);
+    }
+
+    /**
+     * @param context 컨텍스트
+     * @param registerReceiver osmdroid 브로드캐스트 수신기
+     * @param archive 타일 아카이브 (프로바이더가 detach될 때 닫힙니다)
+     * @param tileSource 줌 범위와 타일 크기를 정의하는 타일 소스
+     */
+    public MBTilesTileProvider(Context context, IRegisterReceiver registerReceiver,
+                               TileArchive archive, ITileSource tileSource) {
+        super(tileSource, registerReceiver);
+        this.archive = archive;
+        bitmapCache = new TileBitmapCache(TileBitmapCache.getDefaultMaxBytes());
+        module = new MBTilesTileModule(context, archive, bitmapCache, tileSource);
+        mTileProviderList.add(module);
+
+        // osmdroid 메모리 캐시에서 빠진 타일만 비트맵 풀로 재사용할 수 있습니다.
+        getTileCache().setTileRemovedListener(bitmapCache::onTileRemoved);
+    }
+
+    /**
+     * 코어 수에 맞춰 2~4개 사이의 연결 수를 정합니다.
+     */
+    public static int getDefaultConnectionCount() {
+        return Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public TileArchive getArchive() {
+        return archive;
+    }
+
+    public TileBitmapCache getBitmapCache() {
+        return bitmapCache;
+    }
+
+    public MBTilesTileModule getModule() {
+        return module;
+    }
+
+    @Override
+    protected boolean isDowngradedMode(long pMapTileIndex) {
+        // 오프라인 전용이므로 캐시에 남아 있는 타일은 만료 여부와 관계없이 사용합니다.
+        return true;
+    }
+
+    @Override
+    public void detach() {
+        super.detach();
+        archive.close();
+    }
+}
@@ -1,35 +1,49 @@
 package com.example.test_navigation;
 
+import android.content.pm.ApplicationInfo;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 import org.osmdroid.api.IMapController;
 import org.osmdroid.config.Configuration;
+import org.osmdroid.events.MapEventsReceiver;
 import org.osmdroid.events.MapListener;
 import org.osmdroid.events.ScrollEvent;
 import org.osmdroid.events.ZoomEvent;
 import org.osmdroid.tileprovider.IRegisterReceiver;
-import org.osmdroid.tileprovider.modules.OfflineTileProvider;
 import org.osmdroid.tileprovider.tilesource.XYTileSource;
 import org.osmdroid.tileprovider.util.SimpleRegisterReceiver;
 import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.TileSystem;
 import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.MapEventsOverlay;
 import org.osmdroid.views.overlay.Marker;
-import org.osmdroid.views.overlay.Polyline;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static android.content.ContentValues.TAG;
 
@@ -43,15 +57,80 @@ public class MainActivity extends AppCompatActivity {
     private ImageButton btnHvLocation;
     private ImageButton btnRotateToggle;
     private boolean isMapRotationEnabled = false;
+    /** true면 지도를 다시 그리지 않고 뷰 변환으로 돌리는 가벼운 회전 모드를 씁니다. */
+    private boolean useCachedRotation = true;
+    private RotatedMapLayer rotationLayer;
+    private final HeadingFilter headingFilter = new HeadingFilter();
     private float heading = 90f;
-    private GeoPoint currentLocation;
+    /** 현재 사용자 위치. 위치가 바뀔 때마다 새로 만들지 않고 좌표만 갱신합니다. */
+    private final GeoPoint currentLocation = new GeoPoint(0.0, 0.0);
+    /** 무작위 위치 계산 결과를 담는 재사용 좌표 */
+    private final GeoPoint randomPoint = new GeoPoint(0.0, 0.0);
+    private final double[] randomCoords = new double[2];
+    /** 축척 계산용 지도 중심 좌표 (재사용) */
+    private final GeoPoint mapCenter = new GeoPoint(0.0, 0.0);
     private Marker locationMarker;
     private static final Double ZOOM_DEFAULT = 14.0;
-    private Polyline pathPolyline;
-    private List<GeoPoint> pathPoints;
+    private PathStore pathStore;
+    private PathOverlay pathOverlay;
     private ImageButton btnClearPath;
-
-    private Marker frontRvMarker;
+    /** 경로를 지울 때마다 늘어나는 세대. 지우기 전에 시작된 주행 기록 복원 결과는 버립니다. */
+    private int pathGeneration;
+
+    // 주행 기록 (경로를 앱이 강제 종료되어도 남도록 파일에 이어 씁니다)
+    private static final String TRIP_LOG_FILENAME = "trip.log";
+    /** 레코드가 이보다 많으면 다시 불러온 뒤 오래된 구간을 솎습니다. */
+    private static final int TRIP_LOG_COMPACT_THRESHOLD = PathStore.DEFAULT_MAX_CAPACITY;
+    /** 압축할 때 그대로 남기는 최근 구간 (밀리초) */
+    private static final long TRIP_LOG_KEEP_FULL_MILLIS = 60 * 60 * 1000L;
+    /** 압축할 때 오래된 구간에 남기는 점 사이의 최소 간격 (미터) */
+    private static final double TRIP_LOG_COMPACT_SPACING_METERS = 20;
+    /** UI 스레드에서 주행 기록 스레드로 넘기기 전에 쌓아 둘 수 있는 점 수 */
+    private static final int TRIP_LOG_QUEUE_CAPACITY = 1024;
+    /**
+     * 주행 기록의 열기, 추가, fsync, 압축을 순서대로 처리하는 스레드입니다.
+     * 액티비티가 다시 만들어져도 같은 파일을 두 번 열지 않도록 프로세스에 하나만 둡니다.
+     * 위치마다 작업을 맡겨도 큐 노드를 할당하지 않도록 Handler(메시지 풀)로 실행합니다.
+     */
+    private static final Handler TRIP_LOG_HANDLER = startHandlerThread("TripLog");
+    private static final Executor TRIP_LOG_EXECUTOR = TRIP_LOG_HANDLER::post;
+    /** UI 스레드가 위치마다 채우고 TRIP_LOG_EXECUTOR 스레드가 비우는 주행 기록 대기열 */
+    private static final TripLogQueue TRIP_LOG_QUEUE = new TripLogQueue(TRIP_LOG_QUEUE_CAPACITY);
+    /** 대기열을 비우는 작업. 위치마다 새로 만들지 않고 이 하나를 다시 맡깁니다. */
+    private static final Runnable TRIP_LOG_DRAIN = MainActivity::drainTripLogQueue;
+    /** TRIP_LOG_EXECUTOR 스레드에서만 사용합니다. */
+    private static TripLog tripLog;
+
+    /** 경로 탐색용 도로 그래프 파일 (maps 디렉토리, {@link OsmRoadGraphConverter}로 생성) */
+    private static final String ROAD_GRAPH_FILENAME = "south-korea" + RoadGraph.FILE_EXTENSION;
+    /** 경로 탐색, 경로 이탈 확인, 지도 맞춤은 이 스레드 하나에서만 실행합니다. */
+    private static final ExecutorService ROUTING_EXECUTOR = Executors.newSingleThreadExecutor();
+    /** ROUTING_EXECUTOR 스레드에서만 사용합니다. */
+    private static RoadGraphReader roadGraph;
+    /** ROUTING_EXECUTOR 스레드에서만 사용합니다. */
+    private static RouteTracker routeTracker;
+    /** 위치를 도로 위에 맞춰 경로에 넣습니다. ROUTING_EXECUTOR 스레드에서만 사용합니다. */
+    private MapMatcher mapMatcher;
+    /** 지도 맞춤에 넣은 위치의 경로 세대. ROUTING_EXECUTOR 스레드에서만 사용합니다. */
+    private int matchGeneration;
+    /** 지도 맞춤을 쓸 수 있으면 true (UI 스레드에서만 바꿉니다) */
+    private boolean mapMatcherReady;
+    private PathStore routeStore;
+    private PathOverlay routeOverlay;
+    /** 안내 중인 경로가 있으면 true (UI 스레드에서만 바꿉니다) */
+    private boolean routeActive;
+    /** 경로를 새로 정하거나 지울 때마다 증가시켜 늦게 도착한 탐색 결과를 버립니다. */
+    private int routeGeneration;
+
+    private RemoteVehicleOverlay rvOverlay;
+    /** 시험용 전방 차량의 ID (수신 차량과 겹치지 않도록 음수) */
+    private static final int TEST_FRONT_RV_ID = -1;
+    /** 시험용 전방 차량을 놓는 거리 (미터) */
+    private static final float TEST_FRONT_RV_DISTANCE_METERS = 30f;
+    /** 원격 차량 메시지를 받는 UDP 포트 */
+    private static final int RV_UDP_PORT = 47000;
+    private RemoteVehicleStore vehicleStore;
+    private RemoteVehicleReceiver vehicleReceiver;
 
     // 삭제 예정
     // 조이스틱 버튼 추가
@@ -62,14 +141,48 @@ public class MainActivity extends AppCompatActivity {
     private static final double LONGITUDE_DELTA = 10.0 / 88000.0;  // 경도 2m
 
     private Button btnAddMarkers, btnClearMarkers;
-    private List<Marker> randomMarkers = new ArrayList<>();
     private static final double MARKER_RADIUS = 100; // 마커 생성 반경 (미터)
     private Random random = new Random();
     private Button btnAddFrontRv;
     private TextView tvScaleBar;
+    private final ScaleBarLabels scaleBarLabels = new ScaleBarLabels();
+    private String shownScaleText;
     private View scaleBarLine;
 
-    private static final String MBTILES_FILENAME = "south-korea-latest-non-military.mbtiles";
+    /**
+     * 메모리 매핑 타일 팩 이름입니다. 같은 이름의 에셋은 빌드할 때 app/src/map의 MBTiles에서 만들어지며,
+     * maps 디렉토리에 이 파일이 있으면 에셋 대신 사용합니다.
+     */
+    static final String TILE_PACK_FILENAME = "south-korea-latest-non-military" + TilePack.FILE_EXTENSION;
+    /** 지도 델타로 바뀐 타일만 담는 패치 파일 (maps 디렉토리, 첫 델타를 적용할 때 만듭니다) */
+    private static final String MAP_PATCH_FILENAME = "south-korea-latest-non-military.patch.mbtiles";
+    /** maps/shards 디렉토리에 이 색인이 있으면 지역별 샤드 아카이브를 필요할 때만 열어 사용합니다. */
+    private static final String SHARD_DIR = "maps/shards";
+    private static final String SHARD_INDEX_FILENAME = "shards.index";
+    /** 동시에 열어 둘 최대 샤드 수 */
+    private static final int MAX_OPEN_SHARDS = 4;
+    /** 샤드 하나에 여는 MBTiles 연결 수 */
+    private static final int SHARD_CONNECTIONS = 2;
+    /** 벡터 타일 아카이브를 사용할 때의 최대 줌 레벨 */
+    private static final int VECTOR_MAX_ZOOM = 20;
+    /** 래스터 아카이브를 사용할 때 상위 타일을 확대해 제공하는 최대 줌 레벨 */
+    private static final int RASTER_OVERZOOM_MAX_ZOOM = 18;
+    private MBTilesTileProvider tileProvider;
+    /** 낮/밤 색을 바꿔 그리는 타일 오버레이 (오프라인 지도를 설정한 뒤에 만듭니다) */
+    private NightTilesOverlay tilesOverlay;
+    private TilePrefetcher tilePrefetcher;
+    private FrameUpdateScheduler frameScheduler;
+
+    // 기록 재생 (위치 버튼을 길게 누르면 1배속 → 10배속 → 최대 속도 → 정지 순으로 바뀝니다)
+    private static final String TRACE_DIR = "traces";
+    private static final double[] REPLAY_SPEEDS = {TraceReplayer.SPEED_REALTIME, 10.0, TraceReplayer.SPEED_MAX};
+    /** 한 번의 재생 틱에서 전달하는 최대 이벤트 수 (최대 속도에서도 화면이 멈추지 않도록) */
+    private static final int REPLAY_EVENTS_PER_TICK = 256;
+    private final Handler replayHandler = new Handler(Looper.getMainLooper());
+    private final Runnable replayTick = this::stepTraceReplay;
+    private TraceReplayer traceReplayer;
+    private int replaySpeedIndex = -1;
+    private boolean replayVehiclesPending;
 
     /**
      * 액티비티가 생성될 때 호출되는 메서드입니다.
@@ -80,17 +193,29 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.begin();
         Configuration.getInstance().load(this, getPreferences(MODE_PRIVATE));
         setContentView(R.layout.activity_main);
 
+        // 디버그 빌드에서만 성능 계측을 켭니다.
+        Telemetry.setEnabled((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+
         initializeMap();
+        StartupTrace.mark(StartupTrace.MAP_READY);
+        initializeFrameScheduler();
         initializeButtons();
         initializeScaleBar();
+        loadTripLog();
+        initializeMapMatcher();
         setInitialLocation();
-        initializePathTracking();
 
-        // mbtiles 파일 복사 작업 시작
-        new CopyMBTilesTask().execute(MBTILES_FILENAME);
+        // APK 안의 타일 팩을 복사 없이 열어 첫 프레임부터 지도를 그립니다.
+        // 대기 중인 지도 델타가 있으면 지도를 열기 전에 백그라운드에서 패치 파일에 적용합니다.
+        if (MapUtils.hasPendingUpdates(this)) {
+            new ApplyMapUpdatesTask().execute();
+        } else {
+            initializeOfflineMap();
+        }
 
     }
 
@@ -101,9 +226,7 @@ public class MainActivity extends AppCompatActivity {
      */
     private void initializeMap() {
         map = findViewById(R.id.map);
-
-        // MBTiles 파일 경로 설정
-        File mbtilesFile = new File(getFilesDir(), MBTILES_FILENAME);
+        rotationLayer = findViewById(R.id.map_rotation_layer);
 
         // XYTileSource 생성
         XYTileSource tileSource = new XYTileSource("mbtiles", 16, 20, 256, ".png", new String[]{});
@@ -126,12 +249,38 @@ public class MainActivity extends AppCompatActivity {
         IMapController mapController = map.getController();
         mapController.setZoom(ZOOM_DEFAULT);
 
+        // 길게 눌러 목적지를 정합니다.
+        map.getOverlays().add(new MapEventsOverlay(new MapEventsReceiver() {
+            @Override
+            public boolean singleTapConfirmedHelper(GeoPoint p) {
+                return false;
+            }
+
+            @Override
+            public boolean longPressHelper(GeoPoint p) {
+                startRoute(p.getLatitude(), p.getLongitude());
+                return true;
+            }
+        }));
+
+        // 안내 경로는 지나온 경로 아래에 그립니다.
+        routeStore = new PathStore();
+        routeOverlay = new PathOverlay(routeStore);
+        routeOverlay.setColor(Color.rgb(0, 170, 90));
+        routeOverlay.setWidth(9f);
+        map.getOverlays().add(routeOverlay);
+
         // 경로를 먼저 추가
-        pathPolyline = new Polyline();
-        pathPolyline.setColor(Color.BLUE);
-        pathPolyline.setWidth(5f);
-        pathPolyline.setGeodesic(true);
-        map.getOverlays().add(pathPolyline);
+        pathStore = new PathStore();
+        pathOverlay = new PathOverlay(pathStore);
+        pathOverlay.setColor(Color.BLUE);
+        pathOverlay.setWidth(5f);
+        map.getOverlays().add(pathOverlay);
+
+        rvOverlay = new RemoteVehicleOverlay(this);
+        vehicleStore = new RemoteVehicleStore();
+        rvOverlay.setVehicleStore(vehicleStore);
+        map.getOverlays().add(rvOverlay);
 
         locationMarker = new Marker(map);
         Drawable userIcon = ContextCompat.getDrawable(this, R.drawable.icon_hv_marker);
@@ -143,17 +292,70 @@ public class MainActivity extends AppCompatActivity {
         map.addMapListener(new MapListener() {
             @Override
             public boolean onScroll(ScrollEvent event) {
+                if (rotationLayer.isActive()) {
+                    rotationLayer.invalidate();
+                }
+                updateTileViewport();
                 return false;
             }
 
             @Override
             public boolean onZoom(ZoomEvent event) {
+                // 줌이 바뀌면 버퍼를 새 줌으로 다시 그리고 위치를 가운데로 맞춥니다.
+                if (rotationLayer.isActive()) {
+                    rotationLayer.setCenter(currentLocation, true);
+                }
                 updateScaleBar();
+                if (tilePrefetcher != null) {
+                    tilePrefetcher.setZoom(TileSystem.getInputTileZoomLevel(map.getZoomLevelDouble()));
+                }
+                updateTileViewport();
                 return false;
             }
         });
     }
 
+    /**
+     * 타일 모듈에 현재 보이는 영역을 알려 화면 중심 타일부터 읽고 벗어난 타일 요청은 버리게 하는 메서드입니다.
+     */
+    private void updateTileViewport() {
+        if (tileProvider != null) {
+            tileProvider.getModule().setViewport(map.getProjection().getBoundingBox(), map.getZoomLevelDouble());
+        }
+    }
+
+    /**
+     * 위치, 헤딩, 오버레이 변경을 프레임마다 한 번씩 반영하는 스케줄러를 초기화하는 메서드입니다.
+     */
+    private void initializeFrameScheduler() {
+        frameScheduler = new FrameUpdateScheduler(new FrameUpdateScheduler.Target() {
+            @Override
+            public void applyLocation(double latitude, double longitude) {
+                updateMapLocation();
+            }
+
+            @Override
+            public void applyHeading(float newHeading) {
+                updateMapRotation(newHeading);
+            }
+
+            @Override
+            public void applyFrame(boolean overlaysChanged) {
+                // 가벼운 회전 모드에서는 오버레이 층만 다시 그리고 지도 버퍼는 그대로 둡니다.
+                if (rotationLayer.isActive()) {
+                    rotationLayer.invalidate();
+                } else {
+                    map.invalidate();
+                }
+                // 추측 항법으로 움직이는 원격 차량이 있는 동안만 다음 프레임도 다시 그립니다.
+                // 만료된 차량은 게시가 멈춰도 읽을 때 걸러지므로 이 반복은 마지막 메시지 뒤 만료 시간 안에 멈춥니다.
+                if (vehicleStore.hasMovingVehicles(RemoteVehicleStore.now())) {
+                    frameScheduler.postOverlayChange();
+                }
+            }
+        });
+    }
+
     /**
      * 사용자 인터페이스 버튼들을 초기화하고 이벤트 리스너를 설정하는 메서드입니다.
      */
@@ -162,7 +364,15 @@ public class MainActivity extends AppCompatActivity {
         btnRotateToggle = findViewById(R.id.map_compass_button);
 
         btnHvLocation.setOnClickListener(v -> moveHvLocation());
+        btnHvLocation.setOnLongClickListener(v -> {
+            cycleTraceReplay();
+            return true;
+        });
         btnRotateToggle.setOnClickListener(v -> toggleMapRotation());
+        btnRotateToggle.setOnLongClickListener(v -> {
+            toggleRotationMode();
+            return true;
+        });
 
         // 조이스틱 버튼 초기화 -> 삭제 예정
         btnUp = findViewById(R.id.btnUp);
@@ -185,35 +395,41 @@ public class MainActivity extends AppCompatActivity {
 
         btnClearPath = findViewById(R.id.map_clear_path_button);
         btnClearPath.setOnClickListener(v -> clearPath());
+        btnClearPath.setOnLongClickListener(v -> {
+            clearRoute();
+            return true;
+        });
 
         btnAddFrontRv = findViewById(R.id.btnAddFrontRv);
         btnAddFrontRv.setOnClickListener(v -> addFrontRv());
     }
 
-    /**
-     * 경로 추적을 위한 데이터 구조를 초기화하는 메서드입니다.
-     */
-    private void initializePathTracking() {
-        pathPoints = new ArrayList<>();
-    }
-
     /**
      * 초기 사용자 위치를 설정하는 메서드입니다.
      */
     private void setInitialLocation() {
         // 초기 위치 설정
-        currentLocation = new GeoPoint(37.392231, 126.958882);
+        currentLocation.setCoords(37.392231, 126.958882);
+        locationMarker.setPosition(currentLocation);
         updateMapLocation();
     }
 
     /**
-     * 지도 위치를 업데이트하고 사용자 위치 마커를 이동시키는 메서드입니��.
+     * 지도 위치를 업데이트하고 사용자 위치 마커를 이동시키는 메서드입니다.
+     * Marker.setPosition은 좌표를 복사해 새 객체를 만들므로, 마커가 가진 좌표를 직접 갱신합니다.
      */
     private void updateMapLocation() {
         IMapController mapController = map.getController();
 
-        locationMarker.setPosition(currentLocation);
-        mapController.animateTo(currentLocation);
+        double latitude = currentLocation.getLatitude();
+        double longitude = currentLocation.getLongitude();
+        locationMarker.getPosition().setCoords(latitude, longitude);
+        locationMarker.getBounds().set(latitude, longitude, latitude, longitude);
+        if (rotationLayer.isActive()) {
+            rotationLayer.setCenter(currentLocation, false);
+        } else {
+            mapController.animateTo(currentLocation);
+        }
         updateScaleBar();
     }
 
@@ -238,11 +454,25 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * 가벼운 회전 모드와 osmdroid 회전 모드를 전환하는 메서드입니다. 회전 중이면 새 모드로 바로 다시 시작합니다.
+     */
+    private void toggleRotationMode() {
+        if (isMapRotationEnabled) {
+            stopMapRotation();
+        }
+        useCachedRotation = !useCachedRotation;
+        if (isMapRotationEnabled) {
+            startMapRotation();
+        }
+        Toast.makeText(this, useCachedRotation ? "가벼운 회전 모드" : "전체 다시 그리기 회전 모드", Toast.LENGTH_SHORT).show();
+    }
+
     /**
      * 지도 회전 기능을 활성화하는 메서드입니다.
      */
     private void enableMapRotation() {
-        updateMapRotation();
+        startMapRotation();
         Toast.makeText(this, "지도 회전이 활성화되었습니다.", Toast.LENGTH_SHORT).show();
     }
 
@@ -250,19 +480,43 @@ public class MainActivity extends AppCompatActivity {
      * 지도 회전 기능을 비활성화하는 메서드입니다.
      */
     private void disableMapRotation() {
+        stopMapRotation();
+        Toast.makeText(this, "지도가 정북으로 고정되었습니다.", Toast.LENGTH_SHORT).show();
+    }
+
+    private void startMapRotation() {
+        headingFilter.reset();
+        headingFilter.update(heading, SystemClock.elapsedRealtime());
+        if (useCachedRotation) {
+            // 매 프레임 바뀌는 오버레이는 오버레이 층으로 옮기고 지도에는 타일만 남깁니다.
+            rotationLayer.activate(map, Arrays.asList(pathOverlay, rvOverlay, locationMarker));
+            rotationLayer.setCenter(currentLocation, true);
+        }
+        updateMapRotation(headingFilter.getHeading());
+    }
+
+    private void stopMapRotation() {
+        rotationLayer.deactivate();
         map.setMapOrientation(0);
         btnRotateToggle.setRotation(0);
-        Toast.makeText(this, "지도가 정북으로 고정되었습니다.", Toast.LENGTH_SHORT).show();
     }
 
     /**
      * 지도의 회전을 업데이트하는 메서드입니다.
+     * 가벼운 회전 모드에서는 뷰 회전만 바꾸고, 아니면 osmdroid가 지도 전체를 다시 그립니다.
+     *
+     * @param mapHeading 걸러진 헤딩 (도)
      */
-    private void updateMapRotation() {
-        if (isMapRotationEnabled) {
-            map.setMapOrientation(heading);
-            btnRotateToggle.setRotation(heading);
+    private void updateMapRotation(float mapHeading) {
+        if (!isMapRotationEnabled) {
+            return;
+        }
+        if (rotationLayer.isActive()) {
+            rotationLayer.setHeading(mapHeading, currentLocation);
+        } else {
+            map.setMapOrientation(mapHeading);
         }
+        btnRotateToggle.setRotation(mapHeading);
     }
 
     /**
@@ -272,21 +526,39 @@ public class MainActivity extends AppCompatActivity {
      */
     public void setHeading(float newHeading) {
         heading = newHeading;
-        if (isMapRotationEnabled) {
-            updateMapRotation();
+        vehicleStore.setHost(currentLocation.getLatitude(), currentLocation.getLongitude(), newHeading);
+        if (tilePrefetcher != null) {
+            tilePrefetcher.setHeading(newHeading);
+        }
+        // 나침반 잡음과 과도한 갱신을 걸러 바뀐 헤딩만 다음 프레임에 반영합니다.
+        if (isMapRotationEnabled && headingFilter.update(newHeading, SystemClock.elapsedRealtime())) {
+            frameScheduler.postHeading(headingFilter.getHeading());
         }
     }
 
     /**
      * 사용자의 위치를 설정하고 지도를 업데이트하는 메서드입니다.
+     * 경로와 미리 읽기에는 즉시 반영하고, 마커 이동과 지도 이동은 다음 프레임에 최신 위치로 한 번만 적용합니다.
+     * 도로 그래프가 있으면 경로에는 도로 위에 맞춘 위치가 몇 위치 늦게 들어갑니다.
      *
      * @param latitude 새로운 위도
      * @param longitude 새로운 경도
      */
     public void setUserLocation(double latitude, double longitude) {
-        currentLocation = new GeoPoint(latitude, longitude);
-        updateMapLocation();
-        addPointToPath(currentLocation);
+        currentLocation.setCoords(latitude, longitude);
+        if (mapMatcherReady) {
+            matchLocation(latitude, longitude);
+        } else {
+            addPointToPath(latitude, longitude);
+        }
+        vehicleStore.setHost(latitude, longitude, heading);
+        frameScheduler.postLocation(latitude, longitude);
+        if (tilePrefetcher != null) {
+            tilePrefetcher.onLocationChanged(latitude, longitude, SystemClock.elapsedRealtime());
+        }
+        if (routeActive) {
+            updateRoute(latitude, longitude);
+        }
     }
 
     /**
@@ -296,6 +568,31 @@ public class MainActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         map.onResume();
+        startVehicleReceiver();
+    }
+
+    /**
+     * 원격 차량 메시지 수신을 시작하는 메서드입니다.
+     * 새 스냅샷이 게시되면 다음 프레임에 지도를 다시 그립니다.
+     */
+    private void startVehicleReceiver() {
+        vehicleReceiver = new RemoteVehicleReceiver(vehicleStore, RV_UDP_PORT, frameScheduler::postOverlayChange);
+        try {
+            vehicleReceiver.start();
+        } catch (SocketException e) {
+            Log.e(TAG, "원격 차량 수신 시작 실패: " + e.getMessage());
+            vehicleReceiver = null;
+        }
+    }
+
+    /**
+     * 원격 차량 메시지 수신을 멈추는 메서드입니다.
+     */
+    private void stopVehicleReceiver() {
+        if (vehicleReceiver != null) {
+            vehicleReceiver.stop();
+            vehicleReceiver = null;
+        }
     }
 
     /**
@@ -305,6 +602,218 @@ public class MainActivity extends AppCompatActivity {
     protected void onPause() {
         super.onPause();
         map.onPause();
+        stopTraceReplay();
+        replaySpeedIndex = -1;
+        stopVehicleReceiver();
+        // 수신이 멈춘 동안 마지막 스냅샷이 프레임 반복을 이어 가지 않도록 차량을 비웁니다.
+        vehicleStore.clear(RemoteVehicleStore.now());
+        frameScheduler.logStats();
+        // 맞춤을 기다리던 위치도 경로와 주행 기록에 넣습니다.
+        if (mapMatcherReady) {
+            ROUTING_EXECUTOR.execute(() -> mapMatcher.flush());
+        }
+        // 백그라운드로 가면 언제 종료될지 모르므로 주행 기록을 디스크에 확실히 남깁니다.
+        TRIP_LOG_EXECUTOR.execute(() -> {
+            drainTripLogQueue();
+            if (tripLog == null) {
+                return;
+            }
+            try {
+                tripLog.sync();
+            } catch (IOException e) {
+                Log.e(TAG, "주행 기록 저장 실패: " + e.getMessage());
+            }
+        });
+        if (tilePrefetcher != null) {
+            tilePrefetcher.logStats();
+        }
+        if (tilesOverlay != null) {
+            Log.d(TAG, "야간 타일: " + tilesOverlay.getStats());
+        }
+        if (Telemetry.isEnabled()) {
+            Log.d(TAG, Telemetry.report());
+        }
+    }
+
+    /**
+     * 액티비티가 소멸될 때 호출되는 메서드입니다.
+     * 예약된 프레임 콜백과 원격 차량 수신이 끝난 액티비티를 붙잡고 있지 않도록 정리합니다.
+     */
+    @Override
+    protected void onDestroy() {
+        frameScheduler.release();
+        stopVehicleReceiver();
+        vehicleStore.clear(RemoteVehicleStore.now());
+        super.onDestroy();
+    }
+
+    /**
+     * 시스템 메모리가 부족할 때 호출되는 메서드입니다.
+     * 디코딩된 타일 캐시를 트림 수준에 따라 단계적으로 줄입니다.
+     *
+     * @param level 메모리 트림 수준
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (tilesOverlay != null) {
+            tilesOverlay.trimMemory(level);
+        }
+        if (tileProvider != null) {
+            tileProvider.getBitmapCache().trimMemory(level);
+        }
+    }
+
+    /**
+     * 시스템의 낮/밤 설정이 바뀌었을 때 호출되는 메서드입니다.
+     * 액티비티를 다시 만들지 않고(매니페스트의 configChanges) 지도 색만 바꾸므로
+     * 타일 캐시와 타일 프로바이더는 그대로 남습니다.
+     *
+     * @param newConfig 새 설정
+     */
+    @Override
+    public void onConfigurationChanged(android.content.res.Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        boolean night = isSystemNightMode(newConfig);
+        if (tilesOverlay != null && tilesOverlay.isNightMode() != night) {
+            tilesOverlay.setNightMode(night);
+            map.invalidate();
+            Log.d(TAG, "지도 " + (night ? "야간" : "주간") + " 모드: " + tilesOverlay.getStats());
+        }
+    }
+
+    private static boolean isSystemNightMode(android.content.res.Configuration config) {
+        return (config.uiMode & android.content.res.Configuration.UI_MODE_NIGHT_MASK)
+                == android.content.res.Configuration.UI_MODE_NIGHT_YES;
+    }
+
+    /**
+     * 기록 재생 속도를 1배속 → 10배속 → 최대 속도 → 정지 순으로 바꾸는 메서드입니다.
+     * 기록은 앱 내부 저장소의 traces 디렉토리에서 읽습니다.
+     */
+    private void cycleTraceReplay() {
+        stopTraceReplay();
+        replaySpeedIndex++;
+        if (replaySpeedIndex >= REPLAY_SPEEDS.length) {
+            replaySpeedIndex = -1;
+            Toast.makeText(this, "기록 재생을 멈췄습니다.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        ReplayTrace trace;
+        try {
+            trace = loadReplayTrace(new File(getFilesDir(), TRACE_DIR));
+        } catch (IOException e) {
+            Log.e(TAG, "기록 읽기 실패: " + e.getMessage());
+            trace = null;
+        }
+        if (trace == null || trace.size() == 0) {
+            replaySpeedIndex = -1;
+            Toast.makeText(this, "재생할 기록이 없습니다.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        double speed = REPLAY_SPEEDS[replaySpeedIndex];
+        traceReplayer = new TraceReplayer(trace, new TraceReplayer.Sink() {
+            @Override
+            public void onLocation(double latitude, double longitude) {
+                setUserLocation(latitude, longitude);
+            }
+
+            @Override
+            public void onHeading(float newHeading) {
+                setHeading(newHeading);
+            }
+
+            @Override
+            public void onVehicle(int id, int type, double latitude, double longitude, float vehicleHeading,
+                                  float vehicleSpeed) {
+                vehicleStore.ingest(id, type, latitude, longitude, vehicleHeading, vehicleSpeed,
+                        RemoteVehicleStore.now());
+                replayVehiclesPending = true;
+            }
+        }, speed);
+        traceReplayer.start(System.nanoTime());
+        replayHandler.post(replayTick);
+        Toast.makeText(this, speed == TraceReplayer.SPEED_MAX ? "기록 재생: 최대 속도" : "기록 재생: " + (int) speed + "배속",
+                Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * traces 디렉토리의 위치 기록(trace.nmea 또는 trace.csv)과 선택적인 헤딩(trace.heading.csv),
+     * 원격 차량(trace.rv.csv) 기록을 읽어 하나의 재생 기록으로 합치는 메서드입니다.
+     *
+     * @param dir 기록 디렉토리
+     * @return 정렬된 기록, 위치 기록이 없으면 null
+     * @throws IOException 읽기 실패
+     */
+    private ReplayTrace loadReplayTrace(File dir) throws IOException {
+        File nmea = new File(dir, "trace.nmea");
+        File csv = new File(dir, "trace.csv");
+        if (!nmea.isFile() && !csv.isFile()) {
+            return null;
+        }
+        ReplayTrace trace = new ReplayTrace();
+        try (Reader reader = new FileReader(nmea.isFile() ? nmea : csv)) {
+            if (nmea.isFile()) {
+                trace.readNmea(reader);
+            } else {
+                trace.readLocationsCsv(reader);
+            }
+        }
+        File headings = new File(dir, "trace.heading.csv");
+        if (headings.isFile()) {
+            try (Reader reader = new FileReader(headings)) {
+                trace.readHeadingsCsv(reader);
+            }
+        }
+        File vehicles = new File(dir, "trace.rv.csv");
+        if (vehicles.isFile()) {
+            try (Reader reader = new FileReader(vehicles)) {
+                trace.readVehiclesCsv(reader);
+            }
+        }
+        trace.sort();
+        return trace;
+    }
+
+    /**
+     * 예정 시각이 된 기록 이벤트를 전달하고 다음 이벤트 시각에 다시 호출되도록 예약하는 메서드입니다.
+     */
+    private void stepTraceReplay() {
+        TraceReplayer replayer = traceReplayer;
+        if (replayer == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        replayer.step(now, REPLAY_EVENTS_PER_TICK);
+        if (replayVehiclesPending) {
+            replayVehiclesPending = false;
+            if (vehicleStore.publish(RemoteVehicleStore.now())) {
+                frameScheduler.postOverlayChange();
+            }
+        }
+
+        long wait = replayer.nanosUntilNextEvent(System.nanoTime());
+        if (wait < 0) {
+            Log.d(TAG, replayer.getStats(now));
+            traceReplayer = null;
+            replaySpeedIndex = -1;
+            Toast.makeText(this, "기록 재생이 끝났습니다.", Toast.LENGTH_SHORT).show();
+        } else {
+            replayHandler.postDelayed(replayTick, wait / 1_000_000L);
+        }
+    }
+
+    /**
+     * 진행 중인 기록 재생을 멈추고 결과를 로그로 남기는 메서드입니다.
+     */
+    private void stopTraceReplay() {
+        replayHandler.removeCallbacks(replayTick);
+        if (traceReplayer != null) {
+            Log.d(TAG, traceReplayer.getStats(System.nanoTime()));
+            traceReplayer = null;
+        }
     }
 
     /**
@@ -323,19 +832,21 @@ public class MainActivity extends AppCompatActivity {
      * 현재 위치 주변에 랜덤한 마커를 추가하는 메서드입니다.
      */
     private void addRandomMarkers() {
-        clearRandomMarkers(); // 기존 마커 제거
+        rvOverlay.removeVehiclesOfType(RemoteVehicleOverlay.TYPE_RV); // 기존 마커 제거
         int markerCount = random.nextInt(21); // 0~20개의 마커 생성
-        Drawable randomIcon = ContextCompat.getDrawable(this, R.drawable.icon_rv_marker);
+        int[] ids = new int[markerCount];
+        double[] lats = new double[markerCount];
+        double[] lons = new double[markerCount];
+        float[] headings = new float[markerCount];
         for (int i = 0; i < markerCount; i++) {
-            GeoPoint randomPoint = getRandomPointInRadius(currentLocation, MARKER_RADIUS);
-            Marker marker = new Marker(map);
-            marker.setPosition(randomPoint);
-            marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_CENTER);
-            marker.setIcon(randomIcon);
-            map.getOverlays().add(marker);
-            randomMarkers.add(marker);
-        }
-        map.invalidate();
+            getRandomPointInRadius(currentLocation, MARKER_RADIUS, randomPoint);
+            ids[i] = 1 + i;
+            lats[i] = randomPoint.getLatitude();
+            lons[i] = randomPoint.getLongitude();
+            headings[i] = random.nextFloat() * 360f;
+        }
+        rvOverlay.setVehicles(ids, lats, lons, headings, RemoteVehicleOverlay.TYPE_RV, markerCount);
+        frameScheduler.postOverlayChange();
         Toast.makeText(this, markerCount + "개의 마커가 추가되었습니다.", Toast.LENGTH_SHORT).show();
     }
 
@@ -343,11 +854,8 @@ public class MainActivity extends AppCompatActivity {
      * 모든 랜덤 마커를 제거하는 메서드입니다.
      */
     private void clearRandomMarkers() {
-        for (Marker marker : randomMarkers) {
-            map.getOverlays().remove(marker);
-        }
-        randomMarkers.clear();
-        map.invalidate();
+        rvOverlay.removeVehiclesOfType(RemoteVehicleOverlay.TYPE_RV);
+        frameScheduler.postOverlayChange();
         Log.d(TAG, "clearRandomMarkers: 마커 재거 완료");
     }
 
@@ -356,67 +864,312 @@ public class MainActivity extends AppCompatActivity {
      *
      * @param center 중심점
      * @param radius 반경 (미터)
-     * @return 랜덤하게 생성된 GeoPoint
+     * @param out 랜덤하게 생성된 위치를 받을 GeoPoint
      */
-    private GeoPoint getRandomPointInRadius(GeoPoint center, double radius) {
-        double x0 = center.getLongitude();
-        double y0 = center.getLatitude();
+    private void getRandomPointInRadius(GeoPoint center, double radius, GeoPoint out) {
+        GeoMath.randomPointInRadius(random, center.getLatitude(), center.getLongitude(), radius, randomCoords);
+        out.setCoords(randomCoords[0], randomCoords[1]);
+    }
 
-        // 랜덤한 각도 (라디안)
-        double randomAngle = random.nextDouble() * 2 * Math.PI;
-        // 랜덤한 반지름 (미터를 도(degree)로 변환)
-        double randomRadius = Math.sqrt(random.nextDouble()) * radius / 111320.0;
+    /**
+     * 경로에 새로운 점을 추가하는 메서드입니다.
+     * 경로 저장소에 점 하나만 추가하고, 그리기는 다음 프레임에 오버레이가 처리합니다.
+     * 위치가 프레임 사이에 합쳐지더라도 경로에는 모든 점이 남습니다.
+     * 주행 기록에는 대기열에 넣기만 하고, 쓰기는 주행 기록 스레드가 모아서 처리합니다.
+     *
+     * @param latitude 추가할 점의 위도
+     * @param longitude 추가할 점의 경도
+     */
+    private void addPointToPath(double latitude, double longitude) {
+        pathStore.add(latitude, longitude);
+        frameScheduler.postOverlayChange();
 
-        // 극좌표를 직교좌표로 변환
-        double dx = randomRadius * Math.cos(randomAngle);
-        double dy = randomRadius * Math.sin(randomAngle);
+        if (!TRIP_LOG_QUEUE.offer(System.currentTimeMillis(), latitude, longitude, heading, Float.NaN)) {
+            Log.w(TAG, "주행 기록 대기열이 가득 찼습니다. 버린 점: " + TRIP_LOG_QUEUE.getDroppedCount());
+        }
+        if (TRIP_LOG_QUEUE.requestDrain()) {
+            TRIP_LOG_EXECUTOR.execute(TRIP_LOG_DRAIN);
+        }
+    }
+
+    /**
+     * 주행 기록 대기열에 쌓인 점을 기록에 쓰는 메서드입니다. TRIP_LOG_EXECUTOR 스레드에서 호출해야 합니다.
+     * 기록을 열지 못했으면 쌓인 점을 버립니다.
+     */
+    private static void drainTripLogQueue() {
+        try {
+            TRIP_LOG_QUEUE.drainTo(tripLog);
+        } catch (IOException e) {
+            Log.e(TAG, "주행 기록 쓰기 실패: " + e.getMessage());
+        }
+    }
 
-        // 새로운 위도와 경도 계산
-        double newLongitude = x0 + dx / Math.cos(Math.toRadians(y0));
-        double newLatitude = y0 + dy;
+    /**
+     * 이름을 붙인 HandlerThread를 시작하고 그 Looper의 Handler를 반환합니다.
+     */
+    private static Handler startHandlerThread(String name) {
+        HandlerThread thread = new HandlerThread(name);
+        thread.start();
+        return new Handler(thread.getLooper());
+    }
 
-        return new GeoPoint(newLatitude, newLongitude);
+    /**
+     * 도로 그래프를 열어 지도 맞춤을 준비하는 메서드입니다.
+     * 그래프가 없으면 지금처럼 위치를 그대로 경로에 넣습니다.
+     */
+    private void initializeMapMatcher() {
+        File graphFile = new File(new File(getFilesDir(), "maps"), ROAD_GRAPH_FILENAME);
+        ROUTING_EXECUTOR.execute(() -> {
+            RoadGraphReader graph = openRoadGraph(graphFile);
+            if (graph == null) {
+                return;
+            }
+            mapMatcher = new MapMatcher(graph, (latitude, longitude, snapped) -> {
+                int generation = matchGeneration;
+                runOnUiThread(() -> addMatchedPoint(latitude, longitude, generation));
+            });
+            runOnUiThread(() -> mapMatcherReady = true);
+        });
     }
 
     /**
-     * 경로에 새로운 점을 추가하는 메서드입니다.
+     * 위치를 지도 맞춤에 넣는 메서드입니다. 확정된 위치는 몇 개 뒤의 위치가 들어온 다음
+     * {@link #addMatchedPoint}로 경로에 들어갑니다.
+     */
+    private void matchLocation(double latitude, double longitude) {
+        int generation = pathGeneration;
+        ROUTING_EXECUTOR.execute(() -> {
+            // 경로를 지운 뒤의 첫 위치면 지우기 전 위치로 이어 맞추지 않습니다.
+            if (generation != matchGeneration) {
+                mapMatcher.reset();
+                matchGeneration = generation;
+            }
+            mapMatcher.add(latitude, longitude);
+        });
+    }
+
+    /**
+     * 지도 맞춤이 확정한 위치를 경로에 추가하는 메서드입니다. UI 스레드에서 호출해야 합니다.
      *
-     * @param point 추가할 GeoPoint
+     * @param generation 위치를 맞출 때의 경로 세대
      */
-    private void addPointToPath(GeoPoint point) {
-        pathPoints.add(point);
-        pathPolyline.setPoints(pathPoints);
-        map.invalidate();
+    private void addMatchedPoint(double latitude, double longitude, int generation) {
+        if (generation != pathGeneration || isDestroyed()) {
+            return;
+        }
+        addPointToPath(latitude, longitude);
+    }
+
+    /**
+     * 저장된 주행 기록을 백그라운드에서 읽어 경로를 복원하는 메서드입니다.
+     * 기록을 읽으면서 새 경로 저장소를 채우고, 다 채워지면 UI 스레드에서 현재 경로 저장소와 바꿉니다.
+     * 그 사이에 추가된 점은 복원된 경로 뒤에 이어 붙입니다.
+     */
+    private void loadTripLog() {
+        File file = new File(getFilesDir(), TRIP_LOG_FILENAME);
+        int generation = pathGeneration;
+        TRIP_LOG_EXECUTOR.execute(() -> {
+            long start = System.nanoTime();
+            PathStore restored = new PathStore();
+            TripLog.RecordConsumer consumer = (time, latitude, longitude, pointHeading, speed) ->
+                    restored.add(latitude, longitude);
+            try {
+                if (tripLog == null) {
+                    tripLog = new TripLog(file, consumer);
+                    Log.d(TAG, "주행 기록 복구: " + tripLog.getRecoveredCount() + "점, 잘라낸 꼬리 "
+                            + tripLog.getDiscardedBytes() + "바이트");
+                } else {
+                    // 이전 액티비티가 남긴 점도 복원되도록 먼저 씁니다.
+                    drainTripLogQueue();
+                    tripLog.read(consumer);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "주행 기록을 열 수 없습니다: " + e.getMessage());
+                return;
+            }
+            Log.d(TAG, "주행 기록 복원: " + restored.size() + "점, "
+                    + (System.nanoTime() - start) / 1_000_000 + "ms");
+
+            if (tripLog.size() > TRIP_LOG_COMPACT_THRESHOLD) {
+                try {
+                    int removed = tripLog.compact(System.currentTimeMillis() - TRIP_LOG_KEEP_FULL_MILLIS,
+                            TRIP_LOG_COMPACT_SPACING_METERS);
+                    Log.d(TAG, "주행 기록 압축: " + removed + "점 제거");
+                } catch (IOException e) {
+                    Log.e(TAG, "주행 기록 압축 실패: " + e.getMessage());
+                }
+            }
+            if (!restored.isEmpty()) {
+                runOnUiThread(() -> restorePath(restored, generation));
+            }
+        });
+    }
+
+    /**
+     * 복원된 경로 저장소로 바꾸는 메서드입니다. UI 스레드에서 호출해야 합니다.
+     *
+     * @param restored 주행 기록으로 채운 경로 저장소
+     * @param generation 복원을 시작할 때의 경로 세대
+     */
+    private void restorePath(PathStore restored, int generation) {
+        if (generation != pathGeneration || isDestroyed()) {
+            return;
+        }
+        for (int i = 0; i < pathStore.size(); i++) {
+            restored.add(pathStore.getLatitude(i), pathStore.getLongitude(i));
+        }
+        pathStore = restored;
+        pathOverlay.setPathStore(restored);
+        frameScheduler.postOverlayChange();
     }
 
     /**
      * 현재까지 그려진 경로를 초기화하는 메서드입니다.
+     * 주행 기록 파일도 함께 비웁니다.
      */
     private void clearPath() {
-        pathPoints.clear();
-        pathPolyline.setPoints(pathPoints);
-        map.invalidate();
+        pathStore.clear();
+        pathGeneration++;
+        frameScheduler.postOverlayChange();
+        // 앞서 대기열에 넣은 점이 비운 뒤에 쓰이지 않도록 비우기도 대기열 순서에 넣습니다.
+        if (!TRIP_LOG_QUEUE.offerClear()) {
+            Log.e(TAG, "주행 기록 초기화 실패: 대기열이 가득 찼습니다.");
+        }
+        if (TRIP_LOG_QUEUE.requestDrain()) {
+            TRIP_LOG_EXECUTOR.execute(TRIP_LOG_DRAIN);
+        }
         Toast.makeText(this, "경로가 초기화되었습니다.", Toast.LENGTH_SHORT).show();
     }
 
     /**
-     * 사용자 위치 주변 5m 이내에 무작위로 front_rv를 추가하는 메서드입니다.
+     * 현재 위치에서 목적지까지의 경로를 백그라운드에서 찾아 지도에 그리는 메서드입니다.
+     * 도로 그래프가 아직 열려 있지 않으면 메모리 매핑으로 엽니다.
+     *
+     * @param latitude 목적지 위도
+     * @param longitude 목적지 경도
      */
-    private void addFrontRv() {
-        if (frontRvMarker != null) {
-            map.getOverlays().remove(frontRvMarker);
+    private void startRoute(double latitude, double longitude) {
+        int generation = ++routeGeneration;
+        double fromLatitude = currentLocation.getLatitude();
+        double fromLongitude = currentLocation.getLongitude();
+        File graphFile = new File(new File(getFilesDir(), "maps"), ROAD_GRAPH_FILENAME);
+        ROUTING_EXECUTOR.execute(() -> {
+            if (routeTracker == null) {
+                RoadGraphReader graph = openRoadGraph(graphFile);
+                if (graph == null) {
+                    runOnUiThread(() -> Toast.makeText(this, "경로 탐색용 도로 그래프가 없습니다.",
+                            Toast.LENGTH_SHORT).show());
+                    return;
+                }
+                routeTracker = new RouteTracker(graph);
+            }
+            long start = System.nanoTime();
+            Route route = routeTracker.start(fromLatitude, fromLongitude, latitude, longitude);
+            Log.d(TAG, "경로 탐색: " + (System.nanoTime() - start) / 1_000_000 + "ms, 확정 노드 "
+                    + routeTracker.getLastSettledCount() + "개");
+            runOnUiThread(() -> {
+                if (route == null) {
+                    Toast.makeText(this, "경로를 찾을 수 없습니다.", Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(this, String.format(Locale.US, "경로 %.1fkm, 약 %d분",
+                            route.getDistanceMeters() / 1000, Math.round(route.getDurationMillis() / 60000.0)),
+                            Toast.LENGTH_SHORT).show();
+                }
+                showRoute(route, generation);
+            });
+        });
+    }
+
+    /**
+     * 도로 그래프를 처음 한 번 메모리 매핑으로 여는 메서드입니다. ROUTING_EXECUTOR 스레드에서 호출해야 합니다.
+     *
+     * @param graphFile 도로 그래프 파일
+     * @return 도로 그래프, 열 수 없으면 null
+     */
+    private static RoadGraphReader openRoadGraph(File graphFile) {
+        if (roadGraph == null) {
+            try {
+                long start = System.nanoTime();
+                roadGraph = new RoadGraphReader(graphFile);
+                Log.d(TAG, "도로 그래프 열기: 노드 " + roadGraph.getNodeCount() + "개, "
+                        + (System.nanoTime() - start) / 1_000_000 + "ms");
+            } catch (IOException e) {
+                Log.e(TAG, "도로 그래프를 열 수 없습니다: " + e.getMessage());
+            }
         }
+        return roadGraph;
+    }
+
+    /**
+     * 새 위치로 경로 이탈을 확인하는 메서드입니다. 벗어났으면 다시 찾은 경로로 바꿉니다.
+     */
+    private void updateRoute(double latitude, double longitude) {
+        int generation = routeGeneration;
+        ROUTING_EXECUTOR.execute(() -> {
+            if (routeTracker == null) {
+                return;
+            }
+            Route rerouted = routeTracker.update(latitude, longitude);
+            if (rerouted != null) {
+                Log.d(TAG, "경로 재탐색: 확정 노드 " + routeTracker.getLastSettledCount() + "개");
+                runOnUiThread(() -> showRoute(rerouted, generation));
+            }
+        });
+    }
 
-        GeoPoint frontRvPoint = getRandomPointInRadius(currentLocation, 5);
-        frontRvMarker = new Marker(map);
-        frontRvMarker.setPosition(frontRvPoint);
-        frontRvMarker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_BOTTOM);
+    /**
+     * 경로를 안내 경로 오버레이에 그리는 메서드입니다. UI 스레드에서 호출해야 합니다.
+     *
+     * @param route 그릴 경로, null이면 지웁니다.
+     * @param generation 탐색을 시작할 때의 경로 세대
+     */
+    private void showRoute(Route route, int generation) {
+        if (generation != routeGeneration || isDestroyed()) {
+            return;
+        }
+        PathStore store = new PathStore();
+        if (route != null) {
+            for (int i = 0; i < route.getPointCount(); i++) {
+                store.add(route.getLatitude(i), route.getLongitude(i));
+            }
+        }
+        routeStore = store;
+        routeOverlay.setPathStore(store);
+        routeActive = route != null;
+        frameScheduler.postOverlayChange();
+    }
 
-        Drawable frontRvIcon = ContextCompat.getDrawable(this, R.drawable.icon_front_rv_marker);
-        frontRvMarker.setIcon(frontRvIcon);
+    /**
+     * 안내 경로를 지우는 메서드입니다.
+     */
+    private void clearRoute() {
+        routeGeneration++;
+        routeActive = false;
+        routeStore.clear();
+        frameScheduler.postOverlayChange();
+        ROUTING_EXECUTOR.execute(() -> {
+            if (routeTracker != null) {
+                routeTracker.stop();
+            }
+        });
+        Toast.makeText(this, "안내 경로가 초기화되었습니다.", Toast.LENGTH_SHORT).show();
+    }
 
-        map.getOverlays().add(frontRvMarker);
-        map.invalidate();
+    /**
+     * 시험용 차량을 진행 방향 앞쪽에 원격 차량 저장소로 넣는 메서드입니다.
+     * 전방 차량 표시는 저장소가 공간 색인으로 고르므로, 다른 수신 차량과 똑같이 가까운 차량이 있으면 그쪽이 선택됩니다.
+     * 메시지를 더 받지 않으므로 만료 시간이 지나면 사라집니다.
+     */
+    private void addFrontRv() {
+        // 속도를 거리로 두고 1초만큼 추측 항법하여 앞쪽 지점을 구합니다.
+        double[] ahead = new double[2];
+        RemoteVehicleStore.deadReckon(currentLocation.getLatitude(), currentLocation.getLongitude(), heading,
+                TEST_FRONT_RV_DISTANCE_METERS, 1000, ahead);
+        long now = RemoteVehicleStore.now();
+        vehicleStore.ingest(TEST_FRONT_RV_ID, RemoteVehicleStore.TYPE_RV, ahead[0], ahead[1], heading, 0f, now);
+        if (vehicleStore.publish(now)) {
+            frameScheduler.postOverlayChange();
+        }
 
         Toast.makeText(this, "Front RV가 추가되었습니다.", Toast.LENGTH_SHORT).show();
     }
@@ -427,80 +1180,161 @@ public class MainActivity extends AppCompatActivity {
      */
     private void initializeScaleBar() {
         tvScaleBar = findViewById(R.id.tv_scale_bar);
+        tvScaleBar.setOnLongClickListener(v -> {
+            if (!Telemetry.isEnabled()) {
+                return false;
+            }
+            showTelemetryReport();
+            return true;
+        });
         updateScaleBar();
     }
 
+    /**
+     * 성능 계측 결과를 대화상자로 보여주는 메서드입니다. (디버그 빌드에서 축적 표시를 길게 누르면 열립니다.)
+     * 저장 버튼을 누르면 앱 내부 저장소의 telemetry 디렉토리에 텍스트 파일로 내보냅니다.
+     */
+    private void showTelemetryReport() {
+        new AlertDialog.Builder(this)
+                .setTitle("성능 계측")
+                .setMessage(Telemetry.report())
+                .setPositiveButton("저장", (dialog, which) -> exportTelemetryReport())
+                .setNeutralButton("초기화", (dialog, which) -> Telemetry.reset())
+                .setNegativeButton("닫기", null)
+                .show();
+    }
+
+    /**
+     * 성능 계측 결과를 파일로 저장하는 메서드입니다.
+     */
+    private void exportTelemetryReport() {
+        File file = new File(new File(getFilesDir(), "telemetry"),
+                "telemetry-" + System.currentTimeMillis() + ".txt");
+        try {
+            Telemetry.writeReport(file);
+            Toast.makeText(this, "계측 결과 저장: " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG, "계측 결과 저장 실패: " + e.getMessage());
+            Toast.makeText(this, "계측 결과 저장 실패", Toast.LENGTH_SHORT).show();
+        }
+    }
+
     /**
      * 현재 지도의 줌 레벨과 중심 위치를 기반으로 축적을 계산하고 업데이트하는 메서드입니다.
      * 계산된 축적은 미터 또는 킬로미터 단위로 TextView에 표시됩니다.
+     * 문자열은 값별로 캐시되며, 표시 중인 문자열과 같으면 TextView를 건드리지 않습니다.
      */
     private void updateScaleBar() {
         double zoomLevel = map.getZoomLevelDouble();
-        double latitude = map.getMapCenter().getLatitude();
-        double metersPerPixel = getMetersPerPixel(latitude, zoomLevel);
+        double latitude = map.getMapCenter(mapCenter).getLatitude();
         int screenWidth = map.getWidth();
-
-
         float density = getResources().getDisplayMetrics().density;
-        Log.d(TAG, "density: " + density + "screenWidth: " + screenWidth);
-        int scaleBarWidthPixels = (int) (screenWidth / 10 / density); // 화면 너비의 10%
 
-        int scaleBarLengthMeters = (int)(scaleBarWidthPixels * metersPerPixel);
+        String scaleText = scaleBarLabels.getLabel(latitude, zoomLevel, screenWidth, density);
+        if (scaleText != shownScaleText) {
+            shownScaleText = scaleText;
+            tvScaleBar.setText(scaleText);
+        }
+    }
+
+    private class ApplyMapUpdatesTask extends AsyncTask<Void, Void, Integer> {
+        @Override
+        protected Integer doInBackground(Void... params) {
+            TilePackReader base = openTilePack();
+            if (base == null) {
+                return 0;
+            }
+            try {
+                return MapUtils.applyPendingUpdates(MainActivity.this, base, MAP_PATCH_FILENAME);
+            } finally {
+                base.close();
+            }
+        }
 
-        String scaleText;
-        if (scaleBarLengthMeters >= 1000) {
-            scaleText = String.format("%d km", scaleBarLengthMeters / 1000);
-        } else {
-            scaleText = String.format("%d m", scaleBarLengthMeters);
+        @Override
+        protected void onPostExecute(Integer applied) {
+            if (applied > 0) {
+                Toast.makeText(MainActivity.this, "지도 업데이트 " + applied + "개 적용", Toast.LENGTH_SHORT).show();
+            }
+            initializeOfflineMap();
         }
+    }
 
-        tvScaleBar.setText(scaleText);
+    /**
+     * 샤드 파일을 확장자에 맞는 아카이브로 여는 메서드입니다.
+     */
+    private static TileArchive openShard(File file) throws IOException {
+        if (file.getName().endsWith(TilePack.FILE_EXTENSION)) {
+            return new TilePackReader(file);
+        }
+        if (!file.isFile()) {
+            throw new IOException("Shard not found: " + file);
+        }
+        return new MBTilesArchive(file, SHARD_CONNECTIONS);
     }
 
     /**
-     * 주어진 위도와 줌 레벨에 대한 미터당 픽셀 수를 계산합니다.
-     * @param latitude 위도
-     * @param zoomLevel 줌 레벨
-     * @return 미터당 픽셀 수
+     * 복사 없이 바로 열 수 있는 타일 아카이브를 찾아 여는 메서드입니다.
+     * 샤드 색인이 있으면 샤드를, 없으면 타일 팩을 사용하며, 타일 팩 위에는 지도 델타로 바뀐 타일의 패치를 겹칩니다.
+     *
+     * @return 아카이브, 열 수 있는 것이 없으면 null
      */
-    private double getMetersPerPixel(double latitude, double zoomLevel) {
-        // WGS84 타원체의 적도 반경 (미터)
-        final double earthRadius = 6378137;
-        // 타일 크기 (픽셀)
-        final int tileSize = 256;
+    private TileArchive openTileArchive() {
+        File shardDir = new File(getFilesDir(), SHARD_DIR);
+        File shardIndexFile = new File(shardDir, SHARD_INDEX_FILENAME);
+        if (shardIndexFile.isFile()) {
+            try (Reader reader = new FileReader(shardIndexFile)) {
+                ShardIndex shardIndex = ShardIndex.read(reader);
+                Log.d(TAG, "샤드 색인: " + shardIndexFile.getAbsolutePath()
+                        + " (" + shardIndex.getShards().size() + "개)");
+                return new ShardedTileArchive(shardIndexFile, shardIndex, shardDir, MAX_OPEN_SHARDS,
+                        MainActivity::openShard);
+            } catch (IOException e) {
+                Log.w(TAG, "샤드 색인을 읽을 수 없습니다: " + shardIndexFile.getAbsolutePath(), e);
+            }
+        }
 
-        return earthRadius * Math.cos(Math.toRadians(latitude)) * 2 * Math.PI / (tileSize * Math.pow(2, zoomLevel));
+        TilePackReader pack = openTilePack();
+        return pack != null ? MapUtils.openPatched(this, pack, MAP_PATCH_FILENAME) : null;
     }
 
-    private class CopyMBTilesTask extends AsyncTask<String, Void, Boolean> {
-        @Override
-        protected Boolean doInBackground(String... params) {
-            String fileName = params[0];
-            return MapUtils.copyMBTilesToInternalStorage(MainActivity.this, fileName);
+    /**
+     * 지도 델타의 기반이 되는 타일 팩을 여는 메서드입니다.
+     * maps 디렉토리의 타일 팩 파일 → APK 안의 타일 팩 에셋(메모리 매핑) 순으로 사용합니다.
+     *
+     * @return 리더, 없으면 null
+     */
+    private TilePackReader openTilePack() {
+        File tilePackFile = new File(new File(getFilesDir(), "maps"), TILE_PACK_FILENAME);
+        if (tilePackFile.isFile()) {
+            try {
+                TilePackReader reader = new TilePackReader(tilePackFile);
+                Log.d(TAG, "타일 팩 파일 경로: " + tilePackFile.getAbsolutePath());
+                return reader;
+            } catch (IOException e) {
+                Log.w(TAG, "타일 팩을 열 수 없어 APK 에셋을 사용합니다: " + tilePackFile.getAbsolutePath(), e);
+            }
         }
 
-        @Override
-        protected void onPostExecute(Boolean result) {
-            if (result) {
-                Toast.makeText(MainActivity.this, "mbtiles 파일 복사 완료", Toast.LENGTH_SHORT).show();
-                initializeOfflineMap();
-            } else {
-                Toast.makeText(MainActivity.this, "mbtiles 파일 복사 실패", Toast.LENGTH_SHORT).show();
-            }
+        TilePackReader assetPack = MapUtils.openAssetTilePack(this, TILE_PACK_FILENAME);
+        if (assetPack != null) {
+            Log.d(TAG, "APK 에셋의 타일 팩을 그 자리에서 사용합니다: " + TILE_PACK_FILENAME);
         }
+        return assetPack;
     }
 
-    private void initializeOfflineMap() {
-        // maps 디렉토리를 포함한 경로로 수정
-        File mbtilesFile = new File(getFilesDir(), "maps/" + MBTILES_FILENAME);
-
-        // 파일 경로를 로그에 출력
-        Log.d(TAG, "MBTiles 파일 경로: " + mbtilesFile.getAbsolutePath());
-
+    /**
+     * 열 수 있는 타일 아카이브로 오프라인 지도를 설정하는 메서드입니다.
+     *
+     * @return 설정했으면 true, 아직 설치된 아카이브가 없거나 실패했으면 false
+     */
+    private boolean initializeOfflineMap() {
         try {
-            // OfflineTileProvider 생성
-            IRegisterReceiver registerReceiver = new SimpleRegisterReceiver(this);
-            OfflineTileProvider tileProvider = new OfflineTileProvider(registerReceiver, new File[]{mbtilesFile});
+            TileArchive archive = openTileArchive();
+            if (archive == null) {
+                return false;
+            }
+            StartupTrace.mark(StartupTrace.ARCHIVE_OPENED);
 
             // XYTileSource 생성
             XYTileSource tileSource = new XYTileSource(
@@ -508,22 +1342,57 @@ public class MainActivity extends AppCompatActivity {
                 new String[]{"http://localhost"} // 더미 URL
             );
 
-            // 타일 소스를 타일 프로바이더에 설정
-            tileProvider.setTileSource(tileSource);
+            // 아카이브 전용 타일 프로바이더 생성 (배치 범위 읽기)
+            IRegisterReceiver registerReceiver = new SimpleRegisterReceiver(this);
+            tileProvider = new MBTilesTileProvider(this, registerReceiver, archive, tileSource);
+
+            // 벡터 타일(MVT) 아카이브는 기기에서 그리므로 원본 최대 줌보다 큰 줌도 제공할 수 있습니다.
+            if (tileProvider.getModule().isVectorFormat()) {
+                tileSource = new XYTileSource(
+                    "mbtiles-vector", 4, VECTOR_MAX_ZOOM, 256, ".pbf",
+                    new String[]{"http://localhost"} // 더미 URL
+                );
+                tileProvider.setTileSource(tileSource);
+                map.setMaxZoomLevel((double) VECTOR_MAX_ZOOM);
+            } else {
+                // 래스터 아카이브는 원본 최대 줌의 타일을 확대해 상세 안내에 필요한 큰 줌을 제공합니다.
+                int maxZoom = Math.min(RASTER_OVERZOOM_MAX_ZOOM,
+                        tileProvider.getModule().getSourceMaxZoom() + OverzoomTileSynthesizer.MAX_OVERZOOM_LEVELS);
+                tileSource = new XYTileSource(
+                    "mbtiles", 4, maxZoom, 256, ".png",
+                    new String[]{"http://localhost"} // 더미 URL
+                );
+                tileProvider.setTileSource(tileSource);
+                map.setMaxZoomLevel((double) maxZoom);
+            }
+
+            // 진행 방향 앞쪽 타일 미리 읽기
+            tilePrefetcher = new TilePrefetcher(tileProvider.getModule(),
+                    TileSystem.getInputTileZoomLevel(map.getZoomLevelDouble()));
+            tilePrefetcher.setHeading(heading);
 
             // 맵에 타일 프로바이더 설정
             map.setTileProvider(tileProvider);
 
+            // 야간 모드는 그릴 때 색을 바꾸므로 낮과 밤이 같은 타일 캐시를 씁니다.
+            tilesOverlay = new NightTilesOverlay(tileProvider, this, map.isHorizontalMapRepetitionEnabled(),
+                    map.isVerticalMapRepetitionEnabled(), tileProvider.getBitmapCache().getMaxBytes() / 4);
+            tilesOverlay.setNightMode(isSystemNightMode(getResources().getConfiguration()));
+            map.getOverlayManager().setTilesOverlay(tilesOverlay);
+
             // 타일 소스 설정 로그 추가
             Log.d(TAG, "타일 소스가 설정되었습니다: " + tileSource.name());
 
             // 맵 갱신
             map.invalidate();
+            StartupTrace.mark(StartupTrace.PROVIDER_READY);
             Log.d(TAG, "맵이 갱신되었습니다.");
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
             Log.e(TAG, "오프라인 맵 초기화 실패: " + e.getMessage());
             Toast.makeText(this, "오프라인 맵 초기화 실패: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return false;
         }
     }
 }
\ No newline at end of file
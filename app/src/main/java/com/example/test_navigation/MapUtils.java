@@ -1,47 +1,145 @@
 package com.example.test_navigation;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.util.Log;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
 
 public class MapUtils {
     private static final String TAG = "MapUtils";
 
-    public static boolean copyMBTilesToInternalStorage(Context context, String fileName) {
-        try {
-            File internalStorageDir = new File(context.getFilesDir(), "maps");
-            if (!internalStorageDir.exists()) {
-                boolean dirCreated = internalStorageDir.mkdirs();
-                Log.d(TAG, "Maps directory created: " + dirCreated);
+    /** 적용을 기다리는 지도 델타가 놓이는 maps 아래 디렉토리 */
+    public static final String UPDATES_DIR = "updates";
+
+    /**
+     * APK 안에 압축하지 않고 저장된 타일 팩 에셋을 복사하지 않고 그 자리에서 매핑해 여는 메서드입니다.
+     *
+     * @param context 컨텍스트
+     * @param assetName 에셋 이름
+     * @return 리더, 에셋이 없거나 압축되어 있으면 null
+     */
+    public static TilePackReader openAssetTilePack(Context context, String assetName) {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(assetName);
+             FileInputStream in = afd.createInputStream()) {
+            return new TilePackReader(new File(context.getPackageResourcePath()), in.getChannel(),
+                    afd.getStartOffset(), afd.getLength());
+        } catch (FileNotFoundException e) {
+            // 에셋이 없거나 압축되어 있어 파일 설명자로 열 수 없습니다.
+            return null;
+        } catch (IOException e) {
+            Log.w(TAG, "Error mapping tile pack asset: " + assetName, e);
+            return null;
+        }
+    }
+
+    /**
+     * 기반 아카이브 위에 maps 디렉토리의 패치 파일(지도 델타로 바뀐 타일)을 겹쳐 여는 메서드입니다.
+     * 패치가 다른 기반에서 만들어졌으면(앱 업데이트로 새 지도가 들어온 경우) 패치를 지우고 기반만 반환합니다.
+     *
+     * @param context 컨텍스트
+     * @param base 기반 아카이브
+     * @param patchFileName 패치 파일 이름
+     * @return 패치를 겹친 아카이브, 패치가 없으면 base
+     */
+    public static TileArchive openPatched(Context context, TileArchive base, String patchFileName) {
+        File patchFile = new File(new File(context.getFilesDir(), "maps"), patchFileName);
+        if (!patchFile.isFile()) {
+            return base;
+        }
+        if (MBTilesSchema.hasSQLiteHeader(patchFile)) {
+            MBTilesArchive patch = new MBTilesArchive(patchFile, base.getConnectionCount());
+            if (PatchedTileArchive.isPatchOf(patch, base)) {
+                return new PatchedTileArchive(patch, base);
             }
+            patch.close();
+        }
+        Log.i(TAG, "Discarding map patch made for another base: " + patchFile);
+        deletePatch(patchFile);
+        return base;
+    }
+
+    /**
+     * 패치 파일을 쓰기 가능하게 엽니다. 없으면 빈 MBTiles로 만들고, 다른 기반에서 만든 패치나 손상된 파일은 지우고 새로 만듭니다.
+     */
+    private static SQLiteTileStore openPatchForUpdate(File patchFile, TileArchive base) throws IOException {
+        if (patchFile.isFile() && !MBTilesSchema.hasSQLiteHeader(patchFile)) {
+            deletePatch(patchFile);
+        }
+        SQLiteTileStore patch = new SQLiteTileStore(patchFile, true);
+        String patchBase = patch.getMetadata(PatchedTileArchive.METADATA_BASE_VERSION);
+        if (patchBase == null || patchBase.equals(PatchedTileArchive.baseVersion(base))) {
+            return patch;
+        }
+        Log.i(TAG, "Discarding map patch made for another base: " + patchFile);
+        patch.close();
+        deletePatch(patchFile);
+        return new SQLiteTileStore(patchFile, true);
+    }
 
-            File destFile = new File(internalStorageDir, fileName);
-            Log.d(TAG, "Destination file path: " + destFile.getAbsolutePath());
+    private static void deletePatch(File patchFile) {
+        patchFile.delete();
+        // SQLite가 남긴 저널 파일
+        new File(patchFile.getPath() + "-journal").delete();
+    }
 
-            if (!destFile.exists()) {
-                InputStream in = context.getAssets().open(fileName);
-                OutputStream out = new FileOutputStream(destFile);
+    /**
+     * maps/updates 디렉토리에 적용할 지도 델타가 있는지 확인하는 메서드입니다.
+     */
+    public static boolean hasPendingUpdates(Context context) {
+        File[] deltas = listPendingUpdates(context);
+        return deltas != null && deltas.length > 0;
+    }
 
-                byte[] buffer = new byte[1024];
-                int length;
-                while ((length = in.read(buffer)) > 0) {
-                    out.write(buffer, 0, length);
-                }
+    private static File[] listPendingUpdates(Context context) {
+        File updatesDir = new File(new File(context.getFilesDir(), "maps"), UPDATES_DIR);
+        File[] deltas = updatesDir.listFiles((dir, name) -> name.endsWith(TileDelta.FILE_EXTENSION));
+        if (deltas != null) {
+            // 파일 이름 순서가 버전 순서입니다. (예: 0001-0002.tiledelta)
+            Arrays.sort(deltas);
+        }
+        return deltas;
+    }
 
-                in.close();
-                out.close();
-                Log.d(TAG, "MBTiles file copied successfully");
-            } else {
-                Log.d(TAG, "MBTiles file already exists");
+    /**
+     * 대기 중인 델타를 이름 순서대로 기반 아카이브 위의 패치 파일에 적용하는 메서드입니다.
+     * 기반은 APK 안의 읽기 전용 타일 팩이므로, 바뀐 타일만 담는 패치 파일을 첫 델타가 올 때 만듭니다.
+     * 적용했거나 이 기반에 맞지 않는 델타는 지웁니다. 적용 도중 종료되면 델타를 남겨 두어 다음 실행에서 이어서 적용합니다.
+     *
+     * @param context 컨텍스트
+     * @param base 기반 아카이브
+     * @param patchFileName 패치 파일 이름
+     * @return 적용한 델타 수
+     */
+    public static int applyPendingUpdates(Context context, TileArchive base, String patchFileName) {
+        File[] deltas = listPendingUpdates(context);
+        if (deltas == null || deltas.length == 0) {
+            return 0;
+        }
+        File patchFile = new File(new File(context.getFilesDir(), "maps"), patchFileName);
+        int applied = 0;
+        try (SQLiteTileStore patch = openPatchForUpdate(patchFile, base)) {
+            WritableTileStore store = new PatchedTileStore(patch, base);
+            for (File delta : deltas) {
+                try {
+                    long start = Telemetry.start();
+                    long tiles = TileDeltaApplier.apply(delta, store, TileDeltaApplier.DEFAULT_BATCH_SIZE);
+                    Telemetry.stop(Telemetry.MAP_UPDATE, start);
+                    Log.d(TAG, "Applied map delta " + delta.getName() + ": " + tiles + " tiles, version "
+                            + store.getMetadata(MBTilesSchema.METADATA_VERSION));
+                    applied++;
+                } catch (IOException e) {
+                    Log.e(TAG, "Discarding map delta " + delta.getName(), e);
+                }
+                delta.delete();
             }
-            return true;
-        } catch (Exception e) {
-            Log.e(TAG, "Error copying MBTiles file", e);
-            return false;
+        } catch (IOException e) {
+            Log.e(TAG, "Error opening map patch for update: " + patchFile, e);
         }
+        return applied;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+package com.example.test_navigation;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.Log;
+
+import org.osmdroid.util.MapTileIndex;
+
+import java.io.IOException;
+
+/**
+ * MvtTileRasterizer 클래스는 벡터 타일(MVT) 바이트를 타일 비트맵으로 그리는 클래스입니다.
+ * {@link MvtDecoder}가 좌표를 하나씩 전달하면 바로 {@link Path}에 옮겨 그리므로 피처 객체를 만들지 않으며,
+ * 비트맵은 {@link TileBitmapCache}의 풀에서 재사용합니다.
+ *
+ * <p>아카이브의 최대 줌보다 큰 줌을 요청하면 상위(원본) 타일의 해당 부분만 확대하여 그리므로
+ * 작은 벡터 아카이브 하나로 모든 줌 레벨을 제공할 수 있습니다.
+ * 스타일은 OpenMapTiles 스키마의 주요 레이어(물, 토지 피복, 도로, 건물 등)만 단순한 색으로 칠하며 글자는 그리지 않습니다.</p>
+ *
+ * <p>인스턴스는 그리기 상태를 재사용하므로 스레드마다 하나씩 사용해야 합니다.</p>
+ */
+public class MvtTileRasterizer implements MvtDecoder.Visitor {
+    private static final String TAG = "MvtTileRasterizer";
+
+    private static final int COLOR_BACKGROUND = 0xFFF2EFE9;
+    private static final int COLOR_WATER = 0xFFAAD3DF;
+    private static final int COLOR_WOOD = 0xFFC8DDB4;
+    private static final int COLOR_GRASS = 0xFFDDEBC8;
+    private static final int COLOR_LANDUSE = 0xFFE8E3DC;
+    private static final int COLOR_PARK = 0xFFC8E6B4;
+    private static final int COLOR_AEROWAY = 0xFFE0DCE6;
+    private static final int COLOR_BUILDING = 0xFFD9D0C9;
+    private static final int COLOR_BOUNDARY = 0xFF9E9CAB;
+    private static final int COLOR_MOTORWAY = 0xFFE892A2;
+    private static final int COLOR_PRIMARY = 0xFFFCD6A4;
+    private static final int COLOR_SECONDARY = 0xFFF7FABF;
+    private static final int COLOR_MINOR = 0xFFFFFFFF;
+    private static final int COLOR_PATH = 0xFFB5A99A;
+    private static final int COLOR_RAIL = 0xFF999999;
+
+    /** 건물을 그리기 시작하는 줌 레벨 */
+    private static final int MIN_BUILDING_ZOOM = 14;
+    /** 확대할 때 선 두께를 키우는 최대 배율 */
+    private static final float MAX_WIDTH_SCALE = 4f;
+
+    private static final int LAYER_OTHER = 0;
+    private static final int LAYER_WATER = 1;
+    private static final int LAYER_WATERWAY = 2;
+    private static final int LAYER_LANDCOVER = 3;
+    private static final int LAYER_LANDUSE = 4;
+    private static final int LAYER_PARK = 5;
+    private static final int LAYER_AEROWAY = 6;
+    private static final int LAYER_BOUNDARY = 7;
+    private static final int LAYER_TRANSPORTATION = 8;
+    private static final int LAYER_BUILDING = 9;
+
+    private final TileBitmapCache bitmapCache;
+    private final int tileSize;
+    private final MvtDecoder decoder = new MvtDecoder();
+    private final Canvas canvas = new Canvas();
+    private final Path path = new Path();
+    private final Paint fill = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint stroke = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private Paint paint;
+    private int layer;
+    private int zoom;
+    private float scale;
+    private float widthScale;
+    private float offsetX;
+    private float offsetY;
+    private int overzoomShift;
+
+    /**
+     * @param bitmapCache 비트맵을 재사용할 캐시
+     * @param tileSize 타일 크기 (픽셀)
+     */
+    public MvtTileRasterizer(TileBitmapCache bitmapCache, int tileSize) {
+        this.bitmapCache = bitmapCache;
+        this.tileSize = tileSize;
+        fill.setStyle(Paint.Style.FILL);
+        stroke.setStyle(Paint.Style.STROKE);
+        stroke.setStrokeCap(Paint.Cap.ROUND);
+        stroke.setStrokeJoin(Paint.Join.ROUND);
+    }
+
+    /**
+     * 벡터 타일을 그립니다.
+     *
+     * @param tileIndex 그릴 osmdroid 타일 인덱스
+     * @param sourceZoom data가 속한 원본 타일의 줌 레벨 (tileIndex의 줌 이하)
+     * @param data 원본 타일의 MVT 바이트 (gzip 가능)
+     * @return 그려진 비트맵, 형식이 잘못되었으면 null
+     */
+    public Bitmap render(long tileIndex, int sourceZoom, byte[] data) {
+        long start = Telemetry.start();
+        zoom = MapTileIndex.getZoom(tileIndex);
+        overzoomShift = Math.max(0, zoom - sourceZoom);
+        int x = MapTileIndex.getX(tileIndex);
+        int y = MapTileIndex.getY(tileIndex);
+        // 원본 타일 안에서 이 타일이 차지하는 위치
+        offsetX = (x - ((x >> overzoomShift) << overzoomShift)) * (float) tileSize;
+        offsetY = (y - ((y >> overzoomShift) << overzoomShift)) * (float) tileSize;
+        widthScale = Math.min(1 << overzoomShift, MAX_WIDTH_SCALE);
+
+        Bitmap bitmap = bitmapCache.obtainBitmap(tileSize, tileSize);
+        canvas.setBitmap(bitmap);
+        try {
+            canvas.drawColor(COLOR_BACKGROUND);
+            decoder.decode(data, this);
+            return bitmap;
+        } catch (IOException e) {
+            Log.w(TAG, "Invalid vector tile " + MapTileIndex.toString(tileIndex) + ": " + e.getMessage());
+            bitmapCache.getPool().put(bitmap);
+            return null;
+        } finally {
+            canvas.setBitmap(null);
+            path.rewind();
+            Telemetry.stop(Telemetry.TILE_RASTERIZE, start);
+        }
+    }
+
+    @Override
+    public boolean visitLayer(String name, int extent) {
+        layer = layerOf(name);
+        if (layer == LAYER_OTHER || (layer == LAYER_BUILDING && zoom < MIN_BUILDING_ZOOM)) {
+            return false;
+        }
+        scale = (float) tileSize * (1 << overzoomShift) / extent;
+        return true;
+    }
+
+    private static int layerOf(String name) {
+        switch (name) {
+            case "water":
+                return LAYER_WATER;
+            case "waterway":
+                return LAYER_WATERWAY;
+            case "landcover":
+                return LAYER_LANDCOVER;
+            case "landuse":
+                return LAYER_LANDUSE;
+            case "park":
+                return LAYER_PARK;
+            case "aeroway":
+                return LAYER_AEROWAY;
+            case "boundary":
+                return LAYER_BOUNDARY;
+            case "transportation":
+            case "road":
+                return LAYER_TRANSPORTATION;
+            case "building":
+                return LAYER_BUILDING;
+            default:
+                return LAYER_OTHER;
+        }
+    }
+
+    /**
+     * 레이어와 태그에 맞는 색과 두께를 고릅니다. 점 피처와 스타일이 없는 피처는 건너뜁니다.
+     */
+    @Override
+    public boolean visitFeature(MvtDecoder.Feature feature) {
+        int type = feature.getType();
+        if (type == MvtDecoder.GEOM_POLYGON) {
+            int color;
+            switch (layer) {
+                case LAYER_WATER:
+                    color = COLOR_WATER;
+                    break;
+                case LAYER_LANDCOVER:
+                    color = feature.hasTag("class", "wood") ? COLOR_WOOD : COLOR_GRASS;
+                    break;
+                case LAYER_LANDUSE:
+                    color = COLOR_LANDUSE;
+                    break;
+                case LAYER_PARK:
+                    color = COLOR_PARK;
+                    break;
+                case LAYER_AEROWAY:
+                    color = COLOR_AEROWAY;
+                    break;
+                case LAYER_BUILDING:
+                    color = COLOR_BUILDING;
+                    break;
+                default:
+                    return false;
+            }
+            fill.setColor(color);
+            paint = fill;
+            return true;
+        }
+        if (type != MvtDecoder.GEOM_LINESTRING) {
+            return false;
+        }
+        switch (layer) {
+            case LAYER_WATERWAY:
+                setStroke(COLOR_WATER, 1.5f);
+                return true;
+            case LAYER_BOUNDARY:
+                if (feature.hasTag("maritime", "1")) {
+                    return false;
+                }
+                setStroke(COLOR_BOUNDARY, 1f);
+                return true;
+            case LAYER_AEROWAY:
+                setStroke(COLOR_AEROWAY, 3f);
+                return true;
+            case LAYER_TRANSPORTATION:
+                return setRoadStroke(feature);
+            default:
+                return false;
+        }
+    }
+
+    private boolean setRoadStroke(MvtDecoder.Feature feature) {
+        if (feature.hasTag("class", "motorway") || feature.hasTag("class", "trunk")) {
+            setStroke(COLOR_MOTORWAY, 3.5f);
+        } else if (feature.hasTag("class", "primary")) {
+            setStroke(COLOR_PRIMARY, 3f);
+        } else if (feature.hasTag("class", "secondary") || feature.hasTag("class", "tertiary")) {
+            setStroke(COLOR_SECONDARY, 2.5f);
+        } else if (feature.hasTag("class", "rail") || feature.hasTag("class", "transit")) {
+            setStroke(COLOR_RAIL, 1f);
+        } else if (feature.hasTag("class", "path") || feature.hasTag("class", "track")) {
+            setStroke(COLOR_PATH, 0.75f);
+        } else {
+            setStroke(COLOR_MINOR, 1.5f);
+        }
+        return true;
+    }
+
+    private void setStroke(int color, float width) {
+        stroke.setColor(color);
+        stroke.setStrokeWidth(width * widthScale);
+        paint = stroke;
+    }
+
+    @Override
+    public void moveTo(int x, int y) {
+        path.moveTo(x * scale - offsetX, y * scale - offsetY);
+    }
+
+    @Override
+    public void lineTo(int x, int y) {
+        path.lineTo(x * scale - offsetX, y * scale - offsetY);
+    }
+
+    @Override
+    public void closePath() {
+        path.close();
+    }
+
+    @Override
+    public void endFeature() {
+        canvas.drawPath(path, paint);
+        path.rewind();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.test_navigation;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorMatrix;
+import android.graphics.ColorMatrixColorFilter;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.util.LruCache;
+
+import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.util.RectL;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.TilesOverlay;
+
+import java.util.Locale;
+
+/**
+ * NightTilesOverlay 클래스는 낮 지도 타일을 그릴 때 색 행렬로 바꿔 야간 지도로 보여 주는 타일 오버레이입니다.
+ *
+ * <ul>
+ *     <li>야간 모드에서는 타일을 다시 디코딩하거나 야간용 아카이브를 두지 않고, 그릴 때 색 필터를 적용합니다.
+ *     디코딩된 타일 캐시({@link TileBitmapCache})는 낮과 밤이 함께 씁니다.</li>
+ *     <li>{@link #RECOLOR_AFTER_DRAWS}번 이상 그려진 타일은 색을 바꾼 비트맵을 한 번 만들어 바이트 예산 안에서
+ *     보관하고, 그 뒤로는 필터 없이 그대로 그립니다. 한 프레임에 새로 만드는 수는 제한합니다.</li>
+ *     <li>낮과 밤 전환은 필터만 바꾸므로 타일 캐시를 비우거나 타일 프로바이더를 다시 만들지 않습니다.</li>
+ * </ul>
+ *
+ * <p>보관한 비트맵은 같은 타일 번호라도 원본 비트맵이 바뀌면(풀에서 재사용되거나 확대 타일이 원본으로 바뀌는 경우)
+ * 다시 만듭니다. 밀려난 비트맵은 이번 프레임의 그리기 목록에 남아 있을 수 있으므로 풀로 돌리지 않고 버립니다.
+ * UI 스레드에서만 사용합니다.</p>
+ */
+public class NightTilesOverlay extends TilesOverlay {
+    private static final String TAG = "NightTilesOverlay";
+
+    /** 이만큼 그려진 타일부터 색을 바꾼 비트맵을 만들어 둡니다. */
+    public static final int RECOLOR_AFTER_DRAWS = 3;
+    /** 한 프레임에 색을 바꾼 비트맵을 새로 만드는 최대 수 */
+    private static final int MAX_RECOLORS_PER_FRAME = 2;
+    /** 아직 비트맵이 없는 항목(그린 횟수만 셈)의 크기로 치는 바이트 수 */
+    private static final int ENTRY_BYTES = 64;
+
+    /** 낮 타일을 야간 색으로 바꾸는 필터 */
+    private static final ColorMatrixColorFilter NIGHT_FILTER = new ColorMatrixColorFilter(createNightMatrix());
+
+    private final LruCache<Long, Entry> recolored;
+    private final long maxBytes;
+    private final IndexedTileLooper looper;
+    private final Paint recolorPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect clip = new Rect();
+    private boolean nightMode;
+    /** 지금 그리는 타일의 osmdroid 타일 인덱스 */
+    private long currentTile;
+    private int recolorsThisFrame;
+
+    /** 타일 번호별 원본 비트맵과 색을 바꾼 비트맵 (만들기 전이면 null) */
+    private static final class Entry {
+        final Bitmap source;
+        final int generation;
+        final Bitmap bitmap;
+        int draws;
+
+        Entry(Bitmap source, Bitmap bitmap, int draws) {
+            this.source = source;
+            this.generation = source.getGenerationId();
+            this.bitmap = bitmap;
+            this.draws = draws;
+        }
+    }
+
+    /**
+     * @param tileProvider 타일 프로바이더
+     * @param context 컨텍스트
+     * @param horizontalWrapEnabled 가로 반복 여부 (MapView 설정과 같게)
+     * @param verticalWrapEnabled 세로 반복 여부 (MapView 설정과 같게)
+     * @param maxBytes 색을 바꾼 비트맵을 보관할 최대 바이트 수
+     */
+    public NightTilesOverlay(MapTileProviderBase tileProvider, Context context,
+                             boolean horizontalWrapEnabled, boolean verticalWrapEnabled, long maxBytes) {
+        super(tileProvider, context, horizontalWrapEnabled, verticalWrapEnabled);
+        this.maxBytes = maxBytes;
+        this.looper = new IndexedTileLooper(horizontalWrapEnabled, verticalWrapEnabled);
+        this.recolorPaint.setColorFilter(NIGHT_FILTER);
+        this.recolored = new LruCache<Long, Entry>((int) Math.min(Integer.MAX_VALUE, maxBytes)) {
+            @Override
+            protected int sizeOf(Long key, Entry value) {
+                return value.bitmap != null ? value.bitmap.getAllocationByteCount() + ENTRY_BYTES : ENTRY_BYTES;
+            }
+        };
+    }
+
+    /**
+     * 밝기는 뒤집고 색상은 유지하는 색 행렬을 만듭니다.
+     * 반전하면 색상도 반대로 바뀌므로 색상환을 180도 돌려 물은 파랗게, 숲은 푸르게 되돌리고 조금 어둡게 합니다.
+     */
+    private static ColorMatrix createNightMatrix() {
+        ColorMatrix matrix = new ColorMatrix(new float[]{
+                -1, 0, 0, 0, 255,
+                0, -1, 0, 0, 255,
+                0, 0, -1, 0, 255,
+                0, 0, 0, 1, 0});
+        // 휘도 가중치 (Rec. 709)
+        float r = 0.213f;
+        float g = 0.715f;
+        float b = 0.072f;
+        matrix.postConcat(new ColorMatrix(new float[]{
+                2 * r - 1, 2 * g, 2 * b, 0, 0,
+                2 * r, 2 * g - 1, 2 * b, 0, 0,
+                2 * r, 2 * g, 2 * b - 1, 0, 0,
+                0, 0, 0, 1, 0}));
+        ColorMatrix dim = new ColorMatrix();
+        dim.setScale(0.8f, 0.8f, 0.85f, 1f);
+        matrix.postConcat(dim);
+        return matrix;
+    }
+
+    public boolean isNightMode() {
+        return nightMode;
+    }
+
+    /**
+     * 낮과 밤 색을 바꿉니다. 타일 캐시는 그대로 두며, 다음에 그릴 때부터 적용됩니다.
+     *
+     * @param nightMode 야간 색으로 그리려면 true
+     */
+    public void setNightMode(boolean nightMode) {
+        this.nightMode = nightMode;
+        setColorFilter(nightMode ? NIGHT_FILTER : null);
+    }
+
+    @Override
+    public void setHorizontalWrapEnabled(boolean horizontalWrapEnabled) {
+        super.setHorizontalWrapEnabled(horizontalWrapEnabled);
+        // 상위 생성자에서 호출될 때는 아직 순회 객체가 없고, 생성자가 같은 값으로 만듭니다.
+        if (looper != null) {
+            looper.setHorizontalWrapEnabled(horizontalWrapEnabled);
+        }
+    }
+
+    @Override
+    public void setVerticalWrapEnabled(boolean verticalWrapEnabled) {
+        super.setVerticalWrapEnabled(verticalWrapEnabled);
+        // 상위 생성자에서 호출될 때는 아직 순회 객체가 없고, 생성자가 같은 값으로 만듭니다.
+        if (looper != null) {
+            looper.setVerticalWrapEnabled(verticalWrapEnabled);
+        }
+    }
+
+    /**
+     * 타일 인덱스를 알 수 있도록 osmdroid의 타일 순회 대신 {@link IndexedTileLooper}로 그립니다.
+     */
+    @Override
+    public void drawTiles(Canvas c, Projection projection, double zoomLevel, RectL viewPort) {
+        setProjection(projection);
+        recolorsThisFrame = 0;
+        looper.loop(zoomLevel, viewPort, c);
+    }
+
+    @Override
+    protected void onTileReadyToDraw(Canvas c, Drawable currentMapTile, Rect tileRect) {
+        Bitmap source = currentMapTile instanceof BitmapDrawable ? ((BitmapDrawable) currentMapTile).getBitmap() : null;
+        if (!nightMode || source == null) {
+            // 낮이거나 불러오는 중 타일: 필터(있으면)만 적용해 그립니다.
+            super.onTileReadyToDraw(c, currentMapTile, tileRect);
+            return;
+        }
+        Entry entry = recolored.get(currentTile);
+        if (entry == null || entry.source != source || entry.generation != source.getGenerationId()) {
+            entry = new Entry(source, null, 0);
+            recolored.put(currentTile, entry);
+        }
+        entry.draws++;
+        if (entry.bitmap == null && entry.draws >= RECOLOR_AFTER_DRAWS
+                && recolorsThisFrame < MAX_RECOLORS_PER_FRAME) {
+            Bitmap bitmap = recolor(source);
+            if (bitmap != null) {
+                recolorsThisFrame++;
+                entry = new Entry(source, bitmap, entry.draws);
+                // 크기가 바뀌므로 다시 넣어 예산을 다시 계산합니다.
+                recolored.put(currentTile, entry);
+            }
+        }
+        if (entry.bitmap == null) {
+            Telemetry.increment(Telemetry.NIGHT_TILE_FILTERED_DRAWS);
+            super.onTileReadyToDraw(c, currentMapTile, tileRect);
+            return;
+        }
+        Telemetry.increment(Telemetry.NIGHT_TILE_CACHED_DRAWS);
+        Rect canvasRect = getCanvasRect();
+        if (canvasRect == null) {
+            c.drawBitmap(entry.bitmap, null, tileRect, bitmapPaint);
+            return;
+        }
+        if (!clip.setIntersect(c.getClipBounds(), canvasRect)) {
+            return;
+        }
+        c.save();
+        c.clipRect(clip);
+        c.drawBitmap(entry.bitmap, null, tileRect, bitmapPaint);
+        c.restore();
+    }
+
+    /**
+     * 원본 타일을 야간 색으로 바꾼 새 비트맵을 만듭니다.
+     *
+     * @return 새 비트맵, 메모리가 부족하면 null
+     */
+    private Bitmap recolor(Bitmap source) {
+        try {
+            Bitmap bitmap = Bitmap.createBitmap(source.getWidth(), source.getHeight(), Bitmap.Config.ARGB_8888);
+            new Canvas(bitmap).drawBitmap(source, 0, 0, recolorPaint);
+            Telemetry.increment(Telemetry.NIGHT_TILE_RECOLORS);
+            return bitmap;
+        } catch (OutOfMemoryError e) {
+            Log.w(TAG, "야간 타일을 만들 메모리가 부족합니다: " + getStats());
+            recolored.trimToSize((int) (maxBytes / 2));
+            return null;
+        }
+    }
+
+    /**
+     * {@link ComponentCallbacks2#onTrimMemory(int)} 수준에 따라 색을 바꾼 비트맵을 버립니다.
+     * 원본 타일에서 언제든 다시 만들 수 있으므로 디코딩된 타일 캐시보다 먼저 비웁니다.
+     *
+     * @param level 메모리 트림 수준
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            recolored.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            recolored.trimToSize((int) (maxBytes / 2));
+        }
+        Log.d(TAG, "trimMemory(" + level + "): " + getStats());
+    }
+
+    /**
+     * 야간 모드 여부와 보관 중인 비트맵 사용량을 한 줄로 반환합니다.
+     *
+     * @return 통계 문자열
+     */
+    public String getStats() {
+        return String.format(Locale.US, "night=%b size=%dKB/%dKB evictions=%d",
+                nightMode, recolored.size() / 1024, maxBytes / 1024, recolored.evictionCount());
+    }
+
+    /**
+     * 그리기 직전의 타일 인덱스를 남기는 타일 순회입니다.
+     */
+    private final class IndexedTileLooper extends OverlayTileLooper {
+
+        IndexedTileLooper(boolean horizontalWrapEnabled, boolean verticalWrapEnabled) {
+            super(horizontalWrapEnabled, verticalWrapEnabled);
+        }
+
+        @Override
+        public void handleTile(long pMapTileIndex, int pX, int pY) {
+            currentTile = pMapTileIndex;
+            super.handleTile(pMapTileIndex, pX, pY);
+        }
+    }
+}
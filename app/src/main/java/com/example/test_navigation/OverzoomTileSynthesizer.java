@@ -0,0 +1,426 @@
+package com.example.test_navigation;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.util.Log;
+
+import org.osmdroid.tileprovider.modules.ConfigurablePriorityThreadFactory;
+import org.osmdroid.util.MapTileIndex;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OverzoomTileSynthesizer 클래스는 래스터 아카이브의 최대 줌보다 큰 타일을 상위 타일을 확대해 만드는 클래스입니다.
+ *
+ * <ul>
+ *     <li>같은 상위 타일 아래의 요청은 하나의 작업으로 모입니다. 작업이 도는 동안 들어온 요청도 같은 작업에 붙으므로,
+ *     최대 줌을 넘어 확대해도 자식 타일마다가 아니라 상위 타일마다 한 번만 읽고 디코딩합니다.</li>
+ *     <li>만든 타일은 {@link TileBitmapCache}와 디스크 캐시에 넣습니다. 디스크 캐시는 아카이브 버전별 디렉토리에 있어
+ *     지도가 갱신되면 이전 버전의 타일은 지워집니다.</li>
+ *     <li>상위 타일이 이미 디코딩된 캐시에 있으면 {@link TileBitmapCache#pin(long)}으로 잡아 두고 그대로 씁니다.
+ *     새로 디코딩한 상위 타일은 작업이 끝나면 캐시에 넣습니다.</li>
+ * </ul>
+ */
+public class OverzoomTileSynthesizer {
+    private static final String TAG = "OverzoomTileSynthesizer";
+
+    /** 원본 최대 줌보다 최대 몇 단계까지 확대하는지 (16배, 256px 타일이면 원본 16px을 확대) */
+    public static final int MAX_OVERZOOM_LEVELS = 4;
+    /** 기본 디스크 캐시 크기 (바이트) */
+    public static final long DEFAULT_DISK_CACHE_BYTES = 64L * 1024 * 1024;
+
+    private static final String FILE_EXTENSION = ".png";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * 만든 타일을 전달받는 콜백입니다. 작업 스레드에서 호출됩니다.
+     */
+    public interface Callback {
+        /**
+         * @param tileIndex osmdroid 타일 인덱스
+         * @param bitmap 만든 타일, 상위 타일이 없으면 null
+         */
+        void onTile(long tileIndex, Bitmap bitmap);
+    }
+
+    private final TileBitmapCache bitmapCache;
+    private final TileArchive archive;
+    private final int sourceMaxZoom;
+    private final int tileSize;
+    private final File cacheRoot;
+    private final File diskDir;
+    private final long diskCacheBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final ExecutorService workers;
+    private final Map<Long, ParentJob> jobs = new HashMap<>();
+
+    /**
+     * @param bitmapCache 디코딩된 타일 캐시
+     * @param archive 상위 타일을 읽을 아카이브
+     * @param sourceMaxZoom 아카이브의 최대 줌
+     * @param tileSize 타일 크기 (픽셀)
+     * @param cacheRoot 디스크 캐시 최상위 디렉토리
+     * @param cacheKey 아카이브 버전을 나타내는 키. 바뀌면 이전 디스크 캐시를 지웁니다.
+     * @param diskCacheBytes 디스크 캐시 최대 크기 (바이트)
+     * @param threads 작업 스레드 수
+     */
+    public OverzoomTileSynthesizer(TileBitmapCache bitmapCache, TileArchive archive, int sourceMaxZoom, int tileSize,
+                                   File cacheRoot, String cacheKey, long diskCacheBytes, int threads) {
+        this.bitmapCache = bitmapCache;
+        this.archive = archive;
+        this.sourceMaxZoom = sourceMaxZoom;
+        this.tileSize = tileSize;
+        this.cacheRoot = cacheRoot;
+        this.diskDir = new File(cacheRoot, cacheKey.replaceAll("[^A-Za-z0-9._-]", "_"));
+        this.diskCacheBytes = diskCacheBytes;
+        this.workers = Executors.newFixedThreadPool(threads,
+                new ConfigurablePriorityThreadFactory(Thread.NORM_PRIORITY, "mbtiles-overzoom"));
+        workers.execute(this::prepareDiskCache);
+    }
+
+    /**
+     * 이 클래스가 만들 수 있는 타일인지 반환합니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     */
+    public boolean handles(long tileIndex) {
+        int shift = MapTileIndex.getZoom(tileIndex) - sourceMaxZoom;
+        return shift > 0 && shift <= MAX_OVERZOOM_LEVELS;
+    }
+
+    private long parentIndex(long tileIndex) {
+        int shift = MapTileIndex.getZoom(tileIndex) - sourceMaxZoom;
+        return MapTileIndex.getTileIndex(sourceMaxZoom,
+                MapTileIndex.getX(tileIndex) >> shift, MapTileIndex.getY(tileIndex) >> shift);
+    }
+
+    /**
+     * 타일을 만들도록 예약합니다. 같은 상위 타일의 작업이 이미 있으면 그 작업에 붙습니다.
+     *
+     * @param tileIndex {@link #handles(long)}가 true인 osmdroid 타일 인덱스
+     * @param callback 작업 스레드에서 결과를 받을 콜백
+     */
+    public void request(long tileIndex, Callback callback) {
+        long parent = parentIndex(tileIndex);
+        ParentJob job;
+        boolean created = false;
+        synchronized (jobs) {
+            job = jobs.get(parent);
+            if (job == null) {
+                job = new ParentJob(parent);
+                jobs.put(parent, job);
+                created = true;
+            }
+            job.tiles.add(tileIndex);
+            job.callbacks.add(callback);
+        }
+        if (!created) {
+            return;
+        }
+        try {
+            workers.execute(job);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "RejectedExecutionException", e);
+            failAll(job);
+        }
+    }
+
+    /**
+     * 타일을 만들 때까지 기다립니다. osmdroid 기본 로더 경로에서 사용합니다.
+     *
+     * @param tileIndex {@link #handles(long)}가 true인 osmdroid 타일 인덱스
+     * @return 만든 타일, 없으면 null
+     */
+    public Bitmap load(long tileIndex) {
+        final Bitmap[] result = new Bitmap[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        request(tileIndex, (index, bitmap) -> {
+            result[0] = bitmap;
+            done.countDown();
+        });
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return result[0];
+    }
+
+    /**
+     * 작업 스레드를 멈춥니다. 아직 처리되지 않은 요청은 실패로 전달됩니다.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+        List<ParentJob> pending;
+        synchronized (jobs) {
+            pending = new ArrayList<>(jobs.values());
+        }
+        for (ParentJob job : pending) {
+            failAll(job);
+        }
+    }
+
+    private void failAll(ParentJob job) {
+        long[] tiles;
+        Callback[] callbacks;
+        synchronized (jobs) {
+            jobs.remove(job.parent);
+            tiles = job.drainTiles();
+            callbacks = job.drainCallbacks();
+        }
+        for (int i = 0; i < tiles.length; i++) {
+            callbacks[i].onTile(tiles[i], null);
+        }
+    }
+
+    /**
+     * 상위 타일 하나에서 그 아래 요청 타일들을 만드는 작업입니다.
+     * 대기 중인 요청을 모두 처리할 때까지 돌고, 비면 작업 목록에서 빠집니다.
+     */
+    private final class ParentJob implements Runnable {
+        final long parent;
+        /** jobs 잠금 안에서만 읽고 씁니다. */
+        final List<Long> tiles = new ArrayList<>(4);
+        final List<Callback> callbacks = new ArrayList<>(4);
+
+        private final Canvas canvas = new Canvas();
+        private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        private final Rect src = new Rect();
+        private final Rect dst = new Rect();
+
+        ParentJob(long parent) {
+            this.parent = parent;
+            // 재사용 비트맵의 이전 내용과 섞이지 않도록 덮어씁니다.
+            paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+        }
+
+        long[] drainTiles() {
+            long[] result = new long[tiles.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = tiles.get(i);
+            }
+            tiles.clear();
+            return result;
+        }
+
+        Callback[] drainCallbacks() {
+            Callback[] result = callbacks.toArray(new Callback[0]);
+            callbacks.clear();
+            return result;
+        }
+
+        @Override
+        public void run() {
+            Bitmap source = bitmapCache.pin(parent);
+            boolean pinned = source != null;
+            boolean parentLoaded = pinned;
+            List<Long> synthesized = new ArrayList<>();
+            try {
+                while (true) {
+                    long[] batch;
+                    Callback[] batchCallbacks;
+                    synchronized (jobs) {
+                        if (tiles.isEmpty()) {
+                            jobs.remove(parent);
+                            break;
+                        }
+                        batch = drainTiles();
+                        batchCallbacks = drainCallbacks();
+                    }
+                    for (int i = 0; i < batch.length; i++) {
+                        long tileIndex = batch[i];
+                        Bitmap bitmap = bitmapCache.get(tileIndex);
+                        if (bitmap == null && source == null) {
+                            // 상위 타일이 메모리에 없으면 디스크 캐시가 상위 타일 디코딩보다 쌉니다.
+                            bitmap = readDiskCache(tileIndex);
+                        }
+                        if (bitmap == null) {
+                            if (!parentLoaded) {
+                                parentLoaded = true;
+                                source = decodeParent();
+                            }
+                            if (source != null) {
+                                bitmap = synthesize(tileIndex, source);
+                                synthesized.add(tileIndex);
+                            }
+                        }
+                        if (bitmap != null) {
+                            bitmapCache.put(tileIndex, bitmap);
+                        }
+                        batchCallbacks[i].onTile(tileIndex, bitmap);
+                    }
+                }
+            } finally {
+                if (pinned) {
+                    bitmapCache.unpin(parent);
+                } else if (source != null) {
+                    bitmapCache.put(parent, source);
+                }
+            }
+            // 화면에 먼저 넘긴 뒤 디스크에 씁니다.
+            for (long tileIndex : synthesized) {
+                writeDiskCache(tileIndex);
+            }
+        }
+
+        private Bitmap decodeParent() {
+            byte[] data = archive.getTile(sourceMaxZoom, MapTileIndex.getX(parent), MapTileIndex.getY(parent));
+            if (data == null) {
+                return null;
+            }
+            Telemetry.increment(Telemetry.OVERZOOM_PARENT_DECODES);
+            return bitmapCache.decode(data);
+        }
+
+        /**
+         * 상위 타일에서 요청 타일에 해당하는 부분을 잘라 타일 크기로 확대합니다.
+         */
+        private Bitmap synthesize(long tileIndex, Bitmap source) {
+            long start = Telemetry.start();
+            int shift = MapTileIndex.getZoom(tileIndex) - sourceMaxZoom;
+            int mask = (1 << shift) - 1;
+            int cellWidth = source.getWidth() >> shift;
+            int cellHeight = source.getHeight() >> shift;
+            int left = (MapTileIndex.getX(tileIndex) & mask) * cellWidth;
+            int top = (MapTileIndex.getY(tileIndex) & mask) * cellHeight;
+            src.set(left, top, left + cellWidth, top + cellHeight);
+            dst.set(0, 0, tileSize, tileSize);
+
+            Bitmap bitmap = bitmapCache.obtainBitmap(tileSize, tileSize);
+            canvas.setBitmap(bitmap);
+            canvas.drawBitmap(source, src, dst, paint);
+            canvas.setBitmap(null);
+            Telemetry.stop(Telemetry.TILE_OVERZOOM, start);
+            return bitmap;
+        }
+    }
+
+    private File tileFile(long tileIndex) {
+        return new File(diskDir, MapTileIndex.getZoom(tileIndex) + "_" + MapTileIndex.getX(tileIndex)
+                + "_" + MapTileIndex.getY(tileIndex) + FILE_EXTENSION);
+    }
+
+    private Bitmap readDiskCache(long tileIndex) {
+        File file = tileFile(tileIndex);
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] data;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            data = new byte[(int) in.length()];
+            in.readFully(data);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read " + file + ": " + e.getMessage());
+            return null;
+        }
+        Bitmap bitmap = bitmapCache.decode(data);
+        if (bitmap != null) {
+            Telemetry.increment(Telemetry.OVERZOOM_DISK_HITS);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 캐시에 있는 타일을 PNG로 디스크 캐시에 씁니다. 임시 파일에 쓴 뒤 이름을 바꾸므로 반쯤 쓰인 파일은 남지 않습니다.
+     */
+    private void writeDiskCache(long tileIndex) {
+        // 압축하는 동안 캐시에서 밀려나 재사용되지 않도록 잡아 둡니다.
+        Bitmap bitmap = bitmapCache.pin(tileIndex);
+        if (bitmap == null) {
+            return;
+        }
+        File file = tileFile(tileIndex);
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        try (OutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write " + file + ": " + e.getMessage());
+            temp.delete();
+            return;
+        } finally {
+            bitmapCache.unpin(tileIndex);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+        if (diskBytes.addAndGet(file.length()) > diskCacheBytes) {
+            trimDiskCache(diskCacheBytes * 3 / 4);
+        }
+    }
+
+    /**
+     * 이전 아카이브 버전의 디스크 캐시를 지우고 현재 크기를 셉니다.
+     */
+    private void prepareDiskCache() {
+        File[] dirs = cacheRoot.listFiles();
+        if (dirs != null) {
+            for (File dir : dirs) {
+                if (!dir.equals(diskDir)) {
+                    deleteRecursively(dir);
+                }
+            }
+        }
+        if (!diskDir.isDirectory() && !diskDir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + diskDir);
+            return;
+        }
+        trimDiskCache(diskCacheBytes);
+    }
+
+    /**
+     * 디스크 캐시를 오래된 파일부터 지워 목표 크기 이하로 줄입니다.
+     */
+    private synchronized void trimDiskCache(long targetBytes) {
+        File[] files = diskDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total > targetBytes) {
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File file : files) {
+                if (total <= targetBytes) {
+                    break;
+                }
+                long length = file.length();
+                if (file.delete()) {
+                    total -= length;
+                }
+            }
+        }
+        diskBytes.set(total);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.test_navigation;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+/**
+ * PathOverlay 클래스는 {@link PathStore}에 저장된 이동 경로를 그리는 오버레이입니다.
+ * 점이 추가될 때 Polyline처럼 전체 점 목록을 다시 넘기지 않고,
+ * 그릴 때마다 현재 줌 레벨의 단순화된 경로 중 화면과 겹치는 선분만 그립니다.
+ */
+public class PathOverlay extends Overlay implements PathStore.SegmentConsumer {
+
+    /** 한 번의 drawLines 호출로 그릴 최대 선분 수 */
+    private static final int LINE_BATCH = 256;
+    /** 화면 밖으로 걸친 선분도 잘리지 않도록 영역을 넓히는 비율 */
+    private static final double VIEWPORT_MARGIN = 0.1;
+
+    private PathStore pathStore;
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float[] lines = new float[LINE_BATCH * 4];
+    private int lineCount;
+    private Canvas canvas;
+    private Projection projection;
+
+    /**
+     * @param pathStore 그릴 경로 저장소
+     */
+    public PathOverlay(PathStore pathStore) {
+        this.pathStore = pathStore;
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setColor(Color.BLUE);
+        paint.setStrokeWidth(5f);
+    }
+
+    public PathStore getPathStore() {
+        return pathStore;
+    }
+
+    /**
+     * 그릴 경로 저장소를 바꿉니다. 저장된 주행 기록을 다시 불러왔을 때 사용합니다.
+     *
+     * @param pathStore 새 경로 저장소
+     */
+    public void setPathStore(PathStore pathStore) {
+        this.pathStore = pathStore;
+    }
+
+    public void setColor(int color) {
+        paint.setColor(color);
+    }
+
+    public void setWidth(float width) {
+        paint.setStrokeWidth(width);
+    }
+
+    @Override
+    public void draw(Canvas pCanvas, Projection pProjection) {
+        if (pathStore.size() < 2) {
+            return;
+        }
+        BoundingBox box = pProjection.getBoundingBox();
+        double latMargin = (box.getLatNorth() - box.getLatSouth()) * VIEWPORT_MARGIN;
+        double lonMargin = (box.getLonEast() - box.getLonWest()) * VIEWPORT_MARGIN;
+        int zoom = TileSystem.getInputTileZoomLevel(pProjection.getZoomLevel());
+
+        canvas = pCanvas;
+        projection = pProjection;
+        lineCount = 0;
+        pathStore.forEachVisibleSegment(zoom,
+                box.getLatSouth() - latMargin, box.getLonWest() - lonMargin,
+                box.getLatNorth() + latMargin, box.getLonEast() + lonMargin, this);
+        flush();
+        canvas = null;
+        projection = null;
+    }
+
+    @Override
+    public void onSegment(double lat1, double lon1, double lat2, double lon2) {
+        int i = lineCount * 4;
+        lines[i] = projection.getLongPixelXFromLongitude(lon1);
+        lines[i + 1] = projection.getLongPixelYFromLatitude(lat1);
+        lines[i + 2] = projection.getLongPixelXFromLongitude(lon2);
+        lines[i + 3] = projection.getLongPixelYFromLatitude(lat2);
+        if (++lineCount == LINE_BATCH) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (lineCount > 0) {
+            canvas.drawLines(lines, 0, lineCount * 4, paint);
+            lineCount = 0;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.test_navigation;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.util.SparseIntArray;
+
+import androidx.core.content.ContextCompat;
+
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.Arrays;
+
+/**
+ * RemoteVehicleOverlay 클래스는 다수의 원격 차량(RV) 아이콘을 하나의 오버레이에서 한 번에 그리는 클래스입니다.
+ * 차량마다 Marker 오버레이를 만드는 대신 위치와 방향을 기본형 배열에 보관하고,
+ * 미리 회전시킨 아이콘을 모아 둔 종류별 스프라이트 아틀라스에서 잘라 그립니다.
+ * 같은 비트맵을 쓰는 그리기 명령은 하드웨어 렌더러에서 묶여 처리됩니다.
+ * 화면 영역 밖의 차량은 좌표 변환 전에 건너뜁니다.
+ * {@link RemoteVehicleStore}를 연결하면 네트워크로 받은 차량도 최신 스냅샷에서 추측 항법한 위치로 함께 그립니다.
+ *
+ * <p>UI 스레드에서만 사용해야 합니다.</p>
+ */
+public class RemoteVehicleOverlay extends Overlay {
+
+    /** 일반 원격 차량 */
+    public static final int TYPE_RV = RemoteVehicleStore.TYPE_RV;
+    /** 전방 원격 차량 */
+    public static final int TYPE_FRONT_RV = RemoteVehicleStore.TYPE_FRONT_RV;
+
+    /** 미리 회전시킬 방향 수 (10도 간격) */
+    private static final int ROTATION_STEPS = 36;
+    private static final float DEGREES_PER_STEP = 360f / ROTATION_STEPS;
+    /**
+     * 아틀라스 한 줄의 칸 수. 방향을 한 줄에 늘어놓으면 고밀도 화면에서 아틀라스 너비가 GPU 최대 텍스처 크기
+     * (4096/8192px)를 넘으므로 6×6 격자로 배치합니다.
+     */
+    private static final int ATLAS_COLUMNS = 6;
+    private static final int ATLAS_ROWS = (ROTATION_STEPS + ATLAS_COLUMNS - 1) / ATLAS_COLUMNS;
+    /** 종류별 앵커 (아이콘 크기에 대한 비율). 전방 RV는 기존 Marker처럼 핀의 아래 가운데가 위치를 가리킵니다. */
+    private static final float[] ANCHOR_X = {0.5f, 0.5f};
+    private static final float[] ANCHOR_Y = {0.5f, 1f};
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** 종류별 아틀라스. 종류마다 한 장씩 두어 한 장의 크기를 줄입니다. */
+    private final Bitmap[] atlases;
+    /** 종류별 칸 크기. 앵커가 칸 가운데에 오도록 그리므로 앵커에서 가장 먼 모서리까지의 두 배입니다. */
+    private final int[] cellSizes;
+    private final int maxCellSize;
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect srcRect = new Rect();
+    private final Rect dstRect = new Rect();
+    private final double[] position = new double[2];
+    private double south, north, west, east;
+
+    private RemoteVehicleStore vehicleStore;
+
+    private final SparseIntArray slotById = new SparseIntArray();
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private float[] headings = new float[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * RV/전방 RV 아이콘으로 회전 스프라이트 아틀라스를 만듭니다.
+     *
+     * @param context 리소스 접근용 컨텍스트
+     */
+    public RemoteVehicleOverlay(Context context) {
+        Drawable[] icons = {
+                ContextCompat.getDrawable(context, R.drawable.icon_rv_marker),
+                ContextCompat.getDrawable(context, R.drawable.icon_front_rv_marker)
+        };
+        atlases = new Bitmap[icons.length];
+        cellSizes = new int[icons.length];
+        int maxSide = 0;
+        for (int type = 0; type < icons.length; type++) {
+            Drawable icon = icons[type];
+            // 앵커를 중심으로 돌리므로 앵커에서 가장 먼 모서리가 칸 안에 들어와야 합니다.
+            double dx = Math.max(ANCHOR_X[type], 1 - ANCHOR_X[type]) * icon.getIntrinsicWidth();
+            double dy = Math.max(ANCHOR_Y[type], 1 - ANCHOR_Y[type]) * icon.getIntrinsicHeight();
+            cellSizes[type] = (int) Math.ceil(2 * Math.hypot(dx, dy));
+            atlases[type] = buildAtlas(icon, ANCHOR_X[type], ANCHOR_Y[type], cellSizes[type]);
+            maxSide = Math.max(maxSide, cellSizes[type]);
+        }
+        maxCellSize = maxSide;
+    }
+
+    /**
+     * 방향별로 회전시킨 아이콘을 {@link #ATLAS_COLUMNS}열 격자에 한 칸씩 그린 아틀라스를 만듭니다.
+     * 아이콘의 앵커가 칸 가운데에 오도록 그리고, 앵커를 중심으로 돌립니다.
+     */
+    private static Bitmap buildAtlas(Drawable icon, float anchorX, float anchorY, int cellSize) {
+        Bitmap bitmap = Bitmap.createBitmap(cellSize * ATLAS_COLUMNS, cellSize * ATLAS_ROWS, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        int width = icon.getIntrinsicWidth();
+        int height = icon.getIntrinsicHeight();
+        int left = -Math.round(anchorX * width);
+        int top = -Math.round(anchorY * height);
+        icon.setBounds(left, top, left + width, top + height);
+        for (int step = 0; step < ROTATION_STEPS; step++) {
+            canvas.save();
+            canvas.translate((step % ATLAS_COLUMNS) * cellSize + cellSize / 2f,
+                    (step / ATLAS_COLUMNS) * cellSize + cellSize / 2f);
+            canvas.rotate(step * DEGREES_PER_STEP);
+            icon.draw(canvas);
+            canvas.restore();
+        }
+        return bitmap;
+    }
+
+    /**
+     * 차량을 추가하거나, 이미 있으면 위치와 방향을 갱신합니다.
+     *
+     * @param id 차량 ID
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param heading 진행 방향 (도, 북쪽 기준 시계 방향)
+     * @param type {@link #TYPE_RV} 또는 {@link #TYPE_FRONT_RV}
+     */
+    public void setVehicle(int id, double latitude, double longitude, float heading, int type) {
+        int slot = slotById.get(id, -1);
+        if (slot < 0) {
+            ensureCapacity(count + 1);
+            slot = count++;
+            ids[slot] = id;
+            slotById.put(id, slot);
+        }
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        headings[slot] = heading;
+        types[slot] = (byte) type;
+    }
+
+    /**
+     * 여러 차량을 한 번에 추가하거나 갱신합니다.
+     *
+     * @param vehicleIds 차량 ID 배열
+     * @param lats 위도 배열
+     * @param lons 경도 배열
+     * @param vehicleHeadings 방향 배열
+     * @param type 모든 차량에 적용할 종류
+     * @param n 배열에서 사용할 항목 수
+     */
+    public void setVehicles(int[] vehicleIds, double[] lats, double[] lons, float[] vehicleHeadings, int type, int n) {
+        ensureCapacity(count + n);
+        for (int i = 0; i < n; i++) {
+            setVehicle(vehicleIds[i], lats[i], lons[i], vehicleHeadings[i], type);
+        }
+    }
+
+    /**
+     * 차량을 제거합니다. 마지막 항목을 빈 자리로 옮기므로 O(1)입니다.
+     *
+     * @param id 제거할 차량 ID
+     * @return 제거되었으면 true
+     */
+    public boolean removeVehicle(int id) {
+        int slot = slotById.get(id, -1);
+        if (slot < 0) {
+            return false;
+        }
+        slotById.delete(id);
+        int last = --count;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            latitudes[slot] = latitudes[last];
+            longitudes[slot] = longitudes[last];
+            headings[slot] = headings[last];
+            types[slot] = types[last];
+            slotById.put(ids[slot], slot);
+        }
+        return true;
+    }
+
+    /**
+     * 여러 차량을 한 번에 제거합니다.
+     *
+     * @param vehicleIds 제거할 차량 ID 배열
+     * @param n 배열에서 사용할 항목 수
+     */
+    public void removeVehicles(int[] vehicleIds, int n) {
+        for (int i = 0; i < n; i++) {
+            removeVehicle(vehicleIds[i]);
+        }
+    }
+
+    /**
+     * 지정된 종류의 차량을 모두 제거합니다.
+     *
+     * @param type 제거할 종류
+     * @return 제거된 차량 수
+     */
+    public int removeVehiclesOfType(int type) {
+        int removed = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            if (types[i] == type) {
+                removeVehicle(ids[i]);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 모든 차량을 제거합니다.
+     */
+    public void clear() {
+        slotById.clear();
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 네트워크로 받은 차량을 함께 그릴 저장소를 설정합니다.
+     *
+     * @param store 차량 저장소 (null이면 해제)
+     */
+    public void setVehicleStore(RemoteVehicleStore store) {
+        vehicleStore = store;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        latitudes = Arrays.copyOf(latitudes, newLength);
+        longitudes = Arrays.copyOf(longitudes, newLength);
+        headings = Arrays.copyOf(headings, newLength);
+        types = Arrays.copyOf(types, newLength);
+    }
+
+    @Override
+    public void draw(Canvas pCanvas, Projection pProjection) {
+        RemoteVehicleStore store = vehicleStore;
+        if (count == 0 && store == null) {
+            return;
+        }
+        BoundingBox box = pProjection.getBoundingBox();
+        // 아이콘 크기만큼 영역을 넓혀 가장자리에 걸친 차량도 그립니다.
+        double marginDegrees = maxCellSize * TileMath.metersPerPixel(box.getCenterLatitude(), pProjection.getZoomLevel())
+                / TileMath.METERS_PER_DEGREE;
+        south = box.getLatSouth() - marginDegrees;
+        north = box.getLatNorth() + marginDegrees;
+        west = box.getLonWest() - marginDegrees;
+        east = box.getLonEast() + marginDegrees;
+
+        for (int i = 0; i < count; i++) {
+            drawVehicle(pCanvas, pProjection, latitudes[i], longitudes[i], headings[i], types[i]);
+        }
+
+        if (store != null) {
+            RemoteVehicleStore.Snapshot snapshot = store.acquire();
+            try {
+                long now = RemoteVehicleStore.now();
+                int frontSlot = snapshot.getFrontSlot();
+                for (int i = 0, n = snapshot.size(); i < n; i++) {
+                    // 게시가 멈춘 동안 만료된 차량은 다음 게시를 기다리지 않고 건너뜁니다.
+                    if (snapshot.isStale(i, now)) {
+                        continue;
+                    }
+                    snapshot.extrapolate(i, now, position);
+                    drawVehicle(pCanvas, pProjection, position[0], position[1],
+                            snapshot.getHeading(i), i == frontSlot ? TYPE_FRONT_RV : snapshot.getType(i));
+                }
+            } finally {
+                store.release(snapshot);
+            }
+        }
+    }
+
+    /**
+     * 화면 영역 안에 있으면 종류와 방향에 맞는 아틀라스 칸을 잘라 차량 하나를 그립니다.
+     */
+    private void drawVehicle(Canvas canvas, Projection projection, double lat, double lon, float heading, int type) {
+        if (lat < south || lat > north || lon < west || lon > east) {
+            return;
+        }
+        int step = Math.round(heading / DEGREES_PER_STEP) % ROTATION_STEPS;
+        if (step < 0) {
+            step += ROTATION_STEPS;
+        }
+        int cellSize = cellSizes[type];
+        int srcX = (step % ATLAS_COLUMNS) * cellSize;
+        int srcY = (step / ATLAS_COLUMNS) * cellSize;
+        srcRect.set(srcX, srcY, srcX + cellSize, srcY + cellSize);
+
+        // 앵커가 칸 가운데에 있으므로 칸 가운데를 위치에 맞춥니다.
+        int half = cellSize / 2;
+        int x = (int) projection.getLongPixelXFromLongitude(lon);
+        int y = (int) projection.getLongPixelYFromLatitude(lat);
+        dstRect.set(x - half, y - half, x - half + cellSize, y - half + cellSize);
+        canvas.drawBitmap(atlases[type], srcRect, dstRect, paint);
+    }
+
+    @Override
+    public void onDetach(MapView mapView) {
+        for (Bitmap atlas : atlases) {
+            atlas.recycle();
+        }
+        super.onDetach(mapView);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.test_navigation;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Point;
+import android.util.AttributeSet;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.osmdroid.api.IGeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RotatedMapLayer 클래스는 지도를 다시 그리지 않고 돌리는 가벼운 회전 모드를 담당하는 뷰입니다.
+ *
+ * <ul>
+ *     <li>켜지면 MapView를 화면 대각선보다 여백만큼 큰 정사각형으로 키우고 하드웨어 레이어로 만듭니다.
+ *     타일은 이 오프스크린 버퍼에 한 번 그려지고, 헤딩 변경은 뷰 회전({@link View#setRotation})으로,
+ *     여백 안의 위치 이동은 뷰 이동({@link View#setTranslationX})으로 합성 단계에서만 적용됩니다.</li>
+ *     <li>위치가 여백을 벗어나거나 줌이 바뀌면 지도 중심을 옮겨 버퍼를 한 번 다시 그립니다.</li>
+ *     <li>매 프레임 바뀌는 오버레이(경로, 원격 차량, 자기 차량)는 MapView에서 이 뷰로 옮겨 그리므로
+ *     버퍼를 무효화하지 않습니다. 이 뷰도 MapView와 같은 크기와 변환을 가지므로 지도 투영을 그대로 씁니다.</li>
+ * </ul>
+ *
+ * <p>레이아웃에서 MapView와 같은 FrameLayout에 MapView 위로 두어야 합니다. 터치를 받지 않으므로 제스처는 지도로 전달됩니다.</p>
+ */
+public class RotatedMapLayer extends View {
+
+    /** 버퍼 가장자리 여백 (화면 짧은 변에 대한 비율) */
+    public static final float MARGIN_FRACTION = 0.25f;
+
+    private MapView map;
+    private final List<Overlay> overlays = new ArrayList<>();
+    private final Point pixel = new Point();
+    private boolean active;
+    private float rotation;
+    private int marginPx;
+
+    public RotatedMapLayer(Context context) {
+        super(context);
+    }
+
+    public RotatedMapLayer(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 가벼운 회전 모드를 켭니다.
+     *
+     * @param mapView 같은 FrameLayout 안의 지도
+     * @param dynamicOverlays 이 뷰로 옮겨 그릴 오버레이 (그리는 순서대로)
+     */
+    public void activate(MapView mapView, List<? extends Overlay> dynamicOverlays) {
+        if (active) {
+            return;
+        }
+        View container = (View) mapView.getParent();
+        int width = container.getWidth();
+        int height = container.getHeight();
+        if (width == 0 || height == 0) {
+            return;
+        }
+        map = mapView;
+        active = true;
+        overlays.addAll(dynamicOverlays);
+        map.getOverlays().removeAll(dynamicOverlays);
+
+        marginPx = (int) (Math.min(width, height) * MARGIN_FRACTION);
+        int side = (int) Math.ceil(Math.hypot(width, height)) + 2 * marginPx;
+        setSquareSize(map, side);
+        setSquareSize(this, side);
+        map.setLayerType(LAYER_TYPE_HARDWARE, null);
+        setVisibility(VISIBLE);
+        Telemetry.increment(Telemetry.MAP_BUFFER_REBUILDS);
+    }
+
+    /**
+     * 가벼운 회전 모드를 끄고 오버레이를 지도로 돌려줍니다.
+     */
+    public void deactivate() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        map.getOverlays().addAll(overlays);
+        overlays.clear();
+        for (View view : new View[]{map, this}) {
+            view.setRotation(0f);
+            view.setTranslationX(0f);
+            view.setTranslationY(0f);
+            view.setLayoutParams(new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        }
+        map.setLayerType(LAYER_TYPE_NONE, null);
+        setVisibility(GONE);
+        map.invalidate();
+    }
+
+    private static void setSquareSize(View view, int side) {
+        view.setLayoutParams(new FrameLayout.LayoutParams(side, side, Gravity.CENTER));
+    }
+
+    /**
+     * 헤딩을 뷰 회전으로 적용합니다. 버퍼는 다시 그리지 않습니다.
+     *
+     * @param heading 지도 방향 (도, {@link MapView#setMapOrientation}과 같은 의미)
+     * @param center 화면 가운데에 둘 위치
+     */
+    public void setHeading(float heading, IGeoPoint center) {
+        rotation = heading;
+        map.setRotation(rotation);
+        setRotation(rotation);
+        setCenter(center, false);
+    }
+
+    /**
+     * 위치를 화면 가운데에 둡니다. 버퍼 중심에서 여백 안이면 뷰 이동만 하고,
+     * 벗어났거나 {@code rebuild}가 true면 지도 중심을 옮겨 버퍼를 다시 그립니다.
+     *
+     * @param center 화면 가운데에 둘 위치
+     * @param rebuild 줌 변경처럼 버퍼를 반드시 다시 그려야 하면 true
+     * @return 버퍼를 다시 그렸으면 true
+     */
+    public boolean setCenter(IGeoPoint center, boolean rebuild) {
+        Projection projection = map.getProjection();
+        projection.toPixels(center, pixel);
+        float dx = pixel.x - map.getWidth() / 2f;
+        float dy = pixel.y - map.getHeight() / 2f;
+        boolean rebuilt = rebuild || Math.abs(dx) > marginPx || Math.abs(dy) > marginPx;
+        if (rebuilt) {
+            map.getController().setCenter(center);
+            dx = 0f;
+            dy = 0f;
+            invalidate();
+            Telemetry.increment(Telemetry.MAP_BUFFER_REBUILDS);
+        } else {
+            Telemetry.increment(Telemetry.MAP_BUFFER_TRANSFORMS);
+        }
+        // 뷰는 가운데를 축으로 돌므로, 위치의 화면 좌표가 가운데에 오도록 회전된 오프셋만큼 반대로 옮깁니다.
+        double radians = Math.toRadians(rotation);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        float tx = -(dx * cos - dy * sin);
+        float ty = -(dx * sin + dy * cos);
+        map.setTranslationX(tx);
+        map.setTranslationY(ty);
+        setTranslationX(tx);
+        setTranslationY(ty);
+        return rebuilt;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (!active) {
+            return;
+        }
+        Projection projection = map.getProjection();
+        for (int i = 0, n = overlays.size(); i < n; i++) {
+            Overlay overlay = overlays.get(i);
+            if (overlay.isEnabled()) {
+                overlay.draw(canvas, projection);
+            }
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        // 지도에서 빠진 오버레이는 지도가 정리하지 않으므로 여기서 정리합니다.
+        for (Overlay overlay : overlays) {
+            overlay.onDetach(map);
+        }
+        overlays.clear();
+        super.onDetachedFromWindow();
+    }
+}
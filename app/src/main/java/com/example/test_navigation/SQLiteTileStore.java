@@ -0,0 +1,136 @@
+package com.example.test_navigation;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * SQLiteTileStore 클래스는 MBTiles 파일을 쓰기 가능하게 여는 {@link WritableTileStore}입니다.
+ * 지도 델타 적용({@link TileDeltaApplier})에서 바뀐 타일을 담는 패치 파일에 사용하며, 타일 조회는 {@link MBTilesArchive}와 같은 SQL을 사용합니다.
+ */
+public class SQLiteTileStore implements WritableTileStore, Closeable {
+
+    private final SQLiteDatabase db;
+    private final SQLiteStatement insertTile;
+    private final SQLiteStatement deleteTile;
+
+    /**
+     * @param file MBTiles 파일
+     * @throws IOException 열 수 없는 경우
+     */
+    public SQLiteTileStore(File file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * @param file MBTiles 파일
+     * @param create 파일이 없으면 빈 MBTiles로 만들려면 true (지도 델타의 패치 파일)
+     * @throws IOException 열거나 만들 수 없는 경우
+     */
+    public SQLiteTileStore(File file, boolean create) throws IOException {
+        try {
+            int flags = SQLiteDatabase.OPEN_READWRITE | SQLiteDatabase.NO_LOCALIZED_COLLATORS;
+            db = SQLiteDatabase.openDatabase(file.getAbsolutePath(), null,
+                    create ? flags | SQLiteDatabase.CREATE_IF_NECESSARY : flags);
+            if (create) {
+                db.execSQL(MBTilesSchema.CREATE_TILES);
+                db.execSQL(MBTilesSchema.CREATE_TILES_INDEX);
+                db.execSQL(MBTilesSchema.CREATE_METADATA);
+            }
+            insertTile = db.compileStatement(MBTilesSchema.SQL_INSERT_TILE);
+            deleteTile = db.compileStatement(MBTilesSchema.SQL_DELETE_TILE);
+        } catch (SQLException e) {
+            throw new IOException("Cannot open " + file, e);
+        }
+    }
+
+    @Override
+    public byte[] getTile(int zoom, int x, int y) throws IOException {
+        try (Cursor cursor = db.rawQuery(MBTilesSchema.SQL_SINGLE_TILE, new String[]{
+                Integer.toString(zoom), Integer.toString(x), Integer.toString(MBTilesSchema.flipY(zoom, y))})) {
+            return cursor.moveToFirst() ? cursor.getBlob(0) : null;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void putTile(int zoom, int x, int y, byte[] data) throws IOException {
+        try {
+            insertTile.bindLong(1, zoom);
+            insertTile.bindLong(2, x);
+            insertTile.bindLong(3, MBTilesSchema.flipY(zoom, y));
+            insertTile.bindBlob(4, data);
+            insertTile.executeInsert();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void deleteTile(int zoom, int x, int y) throws IOException {
+        try {
+            deleteTile.bindLong(1, zoom);
+            deleteTile.bindLong(2, x);
+            deleteTile.bindLong(3, MBTilesSchema.flipY(zoom, y));
+            deleteTile.executeUpdateDelete();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public String getMetadata(String name) throws IOException {
+        try (Cursor cursor = db.rawQuery(MBTilesSchema.SQL_METADATA, new String[]{name})) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void putMetadata(String name, String value) throws IOException {
+        try {
+            db.delete("metadata", "name=?", new String[]{name});
+            if (value != null) {
+                ContentValues values = new ContentValues();
+                values.put("name", name);
+                values.put("value", value);
+                db.insertOrThrow("metadata", null, values);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void beginTransaction() {
+        db.beginTransaction();
+    }
+
+    @Override
+    public void commit() {
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    @Override
+    public void rollback() {
+        if (db.inTransaction()) {
+            db.endTransaction();
+        }
+    }
+
+    @Override
+    public void close() {
+        insertTile.close();
+        deleteTile.close();
+        db.close();
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.test_navigation;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TileBitmapCache 클래스는 디코딩된 타일 비트맵을 바이트 예산 안에서 보관하는 LRU 캐시입니다.
+ * 타일 개수가 아니라 비트맵의 실제 할당 크기로 용량을 계산하며,
+ * 밀려난 비트맵은 {@link TileBitmapPool}에 반환되어 다음 디코딩에 재사용됩니다.
+ *
+ * <p>osmdroid의 메모리 타일 캐시가 아직 그리고 있는 비트맵은 재사용하면 안 되므로,
+ * 화면에 넘겨준 타일은 {@link #markDisplayed(long)}로 표시해 두고
+ * osmdroid가 해당 타일을 버렸다는 {@link #onTileRemoved(long)} 통지를 받은 뒤에만 풀로 보냅니다.
+ * 백그라운드 작업이 캐시된 비트맵을 읽는 동안에도 {@link #pin(long)}과 {@link #unpin(long)}으로 같은 보호를 받습니다.</p>
+ */
+public class TileBitmapCache {
+    private static final String TAG = "TileBitmapCache";
+
+    private final LruCache<Long, Bitmap> cache;
+    private final TileBitmapPool pool;
+    private final long maxBytes;
+    private final Set<Long> keys = ConcurrentHashMap.newKeySet();
+
+    private final Object lendLock = new Object();
+    private final Set<Long> displayed = new HashSet<>();
+    private final Map<Long, Integer> pinned = new HashMap<>();
+    private final Map<Long, Bitmap> orphaned = new HashMap<>();
+
+    /**
+     * @param maxBytes 캐시에 보관할 디코딩된 비트맵의 최대 바이트 수
+     */
+    public TileBitmapCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.pool = new TileBitmapPool(maxBytes / 4);
+        this.cache = new LruCache<Long, Bitmap>((int) Math.min(Integer.MAX_VALUE, maxBytes)) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Long key, Bitmap oldValue, Bitmap newValue) {
+                if (newValue == null) {
+                    keys.remove(key);
+                }
+                if (oldValue != newValue) {
+                    release(key, oldValue);
+                }
+            }
+        };
+    }
+
+    /**
+     * 앱 힙 한도를 기준으로 기본 예산(힙의 1/8)을 계산합니다.
+     *
+     * @return 기본 캐시 크기 (바이트)
+     */
+    public static long getDefaultMaxBytes() {
+        return Runtime.getRuntime().maxMemory() / 8;
+    }
+
+    /**
+     * 캐시된 비트맵을 가져옵니다. 적중/실패 횟수가 집계됩니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     * @return 캐시된 비트맵, 없으면 null
+     */
+    public Bitmap get(long tileIndex) {
+        return cache.get(tileIndex);
+    }
+
+    /**
+     * 비트맵을 캐시에 넣습니다. 예산을 넘으면 가장 오래 쓰이지 않은 타일부터 밀려납니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     * @param bitmap 디코딩된 비트맵
+     */
+    public void put(long tileIndex, Bitmap bitmap) {
+        keys.add(tileIndex);
+        cache.put(tileIndex, bitmap);
+    }
+
+    /**
+     * 적중/실패 통계와 LRU 순서에 영향을 주지 않고 타일이 캐시에 있는지 확인합니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     * @return 캐시에 있으면 true
+     */
+    public boolean contains(long tileIndex) {
+        return keys.contains(tileIndex);
+    }
+
+    /**
+     * 풀의 비트맵을 재사용하여 타일 바이트를 디코딩합니다.
+     * 재사용 가능한 비트맵이 맞지 않으면 새로 할당하여 다시 디코딩합니다.
+     *
+     * @param data PNG/JPEG/WebP 타일 바이트
+     * @return 디코딩된 비트맵, 실패하면 null
+     */
+    public Bitmap decode(byte[] data) {
+        long start = Telemetry.start();
+        try {
+            return decodeReusing(data);
+        } finally {
+            Telemetry.stop(Telemetry.TILE_DECODE, start);
+        }
+    }
+
+    private Bitmap decodeReusing(byte[] data) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inBitmap = pool.obtain(options.outWidth * options.outHeight * 4);
+        try {
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            // 재사용 비트맵의 형식이 맞지 않는 경우
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+    }
+
+    /**
+     * 타일을 직접 그릴 빈 비트맵을 얻습니다. 풀에 충분히 큰 비트맵이 있으면 크기를 바꿔 재사용합니다.
+     *
+     * @param width 너비 (픽셀)
+     * @param height 높이 (픽셀)
+     * @return ARGB_8888 형식의 변경 가능한 비트맵 (내용은 지워지지 않은 상태)
+     */
+    public Bitmap obtainBitmap(int width, int height) {
+        Bitmap bitmap = pool.obtain(width * height * 4);
+        if (bitmap != null) {
+            try {
+                bitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+                return bitmap;
+            } catch (IllegalArgumentException e) {
+                // 재사용 비트맵을 새 크기로 바꿀 수 없는 경우
+            }
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * 타일 비트맵이 osmdroid 메모리 캐시(화면)로 넘어갔음을 표시합니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     */
+    public void markDisplayed(long tileIndex) {
+        synchronized (lendLock) {
+            displayed.add(tileIndex);
+        }
+    }
+
+    /**
+     * 캐시된 비트맵을 가져오고, {@link #unpin(long)}을 호출할 때까지 밀려나더라도 재사용되지 않게 합니다.
+     * 다른 타일을 만들 때 원본으로 읽는 동안 사용합니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     * @return 캐시된 비트맵, 없으면 null (이때는 unpin을 호출하지 않습니다)
+     */
+    public Bitmap pin(long tileIndex) {
+        synchronized (lendLock) {
+            Bitmap bitmap = cache.get(tileIndex);
+            if (bitmap != null) {
+                Integer count = pinned.get(tileIndex);
+                pinned.put(tileIndex, count == null ? 1 : count + 1);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * {@link #pin(long)}으로 잡은 비트맵을 놓습니다. 그 사이 캐시에서 밀려났다면 이제 풀로 반환합니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     */
+    public void unpin(long tileIndex) {
+        Bitmap orphan = null;
+        synchronized (lendLock) {
+            Integer count = pinned.get(tileIndex);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                pinned.put(tileIndex, count - 1);
+            } else {
+                pinned.remove(tileIndex);
+                if (!displayed.contains(tileIndex)) {
+                    orphan = orphaned.remove(tileIndex);
+                }
+            }
+        }
+        if (orphan != null) {
+            pool.put(orphan);
+        }
+    }
+
+    /**
+     * osmdroid 메모리 캐시에서 타일이 제거되었을 때 호출됩니다.
+     * 이 캐시에서 이미 밀려난 비트맵이었다면 이제 풀로 반환합니다.
+     *
+     * @param tileIndex osmdroid 타일 인덱스
+     */
+    public void onTileRemoved(long tileIndex) {
+        Bitmap orphan = null;
+        synchronized (lendLock) {
+            displayed.remove(tileIndex);
+            if (!pinned.containsKey(tileIndex)) {
+                orphan = orphaned.remove(tileIndex);
+            }
+        }
+        if (orphan != null) {
+            pool.put(orphan);
+        }
+    }
+
+    private void release(long tileIndex, Bitmap bitmap) {
+        synchronized (lendLock) {
+            if (displayed.contains(tileIndex) || pinned.containsKey(tileIndex)) {
+                orphaned.put(tileIndex, bitmap);
+                return;
+            }
+        }
+        pool.put(bitmap);
+    }
+
+    /**
+     * {@link ComponentCallbacks2#onTrimMemory(int)} 수준에 따라 단계적으로 캐시를 줄입니다.
+     *
+     * @param level 메모리 트림 수준
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // 백그라운드에서 종료 후보가 된 상태: 전부 비웁니다.
+            cache.evictAll();
+            pool.clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            // 실행 중 심각/화면 숨김/백그라운드: 1/4만 남깁니다.
+            cache.trimToSize((int) (maxBytes / 4));
+            pool.clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.trimToSize((int) (maxBytes / 2));
+            pool.trimTo(pool.getMaxBytes() / 2);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            cache.trimToSize((int) (maxBytes * 3 / 4));
+        }
+        Log.d(TAG, "trimMemory(" + level + "): " + getStats());
+    }
+
+    public int getHitCount() {
+        return cache.hitCount();
+    }
+
+    public int getMissCount() {
+        return cache.missCount();
+    }
+
+    public int getEvictionCount() {
+        return cache.evictionCount();
+    }
+
+    public long getSizeBytes() {
+        return cache.size();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public TileBitmapPool getPool() {
+        return pool;
+    }
+
+    /**
+     * 적중/실패/제거 횟수와 현재 사용량을 한 줄로 반환합니다.
+     *
+     * @return 캐시 통계 문자열
+     */
+    public String getStats() {
+        return String.format(Locale.US, "hits=%d misses=%d evictions=%d size=%dKB/%dKB pool=%d(%dKB)",
+                cache.hitCount(), cache.missCount(), cache.evictionCount(),
+                cache.size() / 1024, maxBytes / 1024, pool.getCount(), pool.getSizeBytes() / 1024);
+    }
+}
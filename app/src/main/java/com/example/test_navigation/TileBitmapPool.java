@@ -0,0 +1,97 @@
+package com.example.test_navigation;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * TileBitmapPool 클래스는 타일 디코딩에 재사용할 비트맵을 보관하는 풀입니다.
+ * 캐시에서 밀려난 비트맵을 버리지 않고 {@code BitmapFactory.Options.inBitmap}으로 다시 사용하여
+ * 타일마다 새 비트맵을 할당하는 비용과 GC 부담을 줄입니다.
+ * 풀의 크기도 바이트 단위로 제한됩니다.
+ */
+public class TileBitmapPool {
+
+    private final ArrayDeque<Bitmap> bitmaps = new ArrayDeque<>();
+    private final long maxBytes;
+    private long sizeBytes;
+
+    /**
+     * @param maxBytes 풀에 보관할 최대 바이트 수
+     */
+    public TileBitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 필요한 크기 이상을 담을 수 있는 재사용 비트맵을 꺼냅니다.
+     *
+     * @param requiredBytes 디코딩 결과에 필요한 바이트 수
+     * @return 재사용할 비트맵, 없으면 null
+     */
+    public synchronized Bitmap obtain(int requiredBytes) {
+        Iterator<Bitmap> it = bitmaps.iterator();
+        while (it.hasNext()) {
+            Bitmap bitmap = it.next();
+            if (bitmap.isRecycled()) {
+                it.remove();
+                sizeBytes -= bitmap.getAllocationByteCount();
+                continue;
+            }
+            if (bitmap.getAllocationByteCount() >= requiredBytes) {
+                it.remove();
+                sizeBytes -= bitmap.getAllocationByteCount();
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 더 이상 화면과 캐시에서 쓰이지 않는 비트맵을 풀에 반환합니다.
+     * 재사용할 수 없는 비트맵이나 한도를 넘는 비트맵은 버려집니다.
+     *
+     * @param bitmap 반환할 비트맵
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        int bytes = bitmap.getAllocationByteCount();
+        if (sizeBytes + bytes > maxBytes) {
+            return;
+        }
+        bitmaps.addLast(bitmap);
+        sizeBytes += bytes;
+    }
+
+    /**
+     * 풀의 크기를 지정된 바이트 이하로 줄입니다.
+     *
+     * @param targetBytes 목표 크기
+     */
+    public synchronized void trimTo(long targetBytes) {
+        while (sizeBytes > targetBytes && !bitmaps.isEmpty()) {
+            Bitmap bitmap = bitmaps.pollFirst();
+            sizeBytes -= bitmap.getAllocationByteCount();
+        }
+    }
+
+    public synchronized void clear() {
+        bitmaps.clear();
+        sizeBytes = 0;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized int getCount() {
+        return bitmaps.size();
+    }
+}
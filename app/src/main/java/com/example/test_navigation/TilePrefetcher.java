@@ -0,0 +1,270 @@
+package com.example.test_navigation;
+
+import android.util.Log;
+
+import org.osmdroid.util.MapTileIndex;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TilePrefetcher 클래스는 차량의 진행 방향과 속도로 앞으로 지나갈 경로를 예측하여
+ * 그 경로(회랑) 위의 타일을 화면에 보이기 전에 미리 읽어두는 클래스입니다.
+ * 현재 줌 레벨과 위/아래 인접 줌 레벨의 타일을 낮은 우선순위로 요청하며,
+ * 미리 읽은 타일 중 실제로 화면에 쓰인 비율을 집계합니다.
+ */
+public class TilePrefetcher implements MBTilesTileModule.PrefetchListener, MBTilesTileModule.CacheHitListener {
+    private static final String TAG = "TilePrefetcher";
+
+    /** 속도와 진행 방향 추정에 사용할 최근 위치 수 */
+    private static final int HISTORY_SIZE = 8;
+    /** 예측 경로를 다시 계산하는 최소 간격 (밀리초) */
+    private static final long MIN_PLAN_INTERVAL_MS = 500;
+    /** 이 속도(m/s) 미만이면 정지한 것으로 보고 미리 읽지 않습니다. */
+    private static final double MIN_SPEED_MPS = 1.0;
+    /** 이동 거리가 이 값(미터) 이상이면 궤적 방향을, 미만이면 헤딩을 진행 방향으로 사용합니다. */
+    private static final double MIN_COURSE_DISTANCE_M = 5.0;
+    /** 회랑 중심선 좌우로 포함할 타일 수 */
+    private static final int CORRIDOR_HALF_WIDTH = 1;
+    /** 적중 여부를 추적할 미리 읽은 타일의 최대 수 */
+    private static final int MAX_TRACKED_TILES = 2048;
+
+    private final MBTilesTileModule module;
+    private final int minZoom;
+    private final int maxZoom;
+    private volatile float lookaheadSeconds = 30f;
+
+    private final double[] historyLat = new double[HISTORY_SIZE];
+    private final double[] historyLon = new double[HISTORY_SIZE];
+    private final long[] historyTime = new long[HISTORY_SIZE];
+    private int historyCount;
+    private int historyHead;
+
+    private float heading = Float.NaN;
+    private int zoom;
+    private long lastPlanTime = Long.MIN_VALUE;
+
+    private final Set<Long> prefetchedTiles = new LinkedHashSet<>();
+    private final AtomicLong requestedCount = new AtomicLong();
+    private final AtomicLong loadedCount = new AtomicLong();
+    private final AtomicLong displayedCount = new AtomicLong();
+
+    /**
+     * @param module 타일을 읽어올 MBTiles 모듈
+     * @param initialZoom 현재 지도 줌 레벨
+     */
+    public TilePrefetcher(MBTilesTileModule module, int initialZoom) {
+        this.module = module;
+        this.minZoom = module.getMinimumZoomLevel();
+        this.maxZoom = module.getMaximumZoomLevel();
+        this.zoom = initialZoom;
+        module.setCacheHitListener(this);
+    }
+
+    /**
+     * 몇 초 앞까지 미리 읽을지 설정합니다.
+     *
+     * @param seconds 예측 시간 (초)
+     */
+    public void setLookaheadSeconds(float seconds) {
+        lookaheadSeconds = Math.max(0f, seconds);
+    }
+
+    public float getLookaheadSeconds() {
+        return lookaheadSeconds;
+    }
+
+    /**
+     * 새로운 헤딩을 반영합니다.
+     *
+     * @param newHeading 방향 (도 단위, 북쪽 기준 시계 방향)
+     */
+    public synchronized void setHeading(float newHeading) {
+        heading = newHeading;
+    }
+
+    /**
+     * 지도 줌 레벨이 바뀌었을 때 호출합니다.
+     *
+     * @param newZoom 새 줌 레벨
+     */
+    public synchronized void setZoom(int newZoom) {
+        if (zoom != newZoom) {
+            zoom = newZoom;
+            lastPlanTime = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * 새로운 위치를 기록하고, 필요하면 예측 경로를 다시 계산하여 미리 읽기를 요청합니다.
+     *
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param timeMillis 위치를 받은 시각 (단조 증가 시계, 밀리초)
+     */
+    public void onLocationChanged(double latitude, double longitude, long timeMillis) {
+        Set<Long> plan;
+        synchronized (this) {
+            historyLat[historyHead] = latitude;
+            historyLon[historyHead] = longitude;
+            historyTime[historyHead] = timeMillis;
+            historyHead = (historyHead + 1) % HISTORY_SIZE;
+            historyCount = Math.min(historyCount + 1, HISTORY_SIZE);
+
+            if (timeMillis - lastPlanTime < MIN_PLAN_INTERVAL_MS) {
+                return;
+            }
+            lastPlanTime = timeMillis;
+            plan = planFromHistory();
+        }
+        if (plan != null && !plan.isEmpty()) {
+            requestedCount.addAndGet(plan.size());
+            module.prefetch(plan, this);
+        }
+    }
+
+    /**
+     * 최근 위치 기록으로 속도와 진행 방향을 추정하여 미리 읽을 타일 목록을 만듭니다.
+     */
+    private Set<Long> planFromHistory() {
+        if (historyCount < 2) {
+            return null;
+        }
+        int newest = (historyHead - 1 + HISTORY_SIZE) % HISTORY_SIZE;
+        int oldest = (historyHead - historyCount + HISTORY_SIZE) % HISTORY_SIZE;
+        double lat = historyLat[newest];
+        double lon = historyLon[newest];
+        double dt = (historyTime[newest] - historyTime[oldest]) / 1000.0;
+        if (dt <= 0) {
+            return null;
+        }
+
+        double northMeters = (lat - historyLat[oldest]) * TileMath.METERS_PER_DEGREE;
+        double eastMeters = (lon - historyLon[oldest]) * TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(lat));
+        double distance = Math.hypot(northMeters, eastMeters);
+        double speed = distance / dt;
+        if (speed < MIN_SPEED_MPS) {
+            return null;
+        }
+
+        double bearing;
+        if (distance >= MIN_COURSE_DISTANCE_M) {
+            bearing = Math.toDegrees(Math.atan2(eastMeters, northMeters));
+        } else if (!Float.isNaN(heading)) {
+            bearing = heading;
+        } else {
+            return null;
+        }
+
+        // 줌 레벨별로 넣은 순서를 유지하면서 중복은 집합이 걸러 냅니다.
+        Set<Long> plan = new LinkedHashSet<>();
+        double lookaheadMeters = speed * lookaheadSeconds;
+        for (int z = zoom - 1; z <= zoom + 1; z++) {
+            if (z >= minZoom && z <= maxZoom) {
+                planCorridor(lat, lon, bearing, lookaheadMeters, z, CORRIDOR_HALF_WIDTH, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * 현재 위치에서 진행 방향으로 지정된 거리만큼 뻗은 회랑 위의 타일을 가까운 순서로 구합니다.
+     * 중심선을 반 타일 간격으로 따라가며 진행 방향에 수직인 좌우 타일을 함께 포함합니다.
+     *
+     * @param latitude 현재 위도
+     * @param longitude 현재 경도
+     * @param bearing 진행 방향 (도, 북쪽 기준 시계 방향)
+     * @param distanceMeters 예측 거리 (미터)
+     * @param zoom 줌 레벨
+     * @param halfWidth 중심선 좌우로 포함할 타일 수
+     * @param out 결과 타일 인덱스를 추가할 집합 (가까운 순서를 유지하려면 LinkedHashSet)
+     */
+    public static void planCorridor(double latitude, double longitude, double bearing, double distanceMeters,
+                                    int zoom, int halfWidth, Set<Long> out) {
+        double startX = TileMath.longitudeToTileX(longitude, zoom);
+        double startY = TileMath.latitudeToTileY(latitude, zoom);
+        double tileMeters = TileMath.tileSizeMeters(latitude, zoom);
+        double distanceTiles = distanceMeters / tileMeters;
+
+        // 메르카토르 타일 좌표에서는 y가 남쪽으로 증가합니다.
+        double dirX = Math.sin(Math.toRadians(bearing));
+        double dirY = -Math.cos(Math.toRadians(bearing));
+        double step = 0.5;
+
+        for (double t = step; t <= distanceTiles + step; t += step) {
+            double cx = startX + dirX * t;
+            double cy = startY + dirY * t;
+            for (int w = -halfWidth; w <= halfWidth; w++) {
+                // 수직 방향: (-dirY, dirX)
+                int x = (int) Math.floor(cx - dirY * w);
+                int y = (int) Math.floor(cy + dirX * w);
+                if (x < 0 || y < 0 || x >= (1 << zoom) || y >= (1 << zoom)) {
+                    continue;
+                }
+                out.add(MapTileIndex.getTileIndex(zoom, x, y));
+            }
+        }
+    }
+
+    @Override
+    public void onTilePrefetched(long tileIndex) {
+        loadedCount.incrementAndGet();
+        synchronized (prefetchedTiles) {
+            prefetchedTiles.add(tileIndex);
+            if (prefetchedTiles.size() > MAX_TRACKED_TILES) {
+                Iterator<Long> it = prefetchedTiles.iterator();
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public void onCacheHit(long tileIndex) {
+        boolean wasPrefetched;
+        synchronized (prefetchedTiles) {
+            wasPrefetched = prefetchedTiles.remove(tileIndex);
+        }
+        if (wasPrefetched) {
+            displayedCount.incrementAndGet();
+        }
+    }
+
+    /** 미리 읽기를 요청한 타일 수 (캐시에 이미 있던 타일 포함) */
+    public long getRequestedCount() {
+        return requestedCount.get();
+    }
+
+    /** 미리 읽어서 캐시에 넣은 타일 수 */
+    public long getLoadedCount() {
+        return loadedCount.get();
+    }
+
+    /** 미리 읽은 타일 중 실제로 화면 요청에 쓰인 타일 수 */
+    public long getDisplayedCount() {
+        return displayedCount.get();
+    }
+
+    /**
+     * 미리 읽기 통계를 한 줄로 반환합니다.
+     *
+     * @return 통계 문자열
+     */
+    public String getStats() {
+        long loaded = loadedCount.get();
+        long displayed = displayedCount.get();
+        double ratio = loaded > 0 ? 100.0 * displayed / loaded : 0.0;
+        return String.format(Locale.US, "requested=%d loaded=%d displayed=%d (%.1f%%)",
+                requestedCount.get(), loaded, displayed, ratio);
+    }
+
+    /**
+     * 현재 통계를 로그로 출력합니다.
+     */
+    public void logStats() {
+        Log.d(TAG, getStats());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.test_navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * FrameUpdateScheduler가 프레임 사이의 변경을 최신 값 하나로 합치는지 검증하는 단위 테스트입니다.
+ */
+public class FrameUpdateSchedulerTest {
+
+    private int frameRequests;
+    private int frameCancels;
+    private int locationCalls;
+    private int headingCalls;
+    private int frameCalls;
+    private double lastLatitude;
+    private float lastHeading;
+    private boolean lastOverlaysChanged;
+    private FrameUpdateScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new FrameUpdateScheduler(new FrameUpdateScheduler.Target() {
+            @Override
+            public void applyLocation(double latitude, double longitude) {
+                locationCalls++;
+                lastLatitude = latitude;
+            }
+
+            @Override
+            public void applyHeading(float heading) {
+                headingCalls++;
+                lastHeading = heading;
+            }
+
+            @Override
+            public void applyFrame(boolean overlaysChanged) {
+                frameCalls++;
+                lastOverlaysChanged = overlaysChanged;
+            }
+        }, () -> frameRequests++, () -> frameCancels++);
+    }
+
+    @Test
+    public void updatesWithinOneFrame_areCoalescedToLatest() {
+        for (int i = 0; i < 5; i++) {
+            scheduler.postLocation(37.0 + i, 127.0);
+        }
+        for (int i = 0; i < 20; i++) {
+            scheduler.postHeading(i);
+        }
+        scheduler.postOverlayChange();
+        scheduler.postOverlayChange();
+
+        assertEquals(1, frameRequests);
+        scheduler.doFrame(0L);
+
+        assertEquals(1, locationCalls);
+        assertEquals(41.0, lastLatitude, 0.0);
+        assertEquals(1, headingCalls);
+        assertEquals(19f, lastHeading, 0f);
+        assertEquals(1, frameCalls);
+        assertTrue(lastOverlaysChanged);
+        assertEquals(4, scheduler.getMergedLocationCount());
+        assertEquals(19, scheduler.getMergedHeadingCount());
+        assertEquals(1, scheduler.getMergedOverlayCount());
+    }
+
+    @Test
+    public void nextFrame_isRequestedOnlyAfterPreviousFrameRan() {
+        scheduler.postHeading(10f);
+        scheduler.doFrame(0L);
+        assertEquals(1, frameRequests);
+
+        scheduler.postHeading(20f);
+        assertEquals(2, frameRequests);
+        scheduler.doFrame(16_000_000L);
+
+        assertEquals(2, headingCalls);
+        assertEquals(0, locationCalls);
+        assertFalse(lastOverlaysChanged);
+        assertEquals(2, scheduler.getFrameCount());
+        assertEquals(0, scheduler.getMergedHeadingCount());
+    }
+
+    @Test
+    public void released_ignoresFurtherUpdates() {
+        scheduler.release();
+        scheduler.postLocation(37.0, 127.0);
+        assertEquals(0, frameRequests);
+        assertEquals(0, frameCancels);
+    }
+
+    @Test
+    public void release_cancelsPendingFrame() {
+        scheduler.postOverlayChange();
+        scheduler.release();
+        assertEquals(1, frameCancels);
+        // 취소 전에 이미 실행된 콜백도 아무것도 적용하지 않습니다.
+        scheduler.doFrame(16_000_000L);
+        assertEquals(0, frameCalls);
+        scheduler.release();
+        assertEquals(1, frameCancels);
+    }
+}
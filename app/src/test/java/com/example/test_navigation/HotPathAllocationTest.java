@@ -0,0 +1,124 @@
+package com.example.test_navigation;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.osmdroid.util.GeoPoint;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 위치 갱신과 프레임 처리 경로가 정상 상태에서 메모리를 할당하지 않는지 검증하는 회귀 테스트입니다.
+ * MainActivity가 위치 하나를 받을 때 거치는 순수 자바 부분(좌표 갱신, 경로 추가, 주행 기록 대기열, 프레임 스케줄링,
+ * 픽셀당 미터 계산, 축척 문자열, 전방 차량 기준 위치, 원격 차량 추측 항법)을 반복하고 스레드 할당 바이트를 잽니다.
+ */
+public class HotPathAllocationTest {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+    private static final int WARMUP_UPDATES = 50_000;
+    private static final int MEASURED_UPDATES = 20_000;
+    /** 측정 구간 전체에서 허용하는 할당량 (측정 호출 자체의 잡음 여유) */
+    private static final long MAX_TOTAL_BYTES = 1024;
+
+    private final GeoPoint location = new GeoPoint(0.0, 0.0);
+    private final PathStore pathStore = new PathStore(4096);
+    private final TripLogQueue tripLogQueue = new TripLogQueue(1024);
+    private final ScaleBarLabels scaleBarLabels = new ScaleBarLabels();
+    private final RemoteVehicleStore vehicleStore = new RemoteVehicleStore(Long.MAX_VALUE / 4);
+    private final double[] position = new double[2];
+    private String label;
+    private double zoom;
+
+    private final FrameUpdateScheduler scheduler = new FrameUpdateScheduler(new FrameUpdateScheduler.Target() {
+        @Override
+        public void applyLocation(double latitude, double longitude) {
+            location.setCoords(latitude, longitude);
+        }
+
+        @Override
+        public void applyHeading(float heading) {
+        }
+
+        @Override
+        public void applyFrame(boolean overlaysChanged) {
+            label = scaleBarLabels.getLabel(location.getLatitude(), zoom, 1080, 2.625f);
+            RemoteVehicleStore.Snapshot snapshot = vehicleStore.acquire();
+            try {
+                for (int i = 0; i < snapshot.size(); i++) {
+                    snapshot.extrapolate(i, 1000, position);
+                }
+            } finally {
+                vehicleStore.release(snapshot);
+            }
+        }
+    }, () -> { }, () -> { });
+
+    private void update(int i) throws IOException {
+        double latitude = LAT + (i % 10_000) * 1e-5;
+        double longitude = LON + Math.sin(i * 0.01) * 1e-3;
+        zoom = 10 + (i % 64) / 16.0;
+        pathStore.add(latitude, longitude);
+        assertTrue(tripLogQueue.offer(i, latitude, longitude, i % 360, Float.NaN));
+        if (tripLogQueue.requestDrain()) {
+            // 앱에서는 주행 기록 스레드가 비웁니다. 여기서는 기록 없이 대기열만 비웁니다.
+            tripLogQueue.drainTo(null);
+        }
+        vehicleStore.setHost(latitude, longitude, i % 360);
+        scheduler.postLocation(latitude, longitude);
+        scheduler.postHeading(i % 360);
+        scheduler.postOverlayChange();
+        scheduler.doFrame(i * 16_666_667L);
+    }
+
+    @Test
+    public void locationUpdate_allocatesNothingInSteadyState() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        for (int id = 0; id < 100; id++) {
+            vehicleStore.ingest(id, RemoteVehicleOverlay.TYPE_RV, LAT, LON, id, 10f, 0);
+        }
+        vehicleStore.publish(0);
+
+        for (int i = 0; i < WARMUP_UPDATES; i++) {
+            update(i);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = WARMUP_UPDATES; i < WARMUP_UPDATES + MEASURED_UPDATES; i++) {
+            update(i);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertNotNull(label);
+        assertTrue("hot path allocated " + allocated + " bytes over " + MEASURED_UPDATES
+                        + " updates, scale label misses=" + scaleBarLabels.getMissCount(),
+                allocated <= MAX_TOTAL_BYTES);
+    }
+
+    @Test
+    public void tableMetersPerPixel_matchesExactFormula() {
+        for (double lat = -85; lat <= 85; lat += 0.37) {
+            for (double z = 0; z <= 22; z += 0.113) {
+                double exact = 6378137 * Math.cos(Math.toRadians(lat)) * 2 * Math.PI / (256 * Math.pow(2, z));
+                assertEquals(exact, TileMath.metersPerPixel(lat, z), exact * 1e-5);
+            }
+        }
+    }
+
+    @Test
+    public void scaleLabels_areCachedAndFormatted() {
+        ScaleBarLabels labels = new ScaleBarLabels();
+        assertEquals("200 m", labels.getLabel(200));
+        assertEquals("2 km", labels.getLabel(2500));
+        assertSame(labels.getLabel(200), labels.getLabel(200));
+        assertEquals(2, labels.getMissCount());
+    }
+}
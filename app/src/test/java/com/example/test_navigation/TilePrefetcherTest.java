@@ -0,0 +1,56 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+import org.osmdroid.util.MapTileIndex;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * TilePrefetcher의 예측 회랑 계산을 검증하는 단위 테스트입니다.
+ */
+public class TilePrefetcherTest {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+
+    @Test
+    public void corridor_headingNorth_extendsToSmallerY() {
+        Set<Long> tiles = new LinkedHashSet<>();
+        int zoom = 16;
+        TilePrefetcher.planCorridor(LAT, LON, 0, 3000, zoom, 0, tiles);
+
+        int startX = (int) TileMath.longitudeToTileX(LON, zoom);
+        int startY = (int) TileMath.latitudeToTileY(LAT, zoom);
+        assertFalse(tiles.isEmpty());
+        for (long index : tiles) {
+            assertEquals(startX, MapTileIndex.getX(index));
+            assertTrue(MapTileIndex.getY(index) <= startY);
+        }
+        // 가까운 타일부터 정렬되어 있어야 합니다.
+        int previousY = Integer.MAX_VALUE;
+        for (long index : tiles) {
+            assertTrue(MapTileIndex.getY(index) <= previousY);
+            previousY = MapTileIndex.getY(index);
+        }
+    }
+
+    @Test
+    public void corridor_widthAndDeduplication() {
+        Set<Long> tiles = new LinkedHashSet<>();
+        TilePrefetcher.planCorridor(LAT, LON, 90, 2000, 15, 1, tiles);
+        int size = tiles.size();
+        TilePrefetcher.planCorridor(LAT, LON, 90, 2000, 15, 1, tiles);
+
+        assertEquals(size, tiles.size());
+        HashSet<Integer> rows = new HashSet<>();
+        for (long index : tiles) {
+            rows.add(MapTileIndex.getY(index));
+        }
+        // 동쪽으로 진행하면 좌우(남북) 한 칸씩 포함하여 세 줄이 됩니다.
+        assertEquals(3, rows.size());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+import org.osmdroid.util.GeoPoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * 기록 재생기로 위치 갱신 경로에 최대 속도로 부하를 주고 모든 이벤트가 처리되는지 확인하는 헤드리스 부하 시험입니다.
+ * 초당 처리 수와 지연 백분위는 {@value #REPORT_DIR_PROPERTY} 디렉터리(빌드에서는 build/reports/traceReplay)의
+ * {@value #REPORT_FILE}에 남겨 빌드끼리 비교할 수 있게 합니다.
+ * MainActivity가 재생 이벤트를 받을 때 거치는 순수 자바 부분(경로 추가, 프레임 스케줄링, 원격 차량 저장소)을 그대로 사용합니다.
+ */
+public class TraceReplayLoadTest {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+    /** 기록 길이: 10분, GNSS 10Hz, 나침반 50Hz, 원격 차량 20대 10Hz */
+    private static final int DURATION_MILLIS = 10 * 60 * 1000;
+    private static final int VEHICLES = 20;
+    /** 보고서를 쓸 디렉터리를 지정하는 시스템 속성 (app/build.gradle.kts에서 설정) */
+    static final String REPORT_DIR_PROPERTY = "traceReplay.reportDir";
+    static final String REPORT_FILE = "trace-replay-load.txt";
+
+    private final GeoPoint location = new GeoPoint(0.0, 0.0);
+    private final PathStore pathStore = new PathStore();
+    private final RemoteVehicleStore vehicleStore = new RemoteVehicleStore(Long.MAX_VALUE / 4);
+    private long frameTime;
+    private int appliedLocations;
+
+    private final FrameUpdateScheduler scheduler = new FrameUpdateScheduler(new FrameUpdateScheduler.Target() {
+        @Override
+        public void applyLocation(double latitude, double longitude) {
+            location.setCoords(latitude, longitude);
+            appliedLocations++;
+        }
+
+        @Override
+        public void applyHeading(float heading) {
+        }
+
+        @Override
+        public void applyFrame(boolean overlaysChanged) {
+            vehicleStore.publish(frameTime);
+        }
+    }, () -> { }, () -> { });
+
+    private static ReplayTrace buildTrace() {
+        ReplayTrace trace = new ReplayTrace();
+        for (int t = 0; t < DURATION_MILLIS; t += 100) {
+            double angle = t / 60_000.0 * 2 * Math.PI;
+            trace.addLocation(t, LAT + 0.01 * Math.sin(angle), LON + 0.01 * Math.cos(angle));
+            for (int id = 0; id < VEHICLES; id++) {
+                trace.addVehicle(t, id, RemoteVehicleStore.TYPE_RV, LAT + id * 1e-4, LON, t % 360, 10f);
+            }
+        }
+        for (int t = 0; t < DURATION_MILLIS; t += 20) {
+            trace.addHeading(t, (t / 20) % 360);
+        }
+        trace.sort();
+        return trace;
+    }
+
+    @Test
+    public void maxSpeedReplay_writesThroughputAndLatencyReport() throws IOException {
+        ReplayTrace trace = buildTrace();
+        TraceReplayer replayer = new TraceReplayer(trace, new TraceReplayer.Sink() {
+            private int events;
+
+            @Override
+            public void onLocation(double latitude, double longitude) {
+                pathStore.add(latitude, longitude);
+                scheduler.postLocation(latitude, longitude);
+                scheduler.postOverlayChange();
+                tick();
+            }
+
+            @Override
+            public void onHeading(float heading) {
+                scheduler.postHeading(heading);
+                tick();
+            }
+
+            @Override
+            public void onVehicle(int id, int type, double latitude, double longitude, float heading, float speed) {
+                vehicleStore.ingest(id, type, latitude, longitude, heading, speed, frameTime);
+                tick();
+            }
+
+            /** 이벤트 8개마다 한 프레임이 지나간 것으로 봅니다. */
+            private void tick() {
+                if (++events % 8 == 0) {
+                    frameTime += 16;
+                    scheduler.doFrame(frameTime * 1_000_000L);
+                }
+            }
+        }, TraceReplayer.SPEED_MAX);
+
+        int dispatched = replayer.runBlocking();
+        String stats = replayer.getStats(System.nanoTime());
+        File report = new File(System.getProperty(REPORT_DIR_PROPERTY, "build/reports/traceReplay"), REPORT_FILE);
+        if (!report.getParentFile().isDirectory() && !report.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create " + report.getParentFile());
+        }
+        Files.write(report.toPath(), stats.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(stats, trace.size(), dispatched);
+        assertTrue(replayer.isFinished());
+        assertEquals(DURATION_MILLIS / 100, pathStore.size());
+        assertTrue(appliedLocations > 0);
+        RemoteVehicleStore.Snapshot snapshot = vehicleStore.acquire();
+        try {
+            assertEquals(VEHICLES, snapshot.size());
+        } finally {
+            vehicleStore.release(snapshot);
+        }
+        assertEquals(trace.size(), replayer.getDispatchLatency().getCount());
+        assertTrue(report.length() > 0);
+    }
+}
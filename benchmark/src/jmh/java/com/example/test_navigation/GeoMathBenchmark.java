@@ -0,0 +1,56 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 축척 계산에 쓰는 픽셀당 미터 계산과 무작위 위치 생성의 비용을 측정합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeoMathBenchmark {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+
+    private final Random random = new Random(42);
+    private final double[] out = new double[2];
+    private int step;
+
+    private double nextLatitude() {
+        step = (step + 1) & 1023;
+        return LAT + step * 1e-4;
+    }
+
+    private double nextZoom() {
+        return 10 + (step & 63) / 16.0;
+    }
+
+    /** 표 보간 방식 (TileMath.metersPerPixel) */
+    @Benchmark
+    public double metersPerPixel() {
+        return TileMath.metersPerPixel(nextLatitude(), nextZoom());
+    }
+
+    /** 비교용: cos와 pow를 매번 계산하는 기존 방식 */
+    @Benchmark
+    public double metersPerPixelDirect() {
+        double latitude = nextLatitude();
+        double zoomLevel = nextZoom();
+        return 6378137 * Math.cos(Math.toRadians(latitude)) * 2 * Math.PI / (256 * Math.pow(2, zoomLevel));
+    }
+
+    @Benchmark
+    public double randomPointInRadius() {
+        GeoMath.randomPointInRadius(random, LAT, LON, 100, out);
+        return out[0] + out[1];
+    }
+}
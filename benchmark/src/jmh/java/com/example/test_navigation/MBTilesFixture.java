@@ -0,0 +1,60 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * 벤치마크 실행 시점에 MBTiles 파일을 만드는 도우미입니다.
+ * 타일 내용은 PNG가 아닌 무작위 바이트이며, 읽기 경로의 I/O와 쿼리 비용만 측정하는 데 사용합니다.
+ */
+final class MBTilesFixture {
+
+    private MBTilesFixture() {
+    }
+
+    /**
+     * 한 줌 레벨에 size x size 타일을 담은 MBTiles 파일을 만듭니다.
+     *
+     * @param zoom 줌 레벨
+     * @param minX 시작 x (XYZ)
+     * @param minY 시작 y (XYZ)
+     * @param size 한 변의 타일 수
+     * @param tileBytes 타일 하나의 크기 (바이트)
+     * @return 임시 파일 (JVM 종료 시 삭제)
+     */
+    static File create(int zoom, int minX, int minY, int size, int tileBytes) throws IOException, SQLException {
+        File file = File.createTempFile("bench", ".mbtiles");
+        file.deleteOnExit();
+        Random random = new Random(zoom * 31L + size);
+        byte[] data = new byte[tileBytes];
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(MBTilesSchema.CREATE_TILES);
+                statement.execute(MBTilesSchema.CREATE_TILES_INDEX);
+                statement.execute(MBTilesSchema.CREATE_METADATA);
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(MBTilesSchema.SQL_INSERT_TILE)) {
+                for (int x = minX; x < minX + size; x++) {
+                    for (int y = minY; y < minY + size; y++) {
+                        random.nextBytes(data);
+                        insert.setInt(1, zoom);
+                        insert.setInt(2, x);
+                        insert.setInt(3, MBTilesSchema.flipY(zoom, y));
+                        insert.setBytes(4, data);
+                        insert.addBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+        return file;
+    }
+}
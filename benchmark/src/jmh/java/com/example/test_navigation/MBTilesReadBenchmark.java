@@ -0,0 +1,120 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MBTiles 타일 읽기 비용을 측정합니다.
+ * 앱의 MBTilesArchive와 같은 SQL({@link MBTilesSchema})을 JDBC로 실행하여
+ * 타일별 단건 쿼리와 뷰포트 전체를 한 번에 읽는 범위 쿼리를 비교합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MBTilesReadBenchmark {
+
+    private static final int ZOOM = 14;
+    private static final int MIN_X = 13970;
+    private static final int MIN_Y = 6340;
+    private static final int ARCHIVE_SIZE = 64;
+
+    /** 뷰포트 한 변의 타일 수 */
+    @Param({"4", "8"})
+    public int viewport;
+
+    @Param({"16384"})
+    public int tileBytes;
+
+    private File file;
+    private Connection connection;
+    private PreparedStatement singleTile;
+    private PreparedStatement tileRange;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = MBTilesFixture.create(ZOOM, MIN_X, MIN_Y, ARCHIVE_SIZE, tileBytes);
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        singleTile = connection.prepareStatement(MBTilesSchema.SQL_SINGLE_TILE);
+        tileRange = connection.prepareStatement(MBTilesSchema.SQL_TILE_RANGE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        file.delete();
+    }
+
+    /** 매 호출마다 뷰포트 위치를 옮겨 같은 타일만 반복해서 읽지 않게 합니다. */
+    private int nextOrigin() {
+        cursor = (cursor + 1) % (ARCHIVE_SIZE - viewport);
+        return cursor;
+    }
+
+    private long readSingle(int x, int y) throws SQLException {
+        singleTile.setInt(1, ZOOM);
+        singleTile.setInt(2, x);
+        singleTile.setInt(3, MBTilesSchema.flipY(ZOOM, y));
+        try (ResultSet rs = singleTile.executeQuery()) {
+            return rs.next() ? rs.getBytes(1).length : 0;
+        }
+    }
+
+    /** 타일 하나를 읽습니다. */
+    @Benchmark
+    public long singleTile() throws SQLException {
+        int origin = nextOrigin();
+        return readSingle(MIN_X + origin, MIN_Y + origin);
+    }
+
+    /** 뷰포트의 타일을 타일마다 쿼리 하나씩 읽습니다. */
+    @Benchmark
+    public long viewportSingleQueries() throws SQLException {
+        int origin = nextOrigin();
+        long bytes = 0;
+        for (int x = MIN_X + origin; x < MIN_X + origin + viewport; x++) {
+            for (int y = MIN_Y + origin; y < MIN_Y + origin + viewport; y++) {
+                bytes += readSingle(x, y);
+            }
+        }
+        return bytes;
+    }
+
+    /** 뷰포트의 타일을 범위 쿼리 하나로 읽습니다. */
+    @Benchmark
+    public long viewportRangeQuery() throws SQLException {
+        int origin = nextOrigin();
+        int minX = MIN_X + origin;
+        int minY = MIN_Y + origin;
+        int maxX = minX + viewport - 1;
+        int maxY = minY + viewport - 1;
+        tileRange.setInt(1, ZOOM);
+        tileRange.setInt(2, minX);
+        tileRange.setInt(3, maxX);
+        tileRange.setInt(4, MBTilesSchema.flipY(ZOOM, maxY));
+        tileRange.setInt(5, MBTilesSchema.flipY(ZOOM, minY));
+        long bytes = 0;
+        try (ResultSet rs = tileRange.executeQuery()) {
+            while (rs.next()) {
+                bytes += rs.getBytes(3).length;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 지도 맞춤의 위치당 비용을 측정합니다. {@link RoadGraphFixture} 격자 도로망에서 찾은 경로를 12m 간격으로
+ * 따라가며 표준편차 8m의 잡음을 섞은 위치를 차례로 넣습니다. 위치 하나는 후보 찾기, 비터비 갱신,
+ * 창에서 밀려난 위치의 확정을 포함합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapMatcherBenchmark {
+
+    private static final double SPACING_METERS = 12;
+    private static final double NOISE_METERS = 8;
+
+    /** 격자 한 변의 노드 수 */
+    @Param({"100", "300"})
+    public int size;
+
+    private RoadGraphFixture fixture;
+    private RoadGraphReader graph;
+    private MapMatcher matcher;
+    private Blackhole blackhole;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int count;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) throws IOException {
+        this.blackhole = blackhole;
+        fixture = RoadGraphFixture.create(size, 42);
+        graph = new RoadGraphReader(fixture.file);
+        int last = size * size - 1;
+        Route route = new Router(graph).route(
+                graph.nearestNode(fixture.latitude(0), fixture.longitude(0), 10),
+                graph.nearestNode(fixture.latitude(last), fixture.longitude(last), 10));
+        int capacity = (int) (route.getDistanceMeters() / SPACING_METERS) + route.getPointCount() + 1;
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        Random random = new Random(7);
+        double offset = 0;
+        for (int i = 0; i + 1 < route.getPointCount(); i++) {
+            double length = GeoMath.distanceMeters(route.getLatitude(i), route.getLongitude(i),
+                    route.getLatitude(i + 1), route.getLongitude(i + 1));
+            for (; offset < length; offset += SPACING_METERS) {
+                double t = offset / length;
+                double latitude = route.getLatitude(i) + t * (route.getLatitude(i + 1) - route.getLatitude(i));
+                double longitude = route.getLongitude(i) + t * (route.getLongitude(i + 1) - route.getLongitude(i));
+                latitudes[count] = latitude + random.nextGaussian() * NOISE_METERS / TileMath.METERS_PER_DEGREE;
+                longitudes[count++] = longitude + random.nextGaussian() * NOISE_METERS
+                        / (TileMath.METERS_PER_DEGREE * TileMath.cosDegrees(latitude));
+            }
+            offset -= length;
+        }
+        matcher = new MapMatcher(graph, (latitude, longitude, snapped) -> this.blackhole.consume(latitude));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graph.close();
+        fixture.file.delete();
+    }
+
+    /** 위치 하나 맞추기. 기록 끝에서 처음으로 돌아갈 때는 위치가 멀리 뛰어 창을 새로 시작합니다. */
+    @Benchmark
+    public void addFix() {
+        matcher.add(latitudes[next], longitudes[next]);
+        next = next + 1 == count ? 0 : next + 1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이동 경로 저장(추가 + 줌별 단순화)과 화면 영역 선분 순회의 비용을 경로 길이별로 측정합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PathStoreBenchmark {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+
+    @Param({"10000", "100000", "1000000"})
+    public int points;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private PathStore filled;
+    private double south, west, north, east;
+    private int segments;
+
+    private final PathStore.SegmentConsumer counter = (lat1, lon1, lat2, lon2) -> segments++;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 1초 간격, 약 15m/s로 방향을 조금씩 바꾸며 달리는 주행 궤적
+        Random random = new Random(7);
+        latitudes = new double[points];
+        longitudes = new double[points];
+        double lat = LAT;
+        double lon = LON;
+        double bearing = 0;
+        double metersPerDegreeLon = TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(LAT));
+        for (int i = 0; i < points; i++) {
+            bearing += random.nextGaussian() * 5;
+            lat += 15 * Math.cos(Math.toRadians(bearing)) / TileMath.METERS_PER_DEGREE;
+            lon += 15 * Math.sin(Math.toRadians(bearing)) / metersPerDegreeLon;
+            latitudes[i] = lat;
+            longitudes[i] = lon;
+        }
+        filled = new PathStore(points);
+        for (int i = 0; i < points; i++) {
+            filled.add(latitudes[i], longitudes[i]);
+        }
+        // 마지막 위치 주변 약 2km 영역 (줌 14 화면 정도)
+        south = lat - 0.01;
+        north = lat + 0.01;
+        west = lon - 0.01;
+        east = lon + 0.01;
+    }
+
+    /** 빈 저장소에 모든 점을 추가합니다 (구간 단위 단순화 포함). */
+    @Benchmark
+    public int appendAndSimplify() {
+        PathStore store = new PathStore(points);
+        for (int i = 0; i < points; i++) {
+            store.add(latitudes[i], longitudes[i]);
+        }
+        return store.size();
+    }
+
+    /** 낮은 줌에서 전체 경로를 순회합니다. */
+    @Benchmark
+    public int visibleSegmentsWholePathZoom10() {
+        segments = 0;
+        filled.forEachVisibleSegment(10, -90, -180, 90, 180, counter);
+        return segments;
+    }
+
+    /** 높은 줌에서 현재 위치 주변 화면 영역만 순회합니다. */
+    @Benchmark
+    public int visibleSegmentsViewportZoom16() {
+        segments = 0;
+        filled.forEachVisibleSegment(16, south, west, north, east, counter);
+        return segments;
+    }
+}
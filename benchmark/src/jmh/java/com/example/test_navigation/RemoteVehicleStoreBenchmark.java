@@ -0,0 +1,84 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 렌더러가 스냅샷을 계속 읽는 동안 원격 차량 메시지를 받아 게시하는 처리량을 측정합니다.
+ * 한 스레드는 {@link #BATCH}개씩 메시지를 넣고 게시하며(결과는 초당 메시지 수),
+ * 다른 스레드는 스냅샷을 빌려 모든 차량을 추측 항법으로 옮긴 뒤 돌려줍니다(결과는 초당 프레임 수).
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RemoteVehicleStoreBenchmark {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+    /** 게시 한 번에 넣는 메시지 수 (수신 스레드가 데이터그램 몇 개를 처리하는 양) */
+    private static final int BATCH = 100;
+
+    /** 차량 수 */
+    @Param({"1000", "10000"})
+    public int vehicles;
+
+    private RemoteVehicleStore store;
+    private final double[] position = new double[2];
+    private int nextId;
+
+    @Setup
+    public void setUp() {
+        // 측정 중 만료로 차량이 빠지지 않도록 합니다.
+        store = new RemoteVehicleStore(Long.MAX_VALUE / 4);
+        long now = RemoteVehicleStore.now();
+        for (int id = 0; id < vehicles; id++) {
+            store.ingest(id, RemoteVehicleStore.TYPE_RV, LAT, LON, id % 360, 10f, now);
+        }
+        store.publish(now);
+    }
+
+    /** 수신 스레드: 메시지를 넣고 게시합니다. 렌더러가 뒤 버퍼를 쥐고 있으면 게시는 다음으로 미뤄집니다. */
+    @Benchmark
+    @Group("ingestWhileRendering")
+    @GroupThreads(1)
+    @OperationsPerInvocation(BATCH)
+    public boolean ingest() {
+        long now = RemoteVehicleStore.now();
+        int id = nextId;
+        for (int i = 0; i < BATCH; i++) {
+            store.ingest(id, RemoteVehicleStore.TYPE_RV, LAT, LON, id % 360, 10f, now);
+            id = id + 1 == vehicles ? 0 : id + 1;
+        }
+        nextId = id;
+        return store.publish(now);
+    }
+
+    /** 렌더러: 한 프레임에 그릴 위치를 모두 계산합니다. */
+    @Benchmark
+    @Group("ingestWhileRendering")
+    @GroupThreads(1)
+    public void render(Blackhole blackhole) {
+        RemoteVehicleStore.Snapshot snapshot = store.acquire();
+        try {
+            long now = RemoteVehicleStore.now();
+            for (int i = 0; i < snapshot.size(); i++) {
+                snapshot.extrapolate(i, now, position);
+                blackhole.consume(position[0]);
+            }
+        } finally {
+            store.release(snapshot);
+        }
+    }
+}
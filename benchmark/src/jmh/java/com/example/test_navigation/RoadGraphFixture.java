@@ -0,0 +1,111 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 경로 탐색 벤치마크용 도로 그래프를 만드는 도우미입니다.
+ * 약 100m 간격 격자에 10칸마다 간선도로, 50칸마다 고속도로를 두고 일부 도로를 빼거나 일방통행으로 만들어
+ * 도시 도로망과 비슷한 등급 구조를 흉내 냅니다. 같은 그래프를 비교용 다익스트라를 위해 인접 배열로도 보관합니다.
+ */
+final class RoadGraphFixture {
+
+    static final double LAT = 37.40;
+    static final double LON = 126.90;
+    /** 격자 간격 (도) */
+    static final double STEP = 0.001;
+
+    final int size;
+    final File file;
+    /** 원래 그래프 (CSR): 노드별 첫 간선, 대상, 시간 */
+    final int[] first;
+    final int[] targets;
+    final int[] millis;
+
+    private RoadGraphFixture(int size, File file, int[] first, int[] targets, int[] millis) {
+        this.size = size;
+        this.file = file;
+        this.first = first;
+        this.targets = targets;
+        this.millis = millis;
+    }
+
+    /**
+     * size × size 격자 그래프를 만들어 축약한 뒤 임시 파일로 씁니다.
+     */
+    static RoadGraphFixture create(int size, long seed) throws IOException {
+        Random random = new Random(seed);
+        RoadGraphBuilder builder = new RoadGraphBuilder();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                builder.addNode(LAT + row * STEP, LON + column * STEP);
+            }
+        }
+        int n = size * size;
+        int[] from = new int[4 * n];
+        int[] to = new int[4 * n];
+        int[] time = new int[4 * n];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int node = row * size + column;
+                for (int direction = 0; direction < 2; direction++) {
+                    int line = direction == 0 ? row : column;
+                    int next = direction == 0 ? node + 1 : node + size;
+                    if ((direction == 0 ? column : row) + 1 >= size) {
+                        continue;
+                    }
+                    double speed = line % 50 == 0 ? 100 : line % 10 == 0 ? 60 : 30;
+                    if (speed == 30 && random.nextInt(10) == 0) {
+                        continue;
+                    }
+                    int ms = (int) Math.round(STEP * TileMath.METERS_PER_DEGREE
+                            / (speed * (0.8 + 0.4 * random.nextDouble()) / 3.6) * 1000);
+                    int oneway = speed == 30 ? random.nextInt(8) : -1;
+                    if (oneway != 0) {
+                        builder.addEdge(node, next, ms);
+                        from[count] = node;
+                        to[count] = next;
+                        time[count++] = ms;
+                    }
+                    if (oneway != 1) {
+                        builder.addEdge(next, node, ms);
+                        from[count] = next;
+                        to[count] = node;
+                        time[count++] = ms;
+                    }
+                }
+            }
+        }
+        File file = File.createTempFile("bench", RoadGraph.FILE_EXTENSION);
+        file.deleteOnExit();
+        builder.write(file);
+
+        int[] first = new int[n + 1];
+        for (int e = 0; e < count; e++) {
+            first[from[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            first[v + 1] += first[v];
+        }
+        int[] next = Arrays.copyOf(first, n);
+        int[] targets = new int[count];
+        int[] millis = new int[count];
+        for (int e = 0; e < count; e++) {
+            int slot = next[from[e]]++;
+            targets[slot] = to[e];
+            millis[slot] = time[e];
+        }
+        return new RoadGraphFixture(size, file, first, targets, millis);
+    }
+
+    double latitude(int node) {
+        return LAT + node / size * STEP;
+    }
+
+    double longitude(int node) {
+        return LON + node % size * STEP;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 축약 계층 경로 탐색의 질의 지연을 측정합니다. 그래프는 {@link RoadGraphFixture}가 격자 도로망으로 만들어
+ * 메모리 매핑 파일에서 읽습니다. 경로 이탈 후 재탐색(도착지 탐색 공간 재사용)과,
+ * 비교용으로 전처리하지 않은 그래프의 다익스트라도 측정합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RouterBenchmark {
+
+    private static final int QUERIES = 256;
+
+    /** 격자 한 변의 노드 수 (300이면 9만 노드, 약 30km 사방) */
+    @Param({"100", "300"})
+    public int size;
+
+    private RoadGraphFixture fixture;
+    private RoadGraphReader graph;
+    private Router router;
+    private int[] sources;
+    private int[] targets;
+    private int[] fixtureSources;
+    private int[] fixtureTargets;
+    private int[] distance;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = RoadGraphFixture.create(size, 42);
+        graph = new RoadGraphReader(fixture.file);
+        router = new Router(graph);
+        Random random = new Random(7);
+        sources = new int[QUERIES];
+        targets = new int[QUERIES];
+        fixtureSources = new int[QUERIES];
+        fixtureTargets = new int[QUERIES];
+        int n = size * size;
+        for (int i = 0; i < QUERIES; i++) {
+            fixtureSources[i] = random.nextInt(n);
+            fixtureTargets[i] = random.nextInt(n);
+            sources[i] = graph.nearestNode(fixture.latitude(fixtureSources[i]), fixture.longitude(fixtureSources[i]), 10);
+            targets[i] = graph.nearestNode(fixture.latitude(fixtureTargets[i]), fixture.longitude(fixtureTargets[i]), 10);
+        }
+        // 재탐색은 모두 같은 도착지로 향합니다.
+        router.setDestination(targets[0]);
+        distance = new int[n];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graph.close();
+        fixture.file.delete();
+    }
+
+    private int next() {
+        step = (step + 1) & (QUERIES - 1);
+        return step;
+    }
+
+    /** 임의의 두 지점 사이 경로 (양방향 탐색과 지름길 펼치기 포함) */
+    @Benchmark
+    public Route route() {
+        int i = next();
+        return router.route(sources[i], targets[i]);
+    }
+
+    /** 도착지가 정해진 상태에서 새 위치로부터 다시 찾기 (정방향 탐색만) */
+    @Benchmark
+    public Route reroute() {
+        return router.routeToDestination(sources[next()]);
+    }
+
+    /** 위치에서 가장 가까운 도로 노드 찾기 */
+    @Benchmark
+    public int nearestNode() {
+        int i = next();
+        return graph.nearestNode(fixture.latitude(fixtureSources[i]) + 0.0003,
+                fixture.longitude(fixtureSources[i]) - 0.0002, RouteTracker.SNAP_RADIUS_METERS);
+    }
+
+    /** 비교용: 전처리하지 않은 그래프의 다익스트라 (경로 펼치기 없이 시간만) */
+    @Benchmark
+    public int plainDijkstra() {
+        int i = next();
+        int from = fixtureSources[i];
+        int to = fixtureTargets[i];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        distance[from] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[]{0, from});
+        while (!queue.isEmpty()) {
+            long[] top = queue.poll();
+            int node = (int) top[1];
+            if (top[0] > distance[node]) {
+                continue;
+            }
+            if (node == to) {
+                return distance[node];
+            }
+            for (int e = fixture.first[node]; e < fixture.first[node + 1]; e++) {
+                int candidate = distance[node] + fixture.millis[e];
+                int target = fixture.targets[e];
+                if (candidate < distance[target]) {
+                    distance[target] = candidate;
+                    queue.add(new long[]{candidate, target});
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 타일을 MBTiles(SQLite JDBC)와 메모리 매핑 타일 팩({@link TilePackReader})에서 읽는 비용을 비교합니다.
+ * 타일 팩은 {@link TilePackConverter}로 벤치마크용 MBTiles 파일을 변환해 만듭니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TilePackReadBenchmark {
+
+    private static final int ZOOM = 14;
+    private static final int MIN_X = 13970;
+    private static final int MIN_Y = 6340;
+    private static final int ARCHIVE_SIZE = 64;
+
+    /** 뷰포트 한 변의 타일 수 */
+    @Param({"4", "8"})
+    public int viewport;
+
+    @Param({"16384"})
+    public int tileBytes;
+
+    private File mbtilesFile;
+    private File packFile;
+    private Connection connection;
+    private PreparedStatement singleTile;
+    private TilePackReader pack;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        mbtilesFile = MBTilesFixture.create(ZOOM, MIN_X, MIN_Y, ARCHIVE_SIZE, tileBytes);
+        packFile = File.createTempFile("bench", TilePack.FILE_EXTENSION);
+        packFile.deleteOnExit();
+        TilePackConverter.convert(mbtilesFile, packFile);
+        connection = DriverManager.getConnection("jdbc:sqlite:" + mbtilesFile.getAbsolutePath());
+        singleTile = connection.prepareStatement(MBTilesSchema.SQL_SINGLE_TILE);
+        pack = new TilePackReader(packFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        pack.close();
+        mbtilesFile.delete();
+        packFile.delete();
+    }
+
+    /** 매 호출마다 뷰포트 위치를 옮겨 같은 타일만 반복해서 읽지 않게 합니다. */
+    private int nextOrigin() {
+        cursor = (cursor + 1) % (ARCHIVE_SIZE - viewport);
+        return cursor;
+    }
+
+    private long readSqlite(int x, int y) throws SQLException {
+        singleTile.setInt(1, ZOOM);
+        singleTile.setInt(2, x);
+        singleTile.setInt(3, MBTilesSchema.flipY(ZOOM, y));
+        try (ResultSet rs = singleTile.executeQuery()) {
+            return rs.next() ? rs.getBytes(1).length : 0;
+        }
+    }
+
+    /** SQLite에서 타일 하나를 읽습니다. */
+    @Benchmark
+    public long sqliteSingleTile() throws SQLException {
+        int origin = nextOrigin();
+        return readSqlite(MIN_X + origin, MIN_Y + origin);
+    }
+
+    /** 타일 팩에서 타일 하나를 byte[]로 읽습니다 (앱의 디코딩 경로와 같음). */
+    @Benchmark
+    public long packSingleTile() {
+        int origin = nextOrigin();
+        byte[] data = pack.getTile(ZOOM, MIN_X + origin, MIN_Y + origin);
+        return data != null ? data.length : 0;
+    }
+
+    /** 타일 팩에서 타일 하나를 복사 없이 버퍼로 읽습니다. */
+    @Benchmark
+    public long packSingleTileBuffer() {
+        int origin = nextOrigin();
+        ByteBuffer data = pack.getTileBuffer(ZOOM, MIN_X + origin, MIN_Y + origin);
+        return data != null ? data.get(data.limit() - 1) + data.remaining() : 0;
+    }
+
+    /** SQLite에서 뷰포트의 타일을 타일마다 쿼리 하나씩 읽습니다. */
+    @Benchmark
+    public long sqliteViewport() throws SQLException {
+        int origin = nextOrigin();
+        long bytes = 0;
+        for (int x = MIN_X + origin; x < MIN_X + origin + viewport; x++) {
+            for (int y = MIN_Y + origin; y < MIN_Y + origin + viewport; y++) {
+                bytes += readSqlite(x, y);
+            }
+        }
+        return bytes;
+    }
+
+    /** 타일 팩에서 뷰포트의 타일을 읽습니다. */
+    @Benchmark
+    public long packViewport() {
+        int origin = nextOrigin();
+        int minX = MIN_X + origin;
+        int minY = MIN_Y + origin;
+        final long[] bytes = new long[1];
+        pack.getTiles(ZOOM, minX, minX + viewport - 1, minY, minY + viewport - 1,
+                (z, x, y, data) -> bytes[0] += data.length);
+        return bytes[0];
+    }
+}
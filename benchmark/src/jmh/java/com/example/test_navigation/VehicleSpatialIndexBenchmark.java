@@ -0,0 +1,138 @@
+package com.example.test_navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 원격 차량 공간 색인의 위치 갱신과 질의 비용을 측정합니다.
+ * 비교용으로 모든 차량에 하버사인 거리를 계산하는 전수 탐색도 측정합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VehicleSpatialIndexBenchmark {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+    /** 차량이 흩어진 반경 (미터) */
+    private static final double AREA_RADIUS = 3000;
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000"})
+    public int vehicles;
+
+    private final Random random = new Random(42);
+    private final double[] point = new double[2];
+    private VehicleSpatialIndex index;
+    private double[] lats;
+    private double[] lons;
+    private float[] headings;
+    private double[] queryLats;
+    private double[] queryLons;
+    private float[] queryHeadings;
+    private final int[] nearest = new int[8];
+    private final int[] ahead = new int[1];
+    private final int[] within = new int[1024];
+    private int step;
+
+    @Setup
+    public void setUp() {
+        index = new VehicleSpatialIndex();
+        lats = new double[vehicles];
+        lons = new double[vehicles];
+        headings = new float[vehicles];
+        for (int id = 0; id < vehicles; id++) {
+            GeoMath.randomPointInRadius(random, LAT, LON, AREA_RADIUS, point);
+            lats[id] = point[0];
+            lons[id] = point[1];
+            headings[id] = random.nextFloat() * 360f;
+            index.update(id, lats[id], lons[id], headings[id]);
+        }
+        queryLats = new double[QUERIES];
+        queryLons = new double[QUERIES];
+        queryHeadings = new float[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            GeoMath.randomPointInRadius(random, LAT, LON, AREA_RADIUS, point);
+            queryLats[i] = point[0];
+            queryLons[i] = point[1];
+            queryHeadings[i] = random.nextFloat() * 360f;
+        }
+    }
+
+    private int next() {
+        step = (step + 1) & (QUERIES - 1);
+        return step;
+    }
+
+    /** 차량 하나를 수 미터 옮깁니다. (대부분 같은 칸, 가끔 칸 이동) */
+    @Benchmark
+    public void update() {
+        int id = next() * 7 % vehicles;
+        double lat = lats[id] + (step & 1) * 3e-5;
+        index.update(id, lat, lons[id], headings[id]);
+    }
+
+    @Benchmark
+    public int nearest8() {
+        int q = next();
+        return index.findNearest(queryLats[q], queryLons[q], 500, nearest, null);
+    }
+
+    @Benchmark
+    public int withinRadius200() {
+        int q = next();
+        return index.findWithinRadius(queryLats[q], queryLons[q], 200, within);
+    }
+
+    @Benchmark
+    public int frontVehicle() {
+        int q = next();
+        return index.findAhead(queryLats[q], queryLons[q], queryHeadings[q],
+                RemoteVehicleStore.FRONT_HALF_ANGLE_DEGREES, RemoteVehicleStore.FRONT_RANGE_METERS,
+                RemoteVehicleStore.FRONT_MAX_HEADING_DELTA_DEGREES, ahead, null);
+    }
+
+    /** 비교용: 모든 차량에 하버사인 거리와 방위각을 계산해 전방 차량을 찾는 방식 */
+    @Benchmark
+    public int frontVehicleBruteForce() {
+        int q = next();
+        double lat = queryLats[q];
+        double lon = queryLons[q];
+        double heading = queryHeadings[q];
+        double phi1 = Math.toRadians(lat);
+        int best = -1;
+        double bestDistance = RemoteVehicleStore.FRONT_RANGE_METERS;
+        for (int id = 0; id < vehicles; id++) {
+            double phi2 = Math.toRadians(lats[id]);
+            double dLambda = Math.toRadians(lons[id] - lon);
+            double a = Math.pow(Math.sin((phi2 - phi1) / 2), 2)
+                    + Math.cos(phi1) * Math.cos(phi2) * Math.pow(Math.sin(dLambda / 2), 2);
+            double distance = 2 * 6371008.8 * Math.asin(Math.sqrt(a));
+            if (distance > bestDistance) {
+                continue;
+            }
+            double bearing = Math.toDegrees(Math.atan2(Math.sin(dLambda) * Math.cos(phi2),
+                    Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(dLambda)));
+            if (angleBetween(bearing, heading) <= RemoteVehicleStore.FRONT_HALF_ANGLE_DEGREES
+                    && angleBetween(headings[id], heading) <= RemoteVehicleStore.FRONT_MAX_HEADING_DELTA_DEGREES) {
+                best = id;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static double angleBetween(double a, double b) {
+        double d = Math.abs(((a - b) % 360 + 360) % 360);
+        return Math.min(d, 360 - d);
+    }
+}
@@ -0,0 +1,64 @@
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// MBTiles 변환/델타 도구 실행에만 필요한 JDBC 드라이버
+val tilePackTool: Configuration by configurations.creating
+
+dependencies {
+    testImplementation(libs.junit)
+    testRuntimeOnly(libs.sqlite.jdbc)
+    tilePackTool(libs.sqlite.jdbc)
+}
+
+// ./gradlew :core:convertTilePack -Pin=korea.mbtiles -Pout=korea.tilepack
+tasks.register<JavaExec>("convertTilePack") {
+    group = "tools"
+    description = "Converts an MBTiles file to a memory-mapped tile pack."
+    classpath = sourceSets["main"].runtimeClasspath + tilePackTool
+    mainClass.set("com.example.test_navigation.TilePackConverter")
+    val input = project.findProperty("in")?.toString()
+    val output = project.findProperty("out")?.toString()
+    doFirst {
+        require(input != null && output != null) { "Usage: -Pin=<file.mbtiles> -Pout=<file.tilepack>" }
+        args(input, output)
+    }
+}
+
+// ./gradlew :core:buildTileDelta -Pbase=v1.mbtiles -Ptarget=v2.mbtiles -Pout=v1-v2.tiledelta
+tasks.register<JavaExec>("buildTileDelta") {
+    group = "tools"
+    description = "Builds a tile-level delta between two versions of an MBTiles file."
+    classpath = sourceSets["main"].runtimeClasspath + tilePackTool
+    mainClass.set("com.example.test_navigation.TileDeltaBuilder")
+    val base = project.findProperty("base")?.toString()
+    val target = project.findProperty("target")?.toString()
+    val output = project.findProperty("out")?.toString()
+    doFirst {
+        require(base != null && target != null && output != null) {
+            "Usage: -Pbase=<v1.mbtiles> -Ptarget=<v2.mbtiles> -Pout=<v1-v2.tiledelta>"
+        }
+        args(base, target, output)
+    }
+}
+
+// ./gradlew :core:buildRoadGraph -Pin=south-korea-latest.osm.gz -Pout=south-korea.roadgraph
+tasks.register<JavaExec>("buildRoadGraph") {
+    group = "tools"
+    description = "Builds a contraction-hierarchy road graph from an OSM XML extract."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.test_navigation.OsmRoadGraphConverter")
+    // 국가 단위 추출본은 노드 좌표와 축약 중 인접 목록을 모두 메모리에 둡니다.
+    maxHeapSize = "8g"
+    val input = project.findProperty("in")?.toString()
+    val output = project.findProperty("out")?.toString()
+    doFirst {
+        require(input != null && output != null) { "Usage: -Pin=<extract.osm[.gz]> -Pout=<file.roadgraph>" }
+        args(input, output)
+    }
+}
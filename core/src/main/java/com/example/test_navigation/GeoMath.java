@@ -0,0 +1,50 @@
+package com.example.test_navigation;
+
+import java.util.Random;
+
+/**
+ * GeoMath 클래스는 화면이나 지도 라이브러리와 무관한 위경도 계산을 모은 유틸리티입니다.
+ * 결과는 호출자가 넘긴 배열에 담아 호출마다 객체를 만들지 않습니다.
+ */
+public final class GeoMath {
+
+    private GeoMath() {
+    }
+
+    /**
+     * 국소 평면(등장방형) 근사로 두 점 사이의 거리를 계산합니다. 코사인은 표 보간 값을 씁니다.
+     * 반경 수 km 안에서 하버사인과 0.1% 이내로 같아 차량 검색, 도로 구간, 주행 기록 간격에 충분합니다.
+     *
+     * @return 거리 (미터)
+     */
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dy = (latitude2 - latitude1) * TileMath.METERS_PER_DEGREE;
+        double dx = (longitude2 - longitude1) * TileMath.METERS_PER_DEGREE
+                * TileMath.cosDegrees((latitude1 + latitude2) * 0.5);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * 중심점으로부터 반경 안에서 균일하게 분포한 무작위 위치를 만듭니다.
+     *
+     * @param random 난수 생성기
+     * @param centerLatitude 중심 위도
+     * @param centerLongitude 중심 경도
+     * @param radiusMeters 반경 (미터)
+     * @param out 결과를 받을 배열 ({@code out[0]} 위도, {@code out[1]} 경도)
+     */
+    public static void randomPointInRadius(Random random, double centerLatitude, double centerLongitude,
+                                           double radiusMeters, double[] out) {
+        // 랜덤한 각도 (라디안)
+        double randomAngle = random.nextDouble() * 2 * Math.PI;
+        // 랜덤한 반지름 (미터를 도(degree)로 변환)
+        double randomRadius = Math.sqrt(random.nextDouble()) * radiusMeters / TileMath.METERS_PER_DEGREE;
+
+        // 극좌표를 직교좌표로 변환
+        double dx = randomRadius * Math.cos(randomAngle);
+        double dy = randomRadius * Math.sin(randomAngle);
+
+        out[0] = centerLatitude + dy;
+        out[1] = centerLongitude + dx / Math.cos(Math.toRadians(centerLatitude));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.test_navigation;
+
+/**
+ * HeadingFilter 클래스는 나침반처럼 잡음이 많고 빠른 헤딩 입력을 지도 회전에 쓸 수 있게 거르는 필터입니다.
+ *
+ * <ul>
+ *     <li>헤딩을 단위 벡터로 바꿔 시간 상수 {@code timeConstantMillis}의 지수 평활을 하므로 359도와 1도 사이에서 튀지 않습니다.
+ *     표본 간격이 불규칙해도 같은 시간 동안 같은 만큼 따라갑니다.</li>
+ *     <li>마지막으로 내보낸 값과 {@code deadbandDegrees}보다 적게 다르면 내보내지 않습니다.</li>
+ *     <li>{@code minIntervalMillis}보다 자주 내보내지 않습니다. 그 사이의 표본은 평활에만 반영됩니다.</li>
+ * </ul>
+ */
+public class HeadingFilter {
+
+    /** 기본 평활 시간 상수 (밀리초) */
+    public static final long DEFAULT_TIME_CONSTANT_MILLIS = 150;
+    /** 기본 불감대 (도) */
+    public static final float DEFAULT_DEADBAND_DEGREES = 0.5f;
+    /** 기본 최소 출력 간격 (밀리초, 약 30Hz) */
+    public static final long DEFAULT_MIN_INTERVAL_MILLIS = 33;
+
+    private final double timeConstantMillis;
+    private final float deadbandDegrees;
+    private final long minIntervalMillis;
+
+    private boolean initialized;
+    private double x;
+    private double y;
+    private long lastSampleMillis;
+    private float output;
+    private long lastOutputMillis;
+
+    public HeadingFilter() {
+        this(DEFAULT_TIME_CONSTANT_MILLIS, DEFAULT_DEADBAND_DEGREES, DEFAULT_MIN_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param timeConstantMillis 평활 시간 상수 (밀리초, 0이면 평활하지 않음)
+     * @param deadbandDegrees 불감대 (도)
+     * @param minIntervalMillis 최소 출력 간격 (밀리초)
+     */
+    public HeadingFilter(long timeConstantMillis, float deadbandDegrees, long minIntervalMillis) {
+        this.timeConstantMillis = timeConstantMillis;
+        this.deadbandDegrees = deadbandDegrees;
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    /**
+     * 헤딩 표본을 넣습니다.
+     *
+     * @param heading 방향 (도, 북쪽 기준 시계 방향)
+     * @param nowMillis 표본 시각 (밀리초, 단조 증가 시계)
+     * @return 출력이 바뀌어 적용해야 하면 true
+     */
+    public boolean update(float heading, long nowMillis) {
+        double radians = Math.toRadians(heading);
+        double sampleX = Math.sin(radians);
+        double sampleY = Math.cos(radians);
+        if (!initialized) {
+            initialized = true;
+            x = sampleX;
+            y = sampleY;
+            lastSampleMillis = nowMillis;
+            lastOutputMillis = nowMillis;
+            output = normalize(heading);
+            return true;
+        }
+        long dt = Math.max(0, nowMillis - lastSampleMillis);
+        lastSampleMillis = nowMillis;
+        double alpha = timeConstantMillis <= 0 ? 1.0 : 1.0 - Math.exp(-dt / timeConstantMillis);
+        x += alpha * (sampleX - x);
+        y += alpha * (sampleY - y);
+
+        if (nowMillis - lastOutputMillis < minIntervalMillis) {
+            return false;
+        }
+        float filtered = normalize((float) Math.toDegrees(Math.atan2(x, y)));
+        if (Math.abs(difference(filtered, output)) < deadbandDegrees) {
+            return false;
+        }
+        output = filtered;
+        lastOutputMillis = nowMillis;
+        return true;
+    }
+
+    /**
+     * @return 마지막으로 내보낸 헤딩 (도, 0 이상 360 미만)
+     */
+    public float getHeading() {
+        return output;
+    }
+
+    /**
+     * 상태를 지웁니다. 다음 표본을 그대로 내보냅니다.
+     */
+    public void reset() {
+        initialized = false;
+    }
+
+    /**
+     * 두 방향의 가장 짧은 차이를 계산합니다.
+     *
+     * @return {@code to - from} (도, -180 초과 180 이하)
+     */
+    public static float difference(float from, float to) {
+        float d = normalize(to - from);
+        return d > 180f ? d - 360f : d;
+    }
+
+    /**
+     * @return 0 이상 360 미만으로 바꾼 방향 (도)
+     */
+    public static float normalize(float degrees) {
+        float d = degrees % 360f;
+        if (d < 0) {
+            d += 360f;
+        }
+        // 아주 작은 음수는 더하면 360이 되므로 0으로 돌립니다.
+        return d >= 360f ? 0f : d;
+    }
+}
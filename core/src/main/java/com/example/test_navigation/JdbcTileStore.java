@@ -0,0 +1,139 @@
+package com.example.test_navigation;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * JdbcTileStore 클래스는 MBTiles 파일을 JDBC(sqlite-jdbc)로 여는 {@link WritableTileStore}입니다.
+ * JVM에서 실행되는 델타 도구와 테스트에서 사용합니다.
+ */
+public class JdbcTileStore implements WritableTileStore, AutoCloseable {
+
+    private final Connection connection;
+    private final PreparedStatement selectTile;
+    private final PreparedStatement insertTile;
+    private final PreparedStatement deleteTile;
+    private final PreparedStatement selectMetadata;
+    private final PreparedStatement insertMetadata;
+    private final PreparedStatement deleteMetadata;
+
+    /**
+     * @param url JDBC URL (예: {@code jdbc:sqlite:/path/map.mbtiles})
+     * @throws SQLException 열 수 없는 경우
+     */
+    public JdbcTileStore(String url) throws SQLException {
+        connection = DriverManager.getConnection(url);
+        selectTile = connection.prepareStatement(MBTilesSchema.SQL_SINGLE_TILE);
+        insertTile = connection.prepareStatement(MBTilesSchema.SQL_INSERT_TILE);
+        deleteTile = connection.prepareStatement(MBTilesSchema.SQL_DELETE_TILE);
+        selectMetadata = connection.prepareStatement(MBTilesSchema.SQL_METADATA);
+        insertMetadata = connection.prepareStatement(MBTilesSchema.SQL_INSERT_METADATA);
+        deleteMetadata = connection.prepareStatement(MBTilesSchema.SQL_DELETE_METADATA);
+    }
+
+    private static void bindTile(PreparedStatement statement, int zoom, int x, int y) throws SQLException {
+        statement.setInt(1, zoom);
+        statement.setInt(2, x);
+        statement.setInt(3, MBTilesSchema.flipY(zoom, y));
+    }
+
+    @Override
+    public byte[] getTile(int zoom, int x, int y) throws IOException {
+        try {
+            bindTile(selectTile, zoom, x, y);
+            try (ResultSet rs = selectTile.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void putTile(int zoom, int x, int y, byte[] data) throws IOException {
+        try {
+            bindTile(insertTile, zoom, x, y);
+            insertTile.setBytes(4, data);
+            insertTile.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void deleteTile(int zoom, int x, int y) throws IOException {
+        try {
+            bindTile(deleteTile, zoom, x, y);
+            deleteTile.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public String getMetadata(String name) throws IOException {
+        try {
+            selectMetadata.setString(1, name);
+            try (ResultSet rs = selectMetadata.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void putMetadata(String name, String value) throws IOException {
+        try {
+            deleteMetadata.setString(1, name);
+            deleteMetadata.executeUpdate();
+            if (value != null) {
+                insertMetadata.setString(1, name);
+                insertMetadata.setString(2, value);
+                insertMetadata.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void beginTransaction() throws IOException {
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void commit() throws IOException {
+        try {
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void rollback() {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // 연결이 이미 닫혔으면 SQLite가 트랜잭션을 되돌립니다.
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.test_navigation;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram 클래스는 지연 시간(나노초)을 HDR 히스토그램 방식의 로그-선형 구간에 기록하는 클래스입니다.
+ * 2의 거듭제곱 범위마다 {@link #SUB_BUCKETS}개의 균등 구간을 두어 전체 범위에서 상대 오차가 약 3% 이내이며,
+ * 기록은 배열 원소 하나의 원자적 증가뿐이므로 여러 스레드에서 락 없이 호출할 수 있습니다.
+ */
+public class LatencyHistogram {
+
+    /** 2의 거듭제곱 범위 하나를 나누는 구간 수 */
+    static final int SUB_BUCKETS = 32;
+    /** 이 값 미만은 1 단위로 정확히 기록합니다. */
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int LINEAR_BITS = SUB_BUCKET_BITS + 1;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * @param name 보고서에 표시할 이름
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 값 하나를 기록합니다.
+     *
+     * @param nanos 지연 시간 (나노초, 음수는 0으로 기록)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(value);
+        long max;
+        while (value > (max = maxValue.get())) {
+            if (maxValue.compareAndSet(max, value)) {
+                break;
+            }
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * 구간에 속하는 가장 큰 값을 반환합니다. 백분위 값은 이 값으로 보고합니다.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int k = index - LINEAR_LIMIT;
+        int exponent = k / SUB_BUCKETS + LINEAR_BITS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long sub = k % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /** 평균 (나노초) */
+    public double getMean() {
+        long count = totalCount.get();
+        return count > 0 ? (double) totalSum.get() / count : 0.0;
+    }
+
+    /**
+     * 백분위 값을 구합니다.
+     *
+     * @param percentile 0~100
+     * @return 해당 백분위의 지연 시간 (나노초, 구간 상한값), 기록이 없으면 0
+     */
+    public long getPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * 기록을 모두 지웁니다. 기록 중인 다른 스레드의 값 일부는 남을 수 있습니다.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalSum.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * 요약을 한 줄로 반환합니다 (밀리초 단위).
+     *
+     * @return 요약 문자열
+     */
+    public String summary() {
+        return String.format(Locale.US, "%s count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f ms",
+                name, getCount(), getMean() / 1e6, getPercentile(50) / 1e6, getPercentile(90) / 1e6,
+                getPercentile(99) / 1e6, getPercentile(99.9) / 1e6, getMax() / 1e6);
+    }
+}
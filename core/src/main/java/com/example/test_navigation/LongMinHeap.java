@@ -0,0 +1,80 @@
+package com.example.test_navigation;
+
+import java.util.Arrays;
+
+/**
+ * LongMinHeap 클래스는 long 값을 상자에 담지 않고 보관하는 이진 최소 힙입니다.
+ * 경로 탐색에서는 상위 32비트에 거리, 하위 32비트에 노드 번호를 넣어 거리 순으로 꺼냅니다.
+ * 키 감소 대신 같은 노드를 다시 넣고, 꺼낼 때 이미 처리한 항목을 건너뛰는 방식으로 사용합니다.
+ */
+final class LongMinHeap {
+
+    private long[] values;
+    private int size;
+
+    LongMinHeap(int initialCapacity) {
+        values = new long[Math.max(16, initialCapacity)];
+    }
+
+    static long pack(int key, int value) {
+        return ((long) key << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    static int key(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    static int value(long packed) {
+        return (int) packed;
+    }
+
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (values[parent] <= value) {
+                break;
+            }
+            values[i] = values[parent];
+            i = parent;
+        }
+        values[i] = value;
+    }
+
+    long peek() {
+        return values[0];
+    }
+
+    long poll() {
+        long result = values[0];
+        long last = values[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && values[child + 1] < values[child]) {
+                child++;
+            }
+            if (last <= values[child]) {
+                break;
+            }
+            values[i] = values[child];
+            i = child;
+        }
+        if (size > 0) {
+            values[i] = last;
+        }
+        return result;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
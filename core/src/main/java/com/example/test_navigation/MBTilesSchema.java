@@ -0,0 +1,97 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * MBTilesSchema 클래스는 MBTiles(SQLite) 파일의 테이블 구조와 조회 SQL을 한곳에 모은 클래스입니다.
+ * 앱의 {@code MBTilesArchive}와 JVM에서 실행되는 벤치마크/도구가 같은 쿼리를 사용하도록 공유합니다.
+ * MBTiles는 TMS 규칙(y축 아래에서 위)을 사용하므로 XYZ 좌표와의 변환은 {@link #flipY(int, int)}로 합니다.
+ */
+public final class MBTilesSchema {
+
+    public static final String CREATE_TILES =
+            "CREATE TABLE IF NOT EXISTS tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)";
+    public static final String CREATE_TILES_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS tile_index ON tiles (zoom_level, tile_column, tile_row)";
+    public static final String CREATE_METADATA =
+            "CREATE TABLE IF NOT EXISTS metadata (name TEXT, value TEXT)";
+
+    public static final String SQL_INSERT_TILE =
+            "INSERT OR REPLACE INTO tiles (zoom_level, tile_column, tile_row, tile_data) VALUES (?, ?, ?, ?)";
+    public static final String SQL_INSERT_METADATA =
+            "INSERT INTO metadata (name, value) VALUES (?, ?)";
+
+    public static final String SQL_SINGLE_TILE =
+            "SELECT tile_data FROM tiles WHERE zoom_level=? AND tile_column=? AND tile_row=?";
+    public static final String SQL_TILE_RANGE =
+            "SELECT tile_column, tile_row, tile_data FROM tiles"
+                    + " WHERE zoom_level=? AND tile_column BETWEEN ? AND ? AND tile_row BETWEEN ? AND ?";
+    public static final String SQL_METADATA =
+            "SELECT value FROM metadata WHERE name=?";
+    public static final String SQL_ALL_METADATA =
+            "SELECT name, value FROM metadata";
+    public static final String SQL_TILE_COORDS =
+            "SELECT zoom_level, tile_column, tile_row FROM tiles";
+    public static final String SQL_ALL_TILES_ORDERED =
+            "SELECT zoom_level, tile_column, tile_row, tile_data FROM tiles"
+                    + " ORDER BY zoom_level, tile_column, tile_row";
+    public static final String SQL_DELETE_TILE =
+            "DELETE FROM tiles WHERE zoom_level=? AND tile_column=? AND tile_row=?";
+    public static final String SQL_DELETE_METADATA =
+            "DELETE FROM metadata WHERE name=?";
+
+    /** metadata 이름: 타일 형식 ("png", "jpg", "webp", "pbf") */
+    public static final String METADATA_FORMAT = "format";
+    /** metadata 이름: 지도 데이터 버전 (델타 적용 시 기반 버전 확인에 사용) */
+    public static final String METADATA_VERSION = "version";
+    /** metadata 이름: 아카이브에 들어 있는 최대 줌 레벨 */
+    public static final String METADATA_MAXZOOM = "maxzoom";
+    /** 벡터 타일(Mapbox Vector Tile, 보통 gzip 압축) 형식 값 */
+    public static final String FORMAT_PBF = "pbf";
+
+    /** SQLite 데이터베이스 파일의 첫 16바이트 */
+    private static final byte[] SQLITE_HEADER = "SQLite format 3\0".getBytes(StandardCharsets.US_ASCII);
+
+    private MBTilesSchema() {
+    }
+
+    /**
+     * XYZ 좌표의 y 값을 MBTiles(TMS)의 tile_row 값으로 변환합니다.
+     * 이 변환은 자기 자신이 역함수이므로 반대 방향에도 그대로 사용됩니다.
+     *
+     * @param zoom 줌 레벨
+     * @param y y 좌표
+     * @return 뒤집힌 y 좌표
+     */
+    public static int flipY(int zoom, int y) {
+        return (1 << zoom) - 1 - y;
+    }
+
+    /**
+     * 파일이 SQLite 헤더로 시작하는지 확인합니다. 지도 패치 파일이 손상되었는지 검사하는 데 사용합니다.
+     *
+     * @param file 확인할 파일
+     * @return SQLite 파일이면 true
+     */
+    public static boolean hasSQLiteHeader(File file) {
+        byte[] header = new byte[SQLITE_HEADER.length];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < header.length) {
+                int n = in.read(header, read, header.length - read);
+                if (n < 0) {
+                    return false;
+                }
+                read += n;
+            }
+            return Arrays.equals(header, SQLITE_HEADER);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
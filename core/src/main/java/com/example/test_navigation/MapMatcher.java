@@ -0,0 +1,458 @@
+package com.example.test_navigation;
+
+/**
+ * MapMatcher 클래스는 GNSS 위치를 {@link RoadGraphReader}의 도로 위로 맞추는 온라인 지도 맞춤(map matching) 클래스입니다.
+ *
+ * <p>은닉 마르코프 모델입니다. 위치마다 반경 안의 원래 도로 간선을 방향별 후보로 두고,</p>
+ * <ul>
+ *     <li>관측 확률: 위치에서 후보 지점(간선 위 수선의 발)까지 거리의 정규분포</li>
+ *     <li>전이 확률: 두 후보 사이의 도로 거리와 두 위치 사이 직선 거리 차이의 지수분포</li>
+ * </ul>
+ * <p>로 비터비 점수를 위치마다 이어 갑니다. 창에는 최근 lag개 위치만 두고, 창에서 밀려나는 위치는 현재 가장 좋은
+ * 후보에서 되짚어 온 후보로 확정해 {@link Listener}에 넘깁니다. 창과 후보 배열은 처음에 모두 잡아 두므로
+ * 주행이 길어져도 메모리와 위치당 비용이 늘지 않습니다. 후보 사이의 도로 거리는 축약 계층 질의로 구하고,
+ * 직선 거리만으로도 멀리 돌아가야 하는 쌍은 질의하지 않습니다.</p>
+ *
+ * <p>근처에 도로가 없거나, 이어지는 후보가 없거나, 위치가 너무 멀리 뛰면 창을 모두 확정하고 새로 시작합니다.
+ * 도로 위에 맞추지 못한 위치는 원래 좌표 그대로 넘깁니다.</p>
+ *
+ * <p>{@link Router}와 마찬가지로 한 스레드에서만 사용합니다.</p>
+ */
+public class MapMatcher {
+
+    /** 확정된 위치를 받는 콜백 */
+    public interface Listener {
+        /**
+         * 위치 하나가 확정되면 들어온 순서대로 호출됩니다.
+         *
+         * @param latitude 위도
+         * @param longitude 경도
+         * @param snapped 도로 위에 맞춘 위치면 true, 원래 좌표면 false
+         */
+        void onMatched(double latitude, double longitude, boolean snapped);
+    }
+
+    /** 확정을 미루는 위치 수 */
+    public static final int DEFAULT_LAG = 4;
+    /** 후보 도로를 찾는 반경 (미터) */
+    public static final double DEFAULT_RADIUS_METERS = 50;
+    /** 위치 오차의 표준편차 (미터) */
+    public static final double DEFAULT_SIGMA_METERS = 10;
+    /** 전이 확률의 척도 (미터) */
+    public static final double DEFAULT_BETA_METERS = 10;
+    /** 위치당 후보 수 */
+    static final int MAX_CANDIDATES = 8;
+    /** 이보다 멀리 뛴 위치는 이어서 맞추지 않습니다 (미터). */
+    private static final double MAX_JUMP_METERS = 2000;
+    /** 도로 거리와 직선 거리의 차이가 이보다 크면 이어지지 않는 것으로 봅니다 (미터). */
+    private static final double MAX_DETOUR_METERS = 200;
+    /** 같은 간선 위에서 이만큼 뒤로 간 것은 위치 잡음으로 보고 제자리로 칩니다 (미터). */
+    private static final double BACKTRACK_SLACK_METERS = 15;
+
+    private final RoadGraphReader graph;
+    private final Router router;
+    private final Listener listener;
+    private final int capacity;
+    private final double radiusMeters;
+    private final double sigmaMeters;
+    private final double betaMeters;
+
+    // 창: 창 안 t번째 위치의 자리는 (head + t) % capacity
+    private final double[] fixLatitudes;
+    private final double[] fixLongitudes;
+    private final int[] candidateCounts;
+    private final int[][] fromNodes;
+    private final int[][] toNodes;
+    /** 후보 지점의 간선 위 위치 (0 = 출발 노드, 1 = 도착 노드) */
+    private final double[][] fractions;
+    /** 간선 길이 (미터) */
+    private final double[][] lengths;
+    /** 위치에서 후보 지점까지의 거리 (미터), 후보는 이 값의 오름차순입니다. */
+    private final double[][] distances;
+    private final double[][] latitudes;
+    private final double[][] longitudes;
+    /** 비터비 점수 (로그 확률, 위치마다 최댓값이 0이 되도록 맞춥니다) */
+    private final double[][] scores;
+    /** 앞 위치에서 가장 좋았던 후보 번호 */
+    private final int[][] parents;
+    private final int[] backtrack;
+    private final int[] order = new int[MAX_CANDIDATES];
+    private int head;
+    private int size;
+
+    // 후보를 모으는 중인 자리와 위치
+    private int collectSlot;
+    private double collectLatitude;
+    private double collectLongitude;
+    private final RoadGraphReader.RoadVisitor collector = this::collect;
+
+    // 위치 하나를 처리하는 동안 노드 쌍별 도로 거리
+    private final int[] cacheFrom = new int[MAX_CANDIDATES * MAX_CANDIDATES];
+    private final int[] cacheTo = new int[MAX_CANDIDATES * MAX_CANDIDATES];
+    private final double[] cacheMeters = new double[MAX_CANDIDATES * MAX_CANDIDATES];
+    private int cacheSize;
+
+    private long fixCount;
+    private long snappedCount;
+    private int breakCount;
+    private int routeQueryCount;
+
+    public MapMatcher(RoadGraphReader graph, Listener listener) {
+        this(graph, listener, DEFAULT_LAG, DEFAULT_RADIUS_METERS, DEFAULT_SIGMA_METERS, DEFAULT_BETA_METERS);
+    }
+
+    /**
+     * @param graph 도로 그래프
+     * @param listener 확정된 위치를 받을 콜백
+     * @param lag 확정을 미루는 위치 수 (0이면 바로 확정)
+     * @param radiusMeters 후보 도로를 찾는 반경 (미터)
+     * @param sigmaMeters 위치 오차의 표준편차 (미터)
+     * @param betaMeters 전이 확률의 척도 (미터)
+     */
+    public MapMatcher(RoadGraphReader graph, Listener listener, int lag, double radiusMeters,
+                      double sigmaMeters, double betaMeters) {
+        this.graph = graph;
+        this.router = new Router(graph);
+        this.listener = listener;
+        this.capacity = Math.max(0, lag) + 1;
+        this.radiusMeters = radiusMeters;
+        this.sigmaMeters = sigmaMeters;
+        this.betaMeters = betaMeters;
+        fixLatitudes = new double[capacity];
+        fixLongitudes = new double[capacity];
+        candidateCounts = new int[capacity];
+        fromNodes = new int[capacity][MAX_CANDIDATES];
+        toNodes = new int[capacity][MAX_CANDIDATES];
+        fractions = new double[capacity][MAX_CANDIDATES];
+        lengths = new double[capacity][MAX_CANDIDATES];
+        distances = new double[capacity][MAX_CANDIDATES];
+        latitudes = new double[capacity][MAX_CANDIDATES];
+        longitudes = new double[capacity][MAX_CANDIDATES];
+        scores = new double[capacity][MAX_CANDIDATES];
+        parents = new int[capacity][MAX_CANDIDATES];
+        backtrack = new int[capacity];
+    }
+
+    /**
+     * 새 위치를 맞춥니다. 창이 차 있으면 가장 오래된 위치 하나를 확정해 콜백으로 넘깁니다.
+     *
+     * @param latitude 위도
+     * @param longitude 경도
+     */
+    public void add(double latitude, double longitude) {
+        long start = Telemetry.start();
+        try {
+            fixCount++;
+            if (size > 0) {
+                int previous = slotOf(size - 1);
+                if (GeoMath.distanceMeters(fixLatitudes[previous], fixLongitudes[previous],
+                        latitude, longitude) > MAX_JUMP_METERS) {
+                    restart(slotOf(size));
+                }
+            }
+            int current = slotOf(size);
+            fixLatitudes[current] = latitude;
+            fixLongitudes[current] = longitude;
+            findCandidates(current, latitude, longitude);
+            if (candidateCounts[current] == 0) {
+                restart(head);
+                listener.onMatched(latitude, longitude, false);
+                return;
+            }
+            if (size == 0 || !advance(slotOf(size - 1), current)) {
+                if (size > 0) {
+                    restart(current);
+                }
+                for (int j = 0; j < candidateCounts[current]; j++) {
+                    scores[current][j] = emission(current, j) - emission(current, 0);
+                    parents[current][j] = -1;
+                }
+            }
+            size++;
+            if (size == capacity) {
+                emitOldest();
+            }
+        } finally {
+            Telemetry.stop(Telemetry.MAP_MATCH, start);
+        }
+    }
+
+    /**
+     * 창에 남은 위치를 모두 확정해 넘깁니다. 주행을 마칠 때 호출합니다.
+     */
+    public void flush() {
+        if (size == 0) {
+            return;
+        }
+        int newest = slotOf(size - 1);
+        int candidate = bestCandidate(newest);
+        for (int t = size - 1; t >= 0; t--) {
+            backtrack[t] = candidate;
+            candidate = parents[slotOf(t)][candidate];
+        }
+        for (int t = 0; t < size; t++) {
+            emit(slotOf(t), backtrack[t]);
+        }
+        size = 0;
+    }
+
+    /** 창에 남은 위치를 넘기지 않고 버립니다. */
+    public void reset() {
+        size = 0;
+    }
+
+    /** 지금까지 받은 위치 수 */
+    public long getFixCount() {
+        return fixCount;
+    }
+
+    /** 도로 위에 맞춰 확정한 위치 수 */
+    public long getSnappedCount() {
+        return snappedCount;
+    }
+
+    /** 이어서 맞추지 못하고 창을 새로 시작한 횟수 */
+    public int getBreakCount() {
+        return breakCount;
+    }
+
+    /** 후보 사이 도로 거리를 구하려고 경로 탐색을 한 횟수 */
+    public int getRouteQueryCount() {
+        return routeQueryCount;
+    }
+
+    /** 확정되지 않고 창에 남아 있는 위치 수 */
+    public int getPendingCount() {
+        return size;
+    }
+
+    private int slotOf(int index) {
+        return (head + index) % capacity;
+    }
+
+    /**
+     * 지금까지의 창을 확정하고 next 자리에서 새 창을 시작합니다.
+     */
+    private void restart(int next) {
+        if (size > 0) {
+            breakCount++;
+            Telemetry.increment(Telemetry.MAP_MATCH_BREAKS);
+        }
+        flush();
+        head = next;
+    }
+
+    private void emitOldest() {
+        int candidate = bestCandidate(slotOf(size - 1));
+        for (int t = size - 1; t > 0; t--) {
+            candidate = parents[slotOf(t)][candidate];
+        }
+        emit(head, candidate);
+        head = (head + 1) % capacity;
+        size--;
+    }
+
+    private void emit(int slot, int candidate) {
+        snappedCount++;
+        listener.onMatched(latitudes[slot][candidate], longitudes[slot][candidate], true);
+    }
+
+    private int bestCandidate(int slot) {
+        int best = 0;
+        for (int j = 1; j < candidateCounts[slot]; j++) {
+            if (scores[slot][j] > scores[slot][best]) {
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 앞 위치의 점수에서 현재 위치의 점수를 구합니다.
+     *
+     * @return 이어지는 후보가 하나라도 있으면 true
+     */
+    private boolean advance(int previous, int current) {
+        double fixMeters = GeoMath.distanceMeters(fixLatitudes[previous], fixLongitudes[previous],
+                fixLatitudes[current], fixLongitudes[current]);
+        cacheSize = 0;
+        // 점수가 높은 앞 후보부터 보면 아래의 가지치기가 잘 듣습니다.
+        int previousCount = candidateCounts[previous];
+        for (int i = 0; i < previousCount; i++) {
+            int k = i;
+            while (k > 0 && scores[previous][order[k - 1]] < scores[previous][i]) {
+                order[k] = order[k - 1];
+                k--;
+            }
+            order[k] = i;
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < candidateCounts[current]; j++) {
+            double best = Double.NEGATIVE_INFINITY;
+            int parent = -1;
+            for (int k = 0; k < previousCount; k++) {
+                int i = order[k];
+                double score = scores[previous][i];
+                // 직선 거리로 구한 하한으로도 지금까지의 최선을 넘지 못하면 도로 거리를 구하지 않습니다.
+                double lowerBound = lowerBoundMeters(previous, i, current, j);
+                if (score - Math.max(0, lowerBound - fixMeters) / betaMeters <= best) {
+                    continue;
+                }
+                double routeMeters = routeMeters(previous, i, current, j, fixMeters);
+                if (routeMeters < 0) {
+                    continue;
+                }
+                score -= Math.abs(routeMeters - fixMeters) / betaMeters;
+                if (score > best) {
+                    best = score;
+                    parent = i;
+                }
+            }
+            scores[current][j] = best + emission(current, j);
+            parents[current][j] = parent;
+            max = Math.max(max, scores[current][j]);
+        }
+        if (max == Double.NEGATIVE_INFINITY) {
+            return false;
+        }
+        for (int j = 0; j < candidateCounts[current]; j++) {
+            scores[current][j] -= max;
+        }
+        return true;
+    }
+
+    private double emission(int slot, int candidate) {
+        double z = distances[slot][candidate] / sigmaMeters;
+        return -0.5 * z * z;
+    }
+
+    /**
+     * 같은 간선 위에서 앞으로 가거나 잡음만큼 뒤로 간 경우의 거리를 구합니다.
+     *
+     * @return 거리 (미터), 해당하지 않으면 -1
+     */
+    private double alongEdgeMeters(int previous, int i, int current, int j) {
+        if (fromNodes[previous][i] != fromNodes[current][j] || toNodes[previous][i] != toNodes[current][j]) {
+            return -1;
+        }
+        double along = (fractions[current][j] - fractions[previous][i]) * lengths[current][j];
+        return along >= -BACKTRACK_SLACK_METERS ? Math.max(0, along) : -1;
+    }
+
+    /**
+     * 앞 위치의 후보 i에서 현재 위치의 후보 j까지 도로 거리의 하한을 직선 거리로 구합니다.
+     */
+    private double lowerBoundMeters(int previous, int i, int current, int j) {
+        double along = alongEdgeMeters(previous, i, current, j);
+        if (along >= 0) {
+            return along;
+        }
+        int from = toNodes[previous][i];
+        int to = fromNodes[current][j];
+        return (1 - fractions[previous][i]) * lengths[previous][i] + fractions[current][j] * lengths[current][j]
+                + GeoMath.distanceMeters(graph.getLatitude(from), graph.getLongitude(from),
+                graph.getLatitude(to), graph.getLongitude(to));
+    }
+
+    /**
+     * 앞 위치의 후보 i에서 현재 위치의 후보 j까지 도로를 따라간 거리를 구합니다.
+     * 간선 끝 노드에서 다음 간선 출발 노드까지는 경로 탐색으로 구합니다.
+     *
+     * @return 거리 (미터), 이어지지 않거나 너무 멀리 돌아가면 -1
+     */
+    private double routeMeters(int previous, int i, int current, int j, double fixMeters) {
+        double along = alongEdgeMeters(previous, i, current, j);
+        if (along >= 0) {
+            return along;
+        }
+        if (lowerBoundMeters(previous, i, current, j) - fixMeters > MAX_DETOUR_METERS) {
+            return -1;
+        }
+        double between = nodeMeters(toNodes[previous][i], fromNodes[current][j]);
+        if (between < 0) {
+            return -1;
+        }
+        double meters = (1 - fractions[previous][i]) * lengths[previous][i] + between
+                + fractions[current][j] * lengths[current][j];
+        return meters - fixMeters > MAX_DETOUR_METERS ? -1 : meters;
+    }
+
+    private double nodeMeters(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        for (int k = 0; k < cacheSize; k++) {
+            if (cacheFrom[k] == from && cacheTo[k] == to) {
+                return cacheMeters[k];
+            }
+        }
+        routeQueryCount++;
+        double meters = router.routeDistanceMeters(from, to);
+        if (cacheSize < cacheFrom.length) {
+            cacheFrom[cacheSize] = from;
+            cacheTo[cacheSize] = to;
+            cacheMeters[cacheSize++] = meters;
+        }
+        return meters;
+    }
+
+    private void findCandidates(int slot, double latitude, double longitude) {
+        candidateCounts[slot] = 0;
+        collectSlot = slot;
+        collectLatitude = latitude;
+        collectLongitude = longitude;
+        graph.forEachRoadNear(latitude, longitude, radiusMeters, collector);
+    }
+
+    /**
+     * 간선 위에서 위치에 가장 가까운 지점을 구해 반경 안이면 거리순으로 후보에 넣습니다.
+     */
+    private void collect(int from, int to) {
+        double fromLatitude = graph.getLatitude(from);
+        double fromLongitude = graph.getLongitude(from);
+        double toLatitude = graph.getLatitude(to);
+        double toLongitude = graph.getLongitude(to);
+        // 간선 출발점을 원점으로 하는 평면 좌표(미터)에서 수선의 발을 구합니다.
+        double metersPerLon = TileMath.METERS_PER_DEGREE * TileMath.cosDegrees(fromLatitude);
+        double bx = (toLongitude - fromLongitude) * metersPerLon;
+        double by = (toLatitude - fromLatitude) * TileMath.METERS_PER_DEGREE;
+        double px = (collectLongitude - fromLongitude) * metersPerLon;
+        double py = (collectLatitude - fromLatitude) * TileMath.METERS_PER_DEGREE;
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+        double dx = px - t * bx;
+        double dy = py - t * by;
+        double meters = Math.sqrt(dx * dx + dy * dy);
+        if (meters > radiusMeters) {
+            return;
+        }
+        int slot = collectSlot;
+        int count = candidateCounts[slot];
+        if (count == MAX_CANDIDATES && meters >= distances[slot][count - 1]) {
+            return;
+        }
+        int position = Math.min(count, MAX_CANDIDATES - 1);
+        while (position > 0 && distances[slot][position - 1] > meters) {
+            move(slot, position - 1, position);
+            position--;
+        }
+        fromNodes[slot][position] = from;
+        toNodes[slot][position] = to;
+        fractions[slot][position] = t;
+        lengths[slot][position] = Math.sqrt(lengthSquared);
+        distances[slot][position] = meters;
+        latitudes[slot][position] = fromLatitude + t * (toLatitude - fromLatitude);
+        longitudes[slot][position] = fromLongitude + t * (toLongitude - fromLongitude);
+        candidateCounts[slot] = Math.min(count + 1, MAX_CANDIDATES);
+    }
+
+    private void move(int slot, int from, int to) {
+        fromNodes[slot][to] = fromNodes[slot][from];
+        toNodes[slot][to] = toNodes[slot][from];
+        fractions[slot][to] = fractions[slot][from];
+        lengths[slot][to] = lengths[slot][from];
+        distances[slot][to] = distances[slot][from];
+        latitudes[slot][to] = latitudes[slot][from];
+        longitudes[slot][to] = longitudes[slot][from];
+    }
+}
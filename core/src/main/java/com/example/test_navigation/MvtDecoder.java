@@ -0,0 +1,559 @@
+package com.example.test_navigation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * MvtDecoder 클래스는 Mapbox Vector Tile(프로토콜 버퍼) 바이트를 객체 그래프 없이 읽어 {@link Visitor}에 전달하는 스트리밍 디코더입니다.
+ * 레이어, 피처, 좌표를 객체로 만들지 않고 버퍼의 위치만 따라가며 콜백을 호출하므로 타일당 할당이
+ * 레이어 이름 문자열 정도로 제한됩니다. gzip으로 압축된 타일은 재사용하는 {@link Inflater}로 풀어서 읽습니다.
+ *
+ * <p>인스턴스는 내부 버퍼를 재사용하므로 스레드마다 하나씩 사용해야 합니다.</p>
+ *
+ * @see <a href="https://github.com/mapbox/vector-tile-spec/tree/master/2.1">Vector Tile Specification 2.1</a>
+ */
+public class MvtDecoder {
+
+    public static final int GEOM_UNKNOWN = 0;
+    public static final int GEOM_POINT = 1;
+    public static final int GEOM_LINESTRING = 2;
+    public static final int GEOM_POLYGON = 3;
+
+    /** 레이어에 extent가 없을 때의 기본값 */
+    public static final int DEFAULT_EXTENT = 4096;
+
+    // 프로토콜 버퍼 필드 번호
+    private static final int TILE_LAYERS = 3;
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_FLOAT = 2;
+    private static final int VALUE_DOUBLE = 3;
+    private static final int VALUE_INT = 4;
+    private static final int VALUE_UINT = 5;
+    private static final int VALUE_SINT = 6;
+    private static final int VALUE_BOOL = 7;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private static final int CMD_MOVE_TO = 1;
+    private static final int CMD_LINE_TO = 2;
+    private static final int CMD_CLOSE_PATH = 7;
+
+    private static final int GZIP_FEXTRA = 4;
+    private static final int GZIP_FNAME = 8;
+    private static final int GZIP_FCOMMENT = 16;
+    private static final int GZIP_FHCRC = 2;
+
+    /**
+     * 디코딩 결과를 받는 대상입니다. 좌표는 레이어 extent 기준의 타일 내부 정수 좌표입니다.
+     */
+    public interface Visitor {
+        /**
+         * 레이어가 시작될 때 호출됩니다.
+         *
+         * @return 이 레이어의 피처를 읽으려면 true
+         */
+        boolean visitLayer(String name, int extent);
+
+        /**
+         * 피처가 시작될 때 호출됩니다. feature는 재사용되는 커서이므로 호출이 끝난 뒤에는 보관하면 안 됩니다.
+         *
+         * @return 이 피처의 도형을 읽으려면 true
+         */
+        boolean visitFeature(Feature feature);
+
+        void moveTo(int x, int y);
+
+        void lineTo(int x, int y);
+
+        void closePath();
+
+        /** 도형을 읽은 피처가 끝날 때 호출됩니다. */
+        void endFeature();
+    }
+
+    /**
+     * 현재 피처를 가리키는 커서입니다. 태그는 필요할 때 버퍼에서 직접 찾습니다.
+     */
+    public final class Feature {
+        private long id;
+        private int type;
+        private int tagsStart;
+        private int tagsEnd;
+
+        public long getId() {
+            return id;
+        }
+
+        /** {@link #GEOM_POINT}, {@link #GEOM_LINESTRING}, {@link #GEOM_POLYGON} 중 하나 */
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * 태그 값을 문자열로 반환합니다.
+         *
+         * @param key 태그 키
+         * @return 값, 없으면 null
+         */
+        public String getTag(String key) {
+            int value = findValue(key);
+            return value >= 0 ? valueToString(value) : null;
+        }
+
+        /**
+         * 태그 값이 주어진 문자열과 같은지 할당 없이 확인합니다.
+         *
+         * @param key 태그 키
+         * @param value 비교할 값
+         * @return 태그가 있고 값이 같으면 true
+         */
+        public boolean hasTag(String key, String value) {
+            int index = findValue(key);
+            if (index < 0) {
+                return false;
+            }
+            int saved = pos;
+            int savedLimit = limit;
+            try {
+                pos = valueOffsets[index];
+                limit = pos + valueLengths[index];
+                while (pos < limit) {
+                    int tag = (int) readVarint();
+                    if (tag >>> 3 == VALUE_STRING && (tag & 7) == WIRE_LENGTH) {
+                        int length = (int) readVarint();
+                        return length <= limit - pos && bytesEqual(pos, length, value);
+                    }
+                    skip(tag & 7);
+                }
+                return false;
+            } catch (IOException e) {
+                return false;
+            } finally {
+                pos = saved;
+                limit = savedLimit;
+            }
+        }
+
+        private int findValue(String key) {
+            int saved = pos;
+            int savedLimit = limit;
+            try {
+                pos = tagsStart;
+                limit = tagsEnd;
+                while (pos < limit) {
+                    int k = (int) readVarint();
+                    int v = (int) readVarint();
+                    if (k < keyCount && v < valueCount && bytesEqual(keyOffsets[k], keyLengths[k], key)) {
+                        return v;
+                    }
+                }
+                return -1;
+            } catch (IOException e) {
+                return -1;
+            } finally {
+                pos = saved;
+                limit = savedLimit;
+            }
+        }
+    }
+
+    private final Inflater inflater = new Inflater(true);
+    private byte[] inflated = new byte[64 * 1024];
+    private final Feature feature = new Feature();
+
+    private byte[] buf;
+    private int pos;
+    private int limit;
+
+    // 현재 레이어의 키/값 위치 (버퍼 안의 오프셋)
+    private int keyCount;
+    private int[] keyOffsets = new int[64];
+    private int[] keyLengths = new int[64];
+    private int valueCount;
+    private int[] valueOffsets = new int[256];
+    private int[] valueLengths = new int[256];
+
+    /**
+     * 타일을 디코딩합니다. gzip으로 압축되어 있으면 먼저 풉니다.
+     *
+     * @param data 타일 바이트 (MBTiles tile_data)
+     * @param visitor 결과를 받을 대상
+     * @return 방문한 피처 수
+     * @throws IOException 압축 해제 실패 또는 잘못된 형식
+     */
+    public int decode(byte[] data, Visitor visitor) throws IOException {
+        if (isGzip(data)) {
+            int length = gunzip(data);
+            return decode(inflated, 0, length, visitor);
+        }
+        return decode(data, 0, data.length, visitor);
+    }
+
+    /**
+     * 압축되지 않은 타일을 디코딩합니다.
+     *
+     * @param data 버퍼
+     * @param offset 시작 위치
+     * @param length 길이
+     * @param visitor 결과를 받을 대상
+     * @return 방문한 피처 수
+     * @throws IOException 잘못된 형식
+     */
+    public int decode(byte[] data, int offset, int length, Visitor visitor) throws IOException {
+        buf = data;
+        pos = offset;
+        limit = offset + length;
+        int features = 0;
+        try {
+            while (pos < limit) {
+                int tag = (int) readVarint();
+                if (tag >>> 3 == TILE_LAYERS && (tag & 7) == WIRE_LENGTH) {
+                    int layerLength = (int) readVarint();
+                    int layerEnd = checkedEnd(layerLength);
+                    int tileLimit = limit;
+                    limit = layerEnd;
+                    features += decodeLayer(pos, layerEnd, visitor);
+                    limit = tileLimit;
+                    pos = layerEnd;
+                } else {
+                    skip(tag & 7);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated vector tile", e);
+        } finally {
+            buf = null;
+        }
+        return features;
+    }
+
+    /**
+     * 첫 번째 훑기에서 이름, extent, 키/값 위치를 모으고 두 번째 훑기에서 피처를 전달합니다.
+     * (명세상 필드 순서가 정해져 있지 않아 extent와 키/값이 피처 뒤에 올 수 있습니다.)
+     */
+    private int decodeLayer(int start, int end, Visitor visitor) throws IOException {
+        String name = null;
+        int extent = DEFAULT_EXTENT;
+        keyCount = 0;
+        valueCount = 0;
+        pos = start;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            int field = tag >>> 3;
+            int wire = tag & 7;
+            if (field == LAYER_NAME && wire == WIRE_LENGTH) {
+                int length = (int) readVarint();
+                name = new String(buf, pos, length, StandardCharsets.UTF_8);
+                pos = checkedEnd(length);
+            } else if (field == LAYER_KEYS && wire == WIRE_LENGTH) {
+                int length = (int) readVarint();
+                addKey(pos, length);
+                pos = checkedEnd(length);
+            } else if (field == LAYER_VALUES && wire == WIRE_LENGTH) {
+                int length = (int) readVarint();
+                addValue(pos, length);
+                pos = checkedEnd(length);
+            } else if (field == LAYER_EXTENT && wire == WIRE_VARINT) {
+                extent = (int) readVarint();
+            } else {
+                skip(wire);
+            }
+        }
+        if (name == null || extent <= 0 || !visitor.visitLayer(name, extent)) {
+            return 0;
+        }
+
+        int features = 0;
+        pos = start;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            if (tag >>> 3 == LAYER_FEATURES && (tag & 7) == WIRE_LENGTH) {
+                int length = (int) readVarint();
+                int featureEnd = checkedEnd(length);
+                decodeFeature(pos, featureEnd, visitor);
+                pos = featureEnd;
+                features++;
+            } else {
+                skip(tag & 7);
+            }
+        }
+        return features;
+    }
+
+    private void decodeFeature(int start, int end, Visitor visitor) throws IOException {
+        feature.id = 0;
+        feature.type = GEOM_UNKNOWN;
+        feature.tagsStart = 0;
+        feature.tagsEnd = 0;
+        int geometryStart = -1;
+        int geometryEnd = -1;
+        int layerLimit = limit;
+        limit = end;
+        pos = start;
+        while (pos < end) {
+            int tag = (int) readVarint();
+            int field = tag >>> 3;
+            int wire = tag & 7;
+            if (field == FEATURE_ID && wire == WIRE_VARINT) {
+                feature.id = readVarint();
+            } else if (field == FEATURE_TYPE && wire == WIRE_VARINT) {
+                feature.type = (int) readVarint();
+            } else if (field == FEATURE_TAGS && wire == WIRE_LENGTH) {
+                int length = (int) readVarint();
+                feature.tagsStart = pos;
+                feature.tagsEnd = checkedEnd(length);
+                pos = feature.tagsEnd;
+            } else if (field == FEATURE_GEOMETRY && wire == WIRE_LENGTH) {
+                int length = (int) readVarint();
+                geometryStart = pos;
+                geometryEnd = checkedEnd(length);
+                pos = geometryEnd;
+            } else {
+                skip(wire);
+            }
+        }
+        if (geometryStart >= 0 && visitor.visitFeature(feature)) {
+            pos = geometryStart;
+            limit = geometryEnd;
+            decodeGeometry(visitor);
+            visitor.endFeature();
+        }
+        limit = layerLimit;
+    }
+
+    /**
+     * 명령 정수(id 3비트 + 반복 횟수)와 지그재그 인코딩된 상대 좌표를 절대 좌표로 풀어 전달합니다.
+     */
+    private void decodeGeometry(Visitor visitor) throws IOException {
+        int x = 0;
+        int y = 0;
+        while (pos < limit) {
+            int command = (int) readVarint();
+            int id = command & 7;
+            int count = command >>> 3;
+            if (id == CMD_CLOSE_PATH) {
+                visitor.closePath();
+                continue;
+            }
+            if (id != CMD_MOVE_TO && id != CMD_LINE_TO) {
+                throw new IOException("Unknown geometry command: " + id);
+            }
+            for (int i = 0; i < count && pos < limit; i++) {
+                x += decodeZigZag((int) readVarint());
+                y += decodeZigZag((int) readVarint());
+                if (id == CMD_MOVE_TO) {
+                    visitor.moveTo(x, y);
+                } else {
+                    visitor.lineTo(x, y);
+                }
+            }
+        }
+    }
+
+    static int decodeZigZag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private void addKey(int offset, int length) {
+        if (keyCount == keyOffsets.length) {
+            keyOffsets = Arrays.copyOf(keyOffsets, keyCount * 2);
+            keyLengths = Arrays.copyOf(keyLengths, keyCount * 2);
+        }
+        keyOffsets[keyCount] = offset;
+        keyLengths[keyCount] = length;
+        keyCount++;
+    }
+
+    private void addValue(int offset, int length) {
+        if (valueCount == valueOffsets.length) {
+            valueOffsets = Arrays.copyOf(valueOffsets, valueCount * 2);
+            valueLengths = Arrays.copyOf(valueLengths, valueCount * 2);
+        }
+        valueOffsets[valueCount] = offset;
+        valueLengths[valueCount] = length;
+        valueCount++;
+    }
+
+    private String valueToString(int index) {
+        int saved = pos;
+        int savedLimit = limit;
+        try {
+            pos = valueOffsets[index];
+            limit = pos + valueLengths[index];
+            while (pos < limit) {
+                int tag = (int) readVarint();
+                int field = tag >>> 3;
+                switch (field) {
+                    case VALUE_STRING: {
+                        int length = (int) readVarint();
+                        return new String(buf, pos, length, StandardCharsets.UTF_8);
+                    }
+                    case VALUE_FLOAT:
+                        return String.valueOf(Float.intBitsToFloat(readFixed32()));
+                    case VALUE_DOUBLE:
+                        return String.valueOf(Double.longBitsToDouble(readFixed64()));
+                    case VALUE_INT:
+                    case VALUE_UINT:
+                        return String.valueOf(readVarint());
+                    case VALUE_SINT: {
+                        long n = readVarint();
+                        return String.valueOf((n >>> 1) ^ -(n & 1));
+                    }
+                    case VALUE_BOOL:
+                        return String.valueOf(readVarint() != 0);
+                    default:
+                        skip(tag & 7);
+                        break;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            pos = saved;
+            limit = savedLimit;
+        }
+    }
+
+    /** UTF-8 바이트와 문자열을 할당 없이 비교합니다. ASCII가 아닌 문자열은 디코딩하여 비교합니다. */
+    private boolean bytesEqual(int offset, int length, String s) {
+        int n = s.length();
+        if (n > length) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                return new String(buf, offset, length, StandardCharsets.UTF_8).equals(s);
+            }
+            if (i >= length || buf[offset + i] != (byte) c) {
+                return false;
+            }
+        }
+        return n == length;
+    }
+
+    private long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos >= limit) {
+                throw new IOException("Truncated varint");
+            }
+            byte b = buf[pos++];
+            result |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readFixed32() {
+        int value = (buf[pos] & 0xff) | (buf[pos + 1] & 0xff) << 8 | (buf[pos + 2] & 0xff) << 16
+                | (buf[pos + 3] & 0xff) << 24;
+        pos += 4;
+        return value;
+    }
+
+    private long readFixed64() {
+        long low = readFixed32() & 0xffffffffL;
+        long high = readFixed32() & 0xffffffffL;
+        return high << 32 | low;
+    }
+
+    private void skip(int wireType) throws IOException {
+        switch (wireType) {
+            case WIRE_VARINT:
+                readVarint();
+                break;
+            case WIRE_FIXED64:
+                pos = checkedEnd(8);
+                break;
+            case WIRE_LENGTH:
+                pos = checkedEnd((int) readVarint());
+                break;
+            case WIRE_FIXED32:
+                pos = checkedEnd(4);
+                break;
+            default:
+                throw new IOException("Unsupported wire type: " + wireType);
+        }
+    }
+
+    private int checkedEnd(int length) throws IOException {
+        if (length < 0 || length > limit - pos) {
+            throw new IOException("Field length out of range: " + length);
+        }
+        return pos + length;
+    }
+
+    /**
+     * gzip 헤더(매직 번호 0x1f 0x8b, deflate 방식)로 시작하는지 확인합니다.
+     */
+    public static boolean isGzip(byte[] data) {
+        return data.length >= 18 && (data[0] & 0xff) == 0x1f && (data[1] & 0xff) == 0x8b && data[2] == 8;
+    }
+
+    /**
+     * gzip 헤더를 건너뛰고 본문을 내부 버퍼에 풉니다.
+     *
+     * @return 풀린 바이트 수
+     */
+    private int gunzip(byte[] data) throws IOException {
+        int flags = data[3] & 0xff;
+        int offset = 10;
+        if ((flags & GZIP_FEXTRA) != 0) {
+            offset += 2 + ((data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8);
+        }
+        if ((flags & GZIP_FNAME) != 0) {
+            while (offset < data.length && data[offset++] != 0) {
+                // 파일 이름 건너뛰기
+            }
+        }
+        if ((flags & GZIP_FCOMMENT) != 0) {
+            while (offset < data.length && data[offset++] != 0) {
+                // 주석 건너뛰기
+            }
+        }
+        if ((flags & GZIP_FHCRC) != 0) {
+            offset += 2;
+        }
+        if (offset >= data.length) {
+            throw new IOException("Truncated gzip header");
+        }
+
+        inflater.reset();
+        inflater.setInput(data, offset, data.length - offset);
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (length == inflated.length) {
+                    inflated = Arrays.copyOf(inflated, inflated.length * 2);
+                }
+                int n = inflater.inflate(inflated, length, inflated.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated gzip data");
+                }
+                length += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt gzip data", e);
+        }
+        return length;
+    }
+}
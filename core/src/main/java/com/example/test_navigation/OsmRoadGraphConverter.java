@@ -0,0 +1,206 @@
+package com.example.test_navigation;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * OsmRoadGraphConverter 클래스는 OSM XML 추출본(.osm 또는 .osm.gz)에서 차가 다닐 수 있는 도로를 골라
+ * {@link RoadGraph} 파일을 만드는 명령줄 도구입니다. PBF 추출본은 먼저
+ * {@code osmium cat south-korea-latest.osm.pbf -o south-korea-latest.osm.gz}로 바꿉니다.
+ * 보통 Gradle 작업으로 실행합니다.
+ *
+ * <pre>
+ * ./gradlew :core:buildRoadGraph -Pin=south-korea-latest.osm.gz -Pout=south-korea.roadgraph
+ * </pre>
+ *
+ * <p>모든 OSM 노드의 좌표를 id 순서 배열에 두고, 도로가 지나는 노드만 그래프 노드로 만듭니다.
+ * 속도는 maxspeed 태그가 있으면 그 값, 없으면 도로 등급별 기본값입니다.</p>
+ */
+public final class OsmRoadGraphConverter {
+
+    /** 도로 등급별 기본 속도 (km/h). 여기에 없는 highway 값은 차가 다니지 않는 길로 봅니다. */
+    private static final Map<String, Integer> SPEEDS = new HashMap<>();
+
+    static {
+        SPEEDS.put("motorway", 100);
+        SPEEDS.put("motorway_link", 60);
+        SPEEDS.put("trunk", 80);
+        SPEEDS.put("trunk_link", 50);
+        SPEEDS.put("primary", 60);
+        SPEEDS.put("primary_link", 40);
+        SPEEDS.put("secondary", 50);
+        SPEEDS.put("secondary_link", 40);
+        SPEEDS.put("tertiary", 40);
+        SPEEDS.put("tertiary_link", 30);
+        SPEEDS.put("unclassified", 30);
+        SPEEDS.put("residential", 30);
+        SPEEDS.put("living_street", 10);
+        SPEEDS.put("service", 15);
+    }
+
+    private final RoadGraphBuilder builder = new RoadGraphBuilder();
+    private int osmNodeCount;
+    private long[] osmIds = new long[1 << 16];
+    private int[] osmLatE7 = new int[1 << 16];
+    private int[] osmLonE7 = new int[1 << 16];
+    /** OSM 노드 자리별 그래프 노드 번호 (없으면 -1) */
+    private int[] graphIds;
+    private boolean sorted = true;
+    private int wayCount;
+
+    private OsmRoadGraphConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: OsmRoadGraphConverter <in.osm[.gz]> <out" + RoadGraph.FILE_EXTENSION + ">");
+            System.exit(2);
+        }
+        File in = new File(args[0]);
+        File out = new File(args[1]);
+        long start = System.nanoTime();
+        OsmRoadGraphConverter converter = new OsmRoadGraphConverter();
+        converter.read(in);
+        long parsed = System.nanoTime();
+        converter.builder.write(out);
+        long written = System.nanoTime();
+        System.out.println("Read " + converter.osmNodeCount + " OSM nodes, " + converter.wayCount + " roads in "
+                + (parsed - start) / 1_000_000L + " ms");
+        System.out.println("Contracted " + converter.builder.getNodeCount() + " nodes, "
+                + converter.builder.getEdgeCount() + " edges, " + converter.builder.getShortcutCount()
+                + " shortcuts in " + (written - parsed) / 1_000_000L + " ms: " + out.length() + " bytes");
+    }
+
+    private void read(File file) throws IOException {
+        try (InputStream raw = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            InputStream input = file.getName().endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw;
+            XMLStreamReader xml = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            try {
+                long[] refs = new long[256];
+                int refCount = 0;
+                Map<String, String> tags = new HashMap<>();
+                boolean inWay = false;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = xml.getLocalName();
+                        if ("node".equals(name)) {
+                            addOsmNode(Long.parseLong(xml.getAttributeValue(null, "id")),
+                                    Double.parseDouble(xml.getAttributeValue(null, "lat")),
+                                    Double.parseDouble(xml.getAttributeValue(null, "lon")));
+                        } else if ("way".equals(name)) {
+                            inWay = true;
+                            refCount = 0;
+                            tags.clear();
+                        } else if (inWay && "nd".equals(name)) {
+                            if (refCount == refs.length) {
+                                refs = Arrays.copyOf(refs, refCount * 2);
+                            }
+                            refs[refCount++] = Long.parseLong(xml.getAttributeValue(null, "ref"));
+                        } else if (inWay && "tag".equals(name)) {
+                            tags.put(xml.getAttributeValue(null, "k"), xml.getAttributeValue(null, "v"));
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(xml.getLocalName())) {
+                        inWay = false;
+                        addWay(refs, refCount, tags);
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid OSM XML: " + file, e);
+        }
+    }
+
+    private void addOsmNode(long id, double latitude, double longitude) {
+        if (osmNodeCount == osmIds.length) {
+            osmIds = Arrays.copyOf(osmIds, osmNodeCount * 2);
+            osmLatE7 = Arrays.copyOf(osmLatE7, osmNodeCount * 2);
+            osmLonE7 = Arrays.copyOf(osmLonE7, osmNodeCount * 2);
+        }
+        if (osmNodeCount > 0 && id <= osmIds[osmNodeCount - 1]) {
+            sorted = false;
+        }
+        osmIds[osmNodeCount] = id;
+        osmLatE7[osmNodeCount] = RoadGraph.toE7(latitude);
+        osmLonE7[osmNodeCount] = RoadGraph.toE7(longitude);
+        osmNodeCount++;
+    }
+
+    private void addWay(long[] refs, int refCount, Map<String, String> tags) throws IOException {
+        Integer defaultSpeed = SPEEDS.get(tags.get("highway"));
+        if (defaultSpeed == null || refCount < 2 || "no".equals(tags.get("access"))
+                || "no".equals(tags.get("motor_vehicle")) || "no".equals(tags.get("motorcar"))) {
+            return;
+        }
+        if (graphIds == null) {
+            // 노드는 모두 길보다 먼저 나옵니다.
+            if (!sorted) {
+                throw new IOException("OSM nodes must be sorted by id (use osmium sort)");
+            }
+            graphIds = new int[osmNodeCount];
+            Arrays.fill(graphIds, -1);
+        }
+        double speed = parseSpeed(tags.get("maxspeed"), defaultSpeed);
+        String oneway = tags.get("oneway");
+        boolean reverse = "-1".equals(oneway);
+        boolean isOneway = reverse || "yes".equals(oneway) || "true".equals(oneway) || "1".equals(oneway)
+                || (oneway == null && ("motorway".equals(tags.get("highway"))
+                || "roundabout".equals(tags.get("junction"))));
+
+        int previous = -1;
+        for (int i = 0; i < refCount; i++) {
+            int index = Arrays.binarySearch(osmIds, 0, osmNodeCount, refs[i]);
+            if (index < 0) {
+                // 추출 경계 밖의 노드
+                previous = -1;
+                continue;
+            }
+            int node = graphIds[index];
+            if (node < 0) {
+                node = builder.addNode(osmLatE7[index] / 1e7, osmLonE7[index] / 1e7);
+                graphIds[index] = node;
+            }
+            if (previous >= 0 && previous != node) {
+                if (reverse) {
+                    builder.addRoad(node, previous, speed, true);
+                } else {
+                    builder.addRoad(previous, node, speed, isOneway);
+                }
+            }
+            previous = node;
+        }
+        wayCount++;
+    }
+
+    private static double parseSpeed(String maxspeed, int fallback) {
+        if (maxspeed == null) {
+            return fallback;
+        }
+        int end = 0;
+        while (end < maxspeed.length() && Character.isDigit(maxspeed.charAt(end))) {
+            end++;
+        }
+        if (end == 0) {
+            return fallback;
+        }
+        int speed = Integer.parseInt(maxspeed.substring(0, end));
+        if (speed <= 0) {
+            return fallback;
+        }
+        return maxspeed.contains("mph") ? speed * 1.609 : speed;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * PatchedTileArchive 클래스는 읽기 전용 기반 아카이브(APK 안의 타일 팩) 위에 지도 델타로 바뀐 타일만 담은
+ * 작은 패치 아카이브를 겹쳐 하나의 {@link TileArchive}처럼 제공하는 클래스입니다.
+ *
+ * <ul>
+ *     <li>타일은 패치에서 먼저 찾고, 없으면 기반에서 읽습니다.</li>
+ *     <li>델타가 지운 타일은 패치에 길이 0인 타일로 남아 기반의 타일을 가립니다.</li>
+ *     <li>메타데이터도 패치 값이 먼저이므로 지도 버전은 마지막으로 적용한 델타의 대상 버전이 됩니다.</li>
+ * </ul>
+ *
+ * <p>패치는 {@link PatchedTileStore}로 씁니다. 패치에는 만들 때의 기반 버전이 기록되어 있어,
+ * 앱 업데이트로 기반이 바뀌면 {@link #isPatchOf}로 알아보고 버릴 수 있습니다.</p>
+ */
+public class PatchedTileArchive implements TileArchive {
+
+    /** metadata 이름: 패치를 만들 때 기반 아카이브의 지도 버전 */
+    public static final String METADATA_BASE_VERSION = "patch.baseVersion";
+
+    private final TileArchive patch;
+    private final TileArchive base;
+
+    /**
+     * @param patch 바뀐 타일만 담은 아카이브 (닫을 때 함께 닫습니다)
+     * @param base 기반 아카이브 (닫을 때 함께 닫습니다)
+     */
+    public PatchedTileArchive(TileArchive patch, TileArchive base) {
+        this.patch = patch;
+        this.base = base;
+    }
+
+    /**
+     * 패치가 이 기반 위에서 만들어졌는지 확인합니다.
+     *
+     * @return 패치에 기록된 기반 버전이 기반의 현재 버전과 같으면 true
+     */
+    public static boolean isPatchOf(TileArchive patch, TileArchive base) {
+        return Objects.equals(patch.getMetadata(METADATA_BASE_VERSION), baseVersion(base));
+    }
+
+    /**
+     * 패치에 기록할 기반 버전을 반환합니다. 버전 메타데이터가 없는 기반은 빈 문자열로 기록합니다.
+     */
+    public static String baseVersion(TileArchive base) {
+        String version = base.getMetadata(MBTilesSchema.METADATA_VERSION);
+        return version != null ? version : "";
+    }
+
+    /** 패치에서 읽은 타일이 기반 타일을 지운 표시인지 확인합니다. */
+    static boolean isRemoved(byte[] data) {
+        return data.length == 0;
+    }
+
+    @Override
+    public byte[] getTile(int zoom, int x, int y) {
+        byte[] data = patch.getTile(zoom, x, y);
+        if (data != null) {
+            return isRemoved(data) ? null : data;
+        }
+        return base.getTile(zoom, x, y);
+    }
+
+    /**
+     * 패치에서 범위를 먼저 읽어 두고, 기반에서 읽은 타일 중 패치에 있는 좌표는 건너뜁니다.
+     * 패치는 델타로 바뀐 타일뿐이라 한 범위에서 읽는 수가 적습니다.
+     */
+    @Override
+    public int getTiles(int zoom, int minX, int maxX, int minY, int maxY, TileConsumer consumer) {
+        final Map<Long, byte[]> patched = new HashMap<>();
+        patch.getTiles(zoom, minX, maxX, minY, maxY, (z, x, y, data) -> patched.put(key(x, y), data));
+        if (patched.isEmpty()) {
+            return base.getTiles(zoom, minX, maxX, minY, maxY, consumer);
+        }
+        final int[] count = new int[1];
+        base.getTiles(zoom, minX, maxX, minY, maxY, (z, x, y, data) -> {
+            if (!patched.containsKey(key(x, y))) {
+                consumer.onTile(z, x, y, data);
+                count[0]++;
+            }
+        });
+        for (Map.Entry<Long, byte[]> entry : patched.entrySet()) {
+            if (!isRemoved(entry.getValue())) {
+                long key = entry.getKey();
+                consumer.onTile(zoom, (int) (key >>> 32), (int) key, entry.getValue());
+                count[0]++;
+            }
+        }
+        return count[0];
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    @Override
+    public String getMetadata(String name) {
+        String value = patch.getMetadata(name);
+        return value != null ? value : base.getMetadata(name);
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return base.getConnectionCount();
+    }
+
+    /** 타일 대부분이 들어 있는 기반 아카이브의 파일 */
+    @Override
+    public File getFile() {
+        return base.getFile();
+    }
+
+    @Override
+    public void close() {
+        patch.close();
+        base.close();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.test_navigation;
+
+import java.io.IOException;
+
+/**
+ * PatchedTileStore 클래스는 읽기 전용 기반 아카이브에 지도 델타를 적용할 수 있도록, 바뀐 타일만 쓰기 가능한
+ * 패치 저장소에 기록하는 {@link WritableTileStore}입니다. 읽을 때의 규칙은 {@link PatchedTileArchive}와 같습니다.
+ *
+ * <ul>
+ *     <li>타일을 쓰면 패치에 기록합니다. 지우는 타일이 기반에 있으면 길이 0인 타일을 기록해 가립니다.</li>
+ *     <li>메타데이터는 패치에 씁니다. null을 쓰면 패치의 값만 지우므로 기반 값이 다시 보입니다.</li>
+ *     <li>트랜잭션은 패치 저장소의 것을 그대로 사용합니다.</li>
+ * </ul>
+ */
+public class PatchedTileStore implements WritableTileStore {
+
+    private final WritableTileStore patch;
+    private final TileArchive base;
+
+    /**
+     * 새로 만든 패치면 기반 버전을 기록합니다.
+     *
+     * @param patch 바뀐 타일을 기록할 저장소
+     * @param base 기반 아카이브
+     * @throws IOException 패치에 기록할 수 없는 경우
+     */
+    public PatchedTileStore(WritableTileStore patch, TileArchive base) throws IOException {
+        this.patch = patch;
+        this.base = base;
+        if (patch.getMetadata(PatchedTileArchive.METADATA_BASE_VERSION) == null) {
+            patch.putMetadata(PatchedTileArchive.METADATA_BASE_VERSION, PatchedTileArchive.baseVersion(base));
+        }
+    }
+
+    @Override
+    public byte[] getTile(int zoom, int x, int y) throws IOException {
+        byte[] data = patch.getTile(zoom, x, y);
+        if (data != null) {
+            return PatchedTileArchive.isRemoved(data) ? null : data;
+        }
+        return base.getTile(zoom, x, y);
+    }
+
+    @Override
+    public void putTile(int zoom, int x, int y, byte[] data) throws IOException {
+        patch.putTile(zoom, x, y, data);
+    }
+
+    @Override
+    public void deleteTile(int zoom, int x, int y) throws IOException {
+        if (base.getTile(zoom, x, y) != null) {
+            patch.putTile(zoom, x, y, new byte[0]);
+        } else {
+            patch.deleteTile(zoom, x, y);
+        }
+    }
+
+    @Override
+    public String getMetadata(String name) throws IOException {
+        String value = patch.getMetadata(name);
+        return value != null ? value : base.getMetadata(name);
+    }
+
+    @Override
+    public void putMetadata(String name, String value) throws IOException {
+        patch.putMetadata(name, value);
+    }
+
+    @Override
+    public void beginTransaction() throws IOException {
+        patch.beginTransaction();
+    }
+
+    @Override
+    public void commit() throws IOException {
+        patch.commit();
+    }
+
+    @Override
+    public void rollback() {
+        patch.rollback();
+    }
+}
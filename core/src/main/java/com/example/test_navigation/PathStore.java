@@ -0,0 +1,373 @@
+package com.example.test_navigation;
+
+import java.util.Arrays;
+
+/**
+ * PathStore 클래스는 이동 경로(브레드크럼)를 기본형 배열에 저장하는 경로 저장소입니다.
+ * 좌표는 1e-7도 단위 정수로 압축되어 원형 버퍼에 들어가며, 용량을 넘으면 가장 오래된 점부터 덮어씁니다.
+ *
+ * <p>줌 레벨마다 화면 1픽셀 오차 이내로 단순화한(Douglas-Peucker) 점 목록을 미리 유지합니다.
+ * 단순화는 점이 추가될 때 일정 개수({@value #CHUNK_SIZE})마다 마지막 구간에만 적용되므로
+ * 전체 경로를 다시 계산하지 않으며, 아직 단순화되지 않은 마지막 구간은 원본 점으로 그려집니다.</p>
+ *
+ * <p>이 클래스는 스레드 안전하지 않으므로 UI 스레드에서만 사용해야 합니다.
+ * 단, 주행 기록을 다시 불러올 때처럼 백그라운드 스레드에서 새로 채운 뒤 UI 스레드로 넘겨줄 수는 있습니다.</p>
+ */
+public class PathStore {
+
+    /** 단순화를 미리 계산하는 최소 줌 레벨 */
+    public static final int MIN_LEVEL_ZOOM = 4;
+    /** 단순화를 미리 계산하는 최대 줌 레벨. 이보다 큰 줌에서는 원본 점을 사용합니다. */
+    public static final int MAX_LEVEL_ZOOM = 18;
+    /** 기본 최대 점 수 (약 8MB) */
+    public static final int DEFAULT_MAX_CAPACITY = 1 << 20;
+
+    /** 단순화를 적용하는 구간의 점 수 */
+    static final int CHUNK_SIZE = 32;
+    /** 허용 오차 (픽셀) */
+    private static final double TOLERANCE_PIXELS = 1.0;
+    private static final double E7 = 1e7;
+    private static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * 화면에 그릴 선분을 하나씩 전달받는 콜백입니다.
+     */
+    public interface SegmentConsumer {
+        void onSegment(double lat1, double lon1, double lat2, double lon2);
+    }
+
+    private final int maxCapacity;
+    private int[] latE7 = new int[INITIAL_CAPACITY];
+    private int[] lonE7 = new int[INITIAL_CAPACITY];
+    /** 가장 오래된 유효한 점의 일련번호 */
+    private int firstSeq;
+    /** 다음에 추가될 점의 일련번호 */
+    private int nextSeq;
+
+    private double metersPerDegreeLon = TileMath.METERS_PER_DEGREE;
+    private final Level[] levels = new Level[MAX_LEVEL_ZOOM - MIN_LEVEL_ZOOM + 1];
+
+    // 단순화 작업용 버퍼 (재사용)
+    private final boolean[] keepMarks = new boolean[CHUNK_SIZE + 1];
+    private final int[] stack = new int[2 * (CHUNK_SIZE + 1)];
+    /** 단순화 중인 구간의 미터 좌표. 모든 레벨이 같은 구간을 단순화하므로 한 번만 변환합니다. */
+    private final double[] chunkX = new double[CHUNK_SIZE + 1];
+    private final double[] chunkY = new double[CHUNK_SIZE + 1];
+    private int chunkAnchor = -1;
+    private int chunkEnd = -1;
+
+    public PathStore() {
+        this(DEFAULT_MAX_CAPACITY);
+    }
+
+    /**
+     * @param maxCapacity 보관할 최대 점 수. 넘으면 오래된 점부터 버립니다.
+     */
+    public PathStore(int maxCapacity) {
+        this.maxCapacity = Math.max(CHUNK_SIZE * 2, maxCapacity);
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new Level(MIN_LEVEL_ZOOM + i);
+        }
+    }
+
+    /**
+     * 경로 끝에 점을 추가합니다.
+     *
+     * @param latitude 위도
+     * @param longitude 경도
+     */
+    public void add(double latitude, double longitude) {
+        if (nextSeq == firstSeq) {
+            // 첫 점의 위도로 경도 방향 거리 환산 계수와 줌별 허용 오차를 정합니다.
+            metersPerDegreeLon = TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+            for (Level level : levels) {
+                level.reset(latitude);
+            }
+        }
+        ensureCapacity();
+        int slot = slot(nextSeq);
+        latE7[slot] = (int) Math.round(latitude * E7);
+        lonE7[slot] = (int) Math.round(longitude * E7);
+        int seq = nextSeq++;
+        if (nextSeq - firstSeq > maxCapacity) {
+            firstSeq++;
+        }
+
+        for (Level level : levels) {
+            if (level.size() == 0) {
+                level.append(seq);
+                level.anchor = seq;
+            } else if (seq - level.anchor >= CHUNK_SIZE) {
+                simplifyChunk(level, seq);
+            }
+            level.dropBefore(firstSeq);
+        }
+    }
+
+    /**
+     * 모든 점을 지웁니다. 할당된 배열은 재사용됩니다.
+     */
+    public void clear() {
+        firstSeq = 0;
+        nextSeq = 0;
+        chunkAnchor = -1;
+        chunkEnd = -1;
+        for (Level level : levels) {
+            level.clear();
+        }
+    }
+
+    /** 저장된 점 수 */
+    public int size() {
+        return nextSeq - firstSeq;
+    }
+
+    public boolean isEmpty() {
+        return nextSeq == firstSeq;
+    }
+
+    /**
+     * @param index 0부터 시작하는 점 순번 (가장 오래된 점이 0)
+     * @return 위도
+     */
+    public double getLatitude(int index) {
+        return latE7[slot(firstSeq + index)] / E7;
+    }
+
+    /**
+     * @param index 0부터 시작하는 점 순번 (가장 오래된 점이 0)
+     * @return 경도
+     */
+    public double getLongitude(int index) {
+        return lonE7[slot(firstSeq + index)] / E7;
+    }
+
+    /**
+     * 주어진 줌 레벨에서 그려질 점의 수를 반환합니다 (단순화된 점 + 아직 단순화되지 않은 마지막 구간).
+     *
+     * @param zoom 줌 레벨
+     * @return 그려질 점 수
+     */
+    public int getDrawnPointCount(int zoom) {
+        Level level = levelFor(zoom);
+        if (level == null) {
+            return size();
+        }
+        return level.size() + Math.max(0, nextSeq - 1 - level.anchor);
+    }
+
+    /**
+     * 주어진 줌 레벨의 단순화된 경로에서 영역과 겹치는 선분만 전달합니다.
+     *
+     * @param zoom 줌 레벨
+     * @param south 영역의 남쪽 위도
+     * @param west 영역의 서쪽 경도
+     * @param north 영역의 북쪽 위도
+     * @param east 영역의 동쪽 경도
+     * @param consumer 선분을 받을 콜백
+     * @return 전달된 선분 수
+     */
+    public int forEachVisibleSegment(int zoom, double south, double west, double north, double east,
+                                     SegmentConsumer consumer) {
+        if (size() < 2) {
+            return 0;
+        }
+        int minLat = (int) Math.floor(south * E7);
+        int maxLat = (int) Math.ceil(north * E7);
+        int minLon = (int) Math.floor(west * E7);
+        int maxLon = (int) Math.ceil(east * E7);
+
+        int emitted = 0;
+        int prev = -1;
+        Level level = levelFor(zoom);
+        if (level != null) {
+            for (int i = level.start; i < level.end; i++) {
+                int seq = level.seqs[i];
+                if (prev >= 0 && emitSegment(prev, seq, minLat, maxLat, minLon, maxLon, consumer)) {
+                    emitted++;
+                }
+                prev = seq;
+            }
+        }
+        // 단순화되지 않은 마지막 구간 (또는 단순화 레벨이 없는 큰 줌의 전체 경로)
+        int tailStart = level != null ? level.anchor + 1 : firstSeq;
+        for (int seq = Math.max(tailStart, firstSeq); seq < nextSeq; seq++) {
+            if (prev >= 0 && emitSegment(prev, seq, minLat, maxLat, minLon, maxLon, consumer)) {
+                emitted++;
+            }
+            prev = seq;
+        }
+        return emitted;
+    }
+
+    private boolean emitSegment(int seqA, int seqB, int minLat, int maxLat, int minLon, int maxLon,
+                                SegmentConsumer consumer) {
+        int a = slot(seqA);
+        int b = slot(seqB);
+        int lat1 = latE7[a], lon1 = lonE7[a], lat2 = latE7[b], lon2 = lonE7[b];
+        // 선분의 경계 상자가 영역과 겹치지 않으면 건너뜁니다.
+        if (Math.max(lat1, lat2) < minLat || Math.min(lat1, lat2) > maxLat
+                || Math.max(lon1, lon2) < minLon || Math.min(lon1, lon2) > maxLon) {
+            return false;
+        }
+        consumer.onSegment(lat1 / E7, lon1 / E7, lat2 / E7, lon2 / E7);
+        return true;
+    }
+
+    private Level levelFor(int zoom) {
+        if (zoom > MAX_LEVEL_ZOOM) {
+            return null;
+        }
+        return levels[Math.max(zoom, MIN_LEVEL_ZOOM) - MIN_LEVEL_ZOOM];
+    }
+
+    private int slot(int seq) {
+        // 용량은 항상 2의 거듭제곱입니다.
+        return seq & (latE7.length - 1);
+    }
+
+    private void ensureCapacity() {
+        int size = nextSeq - firstSeq;
+        if (size < latE7.length || latE7.length >= Integer.highestOneBit(maxCapacity - 1) << 1) {
+            return;
+        }
+        int newLength = latE7.length << 1;
+        int[] newLat = new int[newLength];
+        int[] newLon = new int[newLength];
+        for (int seq = firstSeq; seq < nextSeq; seq++) {
+            newLat[seq & (newLength - 1)] = latE7[slot(seq)];
+            newLon[seq & (newLength - 1)] = lonE7[slot(seq)];
+        }
+        latE7 = newLat;
+        lonE7 = newLon;
+    }
+
+    /**
+     * 레벨의 기준점부터 endSeq까지의 구간에 Douglas-Peucker 단순화를 적용하고,
+     * 남은 점을 레벨에 추가한 뒤 endSeq를 새 기준점으로 삼습니다.
+     */
+    private void simplifyChunk(Level level, int endSeq) {
+        int anchor = level.anchor;
+        int n = endSeq - anchor;
+        if (anchor != chunkAnchor || endSeq != chunkEnd) {
+            loadChunk(anchor, endSeq);
+        }
+        Arrays.fill(keepMarks, 0, n + 1, false);
+        keepMarks[0] = true;
+        keepMarks[n] = true;
+
+        double toleranceSquared = level.toleranceMeters * level.toleranceMeters;
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double ax = chunkX[first];
+            double ay = chunkY[first];
+            double bx = chunkX[last];
+            double by = chunkY[last];
+
+            double maxDistance = 0;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = distanceSquaredToSegment(chunkX[i], chunkY[i], ax, ay, bx, by);
+                if (d > maxDistance) {
+                    maxDistance = d;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0 && maxDistance > toleranceSquared) {
+                keepMarks[farthest] = true;
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        for (int i = 1; i <= n; i++) {
+            if (keepMarks[i]) {
+                level.append(anchor + i);
+            }
+        }
+        level.anchor = endSeq;
+    }
+
+    /**
+     * 구간의 점을 미터 좌표로 한 번 바꿔 둡니다.
+     */
+    private void loadChunk(int anchor, int endSeq) {
+        double xScale = metersPerDegreeLon / E7;
+        double yScale = TileMath.METERS_PER_DEGREE / E7;
+        for (int i = 0, n = endSeq - anchor; i <= n; i++) {
+            int p = slot(anchor + i);
+            chunkX[i] = lonE7[p] * xScale;
+            chunkY[i] = latE7[p] * yScale;
+        }
+        chunkAnchor = anchor;
+        chunkEnd = endSeq;
+    }
+
+    private static double distanceSquaredToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0;
+        t = Math.max(0, Math.min(1, t));
+        double cx = ax + t * dx - px;
+        double cy = ay + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+
+    /**
+     * 한 줌 레벨의 단순화 결과입니다. 남겨진 점의 일련번호를 순서대로 보관합니다.
+     */
+    private static final class Level {
+        final int zoom;
+        int[] seqs = new int[256];
+        int start;
+        int end;
+        /** 마지막으로 단순화가 적용된 구간의 끝점 (다음 구간의 시작점) */
+        int anchor;
+        double toleranceMeters;
+
+        Level(int zoom) {
+            this.zoom = zoom;
+        }
+
+        void reset(double latitude) {
+            toleranceMeters = TOLERANCE_PIXELS * TileMath.metersPerPixel(latitude, zoom);
+            clear();
+        }
+
+        void clear() {
+            start = 0;
+            end = 0;
+            anchor = 0;
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        void append(int seq) {
+            if (end == seqs.length) {
+                if (start > seqs.length / 2) {
+                    System.arraycopy(seqs, start, seqs, 0, end - start);
+                    end -= start;
+                    start = 0;
+                } else {
+                    seqs = Arrays.copyOf(seqs, seqs.length * 2);
+                }
+            }
+            seqs[end++] = seq;
+        }
+
+        void dropBefore(int firstSeq) {
+            while (start < end && seqs[start] < firstSeq) {
+                start++;
+            }
+        }
+    }
+}
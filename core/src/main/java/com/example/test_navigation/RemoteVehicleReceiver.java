@@ -0,0 +1,192 @@
+package com.example.test_navigation;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * RemoteVehicleReceiver 클래스는 UDP로 들어오는 원격 차량 메시지를 받아 {@link RemoteVehicleStore}에 넣는 수신 스레드입니다.
+ * 데이터그램 하나에 고정 크기({@link #RECORD_SIZE}) 레코드를 여러 개 담을 수 있으며,
+ * 데이터그램을 처리할 때마다, 그리고 수신이 없더라도 {@link #PUBLISH_INTERVAL_MS}마다 스냅샷을 게시하여 만료 차량을 정리합니다.
+ *
+ * <p>레코드 형식 (빅 엔디언): id(int), type(int), 위도×1e7(int), 경도×1e7(int),
+ * 방향(float, 도), 속도(float, m/s), 송신 시각(long, 밀리초)</p>
+ */
+public class RemoteVehicleReceiver {
+
+    /** 레코드 하나의 크기 (바이트) */
+    public static final int RECORD_SIZE = 32;
+    /** 데이터그램 하나의 최대 크기 (바이트) */
+    public static final int MAX_DATAGRAM_SIZE = 1472;
+    /** 수신이 없을 때 만료 정리를 위해 게시하는 간격 (밀리초) */
+    public static final int PUBLISH_INTERVAL_MS = 500;
+
+    private static final double E7 = 1e7;
+
+    /**
+     * 새 스냅샷이 게시될 때 수신 스레드에서 호출되는 리스너입니다.
+     */
+    public interface Listener {
+        void onSnapshotPublished();
+    }
+
+    private final RemoteVehicleStore store;
+    private final int port;
+    private final InetAddress bindAddress;
+    private final Listener listener;
+    private volatile DatagramSocket socket;
+    private Thread thread;
+
+    /**
+     * 모든 네트워크 인터페이스에서 수신하는 수신기를 만듭니다.
+     *
+     * @param store 메시지를 넣을 저장소
+     * @param port 수신 포트 (0이면 임의 포트)
+     * @param listener 게시 알림 리스너 (null 가능)
+     */
+    public RemoteVehicleReceiver(RemoteVehicleStore store, int port, Listener listener) {
+        this(store, port, null, listener);
+    }
+
+    /**
+     * @param store 메시지를 넣을 저장소
+     * @param port 수신 포트 (0이면 임의 포트)
+     * @param bindAddress 수신할 로컬 주소 (null이면 모든 인터페이스, 시뮬레이터 테스트에서는 루프백)
+     * @param listener 게시 알림 리스너 (null 가능)
+     */
+    public RemoteVehicleReceiver(RemoteVehicleStore store, int port, InetAddress bindAddress, Listener listener) {
+        this.store = store;
+        this.port = port;
+        this.bindAddress = bindAddress;
+        this.listener = listener;
+    }
+
+    /**
+     * 소켓을 열고 수신 스레드를 시작합니다.
+     *
+     * @throws SocketException 소켓을 열 수 없는 경우
+     */
+    public synchronized void start() throws SocketException {
+        if (thread != null) {
+            return;
+        }
+        socket = new DatagramSocket(port, bindAddress);
+        socket.setSoTimeout(PUBLISH_INTERVAL_MS);
+        thread = new Thread(this::receiveLoop, "RemoteVehicleReceiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 수신을 멈추고 소켓을 닫습니다.
+     */
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        socket.close();
+        thread.interrupt();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        socket = null;
+    }
+
+    /**
+     * 실제로 열린 수신 포트를 반환합니다.
+     *
+     * @return 포트 번호, 시작 전이면 -1
+     */
+    public int getLocalPort() {
+        DatagramSocket s = socket;
+        return s != null ? s.getLocalPort() : -1;
+    }
+
+    private void receiveLoop() {
+        DatagramSocket s = socket;
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        ByteBuffer data = ByteBuffer.wrap(buffer).order(ByteOrder.BIG_ENDIAN);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                packet.setLength(buffer.length);
+                s.receive(packet);
+                data.clear();
+                data.limit(packet.getLength());
+                decode(data, store, RemoteVehicleStore.now());
+            } catch (SocketTimeoutException e) {
+                // 수신이 없어도 만료 차량 정리를 위해 게시합니다.
+            } catch (IOException e) {
+                if (s.isClosed()) {
+                    return;
+                }
+            }
+            if (store.publish(RemoteVehicleStore.now()) && listener != null) {
+                listener.onSnapshotPublished();
+            }
+        }
+    }
+
+    /**
+     * 버퍼에 담긴 레코드를 모두 읽어 저장소에 넣습니다.
+     *
+     * @param data 레코드가 담긴 버퍼 (position부터 limit까지)
+     * @param store 메시지를 넣을 저장소
+     * @param receiveTimeMillis 수신 시각 ({@link RemoteVehicleStore#now()} 기준)
+     * @return 저장소에 넣은 레코드 수 (형식에 맞지 않아 버린 레코드는 세지 않음)
+     */
+    public static int decode(ByteBuffer data, RemoteVehicleStore store, long receiveTimeMillis) {
+        int records = 0;
+        while (data.remaining() >= RECORD_SIZE) {
+            int id = data.getInt();
+            int type = data.getInt();
+            double latitude = data.getInt() / E7;
+            double longitude = data.getInt() / E7;
+            float heading = data.getFloat();
+            float speed = data.getFloat();
+            data.getLong(); // 송신 시각은 추측 항법에 쓰지 않습니다 (송신측 시계와 다를 수 있음).
+            if (!isValid(type, latitude, longitude, heading, speed)) {
+                continue;
+            }
+            store.ingest(id, type, latitude, longitude, heading, speed, receiveTimeMillis);
+            records++;
+        }
+        return records;
+    }
+
+    /**
+     * 네트워크에서 받은 레코드를 저장소에 넣어도 되는지 확인합니다.
+     * 종류는 오버레이가 아틀라스 번호로 쓰고, 좌표와 방향, 속도는 추측 항법과 화면 밖 제외에 쓰므로
+     * 알 수 없는 종류나 범위를 벗어난 값, NaN이 들어오면 그리기 도중 예외가 나거나 제외 검사를 통과합니다.
+     */
+    static boolean isValid(int type, double latitude, double longitude, float heading, float speed) {
+        return (type == RemoteVehicleStore.TYPE_RV || type == RemoteVehicleStore.TYPE_FRONT_RV)
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180
+                && Float.isFinite(heading) && Float.isFinite(speed);
+    }
+
+    /**
+     * 레코드 하나를 버퍼에 씁니다.
+     *
+     * @param out 출력 버퍼 (빅 엔디언)
+     */
+    public static void encode(ByteBuffer out, int id, int type, double latitude, double longitude,
+                              float heading, float speed, long sendTimeMillis) {
+        out.putInt(id);
+        out.putInt(type);
+        out.putInt((int) Math.round(latitude * E7));
+        out.putInt((int) Math.round(longitude * E7));
+        out.putFloat(heading);
+        out.putFloat(speed);
+        out.putLong(sendTimeMillis);
+    }
+}
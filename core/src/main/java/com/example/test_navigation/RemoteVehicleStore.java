@@ -0,0 +1,605 @@
+package com.example.test_navigation;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RemoteVehicleStore 클래스는 네트워크 스레드가 받은 원격 차량(RV) 상태를 차량 ID별로 모아
+ * 렌더러가 읽을 수 있는 스냅샷으로 게시하는 저장소입니다.
+ *
+ * <ul>
+ *     <li>{@link #ingest}는 락 없는 큐에 메시지를 넣기만 하므로 어느 스레드에서나 막히지 않고 호출할 수 있습니다.</li>
+ *     <li>{@link #publish}는 큐를 비워 차량 표를 갱신하고, 오래된 차량을 제거한 뒤,
+ *     두 개의 스냅샷 버퍼 중 렌더러가 보고 있지 않은 쪽에 기록하고 교체합니다.</li>
+ *     <li>렌더러는 {@link #acquire()}/{@link #release(Snapshot)}로 스냅샷을 빌려 읽습니다.
+ *     렌더러가 아직 쥐고 있는 버퍼에는 기록하지 않고 다음 게시로 미루므로 어느 쪽도 기다리지 않습니다.</li>
+ *     <li>게시가 멈춰도 만료된 차량이 남아 보이지 않도록 렌더러는 읽을 때 {@link Snapshot#isStale}로 한 번 더 거릅니다.</li>
+ * </ul>
+ *
+ * <p>메시지 사이의 위치는 마지막 속도와 방향으로 추측 항법(dead reckoning)하여 보간합니다.</p>
+ *
+ * <p>게시 스레드는 차량 위치를 {@link VehicleSpatialIndex}에도 반영하고, {@link #setHost}로 받은 자기 차량 위치와 방향에서
+ * 앞쪽 부채꼴 안의 가장 가까운 같은 방향 차량을 전방 차량으로 골라 스냅샷에 기록합니다.</p>
+ */
+public class RemoteVehicleStore {
+
+    /** 일반 원격 차량 */
+    public static final int TYPE_RV = 0;
+    /** 전방 원격 차량 */
+    public static final int TYPE_FRONT_RV = 1;
+
+    /** 기본 만료 시간: 이 시간 동안 메시지가 없으면 차량을 제거합니다. */
+    public static final long DEFAULT_STALE_MILLIS = 3000;
+    /** 추측 항법으로 위치를 연장하는 최대 시간 */
+    public static final long MAX_EXTRAPOLATION_MILLIS = 2000;
+
+    /** 전방 차량을 찾는 최대 거리 (미터) */
+    public static final double FRONT_RANGE_METERS = 150;
+    /** 전방 차량을 찾는 부채꼴의 반각 (도) */
+    public static final double FRONT_HALF_ANGLE_DEGREES = 15;
+    /** 전방 차량과 자기 차량의 진행 방향 차이 최대값 (도). 마주 오는 차량을 제외합니다. */
+    public static final double FRONT_MAX_HEADING_DELTA_DEGREES = 45;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * 수신한 차량 메시지 하나입니다.
+     */
+    private static final class Message {
+        final int id;
+        final int type;
+        final double latitude;
+        final double longitude;
+        final float heading;
+        final float speed;
+        final long timeMillis;
+
+        Message(int id, int type, double latitude, double longitude, float heading, float speed, long timeMillis) {
+            this.id = id;
+            this.type = type;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.heading = heading;
+            this.speed = speed;
+            this.timeMillis = timeMillis;
+        }
+    }
+
+    /**
+     * 렌더러가 읽는 차량 상태 스냅샷입니다. {@link #acquire()}와 {@link #release(Snapshot)} 사이에서만 유효합니다.
+     */
+    public static final class Snapshot {
+        private final AtomicInteger readers = new AtomicInteger();
+        private int count;
+        private long version;
+        private long staleMillis = Long.MAX_VALUE;
+        private int frontSlot = -1;
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int[] types = new int[INITIAL_CAPACITY];
+        private double[] latitudes = new double[INITIAL_CAPACITY];
+        private double[] longitudes = new double[INITIAL_CAPACITY];
+        private float[] headings = new float[INITIAL_CAPACITY];
+        private float[] speeds = new float[INITIAL_CAPACITY];
+        private long[] times = new long[INITIAL_CAPACITY];
+
+        public int size() {
+            return count;
+        }
+
+        /** 게시 순번 (게시할 때마다 1씩 증가) */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * 자기 차량 앞의 전방 차량 인덱스입니다.
+         *
+         * @return 차량 인덱스, 전방 차량이 없거나 {@link #setHost}가 호출되지 않았으면 -1
+         */
+        public int getFrontSlot() {
+            return frontSlot;
+        }
+
+        public int getId(int i) {
+            return ids[i];
+        }
+
+        public int getType(int i) {
+            return types[i];
+        }
+
+        public double getLatitude(int i) {
+            return latitudes[i];
+        }
+
+        public double getLongitude(int i) {
+            return longitudes[i];
+        }
+
+        public float getHeading(int i) {
+            return headings[i];
+        }
+
+        public float getSpeed(int i) {
+            return speeds[i];
+        }
+
+        /** 마지막 메시지를 받은 시각 (밀리초) */
+        public long getTimeMillis(int i) {
+            return times[i];
+        }
+
+        /**
+         * 게시된 뒤 만료 시간이 지난 차량인지 확인합니다. 게시 스레드가 멈춘 뒤에도 오래된 차량을 그리지 않도록
+         * 읽는 쪽에서 거를 때 사용합니다.
+         *
+         * @param i 차량 인덱스
+         * @param nowMillis 현재 시각 ({@link #now()} 기준)
+         * @return 만료되었으면 true
+         */
+        public boolean isStale(int i, long nowMillis) {
+            return nowMillis - times[i] >= staleMillis;
+        }
+
+        /**
+         * 마지막 메시지 이후의 위치를 속도와 방향으로 추정합니다.
+         *
+         * @param i 차량 인덱스
+         * @param nowMillis 현재 시각 (밀리초, {@link #ingest}에 준 시각과 같은 시계)
+         * @param out 결과를 받을 배열 ({@code out[0]} 위도, {@code out[1]} 경도)
+         */
+        public void extrapolate(int i, long nowMillis, double[] out) {
+            deadReckon(latitudes[i], longitudes[i], headings[i], speeds[i], nowMillis - times[i], out);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= ids.length) {
+                return;
+            }
+            int newLength = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newLength);
+            types = Arrays.copyOf(types, newLength);
+            latitudes = Arrays.copyOf(latitudes, newLength);
+            longitudes = Arrays.copyOf(longitudes, newLength);
+            headings = Arrays.copyOf(headings, newLength);
+            speeds = Arrays.copyOf(speeds, newLength);
+            times = Arrays.copyOf(times, newLength);
+        }
+    }
+
+    private final long staleMillis;
+    private final ConcurrentLinkedQueue<Message> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean publishing = new AtomicBoolean();
+    private final AtomicBoolean clearRequested = new AtomicBoolean();
+    private final AtomicReference<Snapshot> front = new AtomicReference<>(new Snapshot());
+    private Snapshot back = new Snapshot();
+
+    // 게시 스레드만 접근하는 차량 표
+    private final VehicleTable table = new VehicleTable();
+    private final VehicleSpatialIndex index = new VehicleSpatialIndex();
+    private final int[] frontIds = new int[1];
+    /** 전방 차량을 마지막으로 고를 때의 자기 차량 순번 */
+    private long frontHostSequence;
+    private int frontId = -1;
+    private boolean tableDirty;
+    private long version;
+
+    // 자기 차량 위치와 방향. 위치 갱신마다 객체를 만들지 않도록 기본형으로 두고, 쓰는 쪽은 hostLock으로 줄 세우며
+    // 게시 스레드는 순번(홀수면 쓰는 중)이 읽기 전후로 같은지 확인하여 잠금 없이 읽습니다.
+    private final Object hostLock = new Object();
+    private final AtomicLong hostSequence = new AtomicLong();
+    private volatile double hostLatitude;
+    private volatile double hostLongitude;
+    private volatile float hostHeading;
+
+    private final AtomicLong ingestedCount = new AtomicLong();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong deferredCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    public RemoteVehicleStore() {
+        this(DEFAULT_STALE_MILLIS);
+    }
+
+    /**
+     * @param staleMillis 이 시간(밀리초) 동안 메시지가 없으면 차량을 제거합니다.
+     */
+    public RemoteVehicleStore(long staleMillis) {
+        this.staleMillis = staleMillis;
+    }
+
+    /**
+     * 저장소에서 사용하는 단조 증가 시계입니다.
+     *
+     * @return 현재 시각 (밀리초)
+     */
+    public static long now() {
+        return System.nanoTime() / 1_000_000L;
+    }
+
+    /**
+     * 차량 메시지를 넣습니다. 락을 잡지 않으며 어느 스레드에서나 호출할 수 있습니다.
+     *
+     * @param id 차량 ID
+     * @param type {@link #TYPE_RV} 또는 {@link #TYPE_FRONT_RV}
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param heading 진행 방향 (도, 북쪽 기준 시계 방향)
+     * @param speed 속도 (m/s)
+     * @param timeMillis 수신 시각 ({@link #now()} 기준)
+     */
+    public void ingest(int id, int type, double latitude, double longitude, float heading, float speed,
+                       long timeMillis) {
+        inbox.offer(new Message(id, type, latitude, longitude, heading, speed, timeMillis));
+        ingestedCount.incrementAndGet();
+    }
+
+    /**
+     * 전방 차량을 고를 기준이 되는 자기 차량의 위치와 방향을 설정합니다. 다음 {@link #publish}에 반영됩니다.
+     *
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param heading 진행 방향 (도)
+     */
+    public void setHost(double latitude, double longitude, float heading) {
+        synchronized (hostLock) {
+            hostSequence.incrementAndGet();
+            hostLatitude = latitude;
+            hostLongitude = longitude;
+            hostHeading = heading;
+            hostSequence.incrementAndGet();
+        }
+    }
+
+    /**
+     * 쌓인 메시지를 반영하고 새 스냅샷을 게시합니다.
+     * 다른 스레드가 이미 게시 중이거나 렌더러가 뒤 버퍼를 아직 쥐고 있으면 기다리지 않고 false를 반환합니다.
+     * 이 경우 반영한 내용은 다음 게시에 포함됩니다.
+     *
+     * @param nowMillis 현재 시각 ({@link #now()} 기준)
+     * @return 새 스냅샷을 게시했으면 true
+     */
+    public boolean publish(long nowMillis) {
+        if (!publishing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            if (clearRequested.getAndSet(false)) {
+                inbox.clear();
+                table.clear(index);
+                frontId = -1;
+                tableDirty = true;
+            }
+            Message message;
+            while ((message = inbox.poll()) != null) {
+                if (table.put(message)) {
+                    index.update(message.id, message.latitude, message.longitude, message.heading);
+                }
+                tableDirty = true;
+            }
+            int evicted = table.evictOlderThan(nowMillis - staleMillis, index);
+            if (evicted > 0) {
+                evictedCount.addAndGet(evicted);
+                tableDirty = true;
+            }
+            updateFrontVehicle();
+            if (!tableDirty) {
+                return false;
+            }
+
+            Snapshot target = back;
+            if (target.readers.get() != 0) {
+                deferredCount.incrementAndGet();
+                return false;
+            }
+            table.copyTo(target);
+            target.staleMillis = staleMillis;
+            target.frontSlot = frontId >= 0 ? table.find(frontId) : -1;
+            target.version = ++version;
+            back = front.getAndSet(target);
+            tableDirty = false;
+            publishedCount.incrementAndGet();
+            return true;
+        } finally {
+            publishing.set(false);
+        }
+    }
+
+    /**
+     * 차량이나 자기 차량 위치가 바뀌었으면 공간 색인으로 전방 차량을 다시 고릅니다.
+     * 전방 차량이 바뀌면 새 스냅샷을 게시하도록 표시합니다.
+     */
+    private void updateFrontVehicle() {
+        long sequence;
+        double latitude;
+        double longitude;
+        float heading;
+        do {
+            sequence = hostSequence.get();
+            latitude = hostLatitude;
+            longitude = hostLongitude;
+            heading = hostHeading;
+        } while ((sequence & 1) != 0 || sequence != hostSequence.get());
+        if (sequence == 0 || (!tableDirty && sequence == frontHostSequence)) {
+            return;
+        }
+        frontHostSequence = sequence;
+        long start = Telemetry.start();
+        int found = index.findAhead(latitude, longitude, heading, FRONT_HALF_ANGLE_DEGREES,
+                FRONT_RANGE_METERS, FRONT_MAX_HEADING_DELTA_DEGREES, frontIds, null);
+        Telemetry.stop(Telemetry.RV_FRONT_QUERY, start);
+        int front = found > 0 ? frontIds[0] : -1;
+        if (front != frontId) {
+            frontId = front;
+            tableDirty = true;
+        }
+    }
+
+    /**
+     * 최신 스냅샷을 빌립니다. 읽기가 끝나면 반드시 {@link #release(Snapshot)}를 호출해야 합니다.
+     *
+     * @return 최신 스냅샷
+     */
+    public Snapshot acquire() {
+        while (true) {
+            Snapshot snapshot = front.get();
+            snapshot.readers.incrementAndGet();
+            // 증가시키는 사이에 교체되었다면 게시 스레드가 이 버퍼에 기록할 수 있으므로 다시 읽습니다.
+            if (front.get() == snapshot) {
+                return snapshot;
+            }
+            snapshot.readers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 빌린 스냅샷을 반납합니다.
+     *
+     * @param snapshot {@link #acquire()}로 받은 스냅샷
+     */
+    public void release(Snapshot snapshot) {
+        snapshot.readers.decrementAndGet();
+    }
+
+    /**
+     * 모든 차량과 아직 반영하지 않은 메시지를 버리고 빈 스냅샷을 게시합니다.
+     * 다른 스레드가 게시 중이거나 게시가 미뤄지면 비우기는 다음 {@link #publish}에서 이루어집니다.
+     *
+     * @param nowMillis 현재 시각 ({@link #now()} 기준)
+     * @return 빈 스냅샷을 게시했으면 true
+     */
+    public boolean clear(long nowMillis) {
+        clearRequested.set(true);
+        return publish(nowMillis);
+    }
+
+    /**
+     * 최신 스냅샷에 화면에서 움직이는 차량, 즉 속도가 있고 아직 만료되지 않은 차량이 있는지 확인합니다.
+     * 추측 항법으로 위치가 계속 바뀌므로 이런 차량이 있는 동안만 프레임마다 다시 그리면 됩니다.
+     *
+     * @param nowMillis 현재 시각 ({@link #now()} 기준)
+     * @return 움직이는 차량이 있으면 true
+     */
+    public boolean hasMovingVehicles(long nowMillis) {
+        Snapshot snapshot = acquire();
+        try {
+            for (int i = 0, n = snapshot.size(); i < n; i++) {
+                if (snapshot.speeds[i] != 0f && !snapshot.isStale(i, nowMillis)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            release(snapshot);
+        }
+    }
+
+    /** 받은 메시지 수 */
+    public long getIngestedCount() {
+        return ingestedCount.get();
+    }
+
+    /** 게시한 스냅샷 수 */
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /** 렌더러가 뒤 버퍼를 읽고 있어 미룬 게시 수 */
+    public long getDeferredCount() {
+        return deferredCount.get();
+    }
+
+    /** 만료되어 제거된 차량 수 */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * 마지막 위치에서 방향과 속도로 일정 시간 뒤의 위치를 추정합니다.
+     * 오래된 메시지로 너무 멀리 나아가지 않도록 {@link #MAX_EXTRAPOLATION_MILLIS}까지만 연장합니다.
+     *
+     * @param latitude 마지막 위도
+     * @param longitude 마지막 경도
+     * @param heading 진행 방향 (도)
+     * @param speed 속도 (m/s)
+     * @param elapsedMillis 마지막 메시지 이후 경과 시간 (밀리초)
+     * @param out 결과를 받을 배열 ({@code out[0]} 위도, {@code out[1]} 경도)
+     */
+    public static void deadReckon(double latitude, double longitude, float heading, float speed,
+                                  long elapsedMillis, double[] out) {
+        long dtMillis = Math.max(0, Math.min(MAX_EXTRAPOLATION_MILLIS, elapsedMillis));
+        double distance = speed * dtMillis / 1000.0;
+        double radians = Math.toRadians(heading);
+        double northMeters = distance * Math.cos(radians);
+        double eastMeters = distance * Math.sin(radians);
+        out[0] = latitude + northMeters / TileMath.METERS_PER_DEGREE;
+        out[1] = longitude + eastMeters / (TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+    }
+
+    /**
+     * 게시 스레드가 소유하는 차량 표입니다. 차량 ID를 슬롯 번호로 찾는 개방 주소 해시를 사용합니다.
+     */
+    private static final class VehicleTable {
+        private static final int EMPTY = -1;
+
+        private int count;
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int[] types = new int[INITIAL_CAPACITY];
+        private double[] latitudes = new double[INITIAL_CAPACITY];
+        private double[] longitudes = new double[INITIAL_CAPACITY];
+        private float[] headings = new float[INITIAL_CAPACITY];
+        private float[] speeds = new float[INITIAL_CAPACITY];
+        private long[] times = new long[INITIAL_CAPACITY];
+
+        private int[] hashKeys = new int[INITIAL_CAPACITY * 2];
+        private int[] hashSlots = newHashSlots(INITIAL_CAPACITY * 2);
+
+        private static int[] newHashSlots(int length) {
+            int[] slots = new int[length];
+            Arrays.fill(slots, EMPTY);
+            return slots;
+        }
+
+        private static int hash(int id, int mask) {
+            int h = id * 0x9E3779B1;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private int find(int id) {
+            int mask = hashKeys.length - 1;
+            for (int h = hash(id, mask); hashSlots[h] != EMPTY; h = (h + 1) & mask) {
+                if (hashKeys[h] == id) {
+                    return hashSlots[h];
+                }
+            }
+            return EMPTY;
+        }
+
+        private void hashPut(int id, int slot) {
+            int mask = hashKeys.length - 1;
+            int h = hash(id, mask);
+            while (hashSlots[h] != EMPTY && hashKeys[h] != id) {
+                h = (h + 1) & mask;
+            }
+            hashKeys[h] = id;
+            hashSlots[h] = slot;
+        }
+
+        private void hashRemove(int id) {
+            int mask = hashKeys.length - 1;
+            int h = hash(id, mask);
+            while (hashSlots[h] != EMPTY && hashKeys[h] != id) {
+                h = (h + 1) & mask;
+            }
+            if (hashSlots[h] == EMPTY) {
+                return;
+            }
+            // 뒤따르는 항목을 당겨 탐색 사슬이 끊기지 않게 합니다.
+            int gap = h;
+            for (int next = (gap + 1) & mask; hashSlots[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hash(hashKeys[next], mask);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    hashKeys[gap] = hashKeys[next];
+                    hashSlots[gap] = hashSlots[next];
+                    gap = next;
+                }
+            }
+            hashSlots[gap] = EMPTY;
+        }
+
+        /**
+         * @return 메시지를 반영했으면 true, 이미 더 최근 메시지가 있으면 false
+         */
+        boolean put(Message m) {
+            int slot = find(m.id);
+            if (slot == EMPTY) {
+                ensureCapacity(count + 1);
+                slot = count++;
+                ids[slot] = m.id;
+                hashPut(m.id, slot);
+            } else if (m.timeMillis < times[slot]) {
+                return false;
+            }
+            types[slot] = m.type;
+            latitudes[slot] = m.latitude;
+            longitudes[slot] = m.longitude;
+            headings[slot] = m.heading;
+            speeds[slot] = m.speed;
+            times[slot] = m.timeMillis;
+            return true;
+        }
+
+        int evictOlderThan(long minTimeMillis, VehicleSpatialIndex index) {
+            int evicted = 0;
+            for (int i = count - 1; i >= 0; i--) {
+                if (times[i] < minTimeMillis) {
+                    index.remove(ids[i]);
+                    remove(i);
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        void clear(VehicleSpatialIndex index) {
+            index.clear();
+            Arrays.fill(hashSlots, EMPTY);
+            count = 0;
+        }
+
+        private void remove(int slot) {
+            hashRemove(ids[slot]);
+            int last = --count;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                types[slot] = types[last];
+                latitudes[slot] = latitudes[last];
+                longitudes[slot] = longitudes[last];
+                headings[slot] = headings[last];
+                speeds[slot] = speeds[last];
+                times[slot] = times[last];
+                hashPut(ids[slot], slot);
+            }
+        }
+
+        void copyTo(Snapshot s) {
+            s.ensureCapacity(count);
+            System.arraycopy(ids, 0, s.ids, 0, count);
+            System.arraycopy(types, 0, s.types, 0, count);
+            System.arraycopy(latitudes, 0, s.latitudes, 0, count);
+            System.arraycopy(longitudes, 0, s.longitudes, 0, count);
+            System.arraycopy(headings, 0, s.headings, 0, count);
+            System.arraycopy(speeds, 0, s.speeds, 0, count);
+            System.arraycopy(times, 0, s.times, 0, count);
+            s.count = count;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= ids.length) {
+                return;
+            }
+            int newLength = ids.length;
+            while (newLength < capacity) {
+                newLength *= 2;
+            }
+            ids = Arrays.copyOf(ids, newLength);
+            types = Arrays.copyOf(types, newLength);
+            latitudes = Arrays.copyOf(latitudes, newLength);
+            longitudes = Arrays.copyOf(longitudes, newLength);
+            headings = Arrays.copyOf(headings, newLength);
+            speeds = Arrays.copyOf(speeds, newLength);
+            times = Arrays.copyOf(times, newLength);
+
+            // 해시 표는 항상 슬롯 수의 두 배 이상을 유지합니다.
+            hashKeys = new int[newLength * 2];
+            hashSlots = newHashSlots(newLength * 2);
+            for (int i = 0; i < count; i++) {
+                hashPut(ids[i], i);
+            }
+        }
+    }
+}
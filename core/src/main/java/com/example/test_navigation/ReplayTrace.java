@@ -0,0 +1,346 @@
+package com.example.test_navigation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ReplayTrace 클래스는 재생할 기록(위치, 헤딩, 원격 차량 이벤트)을 시간순으로 담는 클래스입니다.
+ * 이벤트는 종류별 기본형 배열에 저장되며, 여러 스트림을 읽어 들인 뒤 {@link #sort()}로 하나의 시간축에 합칩니다.
+ *
+ * <p>지원하는 입력 형식 ('#'으로 시작하는 줄과 숫자로 시작하지 않는 머리글 줄은 건너뜁니다):</p>
+ * <ul>
+ *     <li>위치 CSV: {@code 시각(ms),위도,경도[,방향]} — 방향 열이 있으면 헤딩 이벤트도 만듭니다.</li>
+ *     <li>NMEA: RMC/GGA 문장의 위치, RMC 진행 방향, HDT 헤딩. 시각은 그날 0시부터의 밀리초입니다.</li>
+ *     <li>헤딩 CSV: {@code 시각(ms),방향}</li>
+ *     <li>원격 차량 CSV: {@code 시각(ms),id,종류,위도,경도,방향,속도(m/s)}</li>
+ * </ul>
+ * <p>한 기록에 합치는 스트림들은 같은 시간 기준을 사용해야 합니다.</p>
+ */
+public class ReplayTrace {
+
+    public static final int KIND_LOCATION = 0;
+    public static final int KIND_HEADING = 1;
+    public static final int KIND_VEHICLE = 2;
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private long[] times = new long[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private float[] headings = new float[INITIAL_CAPACITY];
+    private float[] speeds = new float[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] vehicleTypes = new int[INITIAL_CAPACITY];
+
+    /**
+     * 위치 이벤트를 추가합니다.
+     */
+    public void addLocation(long timeMillis, double latitude, double longitude) {
+        int i = append(timeMillis, KIND_LOCATION);
+        latitudes[i] = latitude;
+        longitudes[i] = longitude;
+    }
+
+    /**
+     * 헤딩 이벤트를 추가합니다.
+     */
+    public void addHeading(long timeMillis, float heading) {
+        int i = append(timeMillis, KIND_HEADING);
+        headings[i] = heading;
+    }
+
+    /**
+     * 원격 차량 이벤트를 추가합니다.
+     */
+    public void addVehicle(long timeMillis, int id, int type, double latitude, double longitude,
+                           float heading, float speed) {
+        int i = append(timeMillis, KIND_VEHICLE);
+        ids[i] = id;
+        vehicleTypes[i] = type;
+        latitudes[i] = latitude;
+        longitudes[i] = longitude;
+        headings[i] = heading;
+        speeds[i] = speed;
+    }
+
+    private int append(long timeMillis, int kind) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            headings = Arrays.copyOf(headings, capacity);
+            speeds = Arrays.copyOf(speeds, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            vehicleTypes = Arrays.copyOf(vehicleTypes, capacity);
+        }
+        times[size] = timeMillis;
+        kinds[size] = (byte) kind;
+        return size++;
+    }
+
+    /**
+     * 이벤트를 시각순으로 정렬합니다. 시각이 같은 이벤트는 추가된 순서를 유지하므로 재생 순서가 항상 같습니다.
+     */
+    public void sort() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        final long[] keys = times;
+        // TimSort는 안정 정렬입니다.
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        long[] sortedTimes = new long[times.length];
+        byte[] sortedKinds = new byte[times.length];
+        double[] sortedLatitudes = new double[times.length];
+        double[] sortedLongitudes = new double[times.length];
+        float[] sortedHeadings = new float[times.length];
+        float[] sortedSpeeds = new float[times.length];
+        int[] sortedIds = new int[times.length];
+        int[] sortedTypes = new int[times.length];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            sortedTimes[i] = times[from];
+            sortedKinds[i] = kinds[from];
+            sortedLatitudes[i] = latitudes[from];
+            sortedLongitudes[i] = longitudes[from];
+            sortedHeadings[i] = headings[from];
+            sortedSpeeds[i] = speeds[from];
+            sortedIds[i] = ids[from];
+            sortedTypes[i] = vehicleTypes[from];
+        }
+        times = sortedTimes;
+        kinds = sortedKinds;
+        latitudes = sortedLatitudes;
+        longitudes = sortedLongitudes;
+        headings = sortedHeadings;
+        speeds = sortedSpeeds;
+        ids = sortedIds;
+        vehicleTypes = sortedTypes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTime(int i) {
+        return times[i];
+    }
+
+    public int getKind(int i) {
+        return kinds[i];
+    }
+
+    public double getLatitude(int i) {
+        return latitudes[i];
+    }
+
+    public double getLongitude(int i) {
+        return longitudes[i];
+    }
+
+    public float getHeading(int i) {
+        return headings[i];
+    }
+
+    public float getSpeed(int i) {
+        return speeds[i];
+    }
+
+    public int getId(int i) {
+        return ids[i];
+    }
+
+    public int getVehicleType(int i) {
+        return vehicleTypes[i];
+    }
+
+    /** 첫 이벤트부터 마지막 이벤트까지의 기록 길이 (밀리초) */
+    public long getDurationMillis() {
+        return size > 0 ? times[size - 1] - times[0] : 0;
+    }
+
+    /**
+     * 위치 CSV를 읽어 추가합니다.
+     *
+     * @param reader 입력
+     * @return 읽은 줄 수
+     * @throws IOException 읽기 실패 또는 형식 오류
+     */
+    public int readLocationsCsv(Reader reader) throws IOException {
+        return readCsv(reader, KIND_LOCATION, 3);
+    }
+
+    /**
+     * 헤딩 CSV를 읽어 추가합니다.
+     *
+     * @param reader 입력
+     * @return 읽은 줄 수
+     * @throws IOException 읽기 실패 또는 형식 오류
+     */
+    public int readHeadingsCsv(Reader reader) throws IOException {
+        return readCsv(reader, KIND_HEADING, 2);
+    }
+
+    /**
+     * 원격 차량 CSV를 읽어 추가합니다.
+     *
+     * @param reader 입력
+     * @return 읽은 줄 수
+     * @throws IOException 읽기 실패 또는 형식 오류
+     */
+    public int readVehiclesCsv(Reader reader) throws IOException {
+        return readCsv(reader, KIND_VEHICLE, 7);
+    }
+
+    private int readCsv(Reader reader, int kind, int minColumns) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        int count = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#' || !isNumberStart(line.charAt(0))) {
+                continue;
+            }
+            String[] f = line.split(",");
+            if (f.length < minColumns) {
+                throw new IOException(String.format(Locale.US, "line %d: expected %d columns: %s",
+                        lineNumber, minColumns, line));
+            }
+            try {
+                long time = Long.parseLong(f[0].trim());
+                if (kind == KIND_LOCATION) {
+                    addLocation(time, Double.parseDouble(f[1].trim()), Double.parseDouble(f[2].trim()));
+                    if (f.length > 3 && !f[3].trim().isEmpty()) {
+                        addHeading(time, Float.parseFloat(f[3].trim()));
+                    }
+                } else if (kind == KIND_HEADING) {
+                    addHeading(time, Float.parseFloat(f[1].trim()));
+                } else {
+                    addVehicle(time, Integer.parseInt(f[1].trim()), Integer.parseInt(f[2].trim()),
+                            Double.parseDouble(f[3].trim()), Double.parseDouble(f[4].trim()),
+                            Float.parseFloat(f[5].trim()), Float.parseFloat(f[6].trim()));
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(String.format(Locale.US, "line %d: %s", lineNumber, e.getMessage()), e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isNumberStart(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+';
+    }
+
+    /**
+     * NMEA 0183 기록을 읽어 추가합니다.
+     * 체크섬이 맞지 않거나 수신 상태가 무효인 문장은 건너뜁니다. 같은 시각의 RMC와 GGA는 위치 하나로 봅니다.
+     *
+     * @param reader 입력
+     * @return 추가한 위치 이벤트 수
+     * @throws IOException 읽기 실패
+     */
+    public int readNmea(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        int count = 0;
+        long dayOffset = 0;
+        long lastTime = Long.MIN_VALUE;
+        long lastLocationTime = Long.MIN_VALUE;
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.length() < 7 || line.charAt(0) != '$' || !checksumValid(line)) {
+                continue;
+            }
+            int star = line.indexOf('*');
+            String[] f = (star >= 0 ? line.substring(0, star) : line).split(",", -1);
+            String type = f[0].substring(3);
+            try {
+                if (type.equals("HDT")) {
+                    if (lastTime != Long.MIN_VALUE && f.length > 1 && !f[1].isEmpty()) {
+                        addHeading(lastTime, Float.parseFloat(f[1]));
+                    }
+                    continue;
+                }
+                boolean rmc = type.equals("RMC");
+                if (!rmc && !type.equals("GGA")) {
+                    continue;
+                }
+                int latField = rmc ? 3 : 2;
+                if (f.length <= latField + 3 || f[1].isEmpty() || f[latField].isEmpty()
+                        || f[latField + 2].isEmpty()) {
+                    continue;
+                }
+                if (rmc ? !"A".equals(f[2]) : (f.length <= 6 || f[6].isEmpty() || "0".equals(f[6]))) {
+                    continue;
+                }
+                long time = parseNmeaTime(f[1]) + dayOffset;
+                if (lastTime != Long.MIN_VALUE && time < lastTime - DAY_MILLIS / 2) {
+                    // 자정을 넘긴 기록
+                    dayOffset += DAY_MILLIS;
+                    time += DAY_MILLIS;
+                }
+                lastTime = time;
+                if (time != lastLocationTime) {
+                    addLocation(time, parseNmeaAngle(f[latField], f[latField + 1]),
+                            parseNmeaAngle(f[latField + 2], f[latField + 3]));
+                    lastLocationTime = time;
+                    count++;
+                }
+                if (rmc && f.length > 8 && !f[8].isEmpty()) {
+                    addHeading(time, Float.parseFloat(f[8]));
+                }
+            } catch (NumberFormatException e) {
+                // 손상된 문장은 건너뜁니다.
+            }
+        }
+        return count;
+    }
+
+    static boolean checksumValid(String sentence) {
+        int star = sentence.indexOf('*');
+        if (star < 0) {
+            return true;
+        }
+        if (star + 3 > sentence.length()) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 1; i < star; i++) {
+            sum ^= sentence.charAt(i);
+        }
+        try {
+            return sum == Integer.parseInt(sentence.substring(star + 1, star + 3), 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** hhmmss.sss를 그날 0시부터의 밀리초로 바꿉니다. */
+    static long parseNmeaTime(String field) {
+        int hours = Integer.parseInt(field.substring(0, 2));
+        int minutes = Integer.parseInt(field.substring(2, 4));
+        double seconds = Double.parseDouble(field.substring(4));
+        return (hours * 3600L + minutes * 60L) * 1000L + Math.round(seconds * 1000);
+    }
+
+    /** (d)ddmm.mmmm 형식과 반구 표시를 도 단위로 바꿉니다. */
+    static double parseNmeaAngle(String field, String hemisphere) {
+        int dot = field.indexOf('.');
+        int degreeDigits = (dot < 0 ? field.length() : dot) - 2;
+        double degrees = Integer.parseInt(field.substring(0, degreeDigits))
+                + Double.parseDouble(field.substring(degreeDigits)) / 60.0;
+        return "S".equals(hemisphere) || "W".equals(hemisphere) ? -degrees : degrees;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.test_navigation;
+
+/**
+ * RoadGraph 클래스는 경로 탐색용 도로 그래프 파일 형식의 상수를 모은 클래스입니다.
+ * 그래프는 {@link RoadGraphBuilder}가 축약 계층(contraction hierarchies)으로 전처리해 쓰고,
+ * {@link RoadGraphReader}가 메모리 매핑으로 읽습니다.
+ *
+ * <p>간선은 순위가 낮은 노드에서 높은 노드로 올라가는 것만 저장합니다. 정방향 목록은 노드에서 나가는 간선,
+ * 역방향 목록은 노드로 들어오는 간선(대상 필드에 출발 노드)을 담습니다. 지름길 간선은 축약된 가운데 노드를 가지며,
+ * 가운데 노드의 역방향 목록과 정방향 목록에서 두 절반을 다시 찾아 원래 도로로 펼칩니다.</p>
+ *
+ * <p>파일 구조 (리틀 엔디언):</p>
+ * <pre>
+ * [헤더 64바이트][노드 좌표][정방향 색인][정방향 간선][역방향 색인][역방향 간선][격자 색인]
+ *
+ * 헤더: magic(int) version(int) nodeCount(int) forwardEdgeCount(int) backwardEdgeCount(int)
+ *       gridColumns(int) gridRows(int) gridMinLatE7(int) gridMinLonE7(int) cellSizeE7(int) 예약(24)
+ * 노드 좌표: latE7(int) lonE7(int) × nodeCount — 격자 칸 순서로 번호가 매겨져 있습니다.
+ * 색인: 노드별 첫 간선 번호(int) × (nodeCount + 1)
+ * 간선: 대상 노드(int) 소요 시간 ms(int) 가운데 노드(int, 원래 도로면 -1) — {@value #EDGE_SIZE}바이트
+ * 격자 색인: 칸별 첫 노드 번호(int) × (gridColumns × gridRows + 1)
+ * </pre>
+ */
+public final class RoadGraph {
+
+    /** 도로 그래프 파일 확장자 */
+    public static final String FILE_EXTENSION = ".roadgraph";
+
+    /** "RGPH" */
+    static final int MAGIC = 0x48504752;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int NODE_SIZE = 8;
+    static final int EDGE_SIZE = 12;
+    /** 원래 도로 간선의 가운데 노드 값 */
+    static final int NO_MIDDLE = -1;
+
+    // 헤더 필드 위치
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_NODE_COUNT = 8;
+    static final int HEADER_FORWARD_EDGE_COUNT = 12;
+    static final int HEADER_BACKWARD_EDGE_COUNT = 16;
+    static final int HEADER_GRID_COLUMNS = 20;
+    static final int HEADER_GRID_ROWS = 24;
+    static final int HEADER_GRID_MIN_LAT = 28;
+    static final int HEADER_GRID_MIN_LON = 32;
+    static final int HEADER_CELL_SIZE = 36;
+
+    private RoadGraph() {
+    }
+
+    static int toE7(double degrees) {
+        return (int) Math.round(degrees * 1e7);
+    }
+}
@@ -0,0 +1,471 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * RoadGraphBuilder 클래스는 도로망을 모아 축약 계층으로 전처리하고 {@link RoadGraph} 파일로 쓰는 클래스입니다.
+ * 기기에서 실행하지 않고 {@link OsmRoadGraphConverter} 같은 오프라인 도구에서 사용합니다.
+ *
+ * <p>노드는 중요도가 낮은 것부터 하나씩 축약합니다. 노드를 빼도 이웃 사이의 최단 시간이 유지되도록, 다른 길(증인)이
+ * 없는 이웃 쌍마다 지름길 간선을 더합니다. 축약 순서는 더해지는 지름길 수와 이미 축약된 이웃 수로 정하며,
+ * 꺼낼 때 다시 계산해 바뀌었으면 뒤로 미룹니다. 증인 탐색은 {@link #WITNESS_SETTLE_LIMIT}개 노드에서 멈추므로
+ * 불필요한 지름길이 조금 생길 수 있지만 결과 경로는 여전히 최단입니다.</p>
+ *
+ * <pre>
+ * RoadGraphBuilder builder = new RoadGraphBuilder();
+ * int a = builder.addNode(lat1, lon1);
+ * int b = builder.addNode(lat2, lon2);
+ * builder.addRoad(a, b, 60, false);
+ * builder.write(file);
+ * </pre>
+ */
+public class RoadGraphBuilder {
+
+    /** 증인 탐색에서 확정할 최대 노드 수 */
+    static final int WITNESS_SETTLE_LIMIT = 500;
+    /** 근처 노드 찾기용 격자 칸 크기 기본값 (도) */
+    public static final double DEFAULT_CELL_SIZE_DEGREES = 0.005;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    /** 인접 목록 한 항목의 int 수: 대상, 소요 시간, 가운데 노드 */
+    private static final int ARC = 3;
+
+    private int nodeCount;
+    private int[] latE7 = new int[1024];
+    private int[] lonE7 = new int[1024];
+    private int edgeCount;
+    private int[] edgeFrom = new int[1024];
+    private int[] edgeTo = new int[1024];
+    private int[] edgeMillis = new int[1024];
+    private int shortcutCount;
+
+    // 축약 중에만 사용하는 상태
+    private int[][] out;
+    private int[] outSize;
+    private int[][] in;
+    private int[] inSize;
+    private boolean[] contracted;
+    private int[] witnessDistance;
+    private int[] touched;
+    private int touchedCount;
+    private LongMinHeap witnessHeap;
+
+    /**
+     * 노드를 추가합니다.
+     *
+     * @return 노드 번호 (추가된 순서, 0부터)
+     */
+    public int addNode(double latitude, double longitude) {
+        if (nodeCount == latE7.length) {
+            latE7 = Arrays.copyOf(latE7, nodeCount * 2);
+            lonE7 = Arrays.copyOf(lonE7, nodeCount * 2);
+        }
+        latE7[nodeCount] = RoadGraph.toE7(latitude);
+        lonE7[nodeCount] = RoadGraph.toE7(longitude);
+        return nodeCount++;
+    }
+
+    /**
+     * 한 방향 간선을 추가합니다. 같은 두 노드 사이에 간선이 여럿이면 가장 빠른 것만 남습니다.
+     *
+     * @param from 출발 노드
+     * @param to 도착 노드
+     * @param millis 소요 시간 (밀리초, 0 이상)
+     */
+    public void addEdge(int from, int to, int millis) {
+        if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+            throw new IllegalArgumentException("Unknown node: " + from + " -> " + to);
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException("Negative travel time: " + millis);
+        }
+        if (from == to) {
+            return;
+        }
+        if (edgeCount == edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+            edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+            edgeMillis = Arrays.copyOf(edgeMillis, edgeCount * 2);
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeMillis[edgeCount] = millis;
+        edgeCount++;
+    }
+
+    /**
+     * 두 노드를 잇는 도로를 추가합니다. 소요 시간은 직선 거리와 속도로 계산합니다.
+     *
+     * @param from 출발 노드
+     * @param to 도착 노드
+     * @param speedKmh 주행 속도 (km/h)
+     * @param oneway true면 from에서 to로만 갈 수 있습니다.
+     */
+    public void addRoad(int from, int to, double speedKmh, boolean oneway) {
+        double meters = GeoMath.distanceMeters(latE7[from] / 1e7, lonE7[from] / 1e7,
+                latE7[to] / 1e7, lonE7[to] / 1e7);
+        int millis = (int) Math.round(meters / (speedKmh / 3.6) * 1000);
+        addEdge(from, to, millis);
+        if (!oneway) {
+            addEdge(to, from, millis);
+        }
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /** 마지막 {@link #write} 에서 더한 지름길 수 */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * {@link #DEFAULT_CELL_SIZE_DEGREES} 격자로 파일을 씁니다.
+     *
+     * @see #write(File, double)
+     */
+    public void write(File file) throws IOException {
+        write(file, DEFAULT_CELL_SIZE_DEGREES);
+    }
+
+    /**
+     * 그래프를 축약하고 파일로 씁니다. 노드 번호는 격자 칸 순서로 다시 매겨지므로
+     * 파일에서는 좌표로 노드를 찾아야 합니다 ({@link RoadGraphReader#nearestNode}).
+     *
+     * @param file 출력 파일 (있으면 덮어씁니다)
+     * @param cellSizeDegrees 근처 노드 찾기용 격자 칸 크기 (도)
+     * @throws IOException 쓰기 실패
+     */
+    public void write(File file, double cellSizeDegrees) throws IOException {
+        contract();
+        try {
+            writeContracted(file, cellSizeDegrees);
+        } finally {
+            out = null;
+            in = null;
+        }
+    }
+
+    private void contract() {
+        int n = nodeCount;
+        out = new int[n][];
+        outSize = new int[n];
+        in = new int[n][];
+        inSize = new int[n];
+        for (int e = 0; e < edgeCount; e++) {
+            addArc(out, outSize, edgeFrom[e], edgeTo[e], edgeMillis[e], RoadGraph.NO_MIDDLE);
+            addArc(in, inSize, edgeTo[e], edgeFrom[e], edgeMillis[e], RoadGraph.NO_MIDDLE);
+        }
+        contracted = new boolean[n];
+        witnessDistance = new int[n];
+        Arrays.fill(witnessDistance, Integer.MAX_VALUE);
+        touched = new int[64];
+        witnessHeap = new LongMinHeap(64);
+        shortcutCount = 0;
+
+        int[] deletedNeighbors = new int[n];
+        int[] priority = new int[n];
+        LongMinHeap queue = new LongMinHeap(n);
+        for (int v = 0; v < n; v++) {
+            priority[v] = priority(v, deletedNeighbors[v]);
+            queue.add(LongMinHeap.pack(priority[v], v));
+        }
+        while (!queue.isEmpty()) {
+            long top = queue.poll();
+            int v = LongMinHeap.value(top);
+            if (contracted[v] || LongMinHeap.key(top) != priority[v]) {
+                continue;
+            }
+            int current = priority(v, deletedNeighbors[v]);
+            if (current != priority[v]) {
+                // 축약이 진행되며 중요도가 바뀌었으므로 다시 줄을 섭니다.
+                priority[v] = current;
+                queue.add(LongMinHeap.pack(current, v));
+                continue;
+            }
+            shortcutCount += contractNode(v, false);
+            contracted[v] = true;
+            // 남은 간선은 모두 더 늦게 축약되는(순위가 높은) 이웃으로 향하므로 v의 목록이 그대로 최종 간선이 됩니다.
+            for (int i = 0; i < outSize[v]; i++) {
+                int x = out[v][i * ARC];
+                removeArc(in, inSize, x, v);
+                deletedNeighbors[x]++;
+            }
+            for (int i = 0; i < inSize[v]; i++) {
+                int u = in[v][i * ARC];
+                removeArc(out, outSize, u, v);
+                deletedNeighbors[u]++;
+            }
+        }
+        witnessDistance = null;
+        touched = null;
+        witnessHeap = null;
+    }
+
+    /** 작을수록 먼저 축약합니다. 지름길이 적게 생기고 주변이 덜 축약된 노드가 먼저입니다. */
+    private int priority(int v, int deletedNeighbors) {
+        int shortcuts = contractNode(v, true);
+        return 2 * (shortcuts - outSize[v] - inSize[v]) + deletedNeighbors;
+    }
+
+    /**
+     * v를 지나는 이웃 쌍마다 증인 경로를 찾고, 없으면 지름길을 더합니다.
+     *
+     * @param simulate true면 지름길 수만 세고 그래프는 바꾸지 않습니다.
+     * @return 필요한 지름길 수
+     */
+    private int contractNode(int v, boolean simulate) {
+        int shortcuts = 0;
+        int[] inArcs = in[v];
+        int[] outArcs = out[v];
+        for (int i = 0; i < inSize[v]; i++) {
+            int u = inArcs[i * ARC];
+            int toV = inArcs[i * ARC + 1];
+            int maxOut = -1;
+            for (int j = 0; j < outSize[v]; j++) {
+                if (outArcs[j * ARC] != u) {
+                    maxOut = Math.max(maxOut, outArcs[j * ARC + 1]);
+                }
+            }
+            if (maxOut < 0) {
+                continue;
+            }
+            witnessSearch(u, v, toV + maxOut);
+            for (int j = 0; j < outSize[v]; j++) {
+                int x = outArcs[j * ARC];
+                if (x == u) {
+                    continue;
+                }
+                int via = toV + outArcs[j * ARC + 1];
+                if (witnessDistance[x] <= via) {
+                    continue;
+                }
+                shortcuts++;
+                if (!simulate) {
+                    addArc(out, outSize, u, x, via, v);
+                    addArc(in, inSize, x, u, via, v);
+                }
+            }
+            resetWitness();
+        }
+        return shortcuts;
+    }
+
+    /**
+     * 축약되지 않은 그래프에서 v를 거치지 않고 u에서 출발하는 제한된 다익스트라 탐색입니다.
+     * 결과는 {@link #witnessDistance}에 남고 {@link #resetWitness()}로 지웁니다.
+     */
+    private void witnessSearch(int u, int v, int limit) {
+        witnessHeap.clear();
+        touch(u, 0);
+        witnessHeap.add(LongMinHeap.pack(0, u));
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+            long top = witnessHeap.poll();
+            int node = LongMinHeap.value(top);
+            int distance = LongMinHeap.key(top);
+            if (distance > witnessDistance[node]) {
+                continue;
+            }
+            if (distance > limit) {
+                break;
+            }
+            settled++;
+            int[] arcs = out[node];
+            for (int i = 0; i < outSize[node]; i++) {
+                int x = arcs[i * ARC];
+                if (x == v) {
+                    continue;
+                }
+                int candidate = distance + arcs[i * ARC + 1];
+                if (candidate < witnessDistance[x]) {
+                    touch(x, candidate);
+                    witnessHeap.add(LongMinHeap.pack(candidate, x));
+                }
+            }
+        }
+    }
+
+    private void touch(int node, int distance) {
+        if (witnessDistance[node] == Integer.MAX_VALUE) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = node;
+        }
+        witnessDistance[node] = distance;
+    }
+
+    private void resetWitness() {
+        for (int i = 0; i < touchedCount; i++) {
+            witnessDistance[touched[i]] = Integer.MAX_VALUE;
+        }
+        touchedCount = 0;
+    }
+
+    /** 같은 대상이 있으면 더 빠를 때만 바꾸고, 없으면 덧붙입니다. */
+    private static void addArc(int[][] lists, int[] sizes, int node, int target, int millis, int middle) {
+        int[] arcs = lists[node];
+        int size = sizes[node];
+        for (int i = 0; i < size; i++) {
+            if (arcs[i * ARC] == target) {
+                if (millis < arcs[i * ARC + 1]) {
+                    arcs[i * ARC + 1] = millis;
+                    arcs[i * ARC + 2] = middle;
+                }
+                return;
+            }
+        }
+        if (arcs == null) {
+            arcs = new int[4 * ARC];
+            lists[node] = arcs;
+        } else if ((size + 1) * ARC > arcs.length) {
+            arcs = Arrays.copyOf(arcs, arcs.length * 2);
+            lists[node] = arcs;
+        }
+        arcs[size * ARC] = target;
+        arcs[size * ARC + 1] = millis;
+        arcs[size * ARC + 2] = middle;
+        sizes[node] = size + 1;
+    }
+
+    private static void removeArc(int[][] lists, int[] sizes, int node, int target) {
+        int[] arcs = lists[node];
+        int size = sizes[node];
+        for (int i = 0; i < size; i++) {
+            if (arcs[i * ARC] == target) {
+                System.arraycopy(arcs, (size - 1) * ARC, arcs, i * ARC, ARC);
+                sizes[node] = size - 1;
+                return;
+            }
+        }
+    }
+
+    private void writeContracted(File file, double cellSizeDegrees) throws IOException {
+        int n = nodeCount;
+        int cellSize = Math.max(1, RoadGraph.toE7(cellSizeDegrees));
+        int minLat = Integer.MAX_VALUE, minLon = Integer.MAX_VALUE;
+        int maxLat = Integer.MIN_VALUE, maxLon = Integer.MIN_VALUE;
+        for (int v = 0; v < n; v++) {
+            minLat = Math.min(minLat, latE7[v]);
+            maxLat = Math.max(maxLat, latE7[v]);
+            minLon = Math.min(minLon, lonE7[v]);
+            maxLon = Math.max(maxLon, lonE7[v]);
+        }
+        if (n == 0) {
+            minLat = minLon = maxLat = maxLon = 0;
+        }
+        int columns = (int) (((long) maxLon - minLon) / cellSize) + 1;
+        int rows = (int) (((long) maxLat - minLat) / cellSize) + 1;
+
+        // 격자 칸 순서로 노드 번호를 다시 매깁니다 (계수 정렬). 가까운 노드가 파일에서도 가까이 놓입니다.
+        int[] cellFirst = new int[columns * rows + 1];
+        int[] cellOf = new int[n];
+        for (int v = 0; v < n; v++) {
+            int cell = ((latE7[v] - minLat) / cellSize) * columns + (lonE7[v] - minLon) / cellSize;
+            cellOf[v] = cell;
+            cellFirst[cell + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellFirst[c + 1] += cellFirst[c];
+        }
+        int[] newId = new int[n];
+        int[] order = new int[n];
+        int[] next = Arrays.copyOf(cellFirst, cellFirst.length - 1);
+        for (int v = 0; v < n; v++) {
+            int id = next[cellOf[v]]++;
+            newId[v] = id;
+            order[id] = v;
+        }
+
+        long forwardEdges = 0;
+        long backwardEdges = 0;
+        for (int v = 0; v < n; v++) {
+            forwardEdges += outSize[v];
+            backwardEdges += inSize[v];
+        }
+        long length = RoadGraph.HEADER_SIZE + (long) n * RoadGraph.NODE_SIZE
+                + 2L * (n + 1) * 4 + (forwardEdges + backwardEdges) * RoadGraph.EDGE_SIZE
+                + 4L * cellFirst.length;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Road graph too large: " + length + " bytes");
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(RoadGraph.HEADER_MAGIC, RoadGraph.MAGIC)
+                    .putInt(RoadGraph.HEADER_VERSION, RoadGraph.VERSION)
+                    .putInt(RoadGraph.HEADER_NODE_COUNT, n)
+                    .putInt(RoadGraph.HEADER_FORWARD_EDGE_COUNT, (int) forwardEdges)
+                    .putInt(RoadGraph.HEADER_BACKWARD_EDGE_COUNT, (int) backwardEdges)
+                    .putInt(RoadGraph.HEADER_GRID_COLUMNS, columns)
+                    .putInt(RoadGraph.HEADER_GRID_ROWS, rows)
+                    .putInt(RoadGraph.HEADER_GRID_MIN_LAT, minLat)
+                    .putInt(RoadGraph.HEADER_GRID_MIN_LON, minLon)
+                    .putInt(RoadGraph.HEADER_CELL_SIZE, cellSize);
+            buffer.position(RoadGraph.HEADER_SIZE);
+
+            for (int id = 0; id < n; id++) {
+                ensure(channel, buffer, RoadGraph.NODE_SIZE);
+                buffer.putInt(latE7[order[id]]).putInt(lonE7[order[id]]);
+            }
+            writeArcs(channel, buffer, out, outSize, order, newId);
+            writeArcs(channel, buffer, in, inSize, order, newId);
+            for (int first : cellFirst) {
+                ensure(channel, buffer, 4);
+                buffer.putInt(first);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void writeArcs(FileChannel channel, ByteBuffer buffer, int[][] lists, int[] sizes,
+                                  int[] order, int[] newId) throws IOException {
+        int first = 0;
+        for (int id = 0; id < order.length; id++) {
+            ensure(channel, buffer, 4);
+            buffer.putInt(first);
+            first += sizes[order[id]];
+        }
+        ensure(channel, buffer, 4);
+        buffer.putInt(first);
+        for (int id = 0; id < order.length; id++) {
+            int v = order[id];
+            int[] arcs = lists[v];
+            for (int i = 0; i < sizes[v]; i++) {
+                int middle = arcs[i * ARC + 2];
+                ensure(channel, buffer, RoadGraph.EDGE_SIZE);
+                buffer.putInt(newId[arcs[i * ARC]])
+                        .putInt(arcs[i * ARC + 1])
+                        .putInt(middle == RoadGraph.NO_MIDDLE ? RoadGraph.NO_MIDDLE : newId[middle]);
+            }
+        }
+    }
+
+    private static void ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
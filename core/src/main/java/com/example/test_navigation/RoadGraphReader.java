@@ -0,0 +1,261 @@
+package com.example.test_navigation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * RoadGraphReader 클래스는 {@link RoadGraph} 파일을 메모리 매핑으로 읽는 클래스입니다.
+ * 파일 전체를 읽기 전용으로 매핑하므로 여는 데 드는 시간은 헤더 확인뿐이고, 탐색이 실제로 닿는 부분만
+ * 운영체제가 페이지 단위로 읽어 들입니다. 읽기만 하므로 여러 스레드에서 잠금 없이 함께 사용할 수 있으며,
+ * 탐색 상태는 스레드마다 만드는 {@link Router}가 가집니다.
+ */
+public class RoadGraphReader implements Closeable {
+
+    private final File file;
+    private final int nodeCount;
+    private final int forwardEdgeCount;
+    private final int backwardEdgeCount;
+    private final int gridColumns;
+    private final int gridRows;
+    private final int gridMinLat;
+    private final int gridMinLon;
+    private final int cellSize;
+
+    private final int forwardIndexOffset;
+    private final int forwardEdgeOffset;
+    private final int backwardIndexOffset;
+    private final int backwardEdgeOffset;
+    private final int gridOffset;
+    private volatile ByteBuffer buffer;
+
+    /**
+     * 파일을 열어 헤더를 확인하고 매핑합니다. 매핑이 끝나면 파일 핸들은 바로 닫습니다.
+     *
+     * @param file 도로 그래프 파일
+     * @throws IOException 파일을 읽을 수 없거나 형식이 맞지 않는 경우
+     */
+    public RoadGraphReader(File file) throws IOException {
+        this.file = file;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length < RoadGraph.HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a road graph: " + file);
+            }
+            ByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(RoadGraph.HEADER_MAGIC) != RoadGraph.MAGIC) {
+                throw new IOException("Not a road graph: " + file);
+            }
+            int version = mapped.getInt(RoadGraph.HEADER_VERSION);
+            if (version != RoadGraph.VERSION) {
+                throw new IOException("Unsupported road graph version " + version + ": " + file);
+            }
+            nodeCount = mapped.getInt(RoadGraph.HEADER_NODE_COUNT);
+            forwardEdgeCount = mapped.getInt(RoadGraph.HEADER_FORWARD_EDGE_COUNT);
+            backwardEdgeCount = mapped.getInt(RoadGraph.HEADER_BACKWARD_EDGE_COUNT);
+            gridColumns = mapped.getInt(RoadGraph.HEADER_GRID_COLUMNS);
+            gridRows = mapped.getInt(RoadGraph.HEADER_GRID_ROWS);
+            gridMinLat = mapped.getInt(RoadGraph.HEADER_GRID_MIN_LAT);
+            gridMinLon = mapped.getInt(RoadGraph.HEADER_GRID_MIN_LON);
+            cellSize = mapped.getInt(RoadGraph.HEADER_CELL_SIZE);
+
+            long forwardIndex = RoadGraph.HEADER_SIZE + (long) nodeCount * RoadGraph.NODE_SIZE;
+            long forwardEdges = forwardIndex + 4L * (nodeCount + 1);
+            long backwardIndex = forwardEdges + (long) forwardEdgeCount * RoadGraph.EDGE_SIZE;
+            long backwardEdges = backwardIndex + 4L * (nodeCount + 1);
+            long grid = backwardEdges + (long) backwardEdgeCount * RoadGraph.EDGE_SIZE;
+            long end = grid + 4L * ((long) gridColumns * gridRows + 1);
+            if (nodeCount < 0 || forwardEdgeCount < 0 || backwardEdgeCount < 0 || cellSize <= 0 || end != length) {
+                throw new IOException("Truncated road graph: " + file);
+            }
+            forwardIndexOffset = (int) forwardIndex;
+            forwardEdgeOffset = (int) forwardEdges;
+            backwardIndexOffset = (int) backwardIndex;
+            backwardEdgeOffset = (int) backwardEdges;
+            gridOffset = (int) grid;
+            buffer = mapped;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /** 정방향과 역방향 간선 수의 합 (지름길 포함) */
+    public int getEdgeCount() {
+        return forwardEdgeCount + backwardEdgeCount;
+    }
+
+    public double getLatitude(int node) {
+        return buffer().getInt(RoadGraph.HEADER_SIZE + node * RoadGraph.NODE_SIZE) / 1e7;
+    }
+
+    public double getLongitude(int node) {
+        return buffer().getInt(RoadGraph.HEADER_SIZE + node * RoadGraph.NODE_SIZE + 4) / 1e7;
+    }
+
+    /**
+     * 주어진 위치에서 가장 가까운 노드를 찾습니다. 위치가 든 격자 칸부터 바깥 고리로 넓혀 가며,
+     * 찾은 노드보다 가까운 칸이 남아 있지 않으면 멈춥니다.
+     *
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param maxMeters 이 거리 안에서만 찾습니다.
+     * @return 노드 번호, 없으면 -1
+     */
+    public int nearestNode(double latitude, double longitude, double maxMeters) {
+        ByteBuffer data = buffer();
+        int row = Math.floorDiv(RoadGraph.toE7(latitude) - gridMinLat, cellSize);
+        int column = Math.floorDiv(RoadGraph.toE7(longitude) - gridMinLon, cellSize);
+        double cellMeters = cellSize / 1e7 * TileMath.METERS_PER_DEGREE
+                * Math.min(1.0, TileMath.cosDegrees(Math.abs(latitude) + cellSize / 1e7));
+        int maxRing = (int) Math.ceil(maxMeters / cellMeters) + 1;
+        int best = -1;
+        double bestMeters = maxMeters;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // 고리 안쪽 경계까지의 거리가 이미 찾은 거리보다 멀면 더 볼 필요가 없습니다.
+            if ((ring - 1) * cellMeters > bestMeters) {
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= gridRows) {
+                    continue;
+                }
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : 2 * ring) {
+                    if (c >= 0 && c < gridColumns) {
+                        int cell = r * gridColumns + c;
+                        int first = data.getInt(gridOffset + cell * 4);
+                        int last = data.getInt(gridOffset + cell * 4 + 4);
+                        for (int node = first; node < last; node++) {
+                            double meters = GeoMath.distanceMeters(latitude, longitude,
+                                    getLatitude(node), getLongitude(node));
+                            if (meters <= bestMeters) {
+                                bestMeters = meters;
+                                best = node;
+                            }
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** {@link #forEachRoadNear}가 찾은 원래 도로 간선을 받는 콜백 */
+    interface RoadVisitor {
+        void visit(int from, int to);
+    }
+
+    /**
+     * 위치 주변 격자 칸에 있는 노드의 원래 도로 간선(지름길 제외)을 방문합니다.
+     * 간선은 순위가 낮은 쪽 끝 노드에만 저장되어 있으므로 한 번씩만 방문하며, 순위가 높은 끝만 반경 안에 있는
+     * 간선도 찾도록 반경보다 한 칸 넓게 봅니다. 한 칸보다 긴 간선은 놓칠 수 있습니다.
+     *
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param radiusMeters 찾을 반경 (미터). 방문한 간선이 반경 안에 있는지는 호출한 쪽에서 확인합니다.
+     * @param visitor 간선마다 (출발 노드, 도착 노드)로 호출됩니다.
+     */
+    void forEachRoadNear(double latitude, double longitude, double radiusMeters, RoadVisitor visitor) {
+        ByteBuffer data = buffer();
+        double latitudeDegrees = radiusMeters / TileMath.METERS_PER_DEGREE;
+        double longitudeDegrees = latitudeDegrees
+                / Math.max(0.01, TileMath.cosDegrees(Math.abs(latitude) + latitudeDegrees));
+        int firstRow = Math.max(0,
+                Math.floorDiv(RoadGraph.toE7(latitude - latitudeDegrees) - gridMinLat, cellSize) - 1);
+        int lastRow = Math.min(gridRows - 1,
+                Math.floorDiv(RoadGraph.toE7(latitude + latitudeDegrees) - gridMinLat, cellSize) + 1);
+        int firstColumn = Math.max(0,
+                Math.floorDiv(RoadGraph.toE7(longitude - longitudeDegrees) - gridMinLon, cellSize) - 1);
+        int lastColumn = Math.min(gridColumns - 1,
+                Math.floorDiv(RoadGraph.toE7(longitude + longitudeDegrees) - gridMinLon, cellSize) + 1);
+        if (firstColumn > lastColumn) {
+            return;
+        }
+        for (int r = firstRow; r <= lastRow; r++) {
+            // 한 행의 칸은 노드 번호가 이어져 있습니다.
+            int first = data.getInt(gridOffset + (r * gridColumns + firstColumn) * 4);
+            int last = data.getInt(gridOffset + (r * gridColumns + lastColumn) * 4 + 4);
+            for (int node = first; node < last; node++) {
+                int end = edgeEnd(true, node);
+                for (int e = firstEdge(true, node); e < end; e++) {
+                    if (edgeMiddle(true, e) == RoadGraph.NO_MIDDLE) {
+                        visitor.visit(node, edgeTarget(true, e));
+                    }
+                }
+                end = edgeEnd(false, node);
+                for (int e = firstEdge(false, node); e < end; e++) {
+                    if (edgeMiddle(false, e) == RoadGraph.NO_MIDDLE) {
+                        visitor.visit(edgeTarget(false, e), node);
+                    }
+                }
+            }
+        }
+    }
+
+    // 탐색용 간선 접근. forward가 true면 정방향(나가는 간선), false면 역방향(들어오는 간선) 목록입니다.
+
+    int firstEdge(boolean forward, int node) {
+        return buffer().getInt((forward ? forwardIndexOffset : backwardIndexOffset) + node * 4);
+    }
+
+    int edgeEnd(boolean forward, int node) {
+        return buffer().getInt((forward ? forwardIndexOffset : backwardIndexOffset) + node * 4 + 4);
+    }
+
+    int edgeTarget(boolean forward, int edge) {
+        return buffer().getInt((forward ? forwardEdgeOffset : backwardEdgeOffset) + edge * RoadGraph.EDGE_SIZE);
+    }
+
+    int edgeMillis(boolean forward, int edge) {
+        return buffer().getInt((forward ? forwardEdgeOffset : backwardEdgeOffset) + edge * RoadGraph.EDGE_SIZE + 4);
+    }
+
+    int edgeMiddle(boolean forward, int edge) {
+        return buffer().getInt((forward ? forwardEdgeOffset : backwardEdgeOffset) + edge * RoadGraph.EDGE_SIZE + 8);
+    }
+
+    /**
+     * node의 목록에서 target으로 향하는 간선 번호를 찾습니다. 지름길을 펼칠 때 사용합니다.
+     *
+     * @return 간선 번호, 없으면 -1
+     */
+    int findEdge(boolean forward, int node, int target) {
+        int end = edgeEnd(forward, node);
+        for (int e = firstEdge(forward, node); e < end; e++) {
+            if (edgeTarget(forward, e) == target) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer buffer() {
+        ByteBuffer data = buffer;
+        if (data == null) {
+            throw new IllegalStateException("Road graph closed: " + file);
+        }
+        return data;
+    }
+
+    /**
+     * 매핑 참조를 놓습니다. 매핑 해제는 버퍼가 가비지 컬렉션될 때 이루어집니다.
+     */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.test_navigation;
+
+/**
+ * Route 클래스는 {@link Router}가 찾은 경로입니다. 지름길을 모두 펼친 원래 도로 노드의 좌표 목록과
+ * 총 소요 시간, 거리를 가집니다. 만든 뒤에는 바뀌지 않으므로 스레드 사이에 그대로 넘겨도 됩니다.
+ */
+public final class Route {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int durationMillis;
+    private final double distanceMeters;
+
+    Route(double[] latitudes, double[] longitudes, int durationMillis) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.durationMillis = durationMillis;
+        double meters = 0;
+        for (int i = 1; i < latitudes.length; i++) {
+            meters += GeoMath.distanceMeters(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+        }
+        this.distanceMeters = meters;
+    }
+
+    public int getPointCount() {
+        return latitudes.length;
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    /** 그래프의 간선 시간으로 계산한 소요 시간 (밀리초) */
+    public int getDurationMillis() {
+        return durationMillis;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    /**
+     * 위치에서 index번째 구간(index ~ index + 1번째 점)까지의 거리를 구합니다.
+     * 점이 하나뿐이면 그 점까지의 거리입니다.
+     *
+     * @return 거리 (미터)
+     */
+    public double distanceToSegment(int index, double latitude, double longitude) {
+        if (index + 1 >= latitudes.length) {
+            return GeoMath.distanceMeters(latitude, longitude, latitudes[index], longitudes[index]);
+        }
+        // 구간 시작점을 원점으로 하는 평면 좌표(미터)에서 수선의 발을 구합니다.
+        double metersPerLon = TileMath.METERS_PER_DEGREE * TileMath.cosDegrees(latitudes[index]);
+        double bx = (longitudes[index + 1] - longitudes[index]) * metersPerLon;
+        double by = (latitudes[index + 1] - latitudes[index]) * TileMath.METERS_PER_DEGREE;
+        double px = (longitude - longitudes[index]) * metersPerLon;
+        double py = (latitude - latitudes[index]) * TileMath.METERS_PER_DEGREE;
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+        double dx = px - t * bx;
+        double dy = py - t * by;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
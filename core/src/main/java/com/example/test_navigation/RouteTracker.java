@@ -0,0 +1,135 @@
+package com.example.test_navigation;
+
+/**
+ * RouteTracker 클래스는 현재 위치를 경로와 비교해 진행 구간을 따라가고, 경로를 벗어나면 다시 찾는 클래스입니다.
+ *
+ * <p>위치가 진행 구간 근처 몇 구간 안에서 {@link #DEFAULT_OFF_ROUTE_METERS}보다 멀리 떨어진 상태가
+ * {@link #DEFAULT_OFF_ROUTE_FIXES}번 이어지면 벗어난 것으로 봅니다. GPS 튐 한 번으로는 다시 찾지 않습니다.
+ * 다시 찾을 때는 도착지의 탐색 공간을 그대로 두고 현재 위치에서 정방향 탐색만 하므로
+ * ({@link Router#routeToDestination}) 처음 경로를 찾을 때보다 빠릅니다.</p>
+ *
+ * <p>{@link Router}와 마찬가지로 한 스레드에서만 사용합니다.</p>
+ */
+public class RouteTracker {
+
+    /** 경로에서 이만큼 떨어지면 벗어난 것으로 봅니다 (미터). */
+    public static final double DEFAULT_OFF_ROUTE_METERS = 40;
+    /** 벗어난 위치가 이만큼 이어지면 경로를 다시 찾습니다. */
+    public static final int DEFAULT_OFF_ROUTE_FIXES = 3;
+    /** 위치에서 도로 노드를 찾는 반경 (미터) */
+    public static final double SNAP_RADIUS_METERS = 500;
+    /** 진행 구간에서 앞으로 살펴볼 구간 수 */
+    private static final int LOOKAHEAD_SEGMENTS = 32;
+
+    private final RoadGraphReader graph;
+    private final Router router;
+    private final double offRouteMeters;
+    private final int offRouteFixes;
+
+    private Route route;
+    private int progress;
+    private int offRouteCount;
+    private int rerouteCount;
+
+    public RouteTracker(RoadGraphReader graph) {
+        this(graph, DEFAULT_OFF_ROUTE_METERS, DEFAULT_OFF_ROUTE_FIXES);
+    }
+
+    /**
+     * @param graph 도로 그래프
+     * @param offRouteMeters 경로에서 벗어났다고 볼 거리 (미터)
+     * @param offRouteFixes 벗어난 위치가 이만큼 이어지면 다시 찾습니다.
+     */
+    public RouteTracker(RoadGraphReader graph, double offRouteMeters, int offRouteFixes) {
+        this.graph = graph;
+        this.router = new Router(graph);
+        this.offRouteMeters = offRouteMeters;
+        this.offRouteFixes = Math.max(1, offRouteFixes);
+    }
+
+    /**
+     * 현재 위치에서 도착지까지의 경로를 찾고 따라가기 시작합니다.
+     *
+     * @return 경로, 근처에 도로가 없거나 갈 수 없으면 null
+     */
+    public Route start(double latitude, double longitude, double destinationLatitude, double destinationLongitude) {
+        route = null;
+        int to = graph.nearestNode(destinationLatitude, destinationLongitude, SNAP_RADIUS_METERS);
+        int from = graph.nearestNode(latitude, longitude, SNAP_RADIUS_METERS);
+        if (to < 0 || from < 0) {
+            return null;
+        }
+        router.setDestination(to);
+        return follow(router.routeToDestination(from));
+    }
+
+    /**
+     * 새 위치를 반영합니다.
+     *
+     * @return 경로를 다시 찾았으면 새 경로, 아니면 null
+     */
+    public Route update(double latitude, double longitude) {
+        if (route == null) {
+            return null;
+        }
+        int last = Math.min(route.getPointCount() - 1, progress + LOOKAHEAD_SEGMENTS);
+        int nearest = progress;
+        double nearestMeters = Double.MAX_VALUE;
+        for (int i = progress; i <= last; i++) {
+            double meters = route.distanceToSegment(i, latitude, longitude);
+            if (meters < nearestMeters) {
+                nearestMeters = meters;
+                nearest = i;
+            }
+        }
+        if (nearestMeters <= offRouteMeters) {
+            progress = nearest;
+            offRouteCount = 0;
+            return null;
+        }
+        if (++offRouteCount < offRouteFixes) {
+            return null;
+        }
+        int from = graph.nearestNode(latitude, longitude, SNAP_RADIUS_METERS);
+        if (from < 0) {
+            return null;
+        }
+        rerouteCount++;
+        Telemetry.increment(Telemetry.ROUTE_REROUTES);
+        Route rerouted = router.routeToDestination(from);
+        if (rerouted == null) {
+            return null;
+        }
+        return follow(rerouted);
+    }
+
+    private Route follow(Route newRoute) {
+        route = newRoute;
+        progress = 0;
+        offRouteCount = 0;
+        return newRoute;
+    }
+
+    /** 따라가는 경로를 버립니다. */
+    public void stop() {
+        route = null;
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    /** 현재 위치가 있는 경로 구간 번호 */
+    public int getProgress() {
+        return progress;
+    }
+
+    public int getRerouteCount() {
+        return rerouteCount;
+    }
+
+    /** 마지막 탐색에서 확정한 노드 수 */
+    public int getLastSettledCount() {
+        return router.getSettledCount();
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.test_navigation;
+
+import java.util.Arrays;
+
+/**
+ * Router 클래스는 {@link RoadGraphReader}의 축약 계층 위에서 최단 시간 경로를 찾는 클래스입니다.
+ *
+ * <ul>
+ *     <li>{@link #route(int, int)}는 출발지에서 정방향으로, 도착지에서 역방향으로 순위가 높아지는 간선만 따라가는
+ *     양방향 다익스트라입니다. 양쪽 탐색이 만나는 노드 중 합이 가장 작은 곳이 최단 경로이고, 남은 후보의 거리가
+ *     그보다 커지면 멈춥니다. 더 빠른 길이 있는 노드에서는 간선을 펼치지 않습니다(stall-on-demand).</li>
+ *     <li>{@link #setDestination(int)}은 도착지의 역방향 탐색 공간을 끝까지 한 번 구해 둡니다. 그 뒤의
+ *     {@link #routeToDestination(int)}은 정방향 탐색만 하므로, 경로를 벗어나 다시 찾을 때 비용이 절반 이하입니다.</li>
+ * </ul>
+ *
+ * <p>탐색 공간은 수백~수천 노드이므로 노드 수만큼의 배열 대신 작은 해시 표에 라벨을 둡니다.
+ * 상태를 재사용하므로 스레드마다 하나씩 만들어 사용합니다.</p>
+ */
+public class Router {
+
+    private static final boolean FORWARD = true;
+    private static final boolean BACKWARD = false;
+
+    private final RoadGraphReader graph;
+    private final SearchSpace forward = new SearchSpace();
+    private final SearchSpace backward = new SearchSpace();
+    private final SearchSpace destination = new SearchSpace();
+    private final LongMinHeap forwardHeap = new LongMinHeap(256);
+    private final LongMinHeap backwardHeap = new LongMinHeap(256);
+    private int destinationNode = -1;
+    private int settledCount;
+    /** 마지막 {@link #search}의 최단 시간 */
+    private int bestMillis;
+    private final IntList pathNodes = new IntList();
+    private final IntList pathEdges = new IntList();
+    private int[] unpackStack = new int[3 * 64];
+
+    public Router(RoadGraphReader graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * 두 노드 사이의 최단 시간 경로를 찾습니다.
+     *
+     * @param from 출발 노드
+     * @param to 도착 노드
+     * @return 경로, 갈 수 없으면 null
+     */
+    public Route route(int from, int to) {
+        long start = Telemetry.start();
+        try {
+            int meet = search(from, to);
+            return meet < 0 ? null : buildRoute(from, meet, bestMillis, forward, backward);
+        } finally {
+            Telemetry.stop(Telemetry.ROUTE_QUERY, start);
+        }
+    }
+
+    /**
+     * 두 노드 사이 최단 시간 경로의 길이를 {@link Route}를 만들지 않고 구합니다.
+     * 지도 맞춤에서 후보 사이의 도로 거리를 잴 때처럼 짧은 질의를 많이 할 때 사용합니다.
+     *
+     * @return 거리 (미터), 갈 수 없으면 -1
+     */
+    public double routeDistanceMeters(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int meet = search(from, to);
+        if (meet < 0) {
+            return -1;
+        }
+        collectPath(from, meet, forward, backward, pathNodes);
+        double meters = 0;
+        double latitude = graph.getLatitude(from);
+        double longitude = graph.getLongitude(from);
+        for (int i = 1; i < pathNodes.size; i++) {
+            double nextLatitude = graph.getLatitude(pathNodes.values[i]);
+            double nextLongitude = graph.getLongitude(pathNodes.values[i]);
+            meters += GeoMath.distanceMeters(latitude, longitude, nextLatitude, nextLongitude);
+            latitude = nextLatitude;
+            longitude = nextLongitude;
+        }
+        return meters;
+    }
+
+    /**
+     * 양방향 탐색을 실행합니다. 최단 시간은 {@link #bestMillis}에 남깁니다.
+     *
+     * @return 양쪽 탐색이 만난 노드, 갈 수 없으면 -1
+     */
+    private int search(int from, int to) {
+        settledCount = 0;
+        forward.clear();
+        backward.clear();
+        forwardHeap.clear();
+        backwardHeap.clear();
+        push(forward, forwardHeap, from, 0, -1, -1);
+        push(backward, backwardHeap, to, 0, -1, -1);
+
+        int best = Integer.MAX_VALUE;
+        int meet = -1;
+        while (true) {
+            long forwardTop = forwardHeap.isEmpty() ? Long.MAX_VALUE : forwardHeap.peek();
+            long backwardTop = backwardHeap.isEmpty() ? Long.MAX_VALUE : backwardHeap.peek();
+            boolean forwardDone = forwardTop == Long.MAX_VALUE || LongMinHeap.key(forwardTop) >= best;
+            boolean backwardDone = backwardTop == Long.MAX_VALUE || LongMinHeap.key(backwardTop) >= best;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            boolean useForward = backwardDone || (!forwardDone && forwardTop <= backwardTop);
+            SearchSpace space = useForward ? forward : backward;
+            SearchSpace other = useForward ? backward : forward;
+            int node = settle(space, useForward ? forwardHeap : backwardHeap, useForward);
+            if (node < 0) {
+                continue;
+            }
+            int otherSlot = other.slotOf(node);
+            if (otherSlot >= 0) {
+                int total = space.distance[space.slotOf(node)] + other.distance[otherSlot];
+                if (total < best) {
+                    best = total;
+                    meet = node;
+                }
+            }
+        }
+        bestMillis = best;
+        return meet;
+    }
+
+    /**
+     * 도착지를 정하고 도착지의 역방향 탐색 공간을 구해 둡니다.
+     *
+     * @param to 도착 노드
+     */
+    public void setDestination(int to) {
+        destination.clear();
+        backwardHeap.clear();
+        push(destination, backwardHeap, to, 0, -1, -1);
+        while (!backwardHeap.isEmpty()) {
+            settle(destination, backwardHeap, BACKWARD);
+        }
+        destinationNode = to;
+    }
+
+    public int getDestination() {
+        return destinationNode;
+    }
+
+    /** 도착지 탐색 공간의 노드 수 */
+    public int getDestinationSpaceSize() {
+        return destination.size;
+    }
+
+    /**
+     * {@link #setDestination}으로 정한 도착지까지의 경로를 정방향 탐색만으로 찾습니다.
+     *
+     * @param from 출발 노드
+     * @return 경로, 도착지가 없거나 갈 수 없으면 null
+     */
+    public Route routeToDestination(int from) {
+        if (destinationNode < 0) {
+            return null;
+        }
+        long start = Telemetry.start();
+        try {
+            settledCount = 0;
+            forward.clear();
+            forwardHeap.clear();
+            push(forward, forwardHeap, from, 0, -1, -1);
+            int best = Integer.MAX_VALUE;
+            int meet = -1;
+            while (!forwardHeap.isEmpty() && LongMinHeap.key(forwardHeap.peek()) < best) {
+                int node = settle(forward, forwardHeap, FORWARD);
+                if (node < 0) {
+                    continue;
+                }
+                int otherSlot = destination.slotOf(node);
+                if (otherSlot >= 0) {
+                    int total = forward.distance[forward.slotOf(node)] + destination.distance[otherSlot];
+                    if (total < best) {
+                        best = total;
+                        meet = node;
+                    }
+                }
+            }
+            return meet < 0 ? null : buildRoute(from, meet, best, forward, destination);
+        } finally {
+            Telemetry.stop(Telemetry.ROUTE_QUERY, start);
+        }
+    }
+
+    /** 마지막 탐색에서 확정한 노드 수 */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    private static void push(SearchSpace space, LongMinHeap heap, int node, int distance, int parent, int edge) {
+        int slot = space.add(node);
+        space.distance[slot] = distance;
+        space.parent[slot] = parent;
+        space.edge[slot] = edge;
+        heap.add(LongMinHeap.pack(distance, slot));
+    }
+
+    /**
+     * 힙에서 노드 하나를 확정하고 순위가 높은 쪽 간선을 펼칩니다.
+     *
+     * @return 확정한 노드, 이미 처리한 항목이면 -1
+     */
+    private int settle(SearchSpace space, LongMinHeap heap, boolean direction) {
+        long top = heap.poll();
+        int slot = LongMinHeap.value(top);
+        int distance = LongMinHeap.key(top);
+        if (distance > space.distance[slot]) {
+            return -1;
+        }
+        settledCount++;
+        int node = space.node[slot];
+        if (isStalled(space, node, distance, direction)) {
+            return node;
+        }
+        int end = graph.edgeEnd(direction, node);
+        for (int e = graph.firstEdge(direction, node); e < end; e++) {
+            int target = graph.edgeTarget(direction, e);
+            int candidate = distance + graph.edgeMillis(direction, e);
+            int targetSlot = space.slotOf(target);
+            if (targetSlot < 0 || candidate < space.distance[targetSlot]) {
+                push(space, heap, target, candidate, node, e);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * 순위가 더 높은 이웃에서 내려오는 더 빠른 길이 있으면, 이 노드를 거치는 경로는 최단이 아니므로 펼치지 않습니다.
+     */
+    private boolean isStalled(SearchSpace space, int node, int distance, boolean direction) {
+        boolean opposite = !direction;
+        int end = graph.edgeEnd(opposite, node);
+        for (int e = graph.firstEdge(opposite, node); e < end; e++) {
+            int slot = space.slotOf(graph.edgeTarget(opposite, e));
+            if (slot >= 0 && space.distance[slot] + graph.edgeMillis(opposite, e) < distance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 만난 노드에서 양쪽 부모를 따라가 간선 목록을 만들고, 지름길을 원래 도로로 펼쳐 경로를 만듭니다.
+     */
+    private Route buildRoute(int from, int meet, int durationMillis, SearchSpace up, SearchSpace down) {
+        IntList nodes = new IntList();
+        collectPath(from, meet, up, down, nodes);
+        double[] latitudes = new double[nodes.size];
+        double[] longitudes = new double[nodes.size];
+        for (int i = 0; i < nodes.size; i++) {
+            latitudes[i] = graph.getLatitude(nodes.values[i]);
+            longitudes[i] = graph.getLongitude(nodes.values[i]);
+        }
+        return new Route(latitudes, longitudes, durationMillis);
+    }
+
+    /**
+     * 출발지부터 도착지까지 원래 도로 노드를 차례로 nodes에 담습니다.
+     */
+    private void collectPath(int from, int meet, SearchSpace up, SearchSpace down, IntList nodes) {
+        nodes.size = 0;
+        nodes.add(from);
+
+        // 출발지 → 만난 노드: 부모를 거꾸로 따라가 모은 뒤 뒤집습니다.
+        IntList forwardEdges = pathEdges;
+        forwardEdges.size = 0;
+        for (int slot = up.slotOf(meet); up.parent[slot] >= 0; slot = up.slotOf(up.parent[slot])) {
+            forwardEdges.add(up.parent[slot]);
+            forwardEdges.add(up.edge[slot]);
+        }
+        for (int i = forwardEdges.size - 2; i >= 0; i -= 2) {
+            int edge = forwardEdges.values[i + 1];
+            unpack(forwardEdges.values[i], graph.edgeTarget(FORWARD, edge), graph.edgeMiddle(FORWARD, edge), nodes);
+        }
+
+        // 만난 노드 → 도착지: 역방향 탐색의 부모는 경로에서 다음 노드입니다.
+        for (int slot = down.slotOf(meet); down.parent[slot] >= 0; slot = down.slotOf(down.parent[slot])) {
+            int edge = down.edge[slot];
+            unpack(down.node[slot], down.parent[slot], graph.edgeMiddle(BACKWARD, edge), nodes);
+        }
+    }
+
+    /**
+     * from → to 간선을 원래 도로 노드로 펼쳐 to까지의 노드를 덧붙입니다 (from은 이미 들어 있습니다).
+     * 지름길 from → to는 가운데 노드 m의 역방향 목록에 있는 from → m과 정방향 목록에 있는 m → to로 나뉩니다.
+     */
+    private void unpack(int from, int to, int middle, IntList nodes) {
+        int top = 0;
+        top = pushUnpack(top, from, to, middle);
+        while (top > 0) {
+            top -= 3;
+            int u = unpackStack[top];
+            int w = unpackStack[top + 1];
+            int m = unpackStack[top + 2];
+            if (m == RoadGraph.NO_MIDDLE) {
+                nodes.add(w);
+                continue;
+            }
+            int second = graph.findEdge(FORWARD, m, w);
+            int first = graph.findEdge(BACKWARD, m, u);
+            if (first < 0 || second < 0) {
+                throw new IllegalStateException("Broken shortcut " + u + " -> " + w + " via " + m);
+            }
+            // 뒤 절반을 먼저 넣어 앞 절반이 먼저 펼쳐지게 합니다.
+            top = pushUnpack(top, m, w, graph.edgeMiddle(FORWARD, second));
+            top = pushUnpack(top, u, m, graph.edgeMiddle(BACKWARD, first));
+        }
+    }
+
+    private int pushUnpack(int top, int from, int to, int middle) {
+        if (top + 3 > unpackStack.length) {
+            unpackStack = Arrays.copyOf(unpackStack, unpackStack.length * 2);
+        }
+        unpackStack[top] = from;
+        unpackStack[top + 1] = to;
+        unpackStack[top + 2] = middle;
+        return top + 3;
+    }
+
+    /**
+     * 한 방향 탐색의 라벨(거리, 부모 노드, 부모에서 온 간선)을 노드 번호로 찾는 열린 주소 해시 표입니다.
+     */
+    private static final class SearchSpace {
+        int[] table = new int[1024];
+        int[] node = new int[256];
+        int[] distance = new int[256];
+        int[] parent = new int[256];
+        int[] edge = new int[256];
+        int size;
+
+        SearchSpace() {
+            Arrays.fill(table, -1);
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(table, -1);
+                size = 0;
+            }
+        }
+
+        int slotOf(int key) {
+            int mask = table.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                int slot = table[i];
+                if (slot < 0 || node[slot] == key) {
+                    return slot;
+                }
+            }
+        }
+
+        /** 노드의 라벨 자리를 반환합니다. 없으면 새로 만듭니다. */
+        int add(int key) {
+            int mask = table.length - 1;
+            int i = hash(key) & mask;
+            for (; table[i] >= 0; i = (i + 1) & mask) {
+                if (node[table[i]] == key) {
+                    return table[i];
+                }
+            }
+            if (size == node.length) {
+                int capacity = size * 2;
+                node = Arrays.copyOf(node, capacity);
+                distance = Arrays.copyOf(distance, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                edge = Arrays.copyOf(edge, capacity);
+            }
+            int slot = size++;
+            node[slot] = key;
+            table[i] = slot;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return slot;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            Arrays.fill(table, -1);
+            int mask = table.length - 1;
+            for (int slot = 0; slot < size; slot++) {
+                int i = hash(node[slot]) & mask;
+                while (table[i] >= 0) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = slot;
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /** 상자에 담지 않는 int 목록 */
+    private static final class IntList {
+        int[] values = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
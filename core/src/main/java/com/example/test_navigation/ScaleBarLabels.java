@@ -0,0 +1,65 @@
+package com.example.test_navigation;
+
+import java.util.Arrays;
+
+/**
+ * ScaleBarLabels 클래스는 축척 막대의 길이를 계산하고 표시할 문자열을 캐시하는 클래스입니다.
+ * 줌이 바뀔 때마다 String.format으로 새 문자열을 만들지 않도록,
+ * 표시되는 값(미터 또는 킬로미터)별로 한 번 만든 문자열을 재사용합니다.
+ * 같은 줌 단계에서는 같은 값이 반복되므로 처음 한 번 이후에는 할당이 없습니다.
+ */
+public final class ScaleBarLabels {
+
+    /** 캐시 칸 수 (2의 거듭제곱) */
+    private static final int CACHE_SIZE = 512;
+    /** 킬로미터 값을 미터 값과 구분하기 위한 키 오프셋 */
+    private static final int KILOMETER_KEY_OFFSET = 1 << 30;
+
+    private final int[] keys = new int[CACHE_SIZE];
+    private final String[] labels = new String[CACHE_SIZE];
+    private long missCount;
+
+    public ScaleBarLabels() {
+        Arrays.fill(keys, -1);
+    }
+
+    /**
+     * 현재 화면 상태에 맞는 축척 문자열을 반환합니다.
+     * 축척 막대의 길이는 화면 너비의 10%를 dp로 환산한 값입니다.
+     *
+     * @param latitude 지도 중심 위도
+     * @param zoomLevel 줌 레벨
+     * @param screenWidth 지도 너비 (픽셀)
+     * @param density 화면 밀도
+     * @return 축척 문자열 (예: "200 m", "2 km")
+     */
+    public String getLabel(double latitude, double zoomLevel, int screenWidth, float density) {
+        int scaleBarWidthPixels = (int) (screenWidth / 10 / density);
+        int scaleBarLengthMeters = (int) (scaleBarWidthPixels * TileMath.metersPerPixel(latitude, zoomLevel));
+        return getLabel(scaleBarLengthMeters);
+    }
+
+    /**
+     * 미터 길이를 축척 문자열로 변환합니다. 1000m 이상은 킬로미터(내림)로 표시합니다.
+     *
+     * @param meters 길이 (미터)
+     * @return 축척 문자열
+     */
+    public String getLabel(int meters) {
+        boolean kilometers = meters >= 1000;
+        int value = kilometers ? meters / 1000 : meters;
+        int key = kilometers ? value + KILOMETER_KEY_OFFSET : value;
+        int slot = (key * 0x9E3779B1 >>> 16) & (CACHE_SIZE - 1);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            labels[slot] = kilometers ? value + " km" : value + " m";
+            missCount++;
+        }
+        return labels[slot];
+    }
+
+    /** 문자열을 새로 만든 횟수 */
+    public long getMissCount() {
+        return missCount;
+    }
+}
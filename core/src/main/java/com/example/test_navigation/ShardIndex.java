@@ -0,0 +1,237 @@
+package com.example.test_navigation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ShardIndex 클래스는 지역별로 나눈 타일 아카이브(샤드)의 경계 상자와 줌 범위를 담은 색인입니다.
+ * 줌 레벨마다 그 줌을 포함하는 샤드와 각 샤드의 타일 범위를 미리 계산해 두므로
+ * 타일 하나가 속한 샤드를 정수 비교만으로 찾을 수 있습니다.
+ *
+ * <p>색인 파일은 UTF-8 텍스트입니다. 빈 줄과 {@code #}로 시작하는 줄은 무시합니다.</p>
+ * <pre>
+ * # 파일          최소줌 최대줌 서쪽    남쪽   동쪽    북쪽
+ * seoul.mbtiles    10    16   126.76 37.41 127.19 37.72
+ * gyeonggi.mbtiles 10    16   126.37 36.89 127.86 38.29
+ * korea-low.mbtiles 4     9   124.5  33.0  131.0  38.7
+ * format=png
+ * </pre>
+ * <p>여러 샤드가 같은 타일을 덮으면 파일에서 먼저 나온 샤드가 사용됩니다.
+ * {@code 이름=값} 줄은 아카이브 메타데이터로, 샤드를 열지 않고 응답할 때 사용됩니다.</p>
+ */
+public final class ShardIndex {
+
+    /** 색인의 샤드 하나 */
+    public static final class Shard {
+        private final String fileName;
+        private final int minZoom;
+        private final int maxZoom;
+        private final double west;
+        private final double south;
+        private final double east;
+        private final double north;
+        // 줌별 타일 범위 (인덱스 0 = minZoom)
+        private final int[] minX;
+        private final int[] maxX;
+        private final int[] minY;
+        private final int[] maxY;
+
+        Shard(String fileName, int minZoom, int maxZoom, double west, double south, double east, double north) {
+            this.fileName = fileName;
+            this.minZoom = minZoom;
+            this.maxZoom = maxZoom;
+            this.west = west;
+            this.south = south;
+            this.east = east;
+            this.north = north;
+            int zooms = maxZoom - minZoom + 1;
+            minX = new int[zooms];
+            maxX = new int[zooms];
+            minY = new int[zooms];
+            maxY = new int[zooms];
+            for (int i = 0; i < zooms; i++) {
+                int zoom = minZoom + i;
+                minX[i] = TileMath.clampTile((int) Math.floor(TileMath.longitudeToTileX(west, zoom)), zoom);
+                maxX[i] = TileMath.clampTile((int) Math.ceil(TileMath.longitudeToTileX(east, zoom)) - 1, zoom);
+                minY[i] = TileMath.clampTile((int) Math.floor(TileMath.latitudeToTileY(north, zoom)), zoom);
+                maxY[i] = TileMath.clampTile((int) Math.ceil(TileMath.latitudeToTileY(south, zoom)) - 1, zoom);
+            }
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getMinZoom() {
+            return minZoom;
+        }
+
+        public int getMaxZoom() {
+            return maxZoom;
+        }
+
+        /**
+         * 타일이 이 샤드의 경계 상자와 줌 범위 안에 있는지 확인합니다.
+         */
+        public boolean contains(int zoom, int x, int y) {
+            if (zoom < minZoom || zoom > maxZoom) {
+                return false;
+            }
+            int i = zoom - minZoom;
+            return x >= minX[i] && x <= maxX[i] && y >= minY[i] && y <= maxY[i];
+        }
+
+        /**
+         * 주어진 줌에서 이 샤드가 덮는 타일 범위를 반환합니다.
+         *
+         * @param out 결과 {minX, maxX, minY, maxY}
+         * @return 줌 범위 밖이면 false
+         */
+        public boolean getTileRange(int zoom, int[] out) {
+            if (zoom < minZoom || zoom > maxZoom) {
+                return false;
+            }
+            int i = zoom - minZoom;
+            out[0] = minX[i];
+            out[1] = maxX[i];
+            out[2] = minY[i];
+            out[3] = maxY[i];
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s z%d-%d [%.4f,%.4f,%.4f,%.4f]",
+                    fileName, minZoom, maxZoom, west, south, east, north);
+        }
+    }
+
+    private static final int MAX_ZOOM = 22;
+    private static final int[] NO_SHARDS = new int[0];
+
+    private final List<Shard> shards;
+    private final Map<String, String> metadata;
+    /** 줌별로 그 줌을 포함하는 샤드 번호 (우선순위 순) */
+    private final int[][] shardsByZoom = new int[MAX_ZOOM + 1][];
+
+    private ShardIndex(List<Shard> shards, Map<String, String> metadata) {
+        this.shards = Collections.unmodifiableList(shards);
+        this.metadata = metadata;
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            int[] ids = new int[shards.size()];
+            int count = 0;
+            for (int i = 0; i < shards.size(); i++) {
+                Shard shard = shards.get(i);
+                if (zoom >= shard.minZoom && zoom <= shard.maxZoom) {
+                    ids[count++] = i;
+                }
+            }
+            shardsByZoom[zoom] = count > 0 ? Arrays.copyOf(ids, count) : NO_SHARDS;
+        }
+    }
+
+    /**
+     * 색인 파일을 읽습니다.
+     *
+     * @param reader 색인 텍스트
+     * @return 색인
+     * @throws IOException 읽기 실패 또는 형식 오류 (줄 번호 포함)
+     */
+    public static ShardIndex read(Reader reader) throws IOException {
+        List<Shard> shards = new ArrayList<>();
+        Map<String, String> metadata = new HashMap<>();
+        BufferedReader in = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            int separator = line.indexOf('=');
+            if (fields.length == 1 && separator > 0) {
+                metadata.put(line.substring(0, separator), line.substring(separator + 1));
+                continue;
+            }
+            try {
+                if (fields.length != 7) {
+                    throw new IllegalArgumentException("expected 7 fields");
+                }
+                int minZoom = Integer.parseInt(fields[1]);
+                int maxZoom = Integer.parseInt(fields[2]);
+                double west = Double.parseDouble(fields[3]);
+                double south = Double.parseDouble(fields[4]);
+                double east = Double.parseDouble(fields[5]);
+                double north = Double.parseDouble(fields[6]);
+                if (minZoom < 0 || maxZoom > MAX_ZOOM || minZoom > maxZoom || west >= east || south >= north) {
+                    throw new IllegalArgumentException("invalid zoom range or bounding box");
+                }
+                shards.add(new Shard(fields[0], minZoom, maxZoom, west, south, east, north));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid shard index line " + lineNumber + ": " + line, e);
+            }
+        }
+        return new ShardIndex(shards, metadata);
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * 색인 파일에 적힌 메타데이터 값을 반환합니다.
+     *
+     * @return 값, 없으면 null
+     */
+    public String getMetadata(String name) {
+        return metadata.get(name);
+    }
+
+    /**
+     * 타일을 담고 있는 샤드 번호를 찾습니다.
+     *
+     * @return 샤드 번호, 없으면 -1
+     */
+    public int find(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            return -1;
+        }
+        for (int id : shardsByZoom[zoom]) {
+            if (shards.get(id).contains(zoom, x, y)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 주어진 줌에서 타일 범위와 겹치는 샤드 번호를 우선순위 순으로 반환합니다.
+     *
+     * @param out 결과를 담을 배열 (샤드 수 이상의 크기)
+     * @return 결과 개수
+     */
+    public int findIntersecting(int zoom, int minX, int maxX, int minY, int maxY, int[] out) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            return 0;
+        }
+        int count = 0;
+        int[] range = new int[4];
+        for (int id : shardsByZoom[zoom]) {
+            shards.get(id).getTileRange(zoom, range);
+            if (range[0] <= maxX && range[1] >= minX && range[2] <= maxY && range[3] >= minY) {
+                out[count++] = id;
+            }
+        }
+        return count;
+    }
+}
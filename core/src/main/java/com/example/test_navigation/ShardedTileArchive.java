@@ -0,0 +1,279 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ShardedTileArchive 클래스는 지역별 샤드 아카이브 여러 개를 {@link ShardIndex}로 묶어 하나의
+ * {@link TileArchive}처럼 제공하는 클래스입니다.
+ * 샤드는 처음 요청된 타일이 그 샤드에 속할 때 열리므로 시작 시에는 어떤 파일도 열지 않습니다.
+ * 열린 샤드 수가 예산을 넘으면 사용 중이지 않은 샤드 중 가장 오래전에 쓴 것부터 닫습니다.
+ * 샤드 파일은 {@link #refreshShard(String)}로 하나씩 교체할 수 있습니다.
+ */
+public class ShardedTileArchive implements TileArchive {
+
+    /**
+     * 샤드 파일을 아카이브로 여는 함수입니다. (예: MBTiles 또는 타일 팩)
+     */
+    public interface Opener {
+        TileArchive open(File file) throws IOException;
+    }
+
+    /** 샤드 하나의 열림 상태. 필드 변경은 slot 잠금 안에서만 합니다. */
+    private static final class Slot {
+        volatile TileArchive archive;
+        volatile int users;
+        volatile long lastUsed;
+        boolean failed;
+        /** 파일이 교체되어 반환되는 즉시 닫아야 하는 경우 */
+        boolean stale;
+    }
+
+    private final File indexFile;
+    private final File baseDir;
+    private final ShardIndex index;
+    private final Opener opener;
+    private final int maxOpenShards;
+    private final Slot[] slots;
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong opens = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param indexFile 색인 파일 ({@link #getFile()}로 반환됩니다)
+     * @param index 읽어 둔 색인
+     * @param baseDir 샤드 파일이 있는 디렉토리
+     * @param maxOpenShards 동시에 열어 둘 최대 샤드 수 (파일 핸들 예산)
+     * @param opener 샤드를 여는 함수
+     */
+    public ShardedTileArchive(File indexFile, ShardIndex index, File baseDir, int maxOpenShards, Opener opener) {
+        this.indexFile = indexFile;
+        this.index = index;
+        this.baseDir = baseDir;
+        this.opener = opener;
+        this.maxOpenShards = Math.max(1, maxOpenShards);
+        this.slots = new Slot[index.getShards().size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public ShardIndex getIndex() {
+        return index;
+    }
+
+    /** 현재 열려 있는 샤드 수 */
+    public int getOpenShardCount() {
+        return openCount.get();
+    }
+
+    /** 지금까지 샤드를 연 횟수 (다시 연 경우 포함) */
+    public long getOpenedTotal() {
+        return opens.get();
+    }
+
+    /**
+     * 샤드를 사용 표시하고 반환합니다. 열려 있지 않으면 엽니다.
+     * 반환된 아카이브는 {@link #release(int)}를 호출할 때까지 닫히지 않습니다.
+     *
+     * @return 아카이브, 열 수 없으면 null
+     */
+    private TileArchive acquire(int shard) {
+        Slot slot = slots[shard];
+        TileArchive archive;
+        synchronized (slot) {
+            if (closed || slot.failed) {
+                return null;
+            }
+            archive = slot.archive;
+            if (archive == null) {
+                File file = new File(baseDir, index.getShards().get(shard).getFileName());
+                long start = Telemetry.start();
+                try {
+                    archive = opener.open(file);
+                } catch (IOException | RuntimeException e) {
+                    // 없는 샤드는 refreshShard가 호출될 때까지 다시 시도하지 않습니다.
+                    slot.failed = true;
+                    return null;
+                } finally {
+                    Telemetry.stop(Telemetry.SHARD_OPEN, start);
+                }
+                slot.archive = archive;
+                openCount.incrementAndGet();
+                opens.incrementAndGet();
+            }
+            slot.users++;
+            slot.lastUsed = clock.incrementAndGet();
+        }
+        trim();
+        return archive;
+    }
+
+    private void release(int shard) {
+        Slot slot = slots[shard];
+        boolean stale;
+        synchronized (slot) {
+            slot.users--;
+            stale = slot.stale;
+        }
+        if (closed || stale) {
+            closeIdle(slot);
+        } else {
+            trim();
+        }
+    }
+
+    /** 열린 샤드가 예산을 넘는 동안 사용 중이지 않은 가장 오래된 샤드를 닫습니다. */
+    private void trim() {
+        for (int attempt = 0; attempt < slots.length && openCount.get() > maxOpenShards; attempt++) {
+            Slot victim = null;
+            for (Slot slot : slots) {
+                if (slot.archive != null && slot.users == 0
+                        && (victim == null || slot.lastUsed < victim.lastUsed)) {
+                    victim = slot;
+                }
+            }
+            if (victim == null) {
+                // 모두 사용 중이면 반환될 때 다시 정리합니다.
+                return;
+            }
+            closeIdle(victim);
+        }
+    }
+
+    private void closeIdle(Slot slot) {
+        TileArchive archive;
+        synchronized (slot) {
+            archive = slot.archive;
+            if (archive == null || slot.users > 0) {
+                return;
+            }
+            slot.archive = null;
+            slot.stale = false;
+            openCount.decrementAndGet();
+        }
+        archive.close();
+    }
+
+    /**
+     * 샤드 파일이 교체되었을 때 호출합니다. 열려 있던 핸들을 닫고(사용 중이면 반환되는 시점에)
+     * 열기 실패 표시를 지워 다음 요청에서 새 파일을 엽니다.
+     *
+     * @param fileName 색인에 적힌 샤드 파일 이름
+     * @return 색인에 있는 샤드이면 true
+     */
+    public boolean refreshShard(String fileName) {
+        for (int i = 0; i < slots.length; i++) {
+            if (index.getShards().get(i).getFileName().equals(fileName)) {
+                Slot slot = slots[i];
+                synchronized (slot) {
+                    slot.failed = false;
+                    slot.stale = slot.archive != null;
+                }
+                closeIdle(slot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public byte[] getTile(int zoom, int x, int y) {
+        int shard = index.find(zoom, x, y);
+        if (shard < 0) {
+            return null;
+        }
+        TileArchive archive = acquire(shard);
+        if (archive == null) {
+            return null;
+        }
+        try {
+            return archive.getTile(zoom, x, y);
+        } finally {
+            release(shard);
+        }
+    }
+
+    /**
+     * 범위와 겹치는 샤드마다 겹치는 부분만 읽어 전달합니다.
+     * 샤드가 서로 겹치는 곳의 타일은 {@link ShardIndex#find}가 고르는 샤드의 것만 전달합니다.
+     */
+    @Override
+    public int getTiles(int zoom, int minX, int maxX, int minY, int maxY, TileConsumer consumer) {
+        int[] shards = new int[slots.length];
+        int shardCount = index.findIntersecting(zoom, minX, maxX, minY, maxY, shards);
+        int[] range = new int[4];
+        int count = 0;
+        for (int i = 0; i < shardCount; i++) {
+            final int shard = shards[i];
+            index.getShards().get(shard).getTileRange(zoom, range);
+            TileArchive archive = acquire(shard);
+            if (archive == null) {
+                continue;
+            }
+            final int[] delivered = new int[1];
+            try {
+                archive.getTiles(zoom, Math.max(minX, range[0]), Math.min(maxX, range[1]),
+                        Math.max(minY, range[2]), Math.min(maxY, range[3]), (z, x, y, data) -> {
+                            if (shardCount == 1 || index.find(z, x, y) == shard) {
+                                consumer.onTile(z, x, y, data);
+                                delivered[0]++;
+                            }
+                        });
+            } finally {
+                release(shard);
+            }
+            count += delivered[0];
+        }
+        return count;
+    }
+
+    /**
+     * 색인 파일의 메타데이터를 먼저 확인하고, 없으면 첫 번째로 열 수 있는 샤드의 값을 반환합니다.
+     */
+    @Override
+    public String getMetadata(String name) {
+        String value = index.getMetadata(name);
+        if (value != null) {
+            return value;
+        }
+        for (int shard = 0; shard < slots.length; shard++) {
+            TileArchive archive = acquire(shard);
+            if (archive != null) {
+                try {
+                    return archive.getMetadata(name);
+                } finally {
+                    release(shard);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 샤드를 열지 않고 정해야 하므로 코어 수에 맞춰 2~4개로 정합니다.
+     */
+    @Override
+    public int getConnectionCount() {
+        return Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Override
+    public File getFile() {
+        return indexFile;
+    }
+
+    /**
+     * 열린 샤드를 모두 닫습니다. 사용 중인 샤드는 반환되는 시점에 닫힙니다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot : slots) {
+            closeIdle(slot);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.test_navigation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * StartupTrace 클래스는 앱 시작부터 첫 타일이 화면에 전달될 때까지의 단계별 시각을 기록하는 클래스입니다.
+ * {@link #begin()} 이후 각 단계 이름은 처음 한 번만 기록되며, 첫 타일까지의 시간은
+ * {@link Telemetry#STARTUP_FIRST_TILE}에도 기록됩니다.
+ *
+ * <pre>
+ * StartupTrace.begin();                       // onCreate 시작
+ * StartupTrace.mark(StartupTrace.ARCHIVE_OPENED);
+ * if (StartupTrace.markFirstTile()) Log.i(TAG, StartupTrace.report());
+ * </pre>
+ */
+public final class StartupTrace {
+
+    public static final String MAP_READY = "map.ready";
+    public static final String ARCHIVE_OPENED = "archive.opened";
+    public static final String PROVIDER_READY = "provider.ready";
+    public static final String FIRST_TILE = "tile.first";
+
+    private static final List<String> names = new ArrayList<>();
+    private static final List<Long> times = new ArrayList<>();
+    private static volatile long originNanos;
+    private static volatile boolean firstTileSeen = true;
+
+    private StartupTrace() {
+    }
+
+    /**
+     * 기록을 지우고 지금을 시작 시각으로 삼습니다.
+     */
+    public static synchronized void begin() {
+        names.clear();
+        times.clear();
+        originNanos = System.nanoTime();
+        firstTileSeen = false;
+    }
+
+    /**
+     * 단계를 기록합니다. {@link #begin()} 전이거나 이미 기록된 이름이면 무시합니다.
+     *
+     * @param name 단계 이름
+     * @return 새로 기록했으면 true
+     */
+    public static synchronized boolean mark(String name) {
+        if (originNanos == 0L || names.contains(name)) {
+            return false;
+        }
+        names.add(name);
+        times.add(System.nanoTime() - originNanos);
+        return true;
+    }
+
+    /**
+     * 첫 타일 전달을 기록합니다. 타일마다 호출해도 되며, 두 번째부터는 volatile 읽기 한 번으로 끝납니다.
+     *
+     * @return 이번 호출이 첫 타일이면 true
+     */
+    public static boolean markFirstTile() {
+        if (firstTileSeen) {
+            return false;
+        }
+        synchronized (StartupTrace.class) {
+            if (firstTileSeen || !mark(FIRST_TILE)) {
+                return false;
+            }
+            firstTileSeen = true;
+            Telemetry.record(Telemetry.STARTUP_FIRST_TILE, times.get(times.size() - 1));
+            return true;
+        }
+    }
+
+    /**
+     * 기록된 단계의 시작 후 경과 시간 (나노초)을 반환합니다.
+     *
+     * @return 기록되지 않았으면 -1
+     */
+    public static synchronized long elapsedNanos(String name) {
+        int i = names.indexOf(name);
+        return i < 0 ? -1L : times.get(i);
+    }
+
+    /**
+     * 기록된 단계를 "startup 이름=ms ..." 한 줄로 반환합니다.
+     */
+    public static synchronized String report() {
+        StringBuilder sb = new StringBuilder("startup");
+        for (int i = 0; i < names.size(); i++) {
+            sb.append(' ').append(names.get(i)).append('=')
+                    .append(String.format(Locale.US, "%.1fms", times.get(i) / 1e6));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Telemetry 클래스는 앱의 성능 지표(타일 조회/디코딩 지연, 캐시 적중률, 프레임 간격,
+ * 위치 갱신이 화면에 반영되기까지의 지연, mbtiles 설치 시간)를 한곳에 모으는 레지스트리입니다.
+ *
+ * <p>꺼져 있으면 {@link #start()}가 0을 반환하고 나머지 호출은 그 값을 보고 바로 돌아가므로
+ * 비용은 volatile 읽기 한 번입니다. 측정 지점은 다음과 같이 사용합니다.</p>
+ * <pre>
+ * long start = Telemetry.start();
+ * ... 측정할 작업 ...
+ * Telemetry.stop(Telemetry.TILE_DECODE, start);
+ * </pre>
+ */
+public final class Telemetry {
+
+    /** MBTiles에서 타일 바이트를 읽는 SQL 한 번의 시간 (단건 또는 범위 쿼리) */
+    public static final LatencyHistogram TILE_LOOKUP = new LatencyHistogram("tile.lookup");
+    /** 타일 바이트를 비트맵으로 디코딩하는 시간 */
+    public static final LatencyHistogram TILE_DECODE = new LatencyHistogram("tile.decode");
+    /** 벡터 타일(MVT)을 비트맵으로 그리는 시간 (압축 해제와 디코딩 포함) */
+    public static final LatencyHistogram TILE_RASTERIZE = new LatencyHistogram("tile.rasterize");
+    /** 아카이브 최대 줌보다 큰 타일 하나를 상위 타일 비트맵에서 확대해 만드는 시간 */
+    public static final LatencyHistogram TILE_OVERZOOM = new LatencyHistogram("tile.overzoom");
+    /** 연속된 프레임 콜백 사이의 간격 */
+    public static final LatencyHistogram FRAME_INTERVAL = new LatencyHistogram("frame.interval");
+    /** 프레임 콜백 안에서 변경을 적용하는 데 걸린 시간 */
+    public static final LatencyHistogram FRAME_APPLY = new LatencyHistogram("frame.apply");
+    /** setUserLocation 호출부터 그 위치가 적용된 프레임까지의 시간 */
+    public static final LatencyHistogram LOCATION_TO_SCREEN = new LatencyHistogram("location.toScreen");
+    /** 공간 색인으로 전방 차량을 고르는 시간 */
+    public static final LatencyHistogram RV_FRONT_QUERY = new LatencyHistogram("rv.frontQuery");
+    /** 지도 델타 하나를 적용하는 시간 */
+    public static final LatencyHistogram MAP_UPDATE = new LatencyHistogram("map.update");
+    /** 지역 샤드 아카이브 하나를 여는 시간 */
+    public static final LatencyHistogram SHARD_OPEN = new LatencyHistogram("shard.open");
+    /** 도로 그래프에서 경로 하나를 찾는 시간 ({@link Router}) */
+    public static final LatencyHistogram ROUTE_QUERY = new LatencyHistogram("route.query");
+    /** 위치 하나를 도로에 맞추는 시간 ({@link MapMatcher}) */
+    public static final LatencyHistogram MAP_MATCH = new LatencyHistogram("match.fix");
+    /** 앱 시작부터 첫 타일이 전달될 때까지의 시간 ({@link StartupTrace}) */
+    public static final LatencyHistogram STARTUP_FIRST_TILE = new LatencyHistogram("startup.firstTile");
+
+    public static final AtomicLong TILE_CACHE_HITS = new AtomicLong();
+    public static final AtomicLong TILE_CACHE_MISSES = new AtomicLong();
+    /** 가벼운 회전 모드에서 지도를 다시 그리지 않고 뷰 변환으로만 적용한 회전/이동 수 */
+    public static final AtomicLong MAP_BUFFER_TRANSFORMS = new AtomicLong();
+    /** 가벼운 회전 모드에서 지도 버퍼를 다시 그린 수 */
+    public static final AtomicLong MAP_BUFFER_REBUILDS = new AtomicLong();
+    /** 확대 타일을 만들려고 상위 타일을 아카이브에서 읽어 디코딩한 수 */
+    public static final AtomicLong OVERZOOM_PARENT_DECODES = new AtomicLong();
+    /** 확대 타일을 디스크 캐시에서 읽은 수 */
+    public static final AtomicLong OVERZOOM_DISK_HITS = new AtomicLong();
+    /** 타일 요청 대기열에 지금 쌓여 있는 요청 수 */
+    public static final AtomicLong TILE_QUEUE_DEPTH = new AtomicLong();
+    /** 타일 요청 대기열이 가장 깊었을 때의 요청 수 */
+    public static final AtomicLong TILE_QUEUE_PEAK = new AtomicLong();
+    /** 화면을 벗어나 읽기 전에 버린 타일 요청 수 */
+    public static final AtomicLong TILE_REQUESTS_CANCELLED = new AtomicLong();
+    /** 읽었지만 디코딩 전에 화면을 벗어나 버린 타일 수 */
+    public static final AtomicLong TILE_WASTED_READS = new AtomicLong();
+    /** 디코딩했지만 그사이 화면을 벗어난 타일 수 */
+    public static final AtomicLong TILE_WASTED_DECODES = new AtomicLong();
+    /** 경로를 벗어나 다시 찾은 수 */
+    public static final AtomicLong ROUTE_REROUTES = new AtomicLong();
+    /** 지도 맞춤이 이어지지 못하고 새로 시작한 수 */
+    public static final AtomicLong MAP_MATCH_BREAKS = new AtomicLong();
+    /** 야간 지도용으로 색을 바꾼 타일 비트맵을 만든 수 */
+    public static final AtomicLong NIGHT_TILE_RECOLORS = new AtomicLong();
+    /** 야간 지도에서 색을 바꿔 둔 비트맵으로 그린 타일 수 */
+    public static final AtomicLong NIGHT_TILE_CACHED_DRAWS = new AtomicLong();
+    /** 야간 지도에서 그릴 때 색 필터를 적용한 타일 수 */
+    public static final AtomicLong NIGHT_TILE_FILTERED_DRAWS = new AtomicLong();
+
+    private static final LatencyHistogram[] HISTOGRAMS = {
+            TILE_LOOKUP, TILE_DECODE, TILE_RASTERIZE, TILE_OVERZOOM, FRAME_INTERVAL, FRAME_APPLY, LOCATION_TO_SCREEN,
+            RV_FRONT_QUERY, MAP_UPDATE, SHARD_OPEN, ROUTE_QUERY, MAP_MATCH, STARTUP_FIRST_TILE
+    };
+
+    private static volatile boolean enabled;
+
+    private Telemetry() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 측정을 켜거나 끕니다.
+     *
+     * @param on true면 기록
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * 측정 시작 시각을 반환합니다.
+     *
+     * @return 현재 시각 (나노초), 꺼져 있으면 0
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * {@link #start()}부터 지금까지의 시간을 기록합니다. start가 0이면 아무것도 하지 않습니다.
+     *
+     * @param histogram 기록할 히스토그램
+     * @param startNanos {@link #start()}의 반환값
+     */
+    public static void stop(LatencyHistogram histogram, long startNanos) {
+        if (startNanos != 0L) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 이미 잰 시간을 기록합니다.
+     *
+     * @param histogram 기록할 히스토그램
+     * @param nanos 시간 (나노초)
+     */
+    public static void record(LatencyHistogram histogram, long nanos) {
+        if (enabled) {
+            histogram.record(nanos);
+        }
+    }
+
+    /**
+     * 카운터를 증가시킵니다.
+     *
+     * @param counter 증가시킬 카운터
+     */
+    public static void increment(AtomicLong counter) {
+        if (enabled) {
+            counter.incrementAndGet();
+        }
+    }
+
+    /**
+     * 현재 값을 나타내는 지표를 바꾸고 최댓값 지표를 갱신합니다.
+     *
+     * @param gauge 현재 값 지표
+     * @param peak 최댓값 지표
+     * @param value 현재 값
+     */
+    public static void gauge(AtomicLong gauge, AtomicLong peak, long value) {
+        if (enabled) {
+            gauge.set(value);
+            peak.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * 모든 지표를 지웁니다.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        TILE_CACHE_HITS.set(0);
+        TILE_CACHE_MISSES.set(0);
+        MAP_BUFFER_TRANSFORMS.set(0);
+        MAP_BUFFER_REBUILDS.set(0);
+        OVERZOOM_PARENT_DECODES.set(0);
+        OVERZOOM_DISK_HITS.set(0);
+        TILE_QUEUE_DEPTH.set(0);
+        TILE_QUEUE_PEAK.set(0);
+        TILE_REQUESTS_CANCELLED.set(0);
+        TILE_WASTED_READS.set(0);
+        TILE_WASTED_DECODES.set(0);
+        ROUTE_REROUTES.set(0);
+        MAP_MATCH_BREAKS.set(0);
+        NIGHT_TILE_RECOLORS.set(0);
+        NIGHT_TILE_CACHED_DRAWS.set(0);
+        NIGHT_TILE_FILTERED_DRAWS.set(0);
+    }
+
+    /**
+     * 현재 지표를 사람이 읽을 수 있는 여러 줄 문자열로 반환합니다.
+     *
+     * @return 지표 보고서
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("telemetry enabled=").append(enabled).append('\n');
+        long hits = TILE_CACHE_HITS.get();
+        long misses = TILE_CACHE_MISSES.get();
+        long lookups = hits + misses;
+        sb.append(String.format(Locale.US, "tile.cache hits=%d misses=%d hitRate=%.1f%%%n",
+                hits, misses, lookups > 0 ? 100.0 * hits / lookups : 0.0));
+        sb.append(String.format(Locale.US, "map.buffer transforms=%d rebuilds=%d%n",
+                MAP_BUFFER_TRANSFORMS.get(), MAP_BUFFER_REBUILDS.get()));
+        sb.append(String.format(Locale.US, "tile.overzoom parentDecodes=%d diskHits=%d%n",
+                OVERZOOM_PARENT_DECODES.get(), OVERZOOM_DISK_HITS.get()));
+        sb.append(String.format(Locale.US, "tile.queue depth=%d peak=%d cancelled=%d wastedReads=%d wastedDecodes=%d%n",
+                TILE_QUEUE_DEPTH.get(), TILE_QUEUE_PEAK.get(), TILE_REQUESTS_CANCELLED.get(),
+                TILE_WASTED_READS.get(), TILE_WASTED_DECODES.get()));
+        sb.append(String.format(Locale.US, "route reroutes=%d%n", ROUTE_REROUTES.get()));
+        sb.append(String.format(Locale.US, "match breaks=%d%n", MAP_MATCH_BREAKS.get()));
+        sb.append(String.format(Locale.US, "tile.night recolors=%d cachedDraws=%d filteredDraws=%d%n",
+                NIGHT_TILE_RECOLORS.get(), NIGHT_TILE_CACHED_DRAWS.get(), NIGHT_TILE_FILTERED_DRAWS.get()));
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            sb.append(histogram.summary()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 현재 지표를 파일에 씁니다. 파일이 있으면 덮어씁니다.
+     *
+     * @param file 출력 파일
+     * @throws IOException 쓰기에 실패한 경우
+     */
+    public static void writeReport(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(report());
+        }
+    }
+}
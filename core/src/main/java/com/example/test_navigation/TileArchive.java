@@ -0,0 +1,51 @@
+package com.example.test_navigation;
+
+import java.io.Closeable;
+import java.io.File;
+
+/**
+ * TileArchive 인터페이스는 타일 모듈이 타일 바이트를 읽어오는 읽기 전용 저장소입니다.
+ * SQLite 기반 MBTiles와 메모리 매핑 타일 팩({@link TilePackReader})이 같은 경로로 사용됩니다.
+ * 좌표는 모두 XYZ 규칙이며, 구현체는 여러 스레드에서 동시에 호출할 수 있어야 합니다.
+ */
+public interface TileArchive extends Closeable {
+
+    /**
+     * 범위 읽기 결과를 한 타일씩 전달받는 콜백입니다.
+     */
+    interface TileConsumer {
+        void onTile(int zoom, int x, int y, byte[] data);
+    }
+
+    /**
+     * 타일 하나를 읽어옵니다.
+     *
+     * @return 타일 바이트, 없으면 null
+     */
+    byte[] getTile(int zoom, int x, int y);
+
+    /**
+     * 사각형 타일 범위를 읽어 있는 타일만 consumer에 전달합니다.
+     *
+     * @return 전달된 타일 수
+     */
+    int getTiles(int zoom, int minX, int maxX, int minY, int maxY, TileConsumer consumer);
+
+    /**
+     * 메타데이터 값을 읽어옵니다.
+     *
+     * @param name 메타데이터 이름 (예: "minzoom", "format")
+     * @return 값, 없으면 null
+     */
+    String getMetadata(String name);
+
+    /**
+     * 동시에 실행할 수 있는 읽기 수입니다. 타일 모듈의 로더 스레드 수로 사용됩니다.
+     */
+    int getConnectionCount();
+
+    File getFile();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,65 @@
+package com.example.test_navigation;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * TileDelta 클래스는 설치된 지도 데이터를 한 버전에서 다음 버전으로 바꾸는 타일 단위 델타 파일 형식의 상수를 모은 클래스입니다.
+ * 델타에는 추가, 변경, 삭제된 타일만 들어 있고, 각 항목은 타일 내용의 SHA-256 해시로 식별됩니다.
+ * 적용할 때 설치된 타일의 해시를 비교하므로 다른 기반 버전에 잘못 적용되는 일이 없고,
+ * 이미 적용된 항목은 건너뛰어 중단된 적용을 이어서 할 수 있습니다.
+ *
+ * <p>파일 구조 (빅 엔디언, {@link java.io.DataOutputStream}):</p>
+ * <pre>
+ * magic(int) version(int) baseVersion(UTF) targetVersion(UTF)
+ * 항목 × n: op(byte) zoom(byte) x(int) y(int) [oldHash(32)] [newHash(32) length(int) data]
+ *   ADD    : newHash, data
+ *   CHANGE : oldHash, newHash, data
+ *   REMOVE : oldHash
+ * END(byte 0) entryCount(long) sha256(32)   — sha256은 그 앞의 모든 바이트의 해시
+ * </pre>
+ * <p>항목을 순서대로 읽으며 적용하므로 메모리 사용량은 타일 하나 크기로 제한됩니다.</p>
+ */
+public final class TileDelta {
+
+    /** 델타 파일 확장자 */
+    public static final String FILE_EXTENSION = ".tiledelta";
+
+    /** "TDLT" */
+    static final int MAGIC = 0x54444C54;
+    static final int VERSION = 1;
+
+    static final byte OP_END = 0;
+    public static final byte OP_ADD = 1;
+    public static final byte OP_CHANGE = 2;
+    public static final byte OP_REMOVE = 3;
+
+    /** 해시 길이 (SHA-256) */
+    public static final int HASH_LENGTH = 32;
+
+    private TileDelta() {
+    }
+
+    /**
+     * SHA-256 다이제스트를 생성합니다.
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 타일 데이터의 해시를 계산합니다.
+     *
+     * @param digest 재사용할 다이제스트
+     * @param data 타일 데이터
+     * @return 해시 ({@value #HASH_LENGTH}바이트)
+     */
+    static byte[] hash(MessageDigest digest, byte[] data) {
+        digest.reset();
+        return digest.digest(data);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * TileDeltaApplier 클래스는 {@link TileDelta} 파일을 설치된 타일 저장소에 그 자리에서 적용하는 클래스입니다.
+ *
+ * <ul>
+ *     <li>먼저 델타 파일 전체의 해시를 검사하여 손상되거나 덜 받은 파일은 아무것도 바꾸지 않고 거부합니다.</li>
+ *     <li>저장소의 {@code version} 메타데이터가 델타의 기반 버전과 같아야 합니다.</li>
+ *     <li>항목을 스트림으로 읽으며 {@code batchSize}개마다 진행 위치와 함께 한 트랜잭션으로 커밋합니다.
+ *     중단되면 마지막 커밋 이후만 되돌려지고, 다시 호출하면 기록된 위치부터 이어서 적용합니다.
+ *     {@link Integer#MAX_VALUE}를 주면 전체가 한 트랜잭션입니다.</li>
+ *     <li>버전 메타데이터는 마지막 트랜잭션에서 대상 버전으로 바뀝니다.</li>
+ * </ul>
+ */
+public final class TileDeltaApplier {
+
+    /** 적용 중인 델타의 진행 위치 ("대상버전:다음항목번호") */
+    public static final String METADATA_PROGRESS = "delta.progress";
+    public static final int DEFAULT_BATCH_SIZE = 2000;
+
+    private TileDeltaApplier() {
+    }
+
+    /**
+     * 델타를 적용합니다.
+     *
+     * @param deltaFile 델타 파일
+     * @param store 설치된 타일 저장소
+     * @param batchSize 한 트랜잭션에서 처리할 항목 수
+     * @return 이번 호출에서 실제로 바뀐 타일 수 (이미 적용된 델타면 0)
+     * @throws IOException 델타가 손상되었거나, 설치된 버전 또는 타일이 델타의 기반과 맞지 않는 경우
+     */
+    public static long apply(File deltaFile, WritableTileStore store, int batchSize) throws IOException {
+        TileDeltaReader.verify(deltaFile);
+        try (TileDeltaReader reader = new TileDeltaReader(deltaFile)) {
+            String baseVersion = reader.getBaseVersion();
+            String targetVersion = reader.getTargetVersion();
+            String installed = store.getMetadata(MBTilesSchema.METADATA_VERSION);
+            String progress = store.getMetadata(METADATA_PROGRESS);
+            String progressPrefix = targetVersion + ":";
+
+            long resumeFrom = 0;
+            if (progress != null && progress.startsWith(progressPrefix)) {
+                resumeFrom = Long.parseLong(progress.substring(progressPrefix.length()));
+            } else if (targetVersion.equals(installed)) {
+                return 0;
+            } else if (!baseVersion.equals(installed)) {
+                throw new IOException("Delta " + baseVersion + " -> " + targetVersion
+                        + " does not apply to installed version " + installed);
+            }
+
+            MessageDigest digest = TileDelta.newDigest();
+            long changed = 0;
+            int inBatch = 0;
+            store.beginTransaction();
+            try {
+                while (reader.next()) {
+                    long index = reader.getEntryIndex();
+                    if (index < resumeFrom) {
+                        continue;
+                    }
+                    if (applyEntry(reader, store, digest)) {
+                        changed++;
+                    }
+                    if (++inBatch >= batchSize) {
+                        store.putMetadata(METADATA_PROGRESS, progressPrefix + (index + 1));
+                        store.commit();
+                        store.beginTransaction();
+                        inBatch = 0;
+                    }
+                }
+                store.putMetadata(MBTilesSchema.METADATA_VERSION, targetVersion);
+                store.putMetadata(METADATA_PROGRESS, null);
+                store.commit();
+            } catch (IOException | RuntimeException e) {
+                store.rollback();
+                throw e;
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * 항목 하나를 적용합니다. 저장소가 이미 새 상태이면 건너뜁니다.
+     *
+     * @return 저장소를 바꿨으면 true
+     */
+    private static boolean applyEntry(TileDeltaReader reader, WritableTileStore store, MessageDigest digest)
+            throws IOException {
+        int zoom = reader.getZoom();
+        int x = reader.getX();
+        int y = reader.getY();
+        byte[] current = store.getTile(zoom, x, y);
+        byte[] currentHash = current != null ? TileDelta.hash(digest, current) : null;
+        byte op = reader.getOp();
+        if (op == TileDelta.OP_REMOVE) {
+            if (current == null) {
+                return false;
+            }
+            checkBase(currentHash, reader.getOldHash(), zoom, x, y);
+            store.deleteTile(zoom, x, y);
+            return true;
+        }
+        if (currentHash != null && Arrays.equals(currentHash, reader.getNewHash())) {
+            return false;
+        }
+        if (op == TileDelta.OP_CHANGE) {
+            checkBase(currentHash, reader.getOldHash(), zoom, x, y);
+        } else if (current != null) {
+            throw new IOException("Tile " + zoom + "/" + x + "/" + y + " already exists; delta expects it absent");
+        }
+        store.putTile(zoom, x, y, reader.getData());
+        return true;
+    }
+
+    private static void checkBase(byte[] currentHash, byte[] expectedHash, int zoom, int x, int y) throws IOException {
+        if (currentHash == null || !Arrays.equals(currentHash, expectedHash)) {
+            throw new IOException("Tile " + zoom + "/" + x + "/" + y + " does not match the delta base");
+        }
+    }
+}
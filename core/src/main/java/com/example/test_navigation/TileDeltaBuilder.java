@@ -0,0 +1,114 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * TileDeltaBuilder 클래스는 두 버전의 MBTiles 파일을 비교하여 {@link TileDelta} 파일을 만드는 명령줄 도구입니다.
+ * 두 파일을 타일 좌표 순으로 동시에 훑는 병합 비교이므로 파일 크기와 관계없이 타일 두 개 분량의 메모리만 사용합니다.
+ * 각 파일의 metadata {@code version} 값이 델타의 기반/대상 버전이 됩니다.
+ *
+ * <pre>
+ * ./gradlew :core:buildTileDelta -Pbase=v1.mbtiles -Ptarget=v2.mbtiles -Pout=v1-v2.tiledelta
+ * </pre>
+ */
+public final class TileDeltaBuilder {
+
+    private TileDeltaBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 3) {
+            System.err.println("Usage: TileDeltaBuilder <base.mbtiles> <target.mbtiles> <out" + TileDelta.FILE_EXTENSION + ">");
+            System.exit(2);
+        }
+        File out = new File(args[2]);
+        long start = System.nanoTime();
+        long entries = build(new File(args[0]), new File(args[1]), out);
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        System.out.println("Wrote " + entries + " delta entries in " + millis + " ms: " + out.length() + " bytes");
+    }
+
+    /**
+     * 기반 파일에서 대상 파일로 바뀐 타일만 담은 델타를 만듭니다.
+     *
+     * @param base 기반 버전 MBTiles
+     * @param target 대상 버전 MBTiles
+     * @param out 출력 델타 파일
+     * @return 델타 항목 수
+     * @throws IOException 버전 메타데이터가 없거나 쓰기에 실패한 경우
+     */
+    public static long build(File base, File target, File out) throws IOException, SQLException {
+        try (Connection baseDb = DriverManager.getConnection("jdbc:sqlite:" + base.getAbsolutePath());
+             Connection targetDb = DriverManager.getConnection("jdbc:sqlite:" + target.getAbsolutePath());
+             Statement baseQuery = baseDb.createStatement();
+             Statement targetQuery = targetDb.createStatement()) {
+            String baseVersion = readVersion(baseDb, base);
+            String targetVersion = readVersion(targetDb, target);
+            if (baseVersion.equals(targetVersion)) {
+                throw new IOException("Base and target have the same version: " + baseVersion);
+            }
+
+            try (ResultSet from = baseQuery.executeQuery(MBTilesSchema.SQL_ALL_TILES_ORDERED);
+                 ResultSet to = targetQuery.executeQuery(MBTilesSchema.SQL_ALL_TILES_ORDERED);
+                 TileDeltaWriter writer = new TileDeltaWriter(out, baseVersion, targetVersion)) {
+                boolean hasFrom = from.next();
+                boolean hasTo = to.next();
+                while (hasFrom || hasTo) {
+                    int order = !hasFrom ? 1 : !hasTo ? -1 : compareKeys(from, to);
+                    if (order < 0) {
+                        int zoom = from.getInt(1);
+                        writer.remove(zoom, from.getInt(2), MBTilesSchema.flipY(zoom, from.getInt(3)), from.getBytes(4));
+                        hasFrom = from.next();
+                    } else if (order > 0) {
+                        int zoom = to.getInt(1);
+                        writer.add(zoom, to.getInt(2), MBTilesSchema.flipY(zoom, to.getInt(3)), to.getBytes(4));
+                        hasTo = to.next();
+                    } else {
+                        byte[] oldData = from.getBytes(4);
+                        byte[] newData = to.getBytes(4);
+                        if (!Arrays.equals(oldData, newData)) {
+                            int zoom = to.getInt(1);
+                            writer.change(zoom, to.getInt(2), MBTilesSchema.flipY(zoom, to.getInt(3)), oldData, newData);
+                        }
+                        hasFrom = from.next();
+                        hasTo = to.next();
+                    }
+                }
+                writer.finish();
+                return writer.getEntryCount();
+            }
+        }
+    }
+
+    private static String readVersion(Connection db, File file) throws SQLException, IOException {
+        try (PreparedStatement statement = db.prepareStatement(MBTilesSchema.SQL_METADATA)) {
+            statement.setString(1, MBTilesSchema.METADATA_VERSION);
+            try (ResultSet rs = statement.executeQuery()) {
+                String version = rs.next() ? rs.getString(1) : null;
+                if (version == null || version.isEmpty()) {
+                    throw new IOException("No '" + MBTilesSchema.METADATA_VERSION + "' metadata: " + file);
+                }
+                return version;
+            }
+        }
+    }
+
+    /** 두 결과의 현재 행을 (zoom_level, tile_column, tile_row) 순으로 비교합니다. */
+    private static int compareKeys(ResultSet a, ResultSet b) throws SQLException {
+        for (int column = 1; column <= 3; column++) {
+            int order = Integer.compare(a.getInt(column), b.getInt(column));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.test_navigation;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * TileDeltaReader 클래스는 {@link TileDelta} 파일을 앞에서부터 한 항목씩 읽는 커서입니다.
+ * 현재 항목의 데이터만 메모리에 두며, 끝까지 읽으면 항목 수와 파일 해시를 검사합니다.
+ *
+ * <pre>
+ * try (TileDeltaReader reader = new TileDeltaReader(file)) {
+ *     while (reader.next()) {
+ *         reader.getOp(); reader.getZoom(); reader.getData(); ...
+ *     }
+ * }
+ * </pre>
+ */
+public class TileDeltaReader implements Closeable {
+
+    /** 항목 하나의 최대 데이터 크기. 손상된 길이 값으로 큰 배열을 만들지 않도록 제한합니다. */
+    private static final int MAX_TILE_BYTES = 16 * 1024 * 1024;
+
+    private final MessageDigest fileDigest = TileDelta.newDigest();
+    private final DigestInputStream digestIn;
+    private final DataInputStream in;
+    private final String baseVersion;
+    private final String targetVersion;
+    private final byte[] oldHash = new byte[TileDelta.HASH_LENGTH];
+    private final byte[] newHash = new byte[TileDelta.HASH_LENGTH];
+    private long entryIndex = -1;
+    private boolean ended;
+
+    private byte op;
+    private int zoom;
+    private int x;
+    private int y;
+    private byte[] data;
+
+    /**
+     * 파일을 열고 헤더를 읽습니다.
+     *
+     * @throws IOException 파일을 읽을 수 없거나 델타 파일이 아닌 경우
+     */
+    public TileDeltaReader(File file) throws IOException {
+        digestIn = new DigestInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024), fileDigest);
+        in = new DataInputStream(digestIn);
+        try {
+            if (in.readInt() != TileDelta.MAGIC) {
+                throw new IOException("Not a tile delta: " + file);
+            }
+            int version = in.readInt();
+            if (version != TileDelta.VERSION) {
+                throw new IOException("Unsupported tile delta version " + version + ": " + file);
+            }
+            baseVersion = in.readUTF();
+            targetVersion = in.readUTF();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 파일 전체를 읽어 항목 수와 해시를 검사합니다. 적용 전에 호출하여 손상되거나 덜 받은 델타를 걸러냅니다.
+     *
+     * @return 항목 수
+     * @throws IOException 손상된 파일
+     */
+    public static long verify(File file) throws IOException {
+        try (TileDeltaReader reader = new TileDeltaReader(file)) {
+            while (reader.next()) {
+                // 끝까지 읽기만 합니다.
+            }
+            return reader.getEntryIndex();
+        }
+    }
+
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    public String getTargetVersion() {
+        return targetVersion;
+    }
+
+    /**
+     * 다음 항목으로 이동합니다.
+     *
+     * @return 항목이 있으면 true, 끝이면 false
+     * @throws IOException 파일이 잘렸거나 끝의 검사에 실패한 경우
+     */
+    public boolean next() throws IOException {
+        if (ended) {
+            return false;
+        }
+        op = in.readByte();
+        if (op == TileDelta.OP_END) {
+            readTrailer();
+            ended = true;
+            entryIndex++;
+            return false;
+        }
+        if (op != TileDelta.OP_ADD && op != TileDelta.OP_CHANGE && op != TileDelta.OP_REMOVE) {
+            throw new IOException("Invalid tile delta operation " + op + " at entry " + (entryIndex + 1));
+        }
+        zoom = in.readUnsignedByte();
+        x = in.readInt();
+        y = in.readInt();
+        if (op != TileDelta.OP_ADD) {
+            in.readFully(oldHash);
+        }
+        data = null;
+        if (op != TileDelta.OP_REMOVE) {
+            in.readFully(newHash);
+            int length = in.readInt();
+            if (length < 0 || length > MAX_TILE_BYTES) {
+                throw new IOException("Invalid tile length " + length + " at entry " + (entryIndex + 1));
+            }
+            data = new byte[length];
+            in.readFully(data);
+        }
+        entryIndex++;
+        return true;
+    }
+
+    private void readTrailer() throws IOException {
+        long count = in.readLong();
+        byte[] expected = fileDigest.digest();
+        digestIn.on(false);
+        byte[] checksum = new byte[TileDelta.HASH_LENGTH];
+        in.readFully(checksum);
+        if (count != entryIndex + 1) {
+            throw new IOException("Tile delta entry count mismatch: " + (entryIndex + 1) + " != " + count);
+        }
+        if (!Arrays.equals(expected, checksum)) {
+            throw new IOException("Tile delta checksum mismatch");
+        }
+    }
+
+    /**
+     * 현재 항목 번호 (0부터). 끝까지 읽은 뒤에는 항목 수입니다.
+     */
+    public long getEntryIndex() {
+        return entryIndex;
+    }
+
+    public byte getOp() {
+        return op;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    /** y 좌표 (XYZ) */
+    public int getY() {
+        return y;
+    }
+
+    /** 기반 버전 타일의 해시 (ADD에는 없음). 반환된 배열은 다음 항목에서 덮어씁니다. */
+    public byte[] getOldHash() {
+        return oldHash;
+    }
+
+    /** 새 타일의 해시 (REMOVE에는 없음). 반환된 배열은 다음 항목에서 덮어씁니다. */
+    public byte[] getNewHash() {
+        return newHash;
+    }
+
+    /** 새 타일 데이터, REMOVE이면 null */
+    public byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
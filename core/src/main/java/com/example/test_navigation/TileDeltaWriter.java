@@ -0,0 +1,103 @@
+package com.example.test_navigation;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+/**
+ * TileDeltaWriter 클래스는 {@link TileDelta} 형식의 델타 파일을 순서대로 써 나가는 클래스입니다.
+ * 항목은 쓰는 즉시 스트림으로 내보내므로 델타 전체를 메모리에 두지 않습니다.
+ */
+public class TileDeltaWriter implements Closeable {
+
+    private final MessageDigest fileDigest = TileDelta.newDigest();
+    private final MessageDigest tileDigest = TileDelta.newDigest();
+    private final DigestOutputStream digestOut;
+    private final DataOutputStream out;
+    private long entryCount;
+    private boolean finished;
+
+    /**
+     * @param file 출력 파일 (있으면 덮어씁니다)
+     * @param baseVersion 이 델타를 적용할 수 있는 지도 버전
+     * @param targetVersion 적용 후의 지도 버전
+     * @throws IOException 파일을 열 수 없는 경우
+     */
+    public TileDeltaWriter(File file, String baseVersion, String targetVersion) throws IOException {
+        digestOut = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024), fileDigest);
+        out = new DataOutputStream(digestOut);
+        out.writeInt(TileDelta.MAGIC);
+        out.writeInt(TileDelta.VERSION);
+        out.writeUTF(baseVersion);
+        out.writeUTF(targetVersion);
+    }
+
+    /** 기반 버전에 없던 타일을 추가합니다. */
+    public void add(int zoom, int x, int y, byte[] data) throws IOException {
+        writeKey(TileDelta.OP_ADD, zoom, x, y);
+        writeData(data);
+    }
+
+    /** 내용이 바뀐 타일을 기록합니다. */
+    public void change(int zoom, int x, int y, byte[] oldData, byte[] newData) throws IOException {
+        writeKey(TileDelta.OP_CHANGE, zoom, x, y);
+        out.write(TileDelta.hash(tileDigest, oldData));
+        writeData(newData);
+    }
+
+    /** 삭제된 타일을 기록합니다. */
+    public void remove(int zoom, int x, int y, byte[] oldData) throws IOException {
+        writeKey(TileDelta.OP_REMOVE, zoom, x, y);
+        out.write(TileDelta.hash(tileDigest, oldData));
+    }
+
+    private void writeKey(byte op, int zoom, int x, int y) throws IOException {
+        out.writeByte(op);
+        out.writeByte(zoom);
+        out.writeInt(x);
+        out.writeInt(y);
+        entryCount++;
+    }
+
+    private void writeData(byte[] data) throws IOException {
+        out.write(TileDelta.hash(tileDigest, data));
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * 끝 표시와 항목 수, 파일 해시를 씁니다.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        out.writeByte(TileDelta.OP_END);
+        out.writeLong(entryCount);
+        out.flush();
+        // 해시 자체는 해시 계산에 포함하지 않습니다.
+        byte[] checksum = fileDigest.digest();
+        digestOut.on(false);
+        out.write(checksum);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+}
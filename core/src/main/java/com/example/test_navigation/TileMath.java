@@ -0,0 +1,142 @@
+package com.example.test_navigation;
+
+/**
+ * TileMath 클래스는 위경도와 웹 메르카토르 타일 좌표(XYZ) 사이의 변환을 제공하는 유틸리티입니다.
+ * 결과는 소수점을 포함한 타일 좌표이며, 정수 부분이 타일 번호, 소수 부분이 타일 내부 위치입니다.
+ */
+public final class TileMath {
+
+    /** 웹 메르카토르에서 표현 가능한 최대 위도 */
+    public static final double MAX_LATITUDE = 85.05112877980659;
+
+    /** 위도 1도에 해당하는 거리 (미터) */
+    public static final double METERS_PER_DEGREE = 111320.0;
+
+    /** 줌 0, 적도에서 1픽셀(256px 타일 기준)이 나타내는 거리 (WGS84 적도 반경 기준, 미터) */
+    private static final double EQUATOR_METERS_PER_PIXEL = 6378137 * 2 * Math.PI / 256;
+
+    /** 코사인 표의 1도당 칸 수 */
+    private static final int COS_STEPS_PER_DEGREE = 4;
+    /** 0~90도 위도의 코사인 값 */
+    private static final double[] COS_TABLE = new double[90 * COS_STEPS_PER_DEGREE + 2];
+    /** 줌 레벨 소수 부분의 칸 수 */
+    private static final int ZOOM_FRACTION_STEPS = 256;
+    /** 2^-(i / ZOOM_FRACTION_STEPS) 값 */
+    private static final double[] INVERSE_POW2_TABLE = new double[ZOOM_FRACTION_STEPS + 1];
+
+    static {
+        for (int i = 0; i < COS_TABLE.length; i++) {
+            COS_TABLE[i] = Math.cos(Math.toRadians((double) i / COS_STEPS_PER_DEGREE));
+        }
+        for (int i = 0; i <= ZOOM_FRACTION_STEPS; i++) {
+            INVERSE_POW2_TABLE[i] = Math.pow(2, -(double) i / ZOOM_FRACTION_STEPS);
+        }
+    }
+
+    private TileMath() {
+    }
+
+    /**
+     * 경도를 타일 x 좌표로 변환합니다.
+     *
+     * @param longitude 경도
+     * @param zoom 줌 레벨
+     * @return 타일 x 좌표 (실수)
+     */
+    public static double longitudeToTileX(double longitude, int zoom) {
+        return (longitude + 180.0) / 360.0 * (1 << zoom);
+    }
+
+    /**
+     * 위도를 타일 y 좌표로 변환합니다.
+     *
+     * @param latitude 위도
+     * @param zoom 줌 레벨
+     * @return 타일 y 좌표 (실수)
+     */
+    public static double latitudeToTileY(double latitude, int zoom) {
+        double lat = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double sinLat = Math.sin(Math.toRadians(lat));
+        double y = 0.5 - Math.log((1 + sinLat) / (1 - sinLat)) / (4 * Math.PI);
+        return y * (1 << zoom);
+    }
+
+    /**
+     * 타일 x 좌표를 경도로 변환합니다.
+     *
+     * @param tileX 타일 x 좌표 (실수)
+     * @param zoom 줌 레벨
+     * @return 경도
+     */
+    public static double tileXToLongitude(double tileX, int zoom) {
+        return tileX / (1 << zoom) * 360.0 - 180.0;
+    }
+
+    /**
+     * 타일 y 좌표를 위도로 변환합니다.
+     *
+     * @param tileY 타일 y 좌표 (실수)
+     * @param zoom 줌 레벨
+     * @return 위도
+     */
+    public static double tileYToLatitude(double tileY, int zoom) {
+        double n = Math.PI - 2 * Math.PI * tileY / (1 << zoom);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    /**
+     * 주어진 위도에서 타일 한 변의 실제 길이를 계산합니다.
+     *
+     * @param latitude 위도
+     * @param zoom 줌 레벨
+     * @return 타일 한 변의 길이 (미터)
+     */
+    public static double tileSizeMeters(double latitude, int zoom) {
+        return 40075016.686 * Math.cos(Math.toRadians(latitude)) / (1 << zoom);
+    }
+
+    /**
+     * 주어진 위도와 줌 레벨에서 화면 1픽셀(256px 타일 기준)이 나타내는 거리를 계산합니다.
+     * 위치와 줌이 바뀔 때마다 불리므로 cos와 pow 대신 미리 계산한 표를 선형 보간합니다 (상대 오차 1e-5 이하).
+     *
+     * @param latitude 위도
+     * @param zoomLevel 줌 레벨 (소수 허용)
+     * @return 픽셀당 미터
+     */
+    public static double metersPerPixel(double latitude, double zoomLevel) {
+        return EQUATOR_METERS_PER_PIXEL * cosDegrees(latitude) * inversePow2(zoomLevel);
+    }
+
+    /**
+     * 표를 보간하여 위도의 코사인을 구합니다.
+     */
+    static double cosDegrees(double degrees) {
+        double position = Math.min(90.0, Math.abs(degrees)) * COS_STEPS_PER_DEGREE;
+        int i = (int) position;
+        double fraction = position - i;
+        return COS_TABLE[i] + (COS_TABLE[i + 1] - COS_TABLE[i]) * fraction;
+    }
+
+    /**
+     * 표를 보간하여 2^-x를 구합니다. 정수 부분은 지수만 조정합니다.
+     */
+    static double inversePow2(double x) {
+        double whole = Math.floor(x);
+        double position = (x - whole) * ZOOM_FRACTION_STEPS;
+        int i = (int) position;
+        double fraction = position - i;
+        double value = INVERSE_POW2_TABLE[i] + (INVERSE_POW2_TABLE[i + 1] - INVERSE_POW2_TABLE[i]) * fraction;
+        return Math.scalb(value, -(int) whole);
+    }
+
+    /**
+     * 타일 좌표를 줌 레벨의 유효 범위 안으로 제한합니다.
+     *
+     * @param tile 타일 좌표
+     * @param zoom 줌 레벨
+     * @return 0 이상 2^zoom - 1 이하의 타일 번호
+     */
+    public static int clampTile(int tile, int zoom) {
+        return Math.max(0, Math.min((1 << zoom) - 1, tile));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.test_navigation;
+
+/**
+ * TilePack 클래스는 단일 파일 타일 팩 형식의 상수와 타일 번호 계산을 모은 클래스입니다.
+ * PMTiles와 비슷하게 타일을 힐베르트 곡선 순서의 번호(tile id)로 정렬하여 디렉토리와 데이터를 연속으로 저장하므로
+ * 화면에서 가까운 타일이 파일에서도 가까이 놓이고, 디렉토리는 이진 탐색으로 찾을 수 있습니다.
+ *
+ * <p>파일 구조 (리틀 엔디언):</p>
+ * <pre>
+ * [헤더 64바이트][타일 데이터][디렉토리: 항목 {@value #ENTRY_SIZE}바이트 × n][메타데이터]
+ *
+ * 헤더: magic(int) version(int) entryCount(int) minZoom(byte) maxZoom(byte) 예약(2)
+ *       dataOffset(long) dataLength(long) directoryOffset(long)
+ *       metadataOffset(long) metadataLength(int) blobCount(int) 예약(8)
+ * 항목: tileId(long) 데이터 안의 오프셋(long) 길이(int)  — tileId 오름차순
+ * 메타데이터: UTF-8 "이름=값" 줄 목록 (값의 '\' 와 줄바꿈은 \\, \n으로 이스케이프)
+ * </pre>
+ * <p>내용이 같은 타일(바다 등)은 데이터를 한 번만 저장하고 여러 항목이 같은 오프셋을 가리킵니다.
+ * 타일 하나가 {@link #SEGMENT_SIZE} 경계에 걸치지 않도록 배치하여 2GB가 넘는 팩도 구간별로 매핑할 수 있습니다.</p>
+ */
+public final class TilePack {
+
+    /** 타일 팩 파일 확장자 */
+    public static final String FILE_EXTENSION = ".tilepack";
+
+    /** "TPAK" */
+    static final int MAGIC = 0x4B415054;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ENTRY_SIZE = 20;
+    /** 데이터를 나누어 매핑하는 구간 크기 (1GB) */
+    static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    // 헤더 필드 위치
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_ENTRY_COUNT = 8;
+    static final int HEADER_MIN_ZOOM = 12;
+    static final int HEADER_MAX_ZOOM = 13;
+    static final int HEADER_DATA_OFFSET = 16;
+    static final int HEADER_DATA_LENGTH = 24;
+    static final int HEADER_DIRECTORY_OFFSET = 32;
+    static final int HEADER_METADATA_OFFSET = 40;
+    static final int HEADER_METADATA_LENGTH = 48;
+    static final int HEADER_BLOB_COUNT = 52;
+
+    private TilePack() {
+    }
+
+    /**
+     * 줌 레벨별 누적 타일 수와 힐베르트 곡선 위치로 타일 번호를 계산합니다.
+     * 줌이 작은 타일이 먼저 오고, 같은 줌 안에서는 힐베르트 곡선 순서입니다.
+     *
+     * @param zoom 줌 레벨 (0~26)
+     * @param x 타일 x
+     * @param y 타일 y (XYZ)
+     * @return 타일 번호
+     */
+    public static long tileId(int zoom, int x, int y) {
+        return zoomBase(zoom) + hilbertIndex(zoom, x, y);
+    }
+
+    /**
+     * 타일 번호를 줌, x, y로 되돌립니다.
+     *
+     * @param tileId 타일 번호
+     * @param out 결과 {zoom, x, y}
+     */
+    public static void tileCoords(long tileId, int[] out) {
+        int zoom = 0;
+        while (zoomBase(zoom + 1) <= tileId) {
+            zoom++;
+        }
+        long n = 1L << zoom;
+        long d = tileId - zoomBase(zoom);
+        long x = 0;
+        long y = 0;
+        for (long s = 1; s < n; s *= 2) {
+            long rx = 1 & (d / 2);
+            long ry = 1 & (d ^ rx);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                long t = x;
+                x = y;
+                y = t;
+            }
+            x += s * rx;
+            y += s * ry;
+            d /= 4;
+        }
+        out[0] = zoom;
+        out[1] = (int) x;
+        out[2] = (int) y;
+    }
+
+    /** 줌 레벨 zoom보다 작은 줌의 전체 타일 수 ((4^zoom - 1) / 3) */
+    private static long zoomBase(int zoom) {
+        return ((1L << (2 * zoom)) - 1) / 3;
+    }
+
+    static long hilbertIndex(int zoom, long x, long y) {
+        long n = 1L << zoom;
+        long d = 0;
+        for (long s = n / 2; s > 0; s /= 2) {
+            long rx = (x & s) > 0 ? 1 : 0;
+            long ry = (y & s) > 0 ? 1 : 0;
+            d += s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = n - 1 - x;
+                    y = n - 1 - y;
+                }
+                long t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * TilePackConverter 클래스는 MBTiles 파일을 {@link TilePack} 파일로 변환하는 명령줄 도구입니다.
+ * JDBC SQLite 드라이버(sqlite-jdbc)가 클래스패스에 있어야 하며, 보통 Gradle 작업으로 실행합니다.
+ *
+ * <pre>
+ * ./gradlew :core:convertTilePack -Pin=korea.mbtiles -Pout=korea.tilepack
+ * </pre>
+ */
+public final class TilePackConverter {
+
+    private TilePackConverter() {
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 2) {
+            System.err.println("Usage: TilePackConverter <in.mbtiles> <out" + TilePack.FILE_EXTENSION + ">");
+            System.exit(2);
+        }
+        File in = new File(args[0]);
+        File out = new File(args[1]);
+        long start = System.nanoTime();
+        int tiles = convert(in, out);
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        System.out.println("Converted " + tiles + " tiles in " + millis + " ms: "
+                + in.length() + " -> " + out.length() + " bytes");
+    }
+
+    /**
+     * MBTiles 파일의 모든 타일과 메타데이터를 타일 팩으로 씁니다.
+     * 먼저 좌표만 읽어 tile id로 정렬한 뒤, 그 순서대로 타일을 하나씩 읽어 기록합니다.
+     *
+     * @param mbtiles 입력 MBTiles 파일
+     * @param pack 출력 타일 팩 파일
+     * @return 기록한 타일 수
+     */
+    public static int convert(File mbtiles, File pack) throws IOException, SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + mbtiles.getAbsolutePath());
+             TilePackWriter writer = new TilePackWriter(pack)) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(MBTilesSchema.SQL_ALL_METADATA)) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    String value = rs.getString(2);
+                    if (name != null && value != null) {
+                        writer.putMetadata(name, value);
+                    }
+                }
+            }
+
+            long[] ids = new long[4096];
+            int count = 0;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(MBTilesSchema.SQL_TILE_COORDS)) {
+                while (rs.next()) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    int zoom = rs.getInt(1);
+                    ids[count++] = TilePack.tileId(zoom, rs.getInt(2), MBTilesSchema.flipY(zoom, rs.getInt(3)));
+                }
+            }
+            Arrays.sort(ids, 0, count);
+
+            int[] coords = new int[3];
+            try (PreparedStatement singleTile = connection.prepareStatement(MBTilesSchema.SQL_SINGLE_TILE)) {
+                for (int i = 0; i < count; i++) {
+                    TilePack.tileCoords(ids[i], coords);
+                    singleTile.setInt(1, coords[0]);
+                    singleTile.setInt(2, coords[1]);
+                    singleTile.setInt(3, MBTilesSchema.flipY(coords[0], coords[2]));
+                    try (ResultSet rs = singleTile.executeQuery()) {
+                        byte[] data = rs.next() ? rs.getBytes(1) : null;
+                        if (data != null) {
+                            writer.addTile(coords[0], coords[1], coords[2], data);
+                        }
+                    }
+                }
+            }
+            writer.finish();
+            return writer.getTileCount();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.test_navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TilePackReader 클래스는 {@link TilePack} 파일을 메모리 매핑으로 읽는 {@link TileArchive} 구현입니다.
+ * 디렉토리와 데이터를 읽기 전용으로 매핑하므로 조회는 디렉토리 이진 탐색 한 번과 버퍼 슬라이스뿐이고,
+ * SQLite처럼 연결이나 커서, 쿼리 파싱 비용이 없습니다. 페이지 캐시는 운영체제가 관리합니다.
+ * 매핑된 버퍼는 읽기만 하므로 여러 스레드에서 잠금 없이 동시에 사용할 수 있습니다.
+ */
+public class TilePackReader implements TileArchive {
+
+    private final File file;
+    private final int entryCount;
+    private final int minZoom;
+    private final int maxZoom;
+    private final Map<String, String> metadata;
+    private volatile ByteBuffer directory;
+    private volatile ByteBuffer[] segments;
+
+    /**
+     * 파일을 열어 헤더를 확인하고 디렉토리와 데이터를 매핑합니다.
+     * 매핑이 끝나면 파일 핸들은 바로 닫습니다.
+     *
+     * @param file 타일 팩 파일
+     * @throws IOException 파일을 읽을 수 없거나 형식이 맞지 않는 경우
+     */
+    public TilePackReader(File file) throws IOException {
+        this(file, new RandomAccessFile(file, "r").getChannel(), 0L, file.length(), true);
+    }
+
+    /**
+     * 더 큰 파일 안에 들어 있는 타일 팩을 복사하지 않고 그 자리에서 매핑합니다.
+     * APK 안에 압축하지 않고 저장된 에셋처럼 파일 설명자의 시작 오프셋으로만 접근할 수 있는 경우에 사용합니다.
+     * 채널은 닫지 않으며, 매핑은 채널을 닫은 뒤에도 유효합니다.
+     *
+     * @param file {@link #getFile()}로 반환할 파일 (예: APK 경로)
+     * @param channel 읽기 채널
+     * @param offset 채널 안에서 타일 팩이 시작하는 위치
+     * @param length 타일 팩 크기
+     * @throws IOException 읽을 수 없거나 형식이 맞지 않는 경우
+     */
+    public TilePackReader(File file, FileChannel channel, long offset, long length) throws IOException {
+        this(file, channel, offset, length, false);
+    }
+
+    private TilePackReader(File file, FileChannel channel, long offset, long length, boolean closeChannel)
+            throws IOException {
+        this.file = file;
+        try {
+            if (length < TilePack.HEADER_SIZE || offset + length > channel.size()) {
+                throw new IOException("Not a tile pack: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, offset, TilePack.HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(TilePack.HEADER_MAGIC) != TilePack.MAGIC) {
+                throw new IOException("Not a tile pack: " + file);
+            }
+            int version = header.getInt(TilePack.HEADER_VERSION);
+            if (version != TilePack.VERSION) {
+                throw new IOException("Unsupported tile pack version " + version + ": " + file);
+            }
+            entryCount = header.getInt(TilePack.HEADER_ENTRY_COUNT);
+            minZoom = header.get(TilePack.HEADER_MIN_ZOOM);
+            maxZoom = header.get(TilePack.HEADER_MAX_ZOOM);
+            long dataOffset = header.getLong(TilePack.HEADER_DATA_OFFSET);
+            long dataLength = header.getLong(TilePack.HEADER_DATA_LENGTH);
+            long directoryOffset = header.getLong(TilePack.HEADER_DIRECTORY_OFFSET);
+            long metadataOffset = header.getLong(TilePack.HEADER_METADATA_OFFSET);
+            int metadataLength = header.getInt(TilePack.HEADER_METADATA_LENGTH);
+            if (metadataOffset + metadataLength > length
+                    || directoryOffset + (long) entryCount * TilePack.ENTRY_SIZE > metadataOffset) {
+                throw new IOException("Truncated tile pack: " + file);
+            }
+
+            directory = channel.map(FileChannel.MapMode.READ_ONLY, offset + directoryOffset,
+                    (long) entryCount * TilePack.ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            int segmentCount = (int) ((dataLength + TilePack.SEGMENT_SIZE - 1) >>> TilePack.SEGMENT_SHIFT);
+            ByteBuffer[] mapped = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long start = (long) i << TilePack.SEGMENT_SHIFT;
+                long size = Math.min(TilePack.SEGMENT_SIZE, dataLength - start);
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + dataOffset + start, size);
+            }
+            segments = mapped;
+
+            byte[] metadataBytes = new byte[metadataLength];
+            MappedByteBuffer metadataBuffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    offset + metadataOffset, metadataLength);
+            metadataBuffer.get(metadataBytes);
+            metadata = parseMetadata(new String(metadataBytes, StandardCharsets.UTF_8));
+        } finally {
+            if (closeChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    private static Map<String, String> parseMetadata(String text) {
+        Map<String, String> result = new HashMap<>();
+        for (String line : text.split("\n")) {
+            int separator = line.indexOf('=');
+            if (separator > 0) {
+                result.put(TilePack.unescape(line.substring(0, separator)),
+                        TilePack.unescape(line.substring(separator + 1)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 매핑 읽기는 잠금이 없으므로 코어 수에 맞춰 2~4개의 동시 읽기를 허용합니다.
+     */
+    @Override
+    public int getConnectionCount() {
+        return Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public int getTileCount() {
+        return entryCount;
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * 타일 데이터를 복사하지 않고 매핑된 영역의 슬라이스로 반환합니다.
+     * 반환된 버퍼는 읽기 전용이며 {@link #close()} 이후에는 사용하면 안 됩니다.
+     *
+     * @param zoom 줌 레벨
+     * @param x 타일 x 좌표
+     * @param y 타일 y 좌표 (XYZ)
+     * @return 타일 데이터 버퍼, 없으면 null
+     */
+    public ByteBuffer getTileBuffer(int zoom, int x, int y) {
+        ByteBuffer dir = directory;
+        ByteBuffer[] data = segments;
+        if (dir == null || data == null || zoom < minZoom || zoom > maxZoom) {
+            return null;
+        }
+        int entry = findEntry(dir, TilePack.tileId(zoom, x, y));
+        if (entry < 0) {
+            return null;
+        }
+        int position = entry * TilePack.ENTRY_SIZE;
+        long offset = dir.getLong(position + 8);
+        int length = dir.getInt(position + 16);
+        // 각 스레드가 독립된 위치/한계를 갖도록 duplicate한 뒤 자릅니다.
+        ByteBuffer slice = data[(int) (offset >>> TilePack.SEGMENT_SHIFT)].duplicate();
+        int start = (int) (offset & (TilePack.SEGMENT_SIZE - 1));
+        slice.limit(start + length).position(start);
+        return slice.slice();
+    }
+
+    /** 디렉토리에서 tileId 항목의 번호를 이진 탐색합니다. 없으면 -1 */
+    private int findEntry(ByteBuffer dir, long tileId) {
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = dir.getLong(mid * TilePack.ENTRY_SIZE);
+            if (id < tileId) {
+                low = mid + 1;
+            } else if (id > tileId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 타일 하나를 읽어옵니다. BitmapFactory와 벡터 디코더가 byte[]를 받으므로 매핑 영역에서 한 번 복사합니다.
+     */
+    @Override
+    public byte[] getTile(int zoom, int x, int y) {
+        long start = Telemetry.start();
+        try {
+            return toArray(getTileBuffer(zoom, x, y));
+        } finally {
+            Telemetry.stop(Telemetry.TILE_LOOKUP, start);
+        }
+    }
+
+    /**
+     * 범위 안의 타일을 좌표마다 디렉토리에서 찾아 전달합니다.
+     * 디렉토리 탐색이 메모리 접근뿐이므로 범위 쿼리를 따로 두지 않습니다.
+     */
+    @Override
+    public int getTiles(int zoom, int minX, int maxX, int minY, int maxY, TileConsumer consumer) {
+        int count = 0;
+        long start = Telemetry.start();
+        try {
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    byte[] data = toArray(getTileBuffer(zoom, x, y));
+                    if (data != null) {
+                        consumer.onTile(zoom, x, y, data);
+                        count++;
+                    }
+                }
+            }
+        } finally {
+            Telemetry.stop(Telemetry.TILE_LOOKUP, start);
+        }
+        return count;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    @Override
+    public String getMetadata(String name) {
+        return metadata.get(name);
+    }
+
+    /**
+     * 매핑 참조를 놓습니다. 매핑 해제는 버퍼가 가비지 컬렉션될 때 이루어집니다.
+     */
+    @Override
+    public void close() {
+        directory = null;
+        segments = null;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.test_navigation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * TilePackWriter 클래스는 {@link TilePack} 형식의 파일을 순서대로 써 나가는 클래스입니다.
+ * 타일은 {@link TilePack#tileId(int, int, int)} 오름차순으로 추가해야 하며, 그 순서대로 데이터가 연속 저장됩니다.
+ * 내용이 같은 타일은 SHA-256 해시로 찾아 한 번만 저장합니다.
+ *
+ * <pre>
+ * try (TilePackWriter writer = new TilePackWriter(file)) {
+ *     writer.putMetadata("format", "png");
+ *     writer.addTile(zoom, x, y, data);   // tile id 순서
+ * }
+ * </pre>
+ */
+public class TilePackWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final MessageDigest digest;
+    private final Map<ByteBuffer, long[]> blobs = new HashMap<>();
+    private final Map<String, String> metadata = new LinkedHashMap<>();
+
+    private int count;
+    private long[] ids = new long[4096];
+    private long[] offsets = new long[4096];
+    private int[] lengths = new int[4096];
+    private long dataLength;
+    private int minZoom = Integer.MAX_VALUE;
+    private int maxZoom = Integer.MIN_VALUE;
+    private boolean finished;
+
+    /**
+     * @param file 출력 파일 (있으면 덮어씁니다)
+     * @throws IOException 파일을 열 수 없는 경우
+     */
+    public TilePackWriter(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        channel.position(TilePack.HEADER_SIZE);
+    }
+
+    public void putMetadata(String name, String value) {
+        metadata.put(name, value);
+    }
+
+    /**
+     * 타일을 추가합니다.
+     *
+     * @param zoom 줌 레벨
+     * @param x 타일 x
+     * @param y 타일 y (XYZ)
+     * @param data 타일 바이트
+     * @throws IOException 쓰기 실패
+     * @throws IllegalArgumentException tile id가 이전 타일보다 크지 않은 경우
+     */
+    public void addTile(int zoom, int x, int y, byte[] data) throws IOException {
+        long id = TilePack.tileId(zoom, x, y);
+        if (count > 0 && id <= ids[count - 1]) {
+            throw new IllegalArgumentException("Tiles must be added in ascending tile id order: "
+                    + zoom + "/" + x + "/" + y);
+        }
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+            lengths = Arrays.copyOf(lengths, count * 2);
+        }
+
+        ByteBuffer key = ByteBuffer.wrap(digest.digest(data));
+        long[] blob = blobs.get(key);
+        if (blob == null || blob[1] != data.length) {
+            // 구간 경계에 걸치는 타일은 다음 구간으로 옮깁니다.
+            long segmentEnd = (dataLength / TilePack.SEGMENT_SIZE + 1) * TilePack.SEGMENT_SIZE;
+            if (dataLength + data.length > segmentEnd) {
+                writePadding(segmentEnd - dataLength);
+            }
+            blob = new long[]{dataLength, data.length};
+            blobs.put(key, blob);
+            write(data);
+        }
+
+        ids[count] = id;
+        offsets[count] = blob[0];
+        lengths[count] = data.length;
+        count++;
+        minZoom = Math.min(minZoom, zoom);
+        maxZoom = Math.max(maxZoom, zoom);
+    }
+
+    private void write(byte[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int n = Math.min(buffer.remaining(), data.length - offset);
+            buffer.put(data, offset, n);
+            offset += n;
+        }
+        dataLength += data.length;
+    }
+
+    private void writePadding(long bytes) throws IOException {
+        for (long i = 0; i < bytes; i++) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) 0);
+        }
+        dataLength += bytes;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 디렉토리, 메타데이터, 헤더를 쓰고 파일을 완성합니다.
+     *
+     * @throws IOException 쓰기 실패
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        long directoryOffset = TilePack.HEADER_SIZE + dataLength;
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < TilePack.ENTRY_SIZE) {
+                flush();
+            }
+            buffer.putLong(ids[i]).putLong(offsets[i]).putInt(lengths[i]);
+        }
+
+        long metadataOffset = directoryOffset + (long) count * TilePack.ENTRY_SIZE;
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            sb.append(TilePack.escape(entry.getKey())).append('=')
+                    .append(TilePack.escape(entry.getValue())).append('\n');
+        }
+        byte[] metadataBytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        for (byte b : metadataBytes) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+        flush();
+
+        buffer.putInt(TilePack.HEADER_MAGIC, TilePack.MAGIC)
+                .putInt(TilePack.HEADER_VERSION, TilePack.VERSION)
+                .putInt(TilePack.HEADER_ENTRY_COUNT, count)
+                .put(TilePack.HEADER_MIN_ZOOM, (byte) (count > 0 ? minZoom : 0))
+                .put(TilePack.HEADER_MAX_ZOOM, (byte) (count > 0 ? maxZoom : 0))
+                .putLong(TilePack.HEADER_DATA_OFFSET, TilePack.HEADER_SIZE)
+                .putLong(TilePack.HEADER_DATA_LENGTH, dataLength)
+                .putLong(TilePack.HEADER_DIRECTORY_OFFSET, directoryOffset)
+                .putLong(TilePack.HEADER_METADATA_OFFSET, metadataOffset)
+                .putInt(TilePack.HEADER_METADATA_LENGTH, metadataBytes.length)
+                .putInt(TilePack.HEADER_BLOB_COUNT, blobs.size());
+        buffer.position(0).limit(TilePack.HEADER_SIZE);
+        channel.position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** 추가된 타일 수 */
+    public int getTileCount() {
+        return count;
+    }
+
+    /** 실제로 저장된(중복 제거된) 타일 데이터 수 */
+    public int getBlobCount() {
+        return blobs.size();
+    }
+
+    /** 타일 데이터 구간의 크기 (바이트) */
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * 아직 완성하지 않았으면 {@link #finish()}한 뒤 파일을 닫습니다.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.test_navigation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TileRequestQueue 클래스는 화면 타일 요청을 화면 중심에서 가까운 순서로 내주는 대기열입니다.
+ *
+ * <ul>
+ *     <li>우선순위는 현재 줌과의 차이가 먼저, 그다음 화면 중심까지의 거리입니다. 다른 줌의 타일은 현재 줌 좌표로 바꿔 잽니다.</li>
+ *     <li>{@link #setViewport}로 화면이 바뀌면 보이는 영역을 벗어났거나 현재 줌에서 {@value #MAX_ZOOM_DISTANCE}단계보다 먼
+ *     요청을 바로 버립니다. 버린 요청은 호출자가 실패로 알려야 합니다.</li>
+ *     <li>용량을 넘으면 우선순위가 가장 낮은 요청을 버립니다.</li>
+ *     <li>{@link #pollBatch}는 가장 급한 요청과 같은 줌의 요청을 우선순위 순서로 묶어 내주므로 범위 쿼리 한 번으로 읽을 수 있습니다.</li>
+ * </ul>
+ *
+ * <p>대기 중인 요청 수는 수십 개 수준이므로 힙 대신 목록을 그때그때 훑습니다. 모든 메서드는 스레드 안전합니다.</p>
+ *
+ * @param <T> 요청 객체 형식
+ */
+public class TileRequestQueue<T> {
+
+    /** 현재 줌에서 이 단계보다 먼 줌의 요청은 버립니다. */
+    public static final int MAX_ZOOM_DISTANCE = 1;
+    /** 줌 차이 한 단계를 화면 중심 거리(타일 단위)의 제곱으로 환산한 값. 줌 차이가 거리보다 먼저 고려됩니다. */
+    private static final double ZOOM_PENALTY = 1e9;
+
+    private final int capacity;
+    private final List<Entry<T>> entries = new ArrayList<>();
+    private final Map<Long, Entry<T>> byKey = new HashMap<>();
+    private long nextSequence;
+
+    private boolean hasViewport;
+    private int viewZoom;
+    private double centerX;
+    private double centerY;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    private long offeredCount;
+    private long cancelledCount;
+    private long evictedCount;
+    private int peakSize;
+
+    private static final class Entry<T> {
+        final long key;
+        final int zoom;
+        final int x;
+        final int y;
+        T request;
+        long sequence;
+        double score;
+
+        Entry(long key, int zoom, int x, int y) {
+            this.key = key;
+            this.zoom = zoom;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * @param capacity 대기열에 둘 최대 요청 수
+     */
+    public TileRequestQueue(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * 보이는 영역을 바꿉니다. 영역은 현재 줌의 타일 좌표이며 여백을 포함해야 합니다.
+     *
+     * @param zoom 현재 줌 레벨
+     * @param centerX 화면 중심 타일 x (소수)
+     * @param centerY 화면 중심 타일 y (소수)
+     * @param minX 보이는 영역의 왼쪽 타일 x
+     * @param minY 보이는 영역의 위쪽 타일 y
+     * @param maxX 보이는 영역의 오른쪽 타일 x (포함)
+     * @param maxY 보이는 영역의 아래쪽 타일 y (포함)
+     * @param dropped 영역을 벗어나 버린 요청을 받을 목록
+     */
+    public synchronized void setViewport(int zoom, double centerX, double centerY,
+                                         int minX, int minY, int maxX, int maxY, List<T> dropped) {
+        this.hasViewport = true;
+        this.viewZoom = zoom;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX + 1;
+        this.maxY = maxY + 1;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Entry<T> entry = entries.get(i);
+            if (!isVisible(entry.zoom, entry.x, entry.y)) {
+                removeAt(i);
+                dropped.add(entry.request);
+                cancelledCount++;
+            } else {
+                entry.score = score(entry);
+            }
+        }
+    }
+
+    /**
+     * 요청을 넣습니다. 같은 타일의 요청이 있으면 새 요청으로 바꿉니다.
+     *
+     * @param key 타일 키 (osmdroid 타일 인덱스 등)
+     * @param zoom 줌 레벨
+     * @param x 타일 x
+     * @param y 타일 y
+     * @param request 요청 객체
+     * @param dropped 보이지 않거나 용량을 넘어 버린 요청을 받을 목록 (넣은 요청 자신일 수도 있습니다)
+     * @return 대기열에 들어갔으면 true
+     */
+    public synchronized boolean offer(long key, int zoom, int x, int y, T request, List<T> dropped) {
+        offeredCount++;
+        if (!isVisible(zoom, x, y)) {
+            dropped.add(request);
+            cancelledCount++;
+            return false;
+        }
+        Entry<T> entry = byKey.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key, zoom, x, y);
+            entries.add(entry);
+            byKey.put(key, entry);
+        }
+        entry.request = request;
+        entry.sequence = nextSequence++;
+        entry.score = score(entry);
+        peakSize = Math.max(peakSize, entries.size());
+
+        if (entries.size() > capacity) {
+            int worst = 0;
+            for (int i = 1; i < entries.size(); i++) {
+                if (compare(entries.get(i), entries.get(worst)) > 0) {
+                    worst = i;
+                }
+            }
+            Entry<T> evicted = entries.get(worst);
+            removeAt(worst);
+            dropped.add(evicted.request);
+            evictedCount++;
+            return evicted != entry;
+        }
+        return true;
+    }
+
+    /**
+     * 가장 급한 요청과 같은 줌의 요청을 우선순위 순서로 최대 {@code maxCount}개 꺼냅니다.
+     *
+     * @param maxCount 꺼낼 최대 수
+     * @param out 꺼낸 요청을 받을 목록
+     * @return 꺼낸 수 (대기열이 비었으면 0)
+     */
+    public synchronized int pollBatch(int maxCount, List<T> out) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Entry<T> best = entries.get(0);
+        for (int i = 1; i < entries.size(); i++) {
+            if (compare(entries.get(i), best) < 0) {
+                best = entries.get(i);
+            }
+        }
+        List<Entry<T>> batch = new ArrayList<>();
+        for (Entry<T> entry : entries) {
+            if (entry.zoom == best.zoom) {
+                batch.add(entry);
+            }
+        }
+        Collections.sort(batch, this::compare);
+        int count = Math.min(maxCount, batch.size());
+        for (int i = 0; i < count; i++) {
+            Entry<T> entry = batch.get(i);
+            byKey.remove(entry.key);
+            out.add(entry.request);
+        }
+        entries.removeAll(batch.subList(0, count));
+        return count;
+    }
+
+    /**
+     * 타일이 현재 보이는 영역에 있는지 반환합니다. 꺼낸 요청을 읽거나 디코딩하기 전에 아직 필요한지 확인할 때 씁니다.
+     * 영역이 아직 설정되지 않았으면 모두 보이는 것으로 봅니다.
+     */
+    public synchronized boolean isVisible(int zoom, int x, int y) {
+        if (!hasViewport) {
+            return true;
+        }
+        int dz = viewZoom - zoom;
+        if (Math.abs(dz) > MAX_ZOOM_DISTANCE) {
+            return false;
+        }
+        double scale = dz >= 0 ? (double) (1 << dz) : 1.0 / (1 << -dz);
+        double left = x * scale;
+        double top = y * scale;
+        return left + scale > minX && left < maxX && top + scale > minY && top < maxY;
+    }
+
+    /**
+     * 모든 요청을 꺼내 목록에 넣습니다.
+     */
+    public synchronized void clear(List<T> out) {
+        for (Entry<T> entry : entries) {
+            out.add(entry.request);
+        }
+        entries.clear();
+        byKey.clear();
+    }
+
+    private void removeAt(int index) {
+        Entry<T> entry = entries.get(index);
+        byKey.remove(entry.key);
+        int last = entries.size() - 1;
+        entries.set(index, entries.get(last));
+        entries.remove(last);
+    }
+
+    private double score(Entry<T> entry) {
+        if (!hasViewport) {
+            return 0;
+        }
+        int dz = viewZoom - entry.zoom;
+        double scale = dz >= 0 ? (double) (1 << dz) : 1.0 / (1 << -dz);
+        double dx = (entry.x + 0.5) * scale - centerX;
+        double dy = (entry.y + 0.5) * scale - centerY;
+        return Math.abs(dz) * ZOOM_PENALTY + dx * dx + dy * dy;
+    }
+
+    /** 점수가 낮을수록, 같으면 먼저 들어온 요청일수록 급합니다. */
+    private int compare(Entry<T> a, Entry<T> b) {
+        int c = Double.compare(a.score, b.score);
+        return c != 0 ? c : Long.compare(a.sequence, b.sequence);
+    }
+
+    /** 대기 중인 요청 수 */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** 지금까지 가장 많았던 대기 요청 수 */
+    public synchronized int getPeakSize() {
+        return peakSize;
+    }
+
+    /** 넣은 요청 수 */
+    public synchronized long getOfferedCount() {
+        return offeredCount;
+    }
+
+    /** 보이는 영역을 벗어나 버린 요청 수 */
+    public synchronized long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /** 용량을 넘어 버린 요청 수 */
+    public synchronized long getEvictedCount() {
+        return evictedCount;
+    }
+}
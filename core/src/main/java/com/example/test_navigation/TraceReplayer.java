@@ -0,0 +1,223 @@
+package com.example.test_navigation;
+
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TraceReplayer 클래스는 {@link ReplayTrace}의 이벤트를 기록된 시간 간격에 맞춰 {@link Sink}로 전달하는 재생기입니다.
+ * 재생 속도는 실제 시간({@link #SPEED_REALTIME}), 배속, 또는 대기 없이 최대한 빠르게({@link #SPEED_MAX}) 지정할 수 있으며,
+ * 이벤트 순서는 항상 같으므로 같은 기록은 매번 같은 입력 순서를 만듭니다.
+ *
+ * <p>재생은 시계를 인자로 받는 {@link #step(long, int)}로 진행되므로 UI 스레드 루프에서 조금씩 돌릴 수도 있고,
+ * 헤드리스(JVM) 환경에서는 {@link #runBlocking()}으로 끝까지 돌린 뒤 초당 처리 수와 지연 백분위를 얻을 수 있습니다.</p>
+ */
+public class TraceReplayer {
+
+    /** 기록된 시간 그대로 재생 */
+    public static final double SPEED_REALTIME = 1.0;
+    /** 대기 없이 최대한 빠르게 재생 */
+    public static final double SPEED_MAX = Double.POSITIVE_INFINITY;
+
+    /** {@link #runBlocking()}에서 한 번에 처리하는 최대 이벤트 수 */
+    private static final int BLOCKING_BATCH = 1024;
+
+    /**
+     * 재생되는 이벤트를 받는 대상입니다. {@link #step(long, int)}을 호출한 스레드에서 호출됩니다.
+     */
+    public interface Sink {
+        void onLocation(double latitude, double longitude);
+
+        void onHeading(float heading);
+
+        void onVehicle(int id, int type, double latitude, double longitude, float heading, float speed);
+    }
+
+    private final ReplayTrace trace;
+    private final Sink sink;
+    private final double speed;
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram("replay.dispatch");
+    private final LatencyHistogram lateness = new LatencyHistogram("replay.lateness");
+
+    private int next;
+    private long startNanos;
+    private long finishNanos;
+    private boolean started;
+
+    /**
+     * @param trace 정렬된 기록
+     * @param sink 이벤트를 받을 대상
+     * @param speed 재생 배속 (1 = 실제 시간, {@link #SPEED_MAX} = 대기 없음)
+     */
+    public TraceReplayer(ReplayTrace trace, Sink sink, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be positive: " + speed);
+        }
+        this.trace = trace;
+        this.sink = sink;
+        this.speed = speed;
+    }
+
+    /**
+     * 재생을 처음부터 시작합니다.
+     *
+     * @param nowNanos 현재 시각 (나노초, 단조 증가 시계)
+     */
+    public void start(long nowNanos) {
+        next = 0;
+        startNanos = nowNanos;
+        finishNanos = 0;
+        started = true;
+        dispatchLatency.reset();
+        lateness.reset();
+    }
+
+    /**
+     * 현재 시각까지 예정된 이벤트를 최대 maxEvents개 전달합니다.
+     *
+     * @param nowNanos 현재 시각 (나노초, {@link #start(long)}와 같은 시계)
+     * @param maxEvents 이번에 전달할 최대 이벤트 수
+     * @return 전달한 이벤트 수
+     */
+    public int step(long nowNanos, int maxEvents) {
+        if (!started) {
+            throw new IllegalStateException("not started");
+        }
+        int dispatched = 0;
+        int size = trace.size();
+        while (next < size && dispatched < maxEvents) {
+            long due = dueNanos(next);
+            if (due > nowNanos) {
+                break;
+            }
+            if (speed != SPEED_MAX) {
+                lateness.record(nowNanos - due);
+            }
+            long begin = System.nanoTime();
+            dispatch(next);
+            dispatchLatency.record(System.nanoTime() - begin);
+            next++;
+            dispatched++;
+        }
+        if (next == size && finishNanos == 0) {
+            finishNanos = Math.max(nowNanos, startNanos + 1);
+        }
+        return dispatched;
+    }
+
+    private void dispatch(int i) {
+        switch (trace.getKind(i)) {
+            case ReplayTrace.KIND_LOCATION:
+                sink.onLocation(trace.getLatitude(i), trace.getLongitude(i));
+                break;
+            case ReplayTrace.KIND_HEADING:
+                sink.onHeading(trace.getHeading(i));
+                break;
+            default:
+                sink.onVehicle(trace.getId(i), trace.getVehicleType(i), trace.getLatitude(i),
+                        trace.getLongitude(i), trace.getHeading(i), trace.getSpeed(i));
+                break;
+        }
+    }
+
+    /** 이벤트 i가 전달될 예정 시각 */
+    private long dueNanos(int i) {
+        if (speed == SPEED_MAX) {
+            return startNanos;
+        }
+        long offsetMillis = trace.getTime(i) - trace.getTime(0);
+        return startNanos + (long) (offsetMillis * 1_000_000L / speed);
+    }
+
+    /**
+     * 다음 이벤트까지 남은 시간을 반환합니다.
+     *
+     * @param nowNanos 현재 시각 (나노초)
+     * @return 남은 시간 (나노초, 이미 예정 시각이 지났으면 0), 재생이 끝났으면 -1
+     */
+    public long nanosUntilNextEvent(long nowNanos) {
+        if (isFinished()) {
+            return -1;
+        }
+        return Math.max(0, dueNanos(next) - nowNanos);
+    }
+
+    public boolean isFinished() {
+        return started && next >= trace.size();
+    }
+
+    /**
+     * 현재 스레드에서 처음부터 끝까지 재생합니다. 헤드리스 부하 시험용입니다.
+     *
+     * @return 전달한 이벤트 수
+     */
+    public int runBlocking() {
+        start(System.nanoTime());
+        int total = 0;
+        while (!isFinished()) {
+            long now = System.nanoTime();
+            total += step(now, BLOCKING_BATCH);
+            long wait = nanosUntilNextEvent(System.nanoTime());
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /** 전달한 이벤트 수 */
+    public int getDispatchedCount() {
+        return next;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * 재생 시작부터 마지막 이벤트 전달(또는 주어진 시각)까지의 시간을 반환합니다.
+     */
+    public long getElapsedNanos(long nowNanos) {
+        return (finishNanos != 0 ? finishNanos : nowNanos) - startNanos;
+    }
+
+    /**
+     * 초당 전달한 이벤트 수를 반환합니다.
+     *
+     * @param nowNanos 현재 시각 (재생이 끝났으면 무시)
+     */
+    public double getUpdatesPerSecond(long nowNanos) {
+        long elapsed = getElapsedNanos(nowNanos);
+        return elapsed > 0 ? next * 1e9 / elapsed : 0.0;
+    }
+
+    /** 이벤트 하나를 {@link Sink}가 처리하는 데 걸린 시간 */
+    public LatencyHistogram getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    /** 예정 시각보다 늦게 전달된 정도 (배속 재생에서만 기록) */
+    public LatencyHistogram getLateness() {
+        return lateness;
+    }
+
+    /**
+     * 재생 결과를 여러 줄 문자열로 반환합니다.
+     *
+     * @param nowNanos 현재 시각 (재생이 끝났으면 무시)
+     * @return 통계 문자열
+     */
+    public String getStats(long nowNanos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "replay speed=%s events=%d/%d elapsed=%.1fms rate=%.0f updates/s%n",
+                speed == SPEED_MAX ? "max" : String.format(Locale.US, "%.1fx", speed),
+                next, trace.size(), getElapsedNanos(nowNanos) / 1e6, getUpdatesPerSecond(nowNanos)));
+        sb.append(dispatchLatency.summary());
+        if (speed != SPEED_MAX) {
+            sb.append('\n').append(lateness.summary());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,475 @@
+package com.example.test_navigation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * TripLog 클래스는 주행 경로(브레드크럼)를 앱이 강제 종료되어도 남도록 파일에 이어 쓰는 추가 전용 기록입니다.
+ *
+ * <p>파일 구조 (리틀 엔디언):</p>
+ * <pre>
+ * magic(int) version(int) recordSize(int) reserved(int)
+ * 레코드 × n ({@value #RECORD_SIZE}바이트):
+ *   timeMillis(long) latE7(int) lonE7(int) heading(char, 0.01도) speed(char, cm/s) crc32(int)
+ * </pre>
+ * <ul>
+ *     <li>레코드 크기가 고정이므로 파일 길이만으로 레코드 수를 알고, 한 번에 큰 덩어리로 읽어 빠르게 다시 불러옵니다.</li>
+ *     <li>레코드마다 앞 20바이트의 CRC32를 두어, 쓰는 도중 끊긴 마지막 레코드나 손상된 꼬리를 열 때 찾아 잘라냅니다.
+ *     열면 마지막으로 온전한 레코드까지 복구됩니다.</li>
+ *     <li>추가는 메모리 버퍼에 모았다가 {@code flushIntervalMillis}마다 파일에 쓰고(프로세스가 죽어도 남음),
+ *     {@code syncIntervalMillis}마다 fsync합니다(전원이 꺼져도 남음). 간격은 레코드 시각으로 셉니다.</li>
+ *     <li>{@link #compact}는 오래된 구간의 점을 솎아 새 파일에 쓰고 원자적으로 바꿔치기합니다.</li>
+ * </ul>
+ *
+ * <p>이 클래스는 스레드 안전하지 않으므로 한 스레드에서만 사용해야 합니다.</p>
+ */
+public class TripLog implements Closeable {
+
+    /** 레코드 크기 (바이트) */
+    public static final int RECORD_SIZE = 24;
+    /** 기본 파일 쓰기 간격 (밀리초) */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    /** 기본 fsync 간격 (밀리초) */
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10_000;
+
+    /** "TRIP" */
+    static final int MAGIC = 0x54524950;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private static final int CRC_OFFSET = 20;
+    /** heading, speed 값을 모를 때 저장하는 값 */
+    private static final char UNKNOWN = 0xFFFF;
+    private static final double E7 = 1e7;
+    private static final int WRITE_BUFFER_RECORDS = 256;
+    private static final int READ_BUFFER_RECORDS = 8192;
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    /**
+     * 읽은 레코드를 하나씩 전달받는 콜백입니다.
+     */
+    public interface RecordConsumer {
+        /**
+         * @param timeMillis 기록 시각 (밀리초)
+         * @param latitude 위도
+         * @param longitude 경도
+         * @param heading 방향 (도, 모르면 NaN)
+         * @param speed 속도 (m/s, 모르면 NaN)
+         */
+        void onRecord(long timeMillis, double latitude, double longitude, float heading, float speed);
+    }
+
+    private final File file;
+    private final long flushIntervalMillis;
+    private final long syncIntervalMillis;
+    private final ByteBuffer writeBuffer =
+            ByteBuffer.allocate(RECORD_SIZE * WRITE_BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    /** 파일에 쓰인 유효한 데이터의 끝 */
+    private long fileLength;
+    private long lastFlushMillis = Long.MIN_VALUE;
+    private long lastSyncMillis = Long.MIN_VALUE;
+    private boolean dirty;
+    private int recoveredCount;
+    private long discardedBytes;
+
+    /**
+     * 기본 간격으로 기록을 엽니다.
+     *
+     * @see #TripLog(File, long, long, RecordConsumer)
+     */
+    public TripLog(File file, RecordConsumer recovered) throws IOException {
+        this(file, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_SYNC_INTERVAL_MILLIS, recovered);
+    }
+
+    /**
+     * 기록을 엽니다. 파일이 없으면 만들고, 있으면 처음부터 읽어 손상된 꼬리를 잘라냅니다.
+     *
+     * @param file 기록 파일
+     * @param flushIntervalMillis 버퍼를 파일에 쓰는 간격 (밀리초, 0이면 추가할 때마다)
+     * @param syncIntervalMillis fsync 간격 (밀리초)
+     * @param recovered 복구된 레코드를 받을 콜백 (null 가능). 파일을 한 번만 읽으면서 경로를 다시 불러올 수 있습니다.
+     * @throws IOException 파일을 열 수 없거나 기록 파일이 아닌 경우
+     */
+    public TripLog(File file, long flushIntervalMillis, long syncIntervalMillis, RecordConsumer recovered)
+            throws IOException {
+        this.file = file;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.syncIntervalMillis = syncIntervalMillis;
+        // 압축 도중 죽었다면 원본이 그대로 남아 있으므로 임시 파일만 지웁니다.
+        File compacting = compactFile();
+        if (compacting.exists() && !compacting.delete()) {
+            throw new IOException("Cannot delete " + compacting);
+        }
+        open(recovered);
+    }
+
+    private void open(RecordConsumer recovered) throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        try {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                // 새 파일이거나 헤더를 쓰다가 끊긴 파일
+                writeHeader(channel);
+                channel.truncate(HEADER_SIZE);
+                channel.force(true);
+                fileLength = HEADER_SIZE;
+                discardedBytes = length;
+                recoveredCount = 0;
+                return;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a trip log: " + file);
+            }
+            if (header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+                throw new IOException("Unsupported trip log version " + header.getInt(4) + ": " + file);
+            }
+            fileLength = length;
+            long validEnd = scan(length, recovered);
+            recoveredCount = (int) ((validEnd - HEADER_SIZE) / RECORD_SIZE);
+            discardedBytes = length - validEnd;
+            if (validEnd < length) {
+                channel.truncate(validEnd);
+                channel.force(true);
+            }
+            fileLength = validEnd;
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+        channel.write(header, 0);
+    }
+
+    /**
+     * 헤더 뒤부터 {@code end}까지 레코드를 읽어 전달합니다. CRC가 맞지 않는 첫 레코드에서 멈춥니다.
+     *
+     * @return 마지막으로 온전한 레코드의 끝 위치
+     */
+    private long scan(long end, RecordConsumer consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * READ_BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] array = buffer.array();
+        long position = HEADER_SIZE;
+        while (position + RECORD_SIZE <= end) {
+            int want = (int) Math.min(buffer.capacity(), (end - position) / RECORD_SIZE * RECORD_SIZE);
+            buffer.clear();
+            buffer.limit(want);
+            readFully(channel, buffer, position);
+            for (int offset = 0; offset < want; offset += RECORD_SIZE) {
+                crc.reset();
+                crc.update(array, offset, CRC_OFFSET);
+                if ((int) crc.getValue() != buffer.getInt(offset + CRC_OFFSET)) {
+                    return position + offset;
+                }
+                if (consumer != null) {
+                    char heading = buffer.getChar(offset + 16);
+                    char speed = buffer.getChar(offset + 18);
+                    consumer.onRecord(buffer.getLong(offset),
+                            buffer.getInt(offset + 8) / E7,
+                            buffer.getInt(offset + 12) / E7,
+                            heading == UNKNOWN ? Float.NaN : heading / 100f,
+                            speed == UNKNOWN ? Float.NaN : speed / 100f);
+                }
+            }
+            position += want;
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("Unexpected end of trip log");
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * 레코드를 추가합니다. 쓰기 간격이 지났으면 파일에 쓰고, fsync 간격이 지났으면 fsync합니다.
+     *
+     * @param timeMillis 기록 시각 (밀리초). 쓰기, fsync 간격도 이 시각으로 셉니다.
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param heading 방향 (도, 모르면 NaN)
+     * @param speed 속도 (m/s, 모르면 NaN)
+     * @throws IOException 쓰기 실패
+     */
+    public void append(long timeMillis, double latitude, double longitude, float heading, float speed)
+            throws IOException {
+        if (!writeBuffer.hasRemaining()) {
+            flush();
+        }
+        putRecord(writeBuffer, crc, timeMillis, latitude, longitude, heading, speed);
+
+        if (lastFlushMillis == Long.MIN_VALUE) {
+            lastFlushMillis = timeMillis;
+            lastSyncMillis = timeMillis;
+        }
+        if (timeMillis - lastFlushMillis >= flushIntervalMillis) {
+            flush();
+            lastFlushMillis = timeMillis;
+        }
+        if (timeMillis - lastSyncMillis >= syncIntervalMillis) {
+            sync();
+            lastSyncMillis = timeMillis;
+        }
+    }
+
+    private static void putRecord(ByteBuffer buffer, CRC32 crc, long timeMillis, double latitude, double longitude,
+                                  float heading, float speed) {
+        int offset = buffer.position();
+        buffer.putLong(timeMillis)
+                .putInt((int) Math.round(latitude * E7))
+                .putInt((int) Math.round(longitude * E7))
+                .putChar(encodeHeading(heading))
+                .putChar(encodeSpeed(speed));
+        crc.reset();
+        crc.update(buffer.array(), offset, CRC_OFFSET);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private static char encodeHeading(float heading) {
+        if (Float.isNaN(heading)) {
+            return UNKNOWN;
+        }
+        return (char) (Math.round(HeadingFilter.normalize(heading) * 100f) % 36000);
+    }
+
+    private static char encodeSpeed(float speed) {
+        if (Float.isNaN(speed) || speed < 0) {
+            return UNKNOWN;
+        }
+        return (char) Math.min(UNKNOWN - 1, Math.round(speed * 100f));
+    }
+
+    /**
+     * 버퍼에 모인 레코드를 파일에 씁니다. 이후에는 프로세스가 죽어도 남습니다.
+     *
+     * @throws IOException 쓰기 실패
+     */
+    public void flush() throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            fileLength += channel.write(writeBuffer, fileLength);
+        }
+        writeBuffer.clear();
+        dirty = true;
+    }
+
+    /**
+     * 버퍼를 파일에 쓰고 fsync합니다. 이후에는 전원이 꺼져도 남습니다.
+     *
+     * @throws IOException 쓰기 실패
+     */
+    public void sync() throws IOException {
+        flush();
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    /**
+     * 모든 레코드를 처음부터 읽습니다. 버퍼에 남은 레코드는 먼저 파일에 씁니다.
+     *
+     * @param consumer 레코드를 받을 콜백
+     * @return 읽은 레코드 수
+     * @throws IOException 읽기 실패
+     */
+    public int read(RecordConsumer consumer) throws IOException {
+        flush();
+        long end = scan(fileLength, consumer);
+        return (int) ((end - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    /** 레코드 수 (버퍼에 있는 레코드 포함) */
+    public int size() {
+        return (int) ((fileLength - HEADER_SIZE) / RECORD_SIZE) + writeBuffer.position() / RECORD_SIZE;
+    }
+
+    /** 열 때 복구된 레코드 수 */
+    public int getRecoveredCount() {
+        return recoveredCount;
+    }
+
+    /** 열 때 손상되어 잘라낸 꼬리 크기 (바이트) */
+    public long getDiscardedBytes() {
+        return discardedBytes;
+    }
+
+    /**
+     * 모든 레코드를 지웁니다.
+     *
+     * @throws IOException 쓰기 실패
+     */
+    public void clear() throws IOException {
+        writeBuffer.clear();
+        channel.truncate(HEADER_SIZE);
+        channel.force(true);
+        fileLength = HEADER_SIZE;
+        dirty = false;
+    }
+
+    /**
+     * 오래된 구간의 점을 솎아 기록을 줄입니다. {@code beforeMillis} 이전 레코드는 앞에 남긴 점에서
+     * {@code minSpacingMeters} 이상 떨어진 점과 그 구간의 마지막 점만 남기고, 이후 레코드는 그대로 둡니다.
+     * 새 파일에 쓰고 fsync한 뒤 원자적으로 바꿔치기하므로, 도중에 죽어도 원본이 남습니다.
+     *
+     * @param beforeMillis 이 시각 이전의 레코드만 솎습니다
+     * @param minSpacingMeters 남길 점 사이의 최소 간격 (미터)
+     * @return 지운 레코드 수
+     * @throws IOException 쓰기 실패
+     */
+    public int compact(long beforeMillis, double minSpacingMeters) throws IOException {
+        flush();
+        int before = size();
+        File compacting = compactFile();
+        try (RandomAccessFile out = new RandomAccessFile(compacting, "rw")) {
+            FileChannel outChannel = out.getChannel();
+            outChannel.truncate(0);
+            writeHeader(outChannel);
+            Compactor compactor = new Compactor(outChannel, beforeMillis, minSpacingMeters);
+            try {
+                scan(fileLength, compactor);
+                compactor.finish();
+            } catch (CompactionException e) {
+                throw (IOException) e.getCause();
+            }
+            outChannel.force(true);
+        }
+        raf.close();
+        if (!compacting.renameTo(file)) {
+            compacting.delete();
+            open(null);
+            throw new IOException("Cannot replace " + file);
+        }
+        open(null);
+        return before - size();
+    }
+
+    private File compactFile() {
+        return new File(file.getPath() + COMPACT_SUFFIX);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * 압축할 때 남길 레코드를 골라 새 파일에 쓰는 콜백입니다.
+     */
+    private final class Compactor implements RecordConsumer {
+        private final FileChannel out;
+        private final long beforeMillis;
+        private final double minSpacingMeters;
+        private final ByteBuffer buffer =
+                ByteBuffer.allocate(RECORD_SIZE * READ_BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 recordCrc = new CRC32();
+        private long position = HEADER_SIZE;
+        private boolean hasKept;
+        private double keptLat;
+        private double keptLon;
+        /** 솎는 구간의 아직 쓰지 않은 마지막 점 */
+        private boolean hasPending;
+        private long pendingTime;
+        private double pendingLat;
+        private double pendingLon;
+        private float pendingHeading;
+        private float pendingSpeed;
+
+        Compactor(FileChannel out, long beforeMillis, double minSpacingMeters) {
+            this.out = out;
+            this.beforeMillis = beforeMillis;
+            this.minSpacingMeters = minSpacingMeters;
+        }
+
+        @Override
+        public void onRecord(long timeMillis, double latitude, double longitude, float heading, float speed) {
+            if (timeMillis >= beforeMillis) {
+                flushPending();
+                put(timeMillis, latitude, longitude, heading, speed);
+                return;
+            }
+            if (!hasKept || GeoMath.distanceMeters(keptLat, keptLon, latitude, longitude) >= minSpacingMeters) {
+                hasPending = false;
+                put(timeMillis, latitude, longitude, heading, speed);
+                keptLat = latitude;
+                keptLon = longitude;
+                hasKept = true;
+            } else {
+                hasPending = true;
+                pendingTime = timeMillis;
+                pendingLat = latitude;
+                pendingLon = longitude;
+                pendingHeading = heading;
+                pendingSpeed = speed;
+            }
+        }
+
+        private void flushPending() {
+            if (hasPending) {
+                hasPending = false;
+                put(pendingTime, pendingLat, pendingLon, pendingHeading, pendingSpeed);
+            }
+        }
+
+        private void put(long timeMillis, double latitude, double longitude, float heading, float speed) {
+            if (!buffer.hasRemaining()) {
+                write();
+            }
+            putRecord(buffer, recordCrc, timeMillis, latitude, longitude, heading, speed);
+        }
+
+        private void write() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    position += out.write(buffer, position);
+                }
+            } catch (IOException e) {
+                throw new CompactionException(e);
+            }
+            buffer.clear();
+        }
+
+        void finish() {
+            flushPending();
+            write();
+        }
+    }
+
+    /** 콜백 안에서 난 쓰기 오류를 {@link #compact}까지 전달하는 예외입니다. */
+    private static final class CompactionException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CompactionException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.test_navigation;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TripLogQueue 클래스는 UI 스레드가 위치마다 넣은 주행 기록 레코드를 {@link TripLog}를 가진 스레드로 넘기는
+ * 미리 할당한 원형 대기열입니다. 생산자 하나, 소비자 하나만 사용할 수 있습니다.
+ *
+ * <ul>
+ *     <li>{@link #offer}는 원시 배열에 값을 쓰기만 하므로 위치 갱신 경로에서 메모리를 할당하지 않습니다.</li>
+ *     <li>생산자는 {@link #requestDrain()}이 true를 반환할 때만 소비자에게 {@link #drainTo}를 맡기므로,
+ *     같은 비우기 작업 하나를 계속 다시 쓸 수 있습니다.</li>
+ *     <li>기록 비우기도 {@link #offerClear()}로 같은 순서 안에 넣어, 비우기 전후의 점이 섞이지 않게 합니다.</li>
+ * </ul>
+ */
+public class TripLogQueue {
+
+    /** 레코드 대신 기록을 비우라는 표시로 시각 자리에 넣는 값 */
+    private static final long CLEAR = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final int mask;
+    private final long[] times;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final float[] headings;
+    private final float[] speeds;
+    /** 다음에 쓸 위치 (생산자만 바꿉니다) */
+    private final AtomicLong head = new AtomicLong();
+    /** 다음에 읽을 위치 (소비자만 바꿉니다) */
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    /** 생산자 스레드에서만 사용합니다. */
+    private long droppedCount;
+
+    /**
+     * @param capacity 담을 수 있는 레코드 수 (2의 거듭제곱)
+     */
+    public TripLogQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.times = new long[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.headings = new float[capacity];
+        this.speeds = new float[capacity];
+    }
+
+    /**
+     * 레코드를 넣습니다. 생산자 스레드에서 호출합니다.
+     *
+     * @return 대기열이 가득 차서 버렸으면 false
+     * @see TripLog#append
+     */
+    public boolean offer(long timeMillis, double latitude, double longitude, float heading, float speed) {
+        long h = head.get();
+        if (h - tail.get() == capacity) {
+            droppedCount++;
+            return false;
+        }
+        int i = (int) h & mask;
+        times[i] = timeMillis;
+        latitudes[i] = latitude;
+        longitudes[i] = longitude;
+        headings[i] = heading;
+        speeds[i] = speed;
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /**
+     * 이 앞에 넣은 레코드를 기록한 다음 기록을 비우도록 표시를 넣습니다. 생산자 스레드에서 호출합니다.
+     *
+     * @return 대기열이 가득 차서 넣지 못했으면 false
+     */
+    public boolean offerClear() {
+        return offer(CLEAR, 0, 0, Float.NaN, Float.NaN);
+    }
+
+    /**
+     * 소비자에게 비우기를 맡겨야 하는지 확인합니다. 맡긴 비우기가 시작되기 전까지는 다시 true를 반환하지 않습니다.
+     *
+     * @return 비우기 작업을 새로 맡겨야 하면 true
+     */
+    public boolean requestDrain() {
+        return drainRequested.compareAndSet(false, true);
+    }
+
+    /**
+     * 쌓인 레코드를 넣은 순서대로 기록에 추가합니다. 소비자 스레드에서 호출합니다.
+     * 쓰다가 실패한 레코드는 버리고 예외를 던지며, 남은 레코드는 다음 비우기에서 기록합니다.
+     *
+     * @param log 주행 기록, null이면(기록을 열지 못한 경우) 레코드를 버립니다.
+     * @return 꺼낸 레코드 수 (비우기 표시 포함)
+     * @throws IOException 기록 쓰기 실패
+     */
+    public int drainTo(TripLog log) throws IOException {
+        // 이 뒤에 들어온 레코드는 생산자가 비우기를 다시 맡깁니다.
+        drainRequested.set(false);
+        long t = tail.get();
+        long start = t;
+        long h = head.get();
+        try {
+            while (t < h) {
+                int i = (int) t++ & mask;
+                if (log == null) {
+                    continue;
+                }
+                if (times[i] == CLEAR) {
+                    log.clear();
+                } else {
+                    log.append(times[i], latitudes[i], longitudes[i], headings[i], speeds[i]);
+                }
+            }
+        } finally {
+            tail.lazySet(t);
+        }
+        return (int) (t - start);
+    }
+
+    /** 아직 꺼내지 않은 레코드 수 */
+    public int size() {
+        return (int) (head.get() - tail.get());
+    }
+
+    /** 대기열이 가득 차서 버린 레코드 수. 생산자 스레드에서 호출합니다. */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
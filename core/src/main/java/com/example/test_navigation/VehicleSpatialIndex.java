@@ -0,0 +1,492 @@
+package com.example.test_navigation;
+
+import java.util.Arrays;
+
+/**
+ * VehicleSpatialIndex 클래스는 계속 움직이는 원격 차량 위치에 대한 공간 질의(반경 안, k개 최근접, 진행 방향 앞쪽 부채꼴)를
+ * 처리하는 균일 격자 색인입니다.
+ *
+ * <ul>
+ *     <li>위경도를 원점 기준 국소 평면 좌표(동쪽/북쪽 미터)로 바꿔 저장하므로 거리 계산은 곱셈과 덧셈뿐입니다.
+ *     원점에서 수십 km 안에서는 오차가 0.5% 미만이고, 질의 위치가 {@link #REORIGIN_METERS}보다 멀어지면 원점을 옮깁니다.</li>
+ *     <li>격자 칸은 칸 좌표의 해시로 버킷에 모이고, 버킷마다 차량 슬롯의 이중 연결 리스트를 둡니다.
+ *     {@link #update}는 같은 칸 안의 이동이면 좌표만 바꾸고, 칸이 바뀌면 리스트 두 개만 고치므로 다시 만들 필요가 없습니다.</li>
+ *     <li>진행 방향은 단위 벡터로 저장하여 부채꼴 판정에 삼각함수를 쓰지 않습니다.</li>
+ * </ul>
+ *
+ * <p>스레드 안전하지 않습니다. 한 스레드(예: {@link RemoteVehicleStore}의 게시 스레드)에서만 사용해야 합니다.</p>
+ */
+public class VehicleSpatialIndex {
+
+    /** 기본 격자 칸 크기 (미터) */
+    public static final double DEFAULT_CELL_METERS = 64;
+    /** 질의 위치가 원점에서 이 거리보다 멀어지면 원점을 옮깁니다. (미터) */
+    public static final double REORIGIN_METERS = 50_000;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int EMPTY = -1;
+
+    private final double cellMeters;
+    private final double inverseCell;
+
+    private boolean hasOrigin;
+    private double originLatitude;
+    private double originLongitude;
+    private double metersPerDegreeLongitude;
+
+    private int count;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private float[] headingXs = new float[INITIAL_CAPACITY];
+    private float[] headingYs = new float[INITIAL_CAPACITY];
+    private int[] cellXs = new int[INITIAL_CAPACITY];
+    private int[] cellYs = new int[INITIAL_CAPACITY];
+    private int[] nexts = new int[INITIAL_CAPACITY];
+    private int[] prevs = new int[INITIAL_CAPACITY];
+
+    private int[] bucketHeads = newFilled(INITIAL_CAPACITY * 2);
+    private int[] hashKeys = new int[INITIAL_CAPACITY * 2];
+    private int[] hashSlots = newFilled(INITIAL_CAPACITY * 2);
+
+    // 최근접 질의의 후보 (거리순으로 유지)
+    private int[] bestSlots = new int[8];
+    private double[] bestDistances = new double[8];
+
+    public VehicleSpatialIndex() {
+        this(DEFAULT_CELL_METERS);
+    }
+
+    /**
+     * @param cellMeters 격자 칸 크기 (미터). 주로 쓰는 질의 반경과 비슷하게 잡으면 질의마다 훑는 칸이 적습니다.
+     */
+    public VehicleSpatialIndex(double cellMeters) {
+        if (!(cellMeters > 0)) {
+            throw new IllegalArgumentException("cellMeters must be positive: " + cellMeters);
+        }
+        this.cellMeters = cellMeters;
+        this.inverseCell = 1.0 / cellMeters;
+    }
+
+    private static int[] newFilled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, EMPTY);
+        return array;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public double getCellMeters() {
+        return cellMeters;
+    }
+
+    /**
+     * 차량을 추가하거나, 이미 있으면 위치와 방향을 갱신합니다.
+     *
+     * @param id 차량 ID
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param heading 진행 방향 (도, 북쪽 기준 시계 방향)
+     */
+    public void update(int id, double latitude, double longitude, float heading) {
+        if (!hasOrigin) {
+            setOrigin(latitude, longitude);
+        }
+        int slot = findSlot(id);
+        if (slot == EMPTY) {
+            ensureCapacity(count + 1);
+            slot = count++;
+            ids[slot] = id;
+            hashPut(id, slot);
+            cellXs[slot] = Integer.MIN_VALUE;
+        }
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        double radians = Math.toRadians(heading);
+        headingXs[slot] = (float) Math.sin(radians);
+        headingYs[slot] = (float) Math.cos(radians);
+        place(slot);
+    }
+
+    /**
+     * 차량을 제거합니다.
+     *
+     * @param id 차량 ID
+     * @return 있었으면 true
+     */
+    public boolean remove(int id) {
+        int slot = findSlot(id);
+        if (slot == EMPTY) {
+            return false;
+        }
+        hashRemove(id);
+        unlink(slot);
+        int last = --count;
+        if (slot != last) {
+            // 마지막 슬롯을 빈 자리로 옮기고 리스트와 해시의 참조를 고칩니다.
+            ids[slot] = ids[last];
+            latitudes[slot] = latitudes[last];
+            longitudes[slot] = longitudes[last];
+            xs[slot] = xs[last];
+            ys[slot] = ys[last];
+            headingXs[slot] = headingXs[last];
+            headingYs[slot] = headingYs[last];
+            cellXs[slot] = cellXs[last];
+            cellYs[slot] = cellYs[last];
+            nexts[slot] = nexts[last];
+            prevs[slot] = prevs[last];
+            if (prevs[slot] != EMPTY) {
+                nexts[prevs[slot]] = slot;
+            } else {
+                bucketHeads[bucket(cellXs[slot], cellYs[slot])] = slot;
+            }
+            if (nexts[slot] != EMPTY) {
+                prevs[nexts[slot]] = slot;
+            }
+            hashPut(ids[slot], slot);
+        }
+        return true;
+    }
+
+    /**
+     * 모든 차량을 제거합니다. 원점은 유지합니다.
+     */
+    public void clear() {
+        count = 0;
+        Arrays.fill(bucketHeads, EMPTY);
+        Arrays.fill(hashSlots, EMPTY);
+    }
+
+    public boolean contains(int id) {
+        return findSlot(id) != EMPTY;
+    }
+
+    /**
+     * 반경 안의 차량을 찾습니다. 결과 순서는 정해져 있지 않습니다.
+     *
+     * @param latitude 질의 위도
+     * @param longitude 질의 경도
+     * @param radiusMeters 반경 (미터)
+     * @param outIds 결과 차량 ID를 받을 배열. 배열이 차면 나머지는 버립니다.
+     * @return 결과 수
+     */
+    public int findWithinRadius(double latitude, double longitude, double radiusMeters, int[] outIds) {
+        if (count == 0 || outIds.length == 0) {
+            return 0;
+        }
+        prepareQuery(latitude, longitude);
+        double qx = projectX(longitude);
+        double qy = projectY(latitude);
+        double radiusSq = radiusMeters * radiusMeters;
+        int minCx = cell(qx - radiusMeters);
+        int maxCx = cell(qx + radiusMeters);
+        int minCy = cell(qy - radiusMeters);
+        int maxCy = cell(qy + radiusMeters);
+        int found = 0;
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                for (int s = bucketHeads[bucket(cx, cy)]; s != EMPTY; s = nexts[s]) {
+                    if (cellXs[s] != cx || cellYs[s] != cy) {
+                        continue;
+                    }
+                    double dx = xs[s] - qx;
+                    double dy = ys[s] - qy;
+                    if (dx * dx + dy * dy <= radiusSq) {
+                        outIds[found++] = ids[s];
+                        if (found == outIds.length) {
+                            return found;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 가까운 순서로 최대 {@code outIds.length}대의 차량을 찾습니다.
+     *
+     * @param latitude 질의 위도
+     * @param longitude 질의 경도
+     * @param maxRadiusMeters 최대 거리 (미터)
+     * @param outIds 결과 차량 ID를 받을 배열 (가까운 순)
+     * @param outDistances 결과 거리(미터)를 받을 배열, 필요 없으면 null
+     * @return 결과 수
+     */
+    public int findNearest(double latitude, double longitude, double maxRadiusMeters,
+                           int[] outIds, double[] outDistances) {
+        return search(latitude, longitude, maxRadiusMeters, 0f, 0f, -1, -2, outIds, outDistances);
+    }
+
+    /**
+     * 진행 방향 앞쪽 부채꼴 안에서 가까운 순서로 최대 {@code outIds.length}대의 차량을 찾습니다.
+     * 첫 번째 결과가 전방 차량입니다.
+     *
+     * @param latitude 기준 차량 위도
+     * @param longitude 기준 차량 경도
+     * @param heading 기준 차량 진행 방향 (도)
+     * @param halfAngleDegrees 부채꼴 반각 (도, 0~90)
+     * @param rangeMeters 최대 거리 (미터)
+     * @param maxHeadingDeltaDegrees 기준 차량과 진행 방향 차이의 최대값 (도). 180이면 방향을 보지 않습니다.
+     * @param outIds 결과 차량 ID를 받을 배열 (가까운 순)
+     * @param outDistances 결과 거리(미터)를 받을 배열, 필요 없으면 null
+     * @return 결과 수
+     */
+    public int findAhead(double latitude, double longitude, float heading, double halfAngleDegrees,
+                         double rangeMeters, double maxHeadingDeltaDegrees, int[] outIds, double[] outDistances) {
+        double radians = Math.toRadians(heading);
+        double coneCos = Math.cos(Math.toRadians(Math.min(90, Math.max(0, halfAngleDegrees))));
+        double headingCos = maxHeadingDeltaDegrees >= 180 ? -2 : Math.cos(Math.toRadians(maxHeadingDeltaDegrees));
+        return search(latitude, longitude, rangeMeters, (float) Math.sin(radians), (float) Math.cos(radians),
+                coneCos * coneCos, headingCos, outIds, outDistances);
+    }
+
+    /**
+     * 질의 칸에서 바깥 고리로 넓혀 가며 조건에 맞는 가까운 차량을 모읍니다.
+     * k번째 후보보다 가까운 점이 더 바깥 고리에 있을 수 없거나 모든 차량을 살펴봤으면 멈춥니다.
+     *
+     * @param hx 부채꼴 방향 단위 벡터의 동쪽 성분
+     * @param hy 부채꼴 방향 단위 벡터의 북쪽 성분
+     * @param coneCosSq 부채꼴 반각 코사인의 제곱, 음수면 부채꼴 판정 없음
+     * @param headingCos 진행 방향 차이 코사인의 최소값, -2면 판정 없음
+     */
+    private int search(double latitude, double longitude, double maxRadiusMeters, float hx, float hy,
+                       double coneCosSq, double headingCos, int[] outIds, double[] outDistances) {
+        int k = outIds.length;
+        if (count == 0 || k == 0) {
+            return 0;
+        }
+        prepareQuery(latitude, longitude);
+        if (bestSlots.length < k) {
+            bestSlots = new int[k];
+            bestDistances = new double[k];
+        }
+        double qx = projectX(longitude);
+        double qy = projectY(latitude);
+        int qcx = cell(qx);
+        int qcy = cell(qy);
+        double limitSq = maxRadiusMeters * maxRadiusMeters;
+        int found = 0;
+        int seen = 0;
+        int maxRing = (int) Math.min(Integer.MAX_VALUE - 1, Math.ceil(maxRadiusMeters * inverseCell) + 1);
+        for (int ring = 0; ring <= maxRing && seen < count; ring++) {
+            // 이 고리의 칸은 질의 점에서 적어도 (ring - 1)칸 떨어져 있습니다.
+            double ringMin = (ring - 1) * cellMeters;
+            if (ring > 1 && ringMin * ringMin > (found == k ? bestDistances[k - 1] : limitSq)) {
+                break;
+            }
+            for (int cy = qcy - ring; cy <= qcy + ring; cy++) {
+                boolean edgeRow = cy == qcy - ring || cy == qcy + ring;
+                int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                for (int cx = qcx - ring; cx <= qcx + ring; cx += step) {
+                    for (int s = bucketHeads[bucket(cx, cy)]; s != EMPTY; s = nexts[s]) {
+                        if (cellXs[s] != cx || cellYs[s] != cy) {
+                            continue;
+                        }
+                        seen++;
+                        double dx = xs[s] - qx;
+                        double dy = ys[s] - qy;
+                        double distSq = dx * dx + dy * dy;
+                        if (distSq > limitSq || (found == k && distSq >= bestDistances[k - 1])) {
+                            continue;
+                        }
+                        if (coneCosSq >= 0) {
+                            double along = dx * hx + dy * hy;
+                            if (along <= 0 || along * along < distSq * coneCosSq) {
+                                continue;
+                            }
+                            if (headingXs[s] * hx + headingYs[s] * hy < headingCos) {
+                                continue;
+                            }
+                        }
+                        found = insertBest(s, distSq, found, k);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < found; i++) {
+            outIds[i] = ids[bestSlots[i]];
+            if (outDistances != null) {
+                outDistances[i] = Math.sqrt(bestDistances[i]);
+            }
+        }
+        return found;
+    }
+
+    /** 거리순 후보 목록에 삽입 정렬로 넣습니다. */
+    private int insertBest(int slot, double distSq, int found, int k) {
+        int i = found < k ? found++ : k - 1;
+        while (i > 0 && bestDistances[i - 1] > distSq) {
+            bestSlots[i] = bestSlots[i - 1];
+            bestDistances[i] = bestDistances[i - 1];
+            i--;
+        }
+        bestSlots[i] = slot;
+        bestDistances[i] = distSq;
+        return found;
+    }
+
+    private void prepareQuery(double latitude, double longitude) {
+        double dx = projectX(longitude);
+        double dy = projectY(latitude);
+        if (dx * dx + dy * dy > REORIGIN_METERS * REORIGIN_METERS) {
+            setOrigin(latitude, longitude);
+        }
+    }
+
+    /**
+     * 원점을 옮기고 모든 차량을 새 좌표로 다시 배치합니다. 원점에서 멀리 이동했을 때만 일어납니다.
+     */
+    private void setOrigin(double latitude, double longitude) {
+        hasOrigin = true;
+        originLatitude = latitude;
+        originLongitude = longitude;
+        metersPerDegreeLongitude = TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        Arrays.fill(bucketHeads, EMPTY);
+        for (int slot = 0; slot < count; slot++) {
+            cellXs[slot] = Integer.MIN_VALUE;
+            place(slot);
+        }
+    }
+
+    private double projectX(double longitude) {
+        return (longitude - originLongitude) * metersPerDegreeLongitude;
+    }
+
+    private double projectY(double latitude) {
+        return (latitude - originLatitude) * TileMath.METERS_PER_DEGREE;
+    }
+
+    private int cell(double meters) {
+        return (int) Math.floor(meters * inverseCell);
+    }
+
+    private int bucket(int cx, int cy) {
+        int h = cx * 0x9E3779B1 + cy * 0x85EBCA6B;
+        return (h ^ (h >>> 15)) & (bucketHeads.length - 1);
+    }
+
+    /** 좌표를 계산하고 칸이 바뀌었으면 버킷 리스트를 옮깁니다. */
+    private void place(int slot) {
+        double x = projectX(longitudes[slot]);
+        double y = projectY(latitudes[slot]);
+        xs[slot] = x;
+        ys[slot] = y;
+        int cx = cell(x);
+        int cy = cell(y);
+        if (cx == cellXs[slot] && cy == cellYs[slot]) {
+            return;
+        }
+        if (cellXs[slot] != Integer.MIN_VALUE) {
+            unlink(slot);
+        }
+        cellXs[slot] = cx;
+        cellYs[slot] = cy;
+        link(slot);
+    }
+
+    private void link(int slot) {
+        int b = bucket(cellXs[slot], cellYs[slot]);
+        int head = bucketHeads[b];
+        prevs[slot] = EMPTY;
+        nexts[slot] = head;
+        if (head != EMPTY) {
+            prevs[head] = slot;
+        }
+        bucketHeads[b] = slot;
+    }
+
+    private void unlink(int slot) {
+        int prev = prevs[slot];
+        int next = nexts[slot];
+        if (prev != EMPTY) {
+            nexts[prev] = next;
+        } else {
+            bucketHeads[bucket(cellXs[slot], cellYs[slot])] = next;
+        }
+        if (next != EMPTY) {
+            prevs[next] = prev;
+        }
+    }
+
+    private static int hash(int id, int mask) {
+        int h = id * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int findSlot(int id) {
+        int mask = hashKeys.length - 1;
+        for (int h = hash(id, mask); hashSlots[h] != EMPTY; h = (h + 1) & mask) {
+            if (hashKeys[h] == id) {
+                return hashSlots[h];
+            }
+        }
+        return EMPTY;
+    }
+
+    private void hashPut(int id, int slot) {
+        int mask = hashKeys.length - 1;
+        int h = hash(id, mask);
+        while (hashSlots[h] != EMPTY && hashKeys[h] != id) {
+            h = (h + 1) & mask;
+        }
+        hashKeys[h] = id;
+        hashSlots[h] = slot;
+    }
+
+    private void hashRemove(int id) {
+        int mask = hashKeys.length - 1;
+        int h = hash(id, mask);
+        while (hashSlots[h] != EMPTY && hashKeys[h] != id) {
+            h = (h + 1) & mask;
+        }
+        if (hashSlots[h] == EMPTY) {
+            return;
+        }
+        // 뒤따르는 항목을 당겨 탐색 사슬이 끊기지 않게 합니다.
+        int gap = h;
+        for (int next = (gap + 1) & mask; hashSlots[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(hashKeys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                hashKeys[gap] = hashKeys[next];
+                hashSlots[gap] = hashSlots[next];
+                gap = next;
+            }
+        }
+        hashSlots[gap] = EMPTY;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = ids.length;
+        while (newLength < capacity) {
+            newLength *= 2;
+        }
+        ids = Arrays.copyOf(ids, newLength);
+        latitudes = Arrays.copyOf(latitudes, newLength);
+        longitudes = Arrays.copyOf(longitudes, newLength);
+        xs = Arrays.copyOf(xs, newLength);
+        ys = Arrays.copyOf(ys, newLength);
+        headingXs = Arrays.copyOf(headingXs, newLength);
+        headingYs = Arrays.copyOf(headingYs, newLength);
+        cellXs = Arrays.copyOf(cellXs, newLength);
+        cellYs = Arrays.copyOf(cellYs, newLength);
+        nexts = Arrays.copyOf(nexts, newLength);
+        prevs = Arrays.copyOf(prevs, newLength);
+
+        // 해시 표와 버킷은 항상 슬롯 수의 두 배 이상을 유지합니다.
+        hashKeys = new int[newLength * 2];
+        hashSlots = newFilled(newLength * 2);
+        bucketHeads = newFilled(newLength * 2);
+        for (int i = 0; i < count; i++) {
+            hashPut(ids[i], i);
+            link(i);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.test_navigation;
+
+import java.io.IOException;
+
+/**
+ * WritableTileStore 인터페이스는 델타 적용처럼 설치된 타일 저장소를 그 자리에서 고치는 작업이 사용하는 쓰기 인터페이스입니다.
+ * 앱에서는 Android SQLite, JVM 도구와 테스트에서는 JDBC로 같은 MBTiles 파일을 다룹니다.
+ * 좌표는 모두 XYZ 규칙입니다.
+ */
+public interface WritableTileStore {
+
+    /** @return 타일 바이트, 없으면 null */
+    byte[] getTile(int zoom, int x, int y) throws IOException;
+
+    /** 타일을 추가하거나 덮어씁니다. */
+    void putTile(int zoom, int x, int y, byte[] data) throws IOException;
+
+    void deleteTile(int zoom, int x, int y) throws IOException;
+
+    /** @return 값, 없으면 null */
+    String getMetadata(String name) throws IOException;
+
+    /**
+     * 메타데이터 값을 씁니다.
+     *
+     * @param value 값, null이면 삭제
+     */
+    void putMetadata(String name, String value) throws IOException;
+
+    void beginTransaction() throws IOException;
+
+    void commit() throws IOException;
+
+    /** 진행 중인 트랜잭션을 되돌립니다. 트랜잭션이 없으면 아무것도 하지 않습니다. */
+    void rollback();
+}
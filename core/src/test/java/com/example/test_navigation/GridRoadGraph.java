@@ -0,0 +1,83 @@
+package com.example.test_navigation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 경로 탐색과 지도 맞춤 테스트가 함께 쓰는 격자 도로 그래프입니다.
+ * 약 100m 간격 size × size 격자에서 5줄마다 60km/h, 나머지는 30km/h 도로를 두고,
+ * 축약해 임시 파일로 쓴 뒤 {@link RoadGraphReader}로 엽니다. 빌더의 노드 번호는 행 × size + 열입니다.
+ */
+final class GridRoadGraph implements Closeable {
+
+    /** 격자 간격 (도, 약 100m) */
+    static final double STEP = 0.001;
+
+    /** 이웃한 두 교차로 사이의 도로를 빌더에 넣는 방법 */
+    interface RoadFactory {
+        void addRoad(RoadGraphBuilder builder, int a, int b, double speedKmh);
+    }
+
+    final RoadGraphReader graph;
+    /** 축약으로 추가된 지름길 수 */
+    final int shortcutCount;
+    private final double latitude;
+    private final double longitude;
+    private final File file;
+
+    private GridRoadGraph(double latitude, double longitude, File file, RoadGraphReader graph, int shortcutCount) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.file = file;
+        this.graph = graph;
+        this.shortcutCount = shortcutCount;
+    }
+
+    /**
+     * 격자 그래프를 만들어 임시 파일로 쓰고 엽니다.
+     *
+     * @param prefix 임시 파일 이름 접두사
+     * @param latitude 0행의 위도
+     * @param longitude 0열의 경도
+     * @param size 한 변의 교차로 수
+     * @param roads 도로를 넣는 방법 (가로 도로는 행, 세로 도로는 열로 속도를 정합니다)
+     */
+    static GridRoadGraph create(String prefix, double latitude, double longitude, int size, RoadFactory roads)
+            throws IOException {
+        RoadGraphBuilder builder = new RoadGraphBuilder();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                builder.addNode(latitude + row * STEP, longitude + column * STEP);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int node = row * size + column;
+                if (column + 1 < size) {
+                    roads.addRoad(builder, node, node + 1, row % 5 == 0 ? 60 : 30);
+                }
+                if (row + 1 < size) {
+                    roads.addRoad(builder, node, node + size, column % 5 == 0 ? 60 : 30);
+                }
+            }
+        }
+        File file = File.createTempFile(prefix, RoadGraph.FILE_EXTENSION);
+        builder.write(file);
+        return new GridRoadGraph(latitude, longitude, file, new RoadGraphReader(file), builder.getShortcutCount());
+    }
+
+    double latitude(int row) {
+        return latitude + row * STEP;
+    }
+
+    double longitude(int column) {
+        return longitude + column * STEP;
+    }
+
+    @Override
+    public void close() {
+        graph.close();
+        file.delete();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * HeadingFilter의 평활, 불감대, 출력 간격 제한, 0도 경계 처리를 검증하는 단위 테스트입니다.
+ */
+public class HeadingFilterTest {
+
+    @Test
+    public void firstSample_isPassedThrough() {
+        HeadingFilter filter = new HeadingFilter();
+        assertTrue(filter.update(-90f, 0));
+        assertEquals(270f, filter.getHeading(), 1e-4f);
+    }
+
+    @Test
+    public void wrapAround_doesNotSwingThroughSouth() {
+        HeadingFilter filter = new HeadingFilter(100, 0f, 0);
+        filter.update(350f, 0);
+        for (long t = 20; t <= 1000; t += 20) {
+            filter.update(10f, t);
+            float heading = filter.getHeading();
+            // 350도에서 10도로 가는 동안 북쪽 근처만 지나갑니다.
+            assertTrue("heading " + heading, heading >= 349.9f || heading <= 10.1f);
+        }
+        assertEquals(0f, HeadingFilter.difference(filter.getHeading(), 10f), 0.1f);
+    }
+
+    @Test
+    public void smoothing_followsTimeNotSampleCount() {
+        HeadingFilter fast = new HeadingFilter(200, 0f, 0);
+        HeadingFilter slow = new HeadingFilter(200, 0f, 0);
+        fast.update(0f, 0);
+        slow.update(0f, 0);
+        for (long t = 10; t <= 200; t += 10) {
+            fast.update(40f, t);
+        }
+        for (long t = 50; t <= 200; t += 50) {
+            slow.update(40f, t);
+        }
+        // 시간 상수만큼 지나면 두 필터 모두 약 63% 따라갑니다.
+        assertEquals(fast.getHeading(), slow.getHeading(), 0.5f);
+        assertTrue(fast.getHeading() > 20f && fast.getHeading() < 30f);
+    }
+
+    @Test
+    public void jitter_isSuppressedByDeadbandAndRateLimit() {
+        HeadingFilter filter = new HeadingFilter();
+        Random random = new Random(3);
+        filter.update(90f, 0);
+        int outputs = 0;
+        // 50Hz 나침반, ±2도 잡음, 10초
+        for (long t = 20; t <= 10_000; t += 20) {
+            if (filter.update(90f + (random.nextFloat() - 0.5f) * 4f, t)) {
+                outputs++;
+            }
+            assertEquals(90f, filter.getHeading(), 1.5f);
+        }
+        assertTrue("outputs " + outputs, outputs < 100);
+    }
+
+    @Test
+    public void rateLimit_capsOutputFrequency() {
+        HeadingFilter filter = new HeadingFilter(0, 0f, 100);
+        filter.update(0f, 0);
+        int outputs = 0;
+        for (long t = 10; t <= 1000; t += 10) {
+            if (filter.update(t * 0.36f, t)) {
+                outputs++;
+            }
+        }
+        assertEquals(10, outputs);
+        assertEquals(0f, HeadingFilter.difference(filter.getHeading(), 360f), 1e-3f);
+        assertTrue(filter.getHeading() < 360f);
+    }
+
+    @Test
+    public void difference_isShortestSignedAngle() {
+        assertEquals(20f, HeadingFilter.difference(350f, 10f), 1e-4f);
+        assertEquals(-20f, HeadingFilter.difference(10f, 350f), 1e-4f);
+        assertEquals(180f, HeadingFilter.difference(0f, 180f), 1e-4f);
+        assertEquals(-90f, HeadingFilter.difference(-720f, 270f), 1e-4f);
+        assertEquals(0f, HeadingFilter.normalize(-1e-6f), 0f);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.test_navigation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 잡음을 섞은 격자 도로 주행 기록을 MapMatcher로 맞춰 정확도와 처리량, 창 크기 제한을 검증하는 단위 테스트입니다.
+ */
+public class MapMatcherTest {
+
+    private static final double LAT = 37.50;
+    private static final double LON = 127.00;
+    private static final int SIZE = 30;
+    /** 위치 사이 주행 거리 (미터, 1초 간격이면 약 43km/h) */
+    private static final double SPACING_METERS = 12;
+    /** 위치 잡음의 표준편차 (미터) */
+    private static final double NOISE_METERS = 8;
+
+    private GridRoadGraph grid;
+    private RoadGraphReader graph;
+
+    /** 주행 기록: 실제 위치와 잡음 섞인 위치, 위치가 놓인 실제 경로 구간 */
+    private final List<double[]> truth = new ArrayList<>();
+    private final List<double[]> fixes = new ArrayList<>();
+    private final List<Integer> segments = new ArrayList<>();
+    private final List<double[]> drivenNodes = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        grid = GridRoadGraph.create("matcher", LAT, LON, SIZE,
+                (builder, a, b, speedKmh) -> builder.addRoad(a, b, speedKmh, false));
+        graph = grid.graph;
+        drive(new Random(5), 120);
+    }
+
+    @After
+    public void tearDown() {
+        grid.close();
+    }
+
+    /**
+     * 격자 가운데에서 출발해 교차로마다 되돌아가지 않는 방향을 골라 달리는 기록을 만듭니다.
+     */
+    private void drive(Random random, int blocks) {
+        int row = SIZE / 2;
+        int column = SIZE / 2;
+        int direction = 0;
+        int[][] moves = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+        drivenNodes.add(new double[]{grid.latitude(row), grid.longitude(column)});
+        for (int i = 0; i < blocks; i++) {
+            int next;
+            do {
+                next = (direction + 3 + random.nextInt(3)) % 4;
+            } while (row + moves[next][0] < 0 || row + moves[next][0] >= SIZE
+                    || column + moves[next][1] < 0 || column + moves[next][1] >= SIZE);
+            direction = next;
+            row += moves[direction][0];
+            column += moves[direction][1];
+            drivenNodes.add(new double[]{grid.latitude(row), grid.longitude(column)});
+        }
+        double offset = 0;
+        for (int segment = 0; segment + 1 < drivenNodes.size(); segment++) {
+            double[] a = drivenNodes.get(segment);
+            double[] b = drivenNodes.get(segment + 1);
+            double length = GeoMath.distanceMeters(a[0], a[1], b[0], b[1]);
+            for (; offset < length; offset += SPACING_METERS) {
+                double t = offset / length;
+                double latitude = a[0] + t * (b[0] - a[0]);
+                double longitude = a[1] + t * (b[1] - a[1]);
+                truth.add(new double[]{latitude, longitude});
+                segments.add(segment);
+                fixes.add(new double[]{
+                        latitude + random.nextGaussian() * NOISE_METERS / TileMath.METERS_PER_DEGREE,
+                        longitude + random.nextGaussian() * NOISE_METERS
+                                / (TileMath.METERS_PER_DEGREE * TileMath.cosDegrees(latitude))});
+            }
+            offset -= length;
+        }
+    }
+
+    /** 위치가 실제 경로의 segment번째 구간 앞뒤 몇 구간 중 하나에 얼마나 가까운지 */
+    private double distanceToDrivenRoad(double latitude, double longitude, int segment) {
+        int first = Math.max(0, segment - 2);
+        int last = Math.min(drivenNodes.size() - 2, segment + 2);
+        double[] latitudes = new double[last - first + 2];
+        double[] longitudes = new double[last - first + 2];
+        for (int i = first; i <= last + 1; i++) {
+            latitudes[i - first] = drivenNodes.get(i)[0];
+            longitudes[i - first] = drivenNodes.get(i)[1];
+        }
+        Route road = new Route(latitudes, longitudes, 0);
+        double nearest = Double.MAX_VALUE;
+        for (int i = 0; i + 1 < road.getPointCount(); i++) {
+            nearest = Math.min(nearest, road.distanceToSegment(i, latitude, longitude));
+        }
+        return nearest;
+    }
+
+    @Test
+    public void noisyDrive_isSnappedToTheDrivenRoads() {
+        List<double[]> matched = new ArrayList<>();
+        MapMatcher matcher = new MapMatcher(graph, (latitude, longitude, snapped) -> {
+            assertTrue(snapped);
+            matched.add(new double[]{latitude, longitude});
+        });
+        for (double[] fix : fixes) {
+            matcher.add(fix[0], fix[1]);
+            // 창은 lag개를 넘지 않고, 그보다 오래된 위치는 모두 확정되어 있습니다.
+            assertTrue(matcher.getPendingCount() <= MapMatcher.DEFAULT_LAG);
+            assertEquals(matcher.getFixCount() - matcher.getPendingCount(), matched.size());
+        }
+        matcher.flush();
+        assertEquals(fixes.size(), matched.size());
+        assertEquals(0, matcher.getBreakCount());
+
+        int onRoad = 0;
+        int rawOnRoad = 0;
+        double alongError = 0;
+        for (int i = 0; i < fixes.size(); i++) {
+            double[] point = matched.get(i);
+            if (distanceToDrivenRoad(point[0], point[1], segments.get(i)) < 1) {
+                onRoad++;
+            }
+            if (distanceToDrivenRoad(fixes.get(i)[0], fixes.get(i)[1], segments.get(i)) < 1) {
+                rawOnRoad++;
+            }
+            alongError += GeoMath.distanceMeters(point[0], point[1], truth.get(i)[0], truth.get(i)[1]);
+        }
+        assertTrue("on road " + onRoad + "/" + fixes.size(), onRoad >= fixes.size() * 0.95);
+        assertTrue(rawOnRoad < fixes.size() * 0.2);
+        // 도로를 따라가는 방향의 오차는 남지만 위치 잡음보다 커지지 않습니다.
+        assertTrue(alongError / fixes.size() < NOISE_METERS);
+    }
+
+    @Test
+    public void replay_matchesWellAboveTenFixesPerSecond() {
+        ReplayTrace trace = new ReplayTrace();
+        long time = 0;
+        for (int lap = 0; lap < 5; lap++) {
+            // 갔던 길을 되돌아 반복해 주행을 이어 붙입니다.
+            for (int i = 0; i < fixes.size(); i++) {
+                double[] fix = fixes.get(lap % 2 == 0 ? i : fixes.size() - 1 - i);
+                trace.addLocation(time, fix[0], fix[1]);
+                time += 1000;
+            }
+        }
+        trace.sort();
+        int[] counts = new int[2];
+        MapMatcher matcher = new MapMatcher(graph, (latitude, longitude, snapped) -> counts[snapped ? 0 : 1]++);
+        TraceReplayer replayer = new TraceReplayer(trace, new TraceReplayer.Sink() {
+            @Override
+            public void onLocation(double latitude, double longitude) {
+                matcher.add(latitude, longitude);
+            }
+
+            @Override
+            public void onHeading(float heading) {
+            }
+
+            @Override
+            public void onVehicle(int id, int type, double latitude, double longitude, float heading, float speed) {
+            }
+        }, TraceReplayer.SPEED_MAX);
+        assertEquals(trace.size(), replayer.runBlocking());
+        matcher.flush();
+
+        assertEquals(trace.size(), counts[0] + counts[1]);
+        assertTrue(counts[0] >= trace.size() * 0.99);
+        double rate = replayer.getUpdatesPerSecond(System.nanoTime());
+        assertTrue("fixes/s " + rate, rate > 1000);
+        // 후보 쌍마다 경로를 찾지 않고 직선 거리 하한과 같은 간선 위 이동으로 대부분 거릅니다.
+        assertTrue(matcher.getRouteQueryCount() < trace.size() * 2);
+    }
+
+    @Test
+    public void fixAwayFromRoads_isPassedThroughAndRestarts() {
+        List<double[]> matched = new ArrayList<>();
+        List<Boolean> snapped = new ArrayList<>();
+        MapMatcher matcher = new MapMatcher(graph, (latitude, longitude, isSnapped) -> {
+            matched.add(new double[]{latitude, longitude});
+            snapped.add(isSnapped);
+        });
+        for (int i = 0; i < 3; i++) {
+            matcher.add(fixes.get(i)[0], fixes.get(i)[1]);
+        }
+        assertTrue(matched.isEmpty());
+        // 격자 바깥 1km 지점: 창에 있던 위치를 모두 확정한 뒤 원래 좌표를 그대로 넘깁니다.
+        double awayLatitude = LAT - 0.01;
+        matcher.add(awayLatitude, LON);
+        assertEquals(4, matched.size());
+        assertEquals(Boolean.FALSE, snapped.get(3));
+        assertEquals(awayLatitude, matched.get(3)[0], 0);
+        assertEquals(1, matcher.getBreakCount());
+        assertEquals(0, matcher.getPendingCount());
+
+        // 다시 도로 근처로 돌아오면 새 창에서 이어서 맞춥니다.
+        matcher.add(fixes.get(3)[0], fixes.get(3)[1]);
+        matcher.flush();
+        assertEquals(Boolean.TRUE, snapped.get(4));
+    }
+}
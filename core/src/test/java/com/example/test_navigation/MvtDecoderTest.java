@@ -0,0 +1,210 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * MvtDecoder가 직접 인코딩한 벡터 타일(원본/gzip)의 레이어, 태그, 도형 명령을 올바르게 읽는지 검증하는 단위 테스트입니다.
+ */
+public class MvtDecoderTest {
+
+    /** 테스트용 최소 프로토콜 버퍼 작성기 */
+    private static class ProtoWriter {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ProtoWriter varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        ProtoWriter tag(int field, int wire) {
+            return varint((long) field << 3 | wire);
+        }
+
+        ProtoWriter uint(int field, long value) {
+            return tag(field, 0).varint(value);
+        }
+
+        ProtoWriter bytes(int field, byte[] data) {
+            tag(field, 2).varint(data.length);
+            out.write(data, 0, data.length);
+            return this;
+        }
+
+        ProtoWriter string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ProtoWriter message(int field, ProtoWriter message) {
+            return bytes(field, message.toByteArray());
+        }
+
+        ProtoWriter packed(int field, int... values) {
+            ProtoWriter packed = new ProtoWriter();
+            for (int v : values) {
+                packed.varint(v & 0xFFFFFFFFL);
+            }
+            return bytes(field, packed.toByteArray());
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static int command(int id, int count) {
+        return (id & 7) | (count << 3);
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    /** 도로 선 하나와 건물 다각형 하나, 그리고 무시할 레이어 하나를 가진 타일 */
+    private static byte[] buildTile() {
+        ProtoWriter road = new ProtoWriter()
+                .uint(1, 42)
+                .packed(2, 0, 0, 1, 1)
+                .uint(3, MvtDecoder.GEOM_LINESTRING)
+                .packed(4, command(1, 1), zigzag(10), zigzag(20), command(2, 2), zigzag(5), zigzag(0),
+                        zigzag(-3), zigzag(7));
+        ProtoWriter transportation = new ProtoWriter()
+                .uint(15, 2)
+                .string(1, "transportation")
+                .message(2, road)
+                // 키/값과 extent가 피처 뒤에 오는 경우
+                .string(3, "class")
+                .string(3, "lanes")
+                .message(4, new ProtoWriter().string(1, "primary"))
+                .message(4, new ProtoWriter().uint(4, 4))
+                .uint(5, 512);
+
+        ProtoWriter building = new ProtoWriter()
+                .uint(3, MvtDecoder.GEOM_POLYGON)
+                .packed(4, command(1, 1), zigzag(0), zigzag(0), command(2, 3), zigzag(10), zigzag(0),
+                        zigzag(0), zigzag(10), zigzag(-10), zigzag(0), command(7, 1));
+        ProtoWriter buildings = new ProtoWriter()
+                .string(1, "building")
+                .message(2, building);
+
+        ProtoWriter labels = new ProtoWriter()
+                .string(1, "place")
+                .message(2, new ProtoWriter().uint(3, MvtDecoder.GEOM_POINT)
+                        .packed(4, command(1, 1), zigzag(1), zigzag(1)));
+
+        return new ProtoWriter()
+                .message(3, transportation)
+                .message(3, buildings)
+                .message(3, labels)
+                .toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** 호출을 문자열로 남기는 방문자 */
+    private static class RecordingVisitor implements MvtDecoder.Visitor {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public boolean visitLayer(String name, int extent) {
+            calls.add("layer " + name + " " + extent);
+            return !name.equals("place");
+        }
+
+        @Override
+        public boolean visitFeature(MvtDecoder.Feature feature) {
+            calls.add("feature " + feature.getId() + " type=" + feature.getType()
+                    + " class=" + feature.getTag("class") + " lanes=" + feature.getTag("lanes")
+                    + " primary=" + feature.hasTag("class", "primary"));
+            return true;
+        }
+
+        @Override
+        public void moveTo(int x, int y) {
+            calls.add("M" + x + "," + y);
+        }
+
+        @Override
+        public void lineTo(int x, int y) {
+            calls.add("L" + x + "," + y);
+        }
+
+        @Override
+        public void closePath() {
+            calls.add("Z");
+        }
+
+        @Override
+        public void endFeature() {
+            calls.add("end");
+        }
+    }
+
+    private static final List<String> EXPECTED = Arrays.asList(
+            "layer transportation 512",
+            "feature 42 type=2 class=primary lanes=4 primary=true",
+            "M10,20", "L15,20", "L12,27", "end",
+            "layer building 4096",
+            "feature 0 type=3 class=null lanes=null primary=false",
+            "M0,0", "L10,0", "L10,10", "L0,10", "Z", "end",
+            "layer place 4096");
+
+    @Test
+    public void rawTile_isDecodedInStreamOrder() throws IOException {
+        RecordingVisitor visitor = new RecordingVisitor();
+        assertEquals(2, new MvtDecoder().decode(buildTile(), visitor));
+        assertEquals(EXPECTED, visitor.calls);
+    }
+
+    @Test
+    public void gzipTile_isInflatedWithReusedDecoder() throws IOException {
+        byte[] compressed = gzip(buildTile());
+        assertTrue(MvtDecoder.isGzip(compressed));
+        MvtDecoder decoder = new MvtDecoder();
+        for (int i = 0; i < 3; i++) {
+            RecordingVisitor visitor = new RecordingVisitor();
+            decoder.decode(compressed, visitor);
+            assertEquals(EXPECTED, visitor.calls);
+        }
+    }
+
+    @Test
+    public void truncatedTile_throwsIOException() {
+        byte[] tile = buildTile();
+        MvtDecoder decoder = new MvtDecoder();
+        for (int length : new int[]{tile.length - 1, tile.length / 2, 3}) {
+            try {
+                decoder.decode(Arrays.copyOf(tile, length), new RecordingVisitor());
+                fail("length " + length);
+            } catch (IOException expected) {
+                // 잘린 타일
+            }
+        }
+    }
+
+    @Test
+    public void zigZag_roundTrips() {
+        for (int n : new int[]{0, 1, -1, 2, -2, 4095, -4096, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            assertEquals(n, MvtDecoder.decodeZigZag(zigzag(n)));
+        }
+    }
+}
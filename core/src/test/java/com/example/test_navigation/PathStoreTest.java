@@ -0,0 +1,73 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * PathStore의 원형 버퍼, 줌별 단순화, 화면 영역 컬링을 검증하는 단위 테스트입니다.
+ */
+public class PathStoreTest {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+
+    @Test
+    public void straightLine_isSimplifiedAtLowZoom() {
+        PathStore store = new PathStore();
+        for (int i = 0; i < 10000; i++) {
+            store.add(LAT + i * 1e-5, LON);
+        }
+        assertEquals(10000, store.size());
+        // 직선은 낮은 줌에서 구간 끝점만 남습니다.
+        assertTrue(store.getDrawnPointCount(10) < 10000 / PathStore.CHUNK_SIZE + PathStore.CHUNK_SIZE + 2);
+        // 단순화 레벨이 없는 큰 줌에서는 원본 점을 모두 그립니다.
+        assertEquals(10000, store.getDrawnPointCount(PathStore.MAX_LEVEL_ZOOM + 1));
+    }
+
+    @Test
+    public void zigzag_keepsCornersAtHighZoom() {
+        PathStore store = new PathStore();
+        for (int i = 0; i < 1000; i++) {
+            // 약 100m 간격의 지그재그
+            store.add(LAT + i * 1e-3, LON + (i % 2) * 1e-3);
+        }
+        assertEquals(1000, store.getDrawnPointCount(16));
+    }
+
+    @Test
+    public void ringBuffer_dropsOldestPoints() {
+        PathStore store = new PathStore(128);
+        for (int i = 0; i < 1000; i++) {
+            store.add(LAT + i * 1e-5, LON + i * 1e-5);
+        }
+        assertEquals(128, store.size());
+        assertEquals(LAT + 872 * 1e-5, store.getLatitude(0), 1e-7);
+        assertEquals(LAT + 999 * 1e-5, store.getLatitude(127), 1e-7);
+
+        store.clear();
+        assertTrue(store.isEmpty());
+        store.add(LAT, LON);
+        assertEquals(LAT, store.getLatitude(0), 1e-7);
+    }
+
+    @Test
+    public void visibleSegments_areCulledToViewport() {
+        PathStore store = new PathStore();
+        for (int i = 0; i < 2000; i++) {
+            store.add(LAT + i * 1e-4, LON);
+        }
+        final int[] count = new int[1];
+        int all = store.forEachVisibleSegment(20, -90, -180, 90, 180, (a, b, c, d) -> count[0]++);
+        assertEquals(1999, all);
+        assertEquals(1999, count[0]);
+
+        // 경로의 남쪽 절반만 포함하는 영역
+        int half = store.forEachVisibleSegment(20, LAT - 1, LON - 1, LAT + 999 * 1e-4, LON + 1,
+                (a, b, c, d) -> { });
+        assertTrue(half >= 999 && half <= 1001);
+
+        // 경로와 겹치지 않는 영역
+        assertEquals(0, store.forEachVisibleSegment(20, 0, 0, 1, 1, (a, b, c, d) -> { }));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.test_navigation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 테스트용 원격 차량 UDP 송신기입니다.
+ * 여러 차량이 중심점 주위를 원을 그리며 도는 상황을 만들어 {@link RemoteVehicleReceiver} 형식으로 보냅니다.
+ */
+class RemoteVehicleSimulator implements Closeable {
+
+    private static final int RECORDS_PER_DATAGRAM = RemoteVehicleReceiver.MAX_DATAGRAM_SIZE / RemoteVehicleReceiver.RECORD_SIZE;
+
+    private final DatagramSocket socket;
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+    private final int port;
+    private final int vehicleCount;
+    private final double centerLat;
+    private final double centerLon;
+    private final double radiusMeters;
+    private final float speed;
+    private final byte[] buffer = new byte[RECORDS_PER_DATAGRAM * RemoteVehicleReceiver.RECORD_SIZE];
+    private final ByteBuffer out = ByteBuffer.wrap(buffer).order(ByteOrder.BIG_ENDIAN);
+
+    RemoteVehicleSimulator(int port, int vehicleCount, double centerLat, double centerLon, double radiusMeters,
+                           float speed) throws IOException {
+        this.socket = new DatagramSocket();
+        this.port = port;
+        this.vehicleCount = vehicleCount;
+        this.centerLat = centerLat;
+        this.centerLon = centerLon;
+        this.radiusMeters = radiusMeters;
+        this.speed = speed;
+    }
+
+    /**
+     * 모든 차량의 현재 위치를 한 번 보냅니다.
+     *
+     * @param timeMillis 시뮬레이션 시각 (밀리초)
+     * @return 보낸 데이터그램 수
+     */
+    int sendAll(long timeMillis) throws IOException {
+        int datagrams = 0;
+        out.clear();
+        for (int id = 1; id <= vehicleCount; id++) {
+            // 차량마다 위상을 달리해 원 위에 고르게 배치합니다.
+            double angle = 2 * Math.PI * id / vehicleCount + speed * timeMillis / 1000.0 / radiusMeters;
+            double north = radiusMeters * Math.cos(angle);
+            double east = radiusMeters * Math.sin(angle);
+            double lat = centerLat + north / TileMath.METERS_PER_DEGREE;
+            double lon = centerLon + east / (TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(centerLat)));
+            float heading = (float) ((Math.toDegrees(angle) + 90) % 360);
+            RemoteVehicleReceiver.encode(out, id, RemoteVehicleStore.TYPE_RV, lat, lon, heading, speed, timeMillis);
+            if (!out.hasRemaining()) {
+                flush();
+                datagrams++;
+            }
+        }
+        if (out.position() > 0) {
+            flush();
+            datagrams++;
+        }
+        return datagrams;
+    }
+
+    private void flush() throws IOException {
+        socket.send(new DatagramPacket(buffer, out.position(), address, port));
+        out.clear();
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * RemoteVehicleStore의 게시, 만료, 추측 항법, 레코드 검사, UDP 수신과 렌더러가 계속 읽는 동안의 수신을 검증하는 단위 테스트입니다.
+ */
+public class RemoteVehicleStoreTest {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+
+    @Test
+    public void publish_keepsLatestMessagePerVehicle() {
+        RemoteVehicleStore store = new RemoteVehicleStore();
+        store.ingest(7, RemoteVehicleStore.TYPE_RV, LAT, LON, 0f, 0f, 1000);
+        store.ingest(7, RemoteVehicleStore.TYPE_RV, LAT + 0.001, LON, 90f, 0f, 1100);
+        store.ingest(8, RemoteVehicleStore.TYPE_FRONT_RV, LAT, LON + 0.001, 0f, 0f, 1100);
+        assertTrue(store.publish(1100));
+
+        RemoteVehicleStore.Snapshot snapshot = store.acquire();
+        try {
+            assertEquals(2, snapshot.size());
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.getId(i) == 7) {
+                    assertEquals(LAT + 0.001, snapshot.getLatitude(i), 1e-9);
+                    assertEquals(90f, snapshot.getHeading(i), 0f);
+                } else {
+                    assertEquals(8, snapshot.getId(i));
+                    assertEquals(RemoteVehicleStore.TYPE_FRONT_RV, snapshot.getType(i));
+                }
+            }
+        } finally {
+            store.release(snapshot);
+        }
+        // 변경이 없으면 다시 게시하지 않습니다.
+        assertFalse(store.publish(1200));
+    }
+
+    @Test
+    public void staleVehicles_areEvicted() {
+        RemoteVehicleStore store = new RemoteVehicleStore(3000);
+        for (int id = 0; id < 100; id++) {
+            store.ingest(id, RemoteVehicleStore.TYPE_RV, LAT, LON, 0f, 0f, id < 50 ? 0 : 2500);
+        }
+        store.publish(2500);
+        assertTrue(store.publish(4000));
+        assertEquals(50, store.getEvictedCount());
+
+        RemoteVehicleStore.Snapshot snapshot = store.acquire();
+        try {
+            assertEquals(50, snapshot.size());
+            for (int i = 0; i < snapshot.size(); i++) {
+                assertTrue(snapshot.getId(i) >= 50);
+            }
+        } finally {
+            store.release(snapshot);
+        }
+    }
+
+    @Test
+    public void withoutPublish_staleVehiclesStopAnimatingAndClearEmpties() {
+        RemoteVehicleStore store = new RemoteVehicleStore(3000);
+        store.ingest(1, RemoteVehicleStore.TYPE_RV, LAT, LON, 0f, 10f, 0);
+        store.ingest(2, RemoteVehicleStore.TYPE_RV, LAT, LON, 0f, 0f, 0);
+        assertTrue(store.publish(0));
+        assertTrue(store.hasMovingVehicles(1000));
+
+        // 게시 스레드가 멈춰도 읽는 쪽에서 만료를 확인하므로 다시 그리기 반복이 끝납니다.
+        assertFalse(store.hasMovingVehicles(3000));
+        RemoteVehicleStore.Snapshot snapshot = store.acquire();
+        try {
+            assertEquals(2, snapshot.size());
+            assertFalse(snapshot.isStale(0, 2999));
+            assertTrue(snapshot.isStale(0, 3000));
+        } finally {
+            store.release(snapshot);
+        }
+
+        store.ingest(3, RemoteVehicleStore.TYPE_RV, LAT, LON, 0f, 10f, 100);
+        assertTrue(store.clear(100));
+        assertFalse(store.hasMovingVehicles(100));
+        snapshot = store.acquire();
+        assertEquals(0, snapshot.size());
+        store.release(snapshot);
+    }
+
+    @Test
+    public void publish_isDeferredWhileRendererHoldsBackBuffer() {
+        RemoteVehicleStore store = new RemoteVehicleStore();
+        store.ingest(1, RemoteVehicleStore.TYPE_RV, LAT, LON, 0f, 0f, 0);
+        assertTrue(store.publish(0));
+        RemoteVehicleStore.Snapshot held = store.acquire();
+
+        store.ingest(1, RemoteVehicleStore.TYPE_RV, LAT + 0.001, LON, 0f, 0f, 10);
+        assertTrue(store.publish(10));
+        // 쥐고 있는 버퍼가 이제 뒤 버퍼이므로 다음 게시는 미뤄집니다.
+        store.ingest(1, RemoteVehicleStore.TYPE_RV, LAT + 0.002, LON, 0f, 0f, 20);
+        assertFalse(store.publish(20));
+        assertEquals(1, store.getDeferredCount());
+        assertEquals(LAT, held.getLatitude(0), 1e-9);
+
+        store.release(held);
+        assertTrue(store.publish(30));
+        RemoteVehicleStore.Snapshot latest = store.acquire();
+        assertEquals(LAT + 0.002, latest.getLatitude(0), 1e-9);
+        store.release(latest);
+    }
+
+    @Test
+    public void frontVehicle_followsHostPoseAndEviction() {
+        RemoteVehicleStore store = new RemoteVehicleStore(3000);
+        double step = 30 / TileMath.METERS_PER_DEGREE;
+        store.ingest(1, RemoteVehicleStore.TYPE_RV, LAT + step, LON, 0f, 10f, 0);       // 북쪽 30m
+        store.ingest(2, RemoteVehicleStore.TYPE_RV, LAT + 2 * step, LON, 0f, 10f, 2000); // 북쪽 60m
+        store.ingest(3, RemoteVehicleStore.TYPE_RV, LAT - step, LON, 180f, 10f, 2000);  // 남쪽 30m
+        store.setHost(LAT, LON, 0f);
+        assertTrue(store.publish(2000));
+        assertEquals(1, frontId(store));
+
+        // 남쪽을 향하면 남쪽 차량이 전방 차량이 되고, 차량 변경이 없어도 다시 게시합니다.
+        store.setHost(LAT, LON, 180f);
+        assertTrue(store.publish(2000));
+        assertEquals(3, frontId(store));
+
+        // 전방 차량이 만료되면 다음으로 가까운 차량을 고릅니다.
+        store.setHost(LAT, LON, 0f);
+        store.publish(2100);
+        store.ingest(2, RemoteVehicleStore.TYPE_RV, LAT + 2 * step, LON, 0f, 10f, 3500);
+        assertTrue(store.publish(3500));
+        assertEquals(2, frontId(store));
+    }
+
+    private static int frontId(RemoteVehicleStore store) {
+        RemoteVehicleStore.Snapshot snapshot = store.acquire();
+        try {
+            int slot = snapshot.getFrontSlot();
+            return slot < 0 ? -1 : snapshot.getId(slot);
+        } finally {
+            store.release(snapshot);
+        }
+    }
+
+    @Test
+    public void deadReckoning_movesAlongHeadingAndIsCapped() {
+        double[] out = new double[2];
+        RemoteVehicleStore.deadReckon(LAT, LON, 90f, 10f, 1000, out);
+        assertEquals(LAT, out[0], 1e-9);
+        double eastMeters = (out[1] - LON) * TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(LAT));
+        assertEquals(10.0, eastMeters, 0.01);
+
+        RemoteVehicleStore.deadReckon(LAT, LON, 0f, 10f, 60_000, out);
+        double northMeters = (out[0] - LAT) * TileMath.METERS_PER_DEGREE;
+        assertEquals(10.0 * RemoteVehicleStore.MAX_EXTRAPOLATION_MILLIS / 1000, northMeters, 0.01);
+    }
+
+    @Test
+    public void decode_dropsUnknownTypesAndInvalidCoordinates() {
+        RemoteVehicleStore store = new RemoteVehicleStore();
+        ByteBuffer data = ByteBuffer.allocate(RemoteVehicleReceiver.RECORD_SIZE * 6);
+        RemoteVehicleReceiver.encode(data, 1, RemoteVehicleStore.TYPE_RV, LAT, LON, 0f, 10f, 0);
+        RemoteVehicleReceiver.encode(data, 2, 7, LAT, LON, 0f, 10f, 0);
+        RemoteVehicleReceiver.encode(data, 3, -1, LAT, LON, 0f, 10f, 0);
+        RemoteVehicleReceiver.encode(data, 4, RemoteVehicleStore.TYPE_RV, 95.0, LON, 0f, 10f, 0);
+        RemoteVehicleReceiver.encode(data, 5, RemoteVehicleStore.TYPE_RV, LAT, 200.0, 0f, 10f, 0);
+        RemoteVehicleReceiver.encode(data, 6, RemoteVehicleStore.TYPE_FRONT_RV, LAT, LON, Float.NaN, 10f, 0);
+        data.flip();
+        assertEquals(1, RemoteVehicleReceiver.decode(data, store, 1000));
+        assertFalse(data.hasRemaining());
+        assertTrue(store.publish(1000));
+
+        RemoteVehicleStore.Snapshot snapshot = store.acquire();
+        try {
+            assertEquals(1, snapshot.size());
+            assertEquals(1, snapshot.getId(0));
+        } finally {
+            store.release(snapshot);
+        }
+    }
+
+    @Test
+    public void udpSimulator_isReceivedIntoStore() throws Exception {
+        RemoteVehicleStore store = new RemoteVehicleStore();
+        RemoteVehicleReceiver receiver = new RemoteVehicleReceiver(store, 0, InetAddress.getLoopbackAddress(), null);
+        receiver.start();
+        try (RemoteVehicleSimulator simulator = new RemoteVehicleSimulator(receiver.getLocalPort(), 200, LAT, LON, 100, 10f)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            int size = 0;
+            while (size < 200 && System.nanoTime() < deadline) {
+                simulator.sendAll(0);
+                Thread.sleep(20);
+                RemoteVehicleStore.Snapshot snapshot = store.acquire();
+                size = snapshot.size();
+                store.release(snapshot);
+            }
+            assertEquals(200, size);
+        } finally {
+            receiver.stop();
+        }
+    }
+
+    /**
+     * 렌더러가 계속 읽는 동안 넣은 메시지가 빠짐없이 반영되는지 확인합니다.
+     * 처리량은 benchmark 모듈의 RemoteVehicleStoreBenchmark에서 측정합니다.
+     */
+    @Test
+    public void ingest_whileRendererReads_losesNoMessages() throws Exception {
+        final RemoteVehicleStore store = new RemoteVehicleStore(Long.MAX_VALUE / 4);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong frames = new AtomicLong();
+        final double[] position = new double[2];
+
+        Thread renderer = new Thread(() -> {
+            while (running.get()) {
+                RemoteVehicleStore.Snapshot snapshot = store.acquire();
+                try {
+                    long now = RemoteVehicleStore.now();
+                    for (int i = 0; i < snapshot.size(); i++) {
+                        snapshot.extrapolate(i, now, position);
+                    }
+                } finally {
+                    store.release(snapshot);
+                }
+                frames.incrementAndGet();
+            }
+        });
+        renderer.start();
+
+        int vehicles = 1000;
+        int rounds = 50;
+        for (int round = 0; round < rounds; round++) {
+            long now = RemoteVehicleStore.now();
+            for (int id = 0; id < vehicles; id++) {
+                store.ingest(id, RemoteVehicleStore.TYPE_RV, LAT + round * 1e-6, LON, id % 360, 10f, now);
+            }
+            store.publish(now);
+        }
+        running.set(false);
+        renderer.join();
+
+        assertEquals((long) vehicles * rounds, store.getIngestedCount());
+        assertTrue(store.getPublishedCount() > 0);
+        assertTrue(frames.get() > 0);
+        // 렌더러가 쥐고 있어 미뤄진 게시가 있었다면 다음 게시에 포함되므로 마지막 메시지가 모두 보입니다.
+        store.publish(RemoteVehicleStore.now());
+        RemoteVehicleStore.Snapshot snapshot = store.acquire();
+        try {
+            assertEquals(vehicles, snapshot.size());
+            for (int i = 0; i < snapshot.size(); i++) {
+                assertEquals(LAT + (rounds - 1) * 1e-6, snapshot.getLatitude(i), 1e-9);
+            }
+        } finally {
+            store.release(snapshot);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.test_navigation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 축약 계층 경로 탐색을 전처리하지 않은 그래프의 다익스트라 결과와 비교하고,
+ * 도착지 탐색 공간을 재사용한 재탐색과 경로 이탈 감지를 검증하는 단위 테스트입니다.
+ */
+public class RouterTest {
+
+    private static final double LAT = 37.40;
+    private static final double LON = 126.95;
+    private static final int SIZE = 40;
+
+    private GridRoadGraph grid;
+    private RoadGraphReader graph;
+    /** 원래 그래프: 노드별 {대상, 시간} 목록 */
+    private List<List<int[]>> adjacency;
+
+    @Before
+    public void setUp() throws IOException {
+        Random random = new Random(7);
+        adjacency = new ArrayList<>();
+        for (int node = 0; node < SIZE * SIZE; node++) {
+            adjacency.add(new ArrayList<>());
+        }
+        grid = GridRoadGraph.create("router", LAT, LON, SIZE,
+                (builder, a, b, speedKmh) -> road(builder, random, a, b, speedKmh));
+        graph = grid.graph;
+        assertEquals(SIZE * SIZE, graph.getNodeCount());
+        assertTrue(grid.shortcutCount > 0);
+    }
+
+    private void road(RoadGraphBuilder builder, Random random, int a, int b, double speedKmh) {
+        // 일부는 일방통행, 속도는 조금씩 다르게
+        double speed = speedKmh * (0.7 + 0.6 * random.nextDouble());
+        int kind = random.nextInt(10);
+        int millis = (int) Math.round(GridRoadGraph.STEP * TileMath.METERS_PER_DEGREE / (speed / 3.6) * 1000);
+        if (kind != 0) {
+            builder.addEdge(a, b, millis);
+            adjacency.get(a).add(new int[]{b, millis});
+        }
+        if (kind != 1) {
+            builder.addEdge(b, a, millis);
+            adjacency.get(b).add(new int[]{a, millis});
+        }
+    }
+
+    @After
+    public void tearDown() {
+        grid.close();
+    }
+
+    private double lat(int row) {
+        return grid.latitude(row);
+    }
+
+    private double lon(int column) {
+        return grid.longitude(column);
+    }
+
+    private int fileNode(int builderNode) {
+        int node = graph.nearestNode(lat(builderNode / SIZE), lon(builderNode % SIZE), 10);
+        assertTrue(node >= 0);
+        return node;
+    }
+
+    /** 전처리하지 않은 그래프에서의 최단 시간 */
+    private int dijkstra(int from, int to) {
+        int[] distance = new int[adjacency.size()];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        distance[from] = 0;
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+        queue.add(new int[]{from, 0});
+        while (!queue.isEmpty()) {
+            int[] top = queue.poll();
+            if (top[1] > distance[top[0]]) {
+                continue;
+            }
+            if (top[0] == to) {
+                return top[1];
+            }
+            for (int[] arc : adjacency.get(top[0])) {
+                int candidate = top[1] + arc[1];
+                if (candidate < distance[arc[0]]) {
+                    distance[arc[0]] = candidate;
+                    queue.add(new int[]{arc[0], candidate});
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** 경로의 이웃한 점이 원래 그래프의 간선으로 이어지고 시간의 합이 경로 시간과 같은지 확인합니다. */
+    private void assertFollowsRoads(Route route, int from, int to) {
+        assertEquals(lat(from / SIZE), route.getLatitude(0), 1e-7);
+        assertEquals(lon(to % SIZE), route.getLongitude(route.getPointCount() - 1), 1e-7);
+        int total = 0;
+        for (int i = 1; i < route.getPointCount(); i++) {
+            int a = (int) Math.round((route.getLatitude(i - 1) - LAT) / GridRoadGraph.STEP) * SIZE
+                    + (int) Math.round((route.getLongitude(i - 1) - LON) / GridRoadGraph.STEP);
+            int b = (int) Math.round((route.getLatitude(i) - LAT) / GridRoadGraph.STEP) * SIZE
+                    + (int) Math.round((route.getLongitude(i) - LON) / GridRoadGraph.STEP);
+            int millis = -1;
+            for (int[] arc : adjacency.get(a)) {
+                if (arc[0] == b) {
+                    millis = arc[1];
+                }
+            }
+            assertTrue("no road " + a + " -> " + b, millis >= 0);
+            total += millis;
+        }
+        assertEquals(route.getDurationMillis(), total);
+    }
+
+    @Test
+    public void route_matchesPlainDijkstra() {
+        Router router = new Router(graph);
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(SIZE * SIZE);
+            int to = random.nextInt(SIZE * SIZE);
+            int expected = dijkstra(from, to);
+            Route route = router.route(fileNode(from), fileNode(to));
+            if (expected < 0) {
+                assertNull(route);
+                continue;
+            }
+            assertNotNull(route);
+            assertEquals(expected, route.getDurationMillis());
+            assertFollowsRoads(route, from, to);
+            assertTrue(router.getSettledCount() < SIZE * SIZE / 2);
+        }
+    }
+
+    @Test
+    public void routeToDestination_reusesDestinationSearch() {
+        Router router = new Router(graph);
+        int to = SIZE * SIZE - 1;
+        router.setDestination(fileNode(to));
+        assertTrue(router.getDestinationSpaceSize() > 0);
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            int from = random.nextInt(SIZE * SIZE);
+            int expected = dijkstra(from, to);
+            Route route = router.routeToDestination(fileNode(from));
+            assertNotNull(route);
+            assertEquals(expected, route.getDurationMillis());
+            assertFollowsRoads(route, from, to);
+        }
+    }
+
+    @Test
+    public void tracker_reroutesAfterLeavingRoute() {
+        RouteTracker tracker = new RouteTracker(graph);
+        Route route = tracker.start(lat(0), lon(0), lat(SIZE - 1), lon(SIZE - 1));
+        assertNotNull(route);
+        assertTrue(route.getDistanceMeters() > 2 * (SIZE - 1) * GridRoadGraph.STEP * TileMath.METERS_PER_DEGREE * 0.7);
+
+        // 경로 위를 따라가면 다시 찾지 않습니다.
+        for (int i = 0; i < route.getPointCount(); i += 3) {
+            assertNull(tracker.update(route.getLatitude(i), route.getLongitude(i)));
+        }
+        assertTrue(tracker.getProgress() > 0);
+
+        // 경로에서 떨어진 교차로에 한 번 나타난 것은 무시하고, 이어지면 그 자리에서 다시 찾습니다.
+        Route current = tracker.start(lat(0), lon(0), lat(SIZE - 1), lon(SIZE - 1));
+        int away = -1;
+        for (int node = 0; node < SIZE * SIZE && away < 0; node++) {
+            double nearest = Double.MAX_VALUE;
+            for (int i = 0; i < current.getPointCount(); i++) {
+                nearest = Math.min(nearest, current.distanceToSegment(i, lat(node / SIZE), lon(node % SIZE)));
+            }
+            if (nearest > 300) {
+                away = node;
+            }
+        }
+        assertTrue(away >= 0);
+        int row = away / SIZE;
+        int column = away % SIZE;
+        assertNull(tracker.update(lat(row), lon(column)));
+        assertNull(tracker.update(lat(row), lon(column)));
+        Route rerouted = tracker.update(lat(row), lon(column));
+        assertNotNull(rerouted);
+        assertEquals(1, tracker.getRerouteCount());
+        assertEquals(lat(row), rerouted.getLatitude(0), 1e-7);
+        assertEquals(lon(column), rerouted.getLongitude(0), 1e-7);
+        assertEquals(dijkstra(away, SIZE * SIZE - 1), rerouted.getDurationMillis());
+    }
+}
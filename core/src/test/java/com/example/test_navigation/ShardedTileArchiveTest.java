@@ -0,0 +1,227 @@
+package com.example.test_navigation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * ShardIndex의 타일 → 샤드 찾기와 ShardedTileArchive의 지연 열기, 핸들 예산, 범위 읽기를 검증하는 단위 테스트입니다.
+ */
+public class ShardedTileArchiveTest {
+
+    private static final int ZOOM = 10;
+
+    // 서울과 부산 주변, 그리고 낮은 줌 전체
+    private static final String INDEX = "# test\n"
+            + "seoul" + TilePack.FILE_EXTENSION + " 10 12 126.76 37.41 127.19 37.72\n"
+            + "busan" + TilePack.FILE_EXTENSION + " 10 12 128.76 35.00 129.31 35.39\n"
+            + "korea" + TilePack.FILE_EXTENSION + " 4 10 124.5 33.0 131.0 38.7\n"
+            + "missing" + TilePack.FILE_EXTENSION + " 13 14 124.5 33.0 131.0 38.7\n"
+            + "format=png\n";
+
+    private File dir;
+    private ShardIndex index;
+    private final List<String> opened = new ArrayList<>();
+    private final List<String> closed = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("shards", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        index = ShardIndex.read(new StringReader(INDEX));
+        for (ShardIndex.Shard shard : index.getShards()) {
+            if (!shard.getFileName().startsWith("missing")) {
+                writeShard(shard);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /** 샤드가 덮는 ZOOM 줌 타일을 모두 쓰고, 데이터에는 샤드 이름을 넣습니다. */
+    private void writeShard(ShardIndex.Shard shard) throws IOException {
+        int[] range = new int[4];
+        assertTrue(shard.getTileRange(ZOOM, range));
+        List<Long> ids = new ArrayList<>();
+        for (int x = range[0]; x <= range[1]; x++) {
+            for (int y = range[2]; y <= range[3]; y++) {
+                ids.add(TilePack.tileId(ZOOM, x, y));
+            }
+        }
+        Collections.sort(ids);
+        int[] coords = new int[3];
+        try (TilePackWriter writer = new TilePackWriter(new File(dir, shard.getFileName()))) {
+            writer.putMetadata("name", shard.getFileName());
+            for (long id : ids) {
+                TilePack.tileCoords(id, coords);
+                writer.addTile(coords[0], coords[1], coords[2], shard.getFileName().getBytes());
+            }
+        }
+    }
+
+    private ShardedTileArchive open(int maxOpenShards) {
+        return new ShardedTileArchive(new File(dir, "shards.index"), index, dir, maxOpenShards, file -> {
+            opened.add(file.getName());
+            TilePackReader reader = new TilePackReader(file);
+            return new TileArchive() {
+                @Override
+                public byte[] getTile(int zoom, int x, int y) {
+                    return reader.getTile(zoom, x, y);
+                }
+
+                @Override
+                public int getTiles(int zoom, int minX, int maxX, int minY, int maxY, TileConsumer consumer) {
+                    return reader.getTiles(zoom, minX, maxX, minY, maxY, consumer);
+                }
+
+                @Override
+                public String getMetadata(String name) {
+                    return reader.getMetadata(name);
+                }
+
+                @Override
+                public int getConnectionCount() {
+                    return 1;
+                }
+
+                @Override
+                public File getFile() {
+                    return file;
+                }
+
+                @Override
+                public void close() {
+                    closed.add(file.getName());
+                    reader.close();
+                }
+            };
+        });
+    }
+
+    private static int tileX(double longitude) {
+        return (int) TileMath.longitudeToTileX(longitude, ZOOM);
+    }
+
+    private static int tileY(double latitude) {
+        return (int) TileMath.latitudeToTileY(latitude, ZOOM);
+    }
+
+    private static String name(byte[] data) {
+        return data == null ? null : new String(data);
+    }
+
+    @Test
+    public void index_findsFirstMatchingShardByZoomAndBoundingBox() {
+        assertEquals(4, index.getShards().size());
+        assertEquals("png", index.getMetadata("format"));
+        int seoulX = tileX(127.0);
+        int seoulY = tileY(37.55);
+        assertEquals(0, index.find(ZOOM, seoulX, seoulY));
+        assertEquals(1, index.find(ZOOM, tileX(129.05), tileY(35.15)));
+        // 대전은 지역 샤드 밖이므로 전국 샤드
+        assertEquals(2, index.find(ZOOM, tileX(127.38), tileY(36.35)));
+        // 줌 범위에 따라 다른 샤드
+        assertEquals(2, index.find(8, seoulX >> 2, seoulY >> 2));
+        assertEquals(0, index.find(12, seoulX << 2, seoulY << 2));
+        assertEquals(3, index.find(13, seoulX << 3, seoulY << 3));
+        assertEquals(-1, index.find(3, seoulX >> 7, seoulY >> 7));
+        assertEquals(-1, index.find(ZOOM, tileX(140.0), tileY(36.0)));
+
+        int[] out = new int[4];
+        assertEquals(2, index.findIntersecting(ZOOM, seoulX - 1, seoulX + 1, seoulY - 1, seoulY + 1, out));
+        assertEquals(0, out[0]);
+        assertEquals(2, out[1]);
+    }
+
+    @Test(expected = IOException.class)
+    public void index_rejectsMalformedLine() throws IOException {
+        ShardIndex.read(new StringReader("a.mbtiles 10 8 126 37 127 38\n"));
+    }
+
+    @Test
+    public void shards_areOpenedLazilyAndOnlyWhenTouched() {
+        ShardedTileArchive archive = open(4);
+        assertEquals(0, archive.getOpenShardCount());
+        // 색인에 있는 메타데이터는 샤드를 열지 않습니다.
+        assertEquals("png", archive.getMetadata("format"));
+        assertTrue(opened.isEmpty());
+
+        assertEquals("seoul" + TilePack.FILE_EXTENSION, name(archive.getTile(ZOOM, tileX(127.0), tileY(37.55))));
+        assertEquals("seoul" + TilePack.FILE_EXTENSION, name(archive.getTile(ZOOM, tileX(127.1), tileY(37.6))));
+        assertEquals(Collections.singletonList("seoul" + TilePack.FILE_EXTENSION), opened);
+        assertEquals(1, archive.getOpenShardCount());
+
+        // 없는 샤드는 한 번만 시도합니다.
+        assertNull(archive.getTile(13, tileX(127.0) << 3, tileY(37.55) << 3));
+        assertNull(archive.getTile(13, tileX(127.0) << 3, tileY(37.55) << 3));
+        assertEquals(1, archive.getOpenShardCount());
+
+        archive.close();
+        assertEquals(0, archive.getOpenShardCount());
+        assertEquals(Collections.singletonList("seoul" + TilePack.FILE_EXTENSION), closed);
+        assertNull(archive.getTile(ZOOM, tileX(127.0), tileY(37.55)));
+    }
+
+    @Test
+    public void handleBudget_closesLeastRecentlyUsedShard() {
+        ShardedTileArchive archive = open(2);
+        archive.getTile(ZOOM, tileX(127.0), tileY(37.55));
+        archive.getTile(ZOOM, tileX(129.05), tileY(35.15));
+        archive.getTile(ZOOM, tileX(127.0), tileY(37.55));
+        assertEquals(2, archive.getOpenShardCount());
+        assertTrue(closed.isEmpty());
+
+        // 세 번째 샤드를 열면 가장 오래전에 쓴 부산 샤드가 닫힙니다.
+        assertEquals("korea" + TilePack.FILE_EXTENSION, name(archive.getTile(ZOOM, tileX(127.38), tileY(36.35))));
+        assertEquals(2, archive.getOpenShardCount());
+        assertEquals(Collections.singletonList("busan" + TilePack.FILE_EXTENSION), closed);
+
+        // 교체된 샤드는 닫혔다가 다음 요청에서 다시 열립니다.
+        assertTrue(archive.refreshShard("seoul" + TilePack.FILE_EXTENSION));
+        assertEquals(1, archive.getOpenShardCount());
+        archive.getTile(ZOOM, tileX(127.0), tileY(37.55));
+        assertEquals(4, archive.getOpenedTotal());
+        archive.close();
+    }
+
+    @Test
+    public void rangeAcrossShards_deliversEachTileOnceFromItsShard() {
+        ShardedTileArchive archive = open(4);
+        int[] seoul = new int[4];
+        index.getShards().get(0).getTileRange(ZOOM, seoul);
+        // 서울 샤드 경계를 한 칸씩 넘는 범위
+        int minX = seoul[0] - 1;
+        int maxX = seoul[1] + 1;
+        int minY = seoul[2] - 1;
+        int maxY = seoul[3] + 1;
+        List<String> tiles = new ArrayList<>();
+        int count = archive.getTiles(ZOOM, minX, maxX, minY, maxY, (z, x, y, data) -> {
+            assertEquals(index.getShards().get(index.find(z, x, y)).getFileName(), name(data));
+            tiles.add(x + "," + y);
+        });
+        int area = (maxX - minX + 1) * (maxY - minY + 1);
+        assertEquals(area, count);
+        assertEquals(area, tiles.size());
+        assertEquals(area, new HashSet<>(tiles).size());
+        archive.close();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.test_navigation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * StartupTrace가 단계를 한 번씩만 기록하고 첫 타일 시간을 텔레메트리에 남기는지 검증하는 단위 테스트입니다.
+ */
+public class StartupTraceTest {
+
+    @After
+    public void tearDown() {
+        Telemetry.setEnabled(false);
+        Telemetry.reset();
+    }
+
+    @Test
+    public void marksAreRecordedOnceInOrder() {
+        Telemetry.setEnabled(true);
+        Telemetry.reset();
+        StartupTrace.begin();
+        assertTrue(StartupTrace.mark(StartupTrace.MAP_READY));
+        assertFalse(StartupTrace.mark(StartupTrace.MAP_READY));
+        assertTrue(StartupTrace.mark(StartupTrace.ARCHIVE_OPENED));
+
+        assertTrue(StartupTrace.markFirstTile());
+        assertFalse(StartupTrace.markFirstTile());
+        assertEquals(1, Telemetry.STARTUP_FIRST_TILE.getCount());
+
+        long mapReady = StartupTrace.elapsedNanos(StartupTrace.MAP_READY);
+        long firstTile = StartupTrace.elapsedNanos(StartupTrace.FIRST_TILE);
+        assertTrue(mapReady >= 0 && firstTile >= mapReady);
+        assertEquals(-1, StartupTrace.elapsedNanos(StartupTrace.PROVIDER_READY));
+        assertTrue(StartupTrace.report().matches(
+                "startup map\\.ready=\\S+ms archive\\.opened=\\S+ms tile\\.first=\\S+ms"));
+
+        // 다시 시작하면 처음부터 기록합니다.
+        StartupTrace.begin();
+        assertEquals(-1, StartupTrace.elapsedNanos(StartupTrace.FIRST_TILE));
+        assertTrue(StartupTrace.markFirstTile());
+    }
+}
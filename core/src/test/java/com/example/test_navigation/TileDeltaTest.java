@@ -0,0 +1,406 @@
+package com.example.test_navigation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+/**
+ * 지도 델타의 생성, 검증, 적용, 중단 후 재개와 읽기 전용 타일 팩 위의 패치 적용을 검증하는 단위 테스트입니다.
+ */
+public class TileDeltaTest {
+
+    private File dir;
+    private File base;
+    private File target;
+    private File delta;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("tiledelta", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        base = new File(dir, "v1.mbtiles");
+        target = new File(dir, "v2.mbtiles");
+        delta = new File(dir, "v1-v2" + TileDelta.FILE_EXTENSION);
+
+        // v2: x=0 열 삭제, x=1 열 변경, x=4 열 추가, 나머지 그대로
+        createMBTiles(base, "1", 0, 4, "a");
+        createMBTiles(target, "2", 1, 5, "a");
+        try (Connection connection = open(target);
+             PreparedStatement insert = connection.prepareStatement(MBTilesSchema.SQL_INSERT_TILE)) {
+            for (int y = 0; y < 8; y++) {
+                bindTile(insert, 3, 1, y, "b");
+                insert.execute();
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static Connection open(File file) throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+    }
+
+    private static byte[] tileData(int zoom, int x, int y, String revision) {
+        return (zoom + "/" + x + "/" + y + revision).getBytes();
+    }
+
+    private static void bindTile(PreparedStatement insert, int zoom, int x, int y, String revision)
+            throws SQLException {
+        insert.setInt(1, zoom);
+        insert.setInt(2, x);
+        insert.setInt(3, MBTilesSchema.flipY(zoom, y));
+        insert.setBytes(4, tileData(zoom, x, y, revision));
+    }
+
+    private static void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(MBTilesSchema.CREATE_TILES);
+            statement.execute(MBTilesSchema.CREATE_TILES_INDEX);
+            statement.execute(MBTilesSchema.CREATE_METADATA);
+        }
+    }
+
+    /** 줌 3에서 x가 [fromX, toX)인 열의 타일을 모두 가진 파일을 만듭니다. */
+    private static void createMBTiles(File file, String version, int fromX, int toX, String revision)
+            throws SQLException {
+        try (Connection connection = open(file)) {
+            createSchema(connection);
+            try (PreparedStatement insert = connection.prepareStatement(MBTilesSchema.SQL_INSERT_METADATA)) {
+                insert.setString(1, MBTilesSchema.METADATA_VERSION);
+                insert.setString(2, version);
+                insert.execute();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(MBTilesSchema.SQL_INSERT_TILE)) {
+                for (int x = fromX; x < toX; x++) {
+                    for (int y = 0; y < 8; y++) {
+                        bindTile(insert, 3, x, y, revision);
+                        insert.execute();
+                    }
+                }
+            }
+        }
+    }
+
+    private File copyOfBase() throws IOException {
+        File installed = new File(dir, "installed.mbtiles");
+        Files.copy(base.toPath(), installed.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return installed;
+    }
+
+    private static JdbcTileStore store(File file) throws SQLException {
+        return new JdbcTileStore("jdbc:sqlite:" + file.getAbsolutePath());
+    }
+
+    private void assertMatchesTarget(WritableTileStore store) throws IOException {
+        assertEquals("2", store.getMetadata(MBTilesSchema.METADATA_VERSION));
+        assertNull(store.getMetadata(TileDeltaApplier.METADATA_PROGRESS));
+        for (int x = 0; x < 6; x++) {
+            for (int y = 0; y < 8; y++) {
+                byte[] expected = x == 0 || x == 5 ? null : tileData(3, x, y, x == 1 ? "b" : "a");
+                assertArrayEquals("3/" + x + "/" + y, expected, store.getTile(3, x, y));
+            }
+        }
+    }
+
+    @Test
+    public void build_writesOnlyChangedTiles() throws Exception {
+        assertEquals(24, TileDeltaBuilder.build(base, target, delta));
+        assertEquals(24, TileDeltaReader.verify(delta));
+
+        int adds = 0, changes = 0, removes = 0;
+        try (TileDeltaReader reader = new TileDeltaReader(delta)) {
+            assertEquals("1", reader.getBaseVersion());
+            assertEquals("2", reader.getTargetVersion());
+            while (reader.next()) {
+                switch (reader.getOp()) {
+                    case TileDelta.OP_ADD:
+                        assertEquals(4, reader.getX());
+                        adds++;
+                        break;
+                    case TileDelta.OP_CHANGE:
+                        assertEquals(1, reader.getX());
+                        assertArrayEquals(tileData(3, 1, reader.getY(), "b"), reader.getData());
+                        changes++;
+                        break;
+                    case TileDelta.OP_REMOVE:
+                        assertEquals(0, reader.getX());
+                        removes++;
+                        break;
+                    default:
+                        fail("Unexpected op " + reader.getOp());
+                }
+            }
+        }
+        assertEquals(8, adds);
+        assertEquals(8, changes);
+        assertEquals(8, removes);
+    }
+
+    @Test
+    public void apply_updatesInstalledFileInPlace() throws Exception {
+        TileDeltaBuilder.build(base, target, delta);
+        try (JdbcTileStore store = store(copyOfBase())) {
+            assertEquals(24, TileDeltaApplier.apply(delta, store, 5));
+            assertMatchesTarget(store);
+            // 이미 적용된 델타는 아무것도 바꾸지 않습니다.
+            assertEquals(0, TileDeltaApplier.apply(delta, store, 5));
+        }
+    }
+
+    @Test
+    public void apply_resumesAfterInterruption() throws Exception {
+        TileDeltaBuilder.build(base, target, delta);
+        File installed = copyOfBase();
+        try (JdbcTileStore store = store(installed)) {
+            WritableTileStore failing = new FailingStore(store, 13);
+            try {
+                TileDeltaApplier.apply(delta, failing, 5);
+                fail();
+            } catch (IOException expected) {
+                // 배치 두 개(10개 항목)까지만 커밋되었습니다.
+            }
+            assertEquals("1", store.getMetadata(MBTilesSchema.METADATA_VERSION));
+            assertEquals("2:10", store.getMetadata(TileDeltaApplier.METADATA_PROGRESS));
+        }
+        try (JdbcTileStore store = store(installed)) {
+            assertEquals(14, TileDeltaApplier.apply(delta, store, 5));
+            assertMatchesTarget(store);
+        }
+    }
+
+    @Test
+    public void apply_rejectsWrongBaseVersion() throws Exception {
+        TileDeltaBuilder.build(base, target, delta);
+        try (JdbcTileStore store = store(copyOfBase())) {
+            store.putMetadata(MBTilesSchema.METADATA_VERSION, "0");
+            try {
+                TileDeltaApplier.apply(delta, store, 5);
+                fail();
+            } catch (IOException expected) {
+            }
+            assertArrayEquals(tileData(3, 0, 0, "a"), store.getTile(3, 0, 0));
+        }
+    }
+
+    @Test
+    public void apply_rejectsCorruptDeltaWithoutTouchingStore() throws Exception {
+        TileDeltaBuilder.build(base, target, delta);
+        try (RandomAccessFile file = new RandomAccessFile(delta, "rw")) {
+            file.seek(file.length() / 2);
+            int b = file.read();
+            file.seek(file.length() / 2);
+            file.write(b ^ 0xff);
+        }
+        try (JdbcTileStore store = store(copyOfBase())) {
+            try {
+                TileDeltaApplier.apply(delta, store, 5);
+                fail();
+            } catch (IOException expected) {
+            }
+            assertEquals("1", store.getMetadata(MBTilesSchema.METADATA_VERSION));
+            assertNull(store.getMetadata(TileDeltaApplier.METADATA_PROGRESS));
+            assertArrayEquals(tileData(3, 0, 0, "a"), store.getTile(3, 0, 0));
+            assertNull(store.getTile(3, 4, 0));
+        }
+    }
+
+    @Test
+    public void apply_toPatchOverReadOnlyPack_writesOnlyChangedTiles() throws Exception {
+        TileDeltaBuilder.build(base, target, delta);
+        File pack = new File(dir, "v1" + TilePack.FILE_EXTENSION);
+        TilePackConverter.convert(base, pack);
+        File patchFile = new File(dir, "patch.mbtiles");
+        try (Connection connection = open(patchFile)) {
+            createSchema(connection);
+        }
+
+        try (TilePackReader packReader = new TilePackReader(pack);
+             JdbcTileStore patch = store(patchFile)) {
+            PatchedTileStore store = new PatchedTileStore(patch, packReader);
+            assertEquals(24, TileDeltaApplier.apply(delta, store, 5));
+            assertMatchesTarget(store);
+            assertEquals(0, TileDeltaApplier.apply(delta, store, 5));
+            // 기반 팩은 그대로이고, 패치에는 바뀐 타일과 지운 표시만 있습니다.
+            assertArrayEquals(tileData(3, 0, 0, "a"), packReader.getTile(3, 0, 0));
+            assertEquals("1", patch.getMetadata(PatchedTileArchive.METADATA_BASE_VERSION));
+            assertArrayEquals(new byte[0], patch.getTile(3, 0, 0));
+            assertNull(patch.getTile(3, 2, 0));
+
+            PatchedTileArchive archive = new PatchedTileArchive(new StoreArchive(patch), packReader);
+            assertTrue(PatchedTileArchive.isPatchOf(new StoreArchive(patch), packReader));
+            assertEquals("2", archive.getMetadata(MBTilesSchema.METADATA_VERSION));
+            assertNull(archive.getTile(3, 0, 0));
+            assertArrayEquals(tileData(3, 1, 0, "b"), archive.getTile(3, 1, 0));
+            int[] delivered = new int[1];
+            assertEquals(32, archive.getTiles(3, 0, 7, 0, 7, (zoom, x, y, data) -> {
+                assertArrayEquals(tileData(zoom, x, y, x == 1 ? "b" : "a"), data);
+                delivered[0]++;
+            }));
+            assertEquals(32, delivered[0]);
+        }
+        try (Connection connection = open(patchFile);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM tiles")) {
+            assertTrue(rs.next());
+            assertEquals(24, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void patch_isNotUsedOverAnotherBase() throws Exception {
+        File pack = new File(dir, "v2" + TilePack.FILE_EXTENSION);
+        TilePackConverter.convert(target, pack);
+        try (TilePackReader packReader = new TilePackReader(pack);
+             JdbcTileStore patch = store(copyOfBase())) {
+            patch.putMetadata(PatchedTileArchive.METADATA_BASE_VERSION, "1");
+            assertFalse(PatchedTileArchive.isPatchOf(new StoreArchive(patch), packReader));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void reader_rejectsTruncatedDelta() throws Exception {
+        TileDeltaBuilder.build(base, target, delta);
+        try (RandomAccessFile file = new RandomAccessFile(delta, "rw")) {
+            file.setLength(file.length() - 10);
+        }
+        TileDeltaReader.verify(delta);
+    }
+
+    /** 패치 저장소를 읽기 아카이브로 보는 어댑터 (앱에서는 패치 파일을 MBTilesArchive로 엽니다) */
+    private static class StoreArchive implements TileArchive {
+        private final WritableTileStore store;
+
+        StoreArchive(WritableTileStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public byte[] getTile(int zoom, int x, int y) {
+            try {
+                return store.getTile(zoom, x, y);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int getTiles(int zoom, int minX, int maxX, int minY, int maxY, TileConsumer consumer) {
+            int count = 0;
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    byte[] data = getTile(zoom, x, y);
+                    if (data != null) {
+                        consumer.onTile(zoom, x, y, data);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public String getMetadata(String name) {
+            try {
+                return store.getMetadata(name);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int getConnectionCount() {
+            return 1;
+        }
+
+        @Override
+        public File getFile() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** 지정한 횟수만큼 타일을 쓴 뒤 실패하는 저장소 (앱 종료를 흉내 냅니다) */
+    private static class FailingStore implements WritableTileStore {
+        private final WritableTileStore delegate;
+        private int writesLeft;
+
+        FailingStore(WritableTileStore delegate, int writes) {
+            this.delegate = delegate;
+            this.writesLeft = writes;
+        }
+
+        private void write() throws IOException {
+            if (--writesLeft < 0) {
+                throw new IOException("Interrupted");
+            }
+        }
+
+        @Override
+        public byte[] getTile(int zoom, int x, int y) throws IOException {
+            return delegate.getTile(zoom, x, y);
+        }
+
+        @Override
+        public void putTile(int zoom, int x, int y, byte[] data) throws IOException {
+            write();
+            delegate.putTile(zoom, x, y, data);
+        }
+
+        @Override
+        public void deleteTile(int zoom, int x, int y) throws IOException {
+            write();
+            delegate.deleteTile(zoom, x, y);
+        }
+
+        @Override
+        public String getMetadata(String name) throws IOException {
+            return delegate.getMetadata(name);
+        }
+
+        @Override
+        public void putMetadata(String name, String value) throws IOException {
+            delegate.putMetadata(name, value);
+        }
+
+        @Override
+        public void beginTransaction() throws IOException {
+            delegate.beginTransaction();
+        }
+
+        @Override
+        public void commit() throws IOException {
+            delegate.commit();
+        }
+
+        @Override
+        public void rollback() {
+            delegate.rollback();
+        }
+    }
+}
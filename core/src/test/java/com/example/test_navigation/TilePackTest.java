@@ -0,0 +1,237 @@
+package com.example.test_navigation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * TilePack 형식의 타일 번호, 작성기/읽기 왕복, 중복 제거, MBTiles 변환을 검증하는 단위 테스트입니다.
+ */
+public class TilePackTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("tilepack", "");
+        assertTrue(dir.delete() && dir.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static byte[] tileData(int zoom, int x, int y) {
+        return (zoom + "/" + x + "/" + y).getBytes();
+    }
+
+    @Test
+    public void tileId_roundTripsAndIsUnique() {
+        Set<Long> ids = new HashSet<>();
+        int[] coords = new int[3];
+        for (int zoom = 0; zoom <= 5; zoom++) {
+            int n = 1 << zoom;
+            for (int x = 0; x < n; x++) {
+                for (int y = 0; y < n; y++) {
+                    long id = TilePack.tileId(zoom, x, y);
+                    assertTrue(ids.add(id));
+                    TilePack.tileCoords(id, coords);
+                    assertArrayEquals(new int[]{zoom, x, y}, coords);
+                }
+            }
+        }
+        // 줌별 번호가 빈틈 없이 이어집니다.
+        assertEquals(ids.size(), TilePack.tileId(6, 0, 0));
+
+        long id = TilePack.tileId(16, 55923, 25375);
+        TilePack.tileCoords(id, coords);
+        assertArrayEquals(new int[]{16, 55923, 25375}, coords);
+    }
+
+    @Test
+    public void hilbertOrder_keepsNeighboursAdjacent() {
+        // 힐베르트 곡선에서 연속한 번호는 항상 가로나 세로로 이웃한 타일입니다.
+        int zoom = 4;
+        int[] previous = new int[3];
+        int[] current = new int[3];
+        // 곡선은 (0, 0)에서 시작합니다.
+        long base = TilePack.tileId(zoom, 0, 0);
+        assertEquals(0, TilePack.hilbertIndex(zoom, 0, 0));
+        TilePack.tileCoords(base, previous);
+        for (long d = 1; d < 256; d++) {
+            TilePack.tileCoords(base + d, current);
+            assertEquals(1, Math.abs(current[1] - previous[1]) + Math.abs(current[2] - previous[2]));
+            System.arraycopy(current, 0, previous, 0, 3);
+        }
+    }
+
+    @Test
+    public void writeAndRead_roundTripsTilesAndMetadata() throws IOException {
+        File file = new File(dir, "a" + TilePack.FILE_EXTENSION);
+        List<long[]> tiles = new ArrayList<>();
+        for (int x = 10; x < 18; x++) {
+            for (int y = 20; y < 26; y++) {
+                tiles.add(new long[]{TilePack.tileId(6, x, y), x, y});
+            }
+        }
+        tiles.sort((a, b) -> Long.compare(a[0], b[0]));
+        try (TilePackWriter writer = new TilePackWriter(file)) {
+            writer.putMetadata("format", "png");
+            writer.putMetadata("description", "line1\nline2 \\ end");
+            for (long[] tile : tiles) {
+                writer.addTile(6, (int) tile[1], (int) tile[2], tileData(6, (int) tile[1], (int) tile[2]));
+            }
+        }
+
+        TilePackReader reader = new TilePackReader(file);
+        assertEquals(tiles.size(), reader.getTileCount());
+        assertEquals(6, reader.getMinZoom());
+        assertEquals(6, reader.getMaxZoom());
+        assertEquals("png", reader.getMetadata("format"));
+        assertEquals("line1\nline2 \\ end", reader.getMetadata("description"));
+        assertNull(reader.getMetadata("missing"));
+
+        assertArrayEquals(tileData(6, 12, 23), reader.getTile(6, 12, 23));
+        ByteBuffer buffer = reader.getTileBuffer(6, 17, 25);
+        assertTrue(buffer.isReadOnly());
+        assertEquals(ByteBuffer.wrap(tileData(6, 17, 25)), buffer);
+        assertNull(reader.getTile(6, 9, 23));
+        assertNull(reader.getTile(7, 12, 23));
+
+        List<String> found = new ArrayList<>();
+        int count = reader.getTiles(6, 16, 19, 24, 27, (z, x, y, data) -> {
+            assertArrayEquals(tileData(z, x, y), data);
+            found.add(x + "," + y);
+        });
+        assertEquals(Arrays.asList("16,24", "16,25", "17,24", "17,25"), found);
+        assertEquals(4, count);
+
+        reader.close();
+        assertNull(reader.getTile(6, 12, 23));
+    }
+
+    @Test
+    public void identicalTiles_areStoredOnce() throws IOException {
+        File file = new File(dir, "dedup" + TilePack.FILE_EXTENSION);
+        byte[] sea = new byte[1000];
+        Arrays.fill(sea, (byte) 7);
+        int[] coords = new int[3];
+        try (TilePackWriter writer = new TilePackWriter(file)) {
+            for (int d = 0; d < 16; d++) {
+                TilePack.tileCoords(TilePack.tileId(2, 0, 0) + d, coords);
+                writer.addTile(2, coords[1], coords[2], d == 5 ? tileData(2, coords[1], coords[2]) : sea);
+            }
+            assertEquals(16, writer.getTileCount());
+            assertEquals(2, writer.getBlobCount());
+            assertTrue(writer.getDataLength() < 2 * sea.length);
+        }
+        TilePackReader reader = new TilePackReader(file);
+        assertArrayEquals(sea, reader.getTile(2, 3, 3));
+        assertArrayEquals(sea, reader.getTile(2, 0, 0));
+        reader.close();
+    }
+
+    @Test
+    public void embeddedPack_isMappedInPlaceAtOffset() throws IOException {
+        // APK 에셋처럼 다른 데이터 사이에 들어 있는 타일 팩
+        File pack = new File(dir, "inner" + TilePack.FILE_EXTENSION);
+        try (TilePackWriter writer = new TilePackWriter(pack)) {
+            writer.putMetadata("format", "png");
+            writer.addTile(5, 3, 4, tileData(5, 3, 4));
+        }
+        byte[] packBytes = Files.readAllBytes(pack.toPath());
+        File container = new File(dir, "container.apk");
+        int offset = 12345;
+        byte[] containerBytes = new byte[offset + packBytes.length + 999];
+        System.arraycopy(packBytes, 0, containerBytes, offset, packBytes.length);
+        Files.write(container.toPath(), containerBytes);
+
+        TilePackReader opened;
+        try (RandomAccessFile raf = new RandomAccessFile(container, "r")) {
+            opened = new TilePackReader(container, raf.getChannel(), offset, packBytes.length);
+        }
+        // 채널을 닫은 뒤에도 매핑으로 읽습니다.
+        try (TilePackReader reader = opened) {
+            assertEquals("png", reader.getMetadata("format"));
+            assertArrayEquals(tileData(5, 3, 4), reader.getTile(5, 3, 4));
+            assertSame(container, reader.getFile());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outOfOrderTile_isRejected() throws IOException {
+        try (TilePackWriter writer = new TilePackWriter(new File(dir, "order" + TilePack.FILE_EXTENSION))) {
+            writer.addTile(3, 1, 1, new byte[]{1});
+            writer.addTile(2, 1, 1, new byte[]{2});
+        }
+    }
+
+    @Test
+    public void convert_copiesMBTilesInHilbertOrder() throws Exception {
+        File mbtiles = new File(dir, "in.mbtiles");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + mbtiles.getAbsolutePath())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(MBTilesSchema.CREATE_TILES);
+                statement.execute(MBTilesSchema.CREATE_TILES_INDEX);
+                statement.execute(MBTilesSchema.CREATE_METADATA);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(MBTilesSchema.SQL_INSERT_METADATA)) {
+                insert.setString(1, MBTilesSchema.METADATA_FORMAT);
+                insert.setString(2, "png");
+                insert.execute();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(MBTilesSchema.SQL_INSERT_TILE)) {
+                for (int zoom = 3; zoom <= 4; zoom++) {
+                    for (int x = 2; x < 6; x++) {
+                        for (int y = 1; y < 5; y++) {
+                            insert.setInt(1, zoom);
+                            insert.setInt(2, x);
+                            insert.setInt(3, MBTilesSchema.flipY(zoom, y));
+                            insert.setBytes(4, tileData(zoom, x, y));
+                            insert.execute();
+                        }
+                    }
+                }
+            }
+        }
+
+        File pack = new File(dir, "out" + TilePack.FILE_EXTENSION);
+        assertEquals(32, TilePackConverter.convert(mbtiles, pack));
+        TilePackReader reader = new TilePackReader(pack);
+        assertEquals("png", reader.getMetadata(MBTilesSchema.METADATA_FORMAT));
+        assertEquals(3, reader.getMinZoom());
+        assertEquals(4, reader.getMaxZoom());
+        for (int zoom = 3; zoom <= 4; zoom++) {
+            for (int x = 2; x < 6; x++) {
+                for (int y = 1; y < 5; y++) {
+                    assertArrayEquals(tileData(zoom, x, y), reader.getTile(zoom, x, y));
+                }
+            }
+        }
+        reader.close();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * TileRequestQueue의 우선순위, 화면 밖 요청 취소, 용량 초과 처리, 같은 줌 묶음을 검증하는 단위 테스트입니다.
+ */
+public class TileRequestQueueTest {
+
+    private static long key(int zoom, int x, int y) {
+        return ((long) zoom << 58) | ((long) x << 29) | y;
+    }
+
+    private static boolean offer(TileRequestQueue<String> queue, int zoom, int x, int y, List<String> dropped) {
+        return queue.offer(key(zoom, x, y), zoom, x, y, zoom + "/" + x + "/" + y, dropped);
+    }
+
+    @Test
+    public void pollBatch_returnsTilesNearestToCenterFirst() {
+        TileRequestQueue<String> queue = new TileRequestQueue<>(40);
+        List<String> dropped = new ArrayList<>();
+        queue.setViewport(15, 105.5, 205.5, 100, 200, 111, 211, dropped);
+
+        offer(queue, 15, 100, 200, dropped);
+        offer(queue, 15, 110, 210, dropped);
+        offer(queue, 15, 105, 205, dropped);
+        offer(queue, 15, 104, 205, dropped);
+
+        List<String> out = new ArrayList<>();
+        assertEquals(4, queue.pollBatch(10, out));
+        assertEquals(Arrays.asList("15/105/205", "15/104/205", "15/100/200", "15/110/210"), out);
+        assertEquals(0, queue.size());
+        assertTrue(dropped.isEmpty());
+    }
+
+    @Test
+    public void setViewport_dropsTilesThatLeftTheScreen() {
+        TileRequestQueue<String> queue = new TileRequestQueue<>(40);
+        List<String> dropped = new ArrayList<>();
+        queue.setViewport(15, 105.5, 205.5, 100, 200, 111, 211, dropped);
+        offer(queue, 15, 100, 200, dropped);
+        offer(queue, 15, 110, 210, dropped);
+        offer(queue, 16, 220, 420, dropped);
+
+        // 오른쪽 아래로 이동: 왼쪽 위 타일은 버려집니다.
+        queue.setViewport(15, 115.5, 215.5, 105, 205, 120, 220, dropped);
+        assertEquals(Arrays.asList("15/100/200"), dropped);
+        assertEquals(2, queue.size());
+
+        // 두 단계 축소: 줌 차이가 커진 요청은 모두 버려집니다.
+        dropped.clear();
+        queue.setViewport(13, 28.5, 53.5, 25, 50, 32, 57, dropped);
+        assertEquals(2, dropped.size());
+        assertEquals(0, queue.size());
+        assertEquals(3, queue.getCancelledCount());
+
+        // 화면 밖 요청은 넣자마자 버려집니다.
+        dropped.clear();
+        assertFalse(offer(queue, 13, 0, 0, dropped));
+        assertEquals(Arrays.asList("13/0/0"), dropped);
+        assertFalse(queue.isVisible(13, 0, 0));
+        assertTrue(queue.isVisible(14, 57, 107));
+    }
+
+    @Test
+    public void offer_overCapacityEvictsFarthestRequest() {
+        TileRequestQueue<String> queue = new TileRequestQueue<>(2);
+        List<String> dropped = new ArrayList<>();
+        queue.setViewport(15, 105.5, 205.5, 100, 200, 111, 211, dropped);
+
+        assertTrue(offer(queue, 15, 110, 210, dropped));
+        assertTrue(offer(queue, 15, 105, 205, dropped));
+        assertTrue(offer(queue, 15, 106, 206, dropped));
+        assertEquals(Arrays.asList("15/110/210"), dropped);
+
+        // 더 먼 요청은 자기 자신이 버려집니다.
+        dropped.clear();
+        assertFalse(offer(queue, 15, 111, 211, dropped));
+        assertEquals(Arrays.asList("15/111/211"), dropped);
+
+        // 같은 타일을 다시 요청하면 자리를 늘리지 않고 바꿉니다.
+        dropped.clear();
+        assertTrue(offer(queue, 15, 105, 205, dropped));
+        assertTrue(dropped.isEmpty());
+        assertEquals(2, queue.size());
+        assertEquals(3, queue.getPeakSize());
+        assertEquals(2, queue.getEvictedCount());
+    }
+
+    @Test
+    public void pollBatch_groupsRequestsOfTheMostUrgentZoom() {
+        TileRequestQueue<String> queue = new TileRequestQueue<>(40);
+        List<String> dropped = new ArrayList<>();
+        queue.setViewport(15, 105.5, 205.5, 100, 200, 111, 211, dropped);
+        offer(queue, 14, 52, 102, dropped);
+        offer(queue, 15, 101, 201, dropped);
+        offer(queue, 14, 53, 103, dropped);
+        offer(queue, 15, 106, 206, dropped);
+        offer(queue, 15, 110, 210, dropped);
+
+        List<String> out = new ArrayList<>();
+        assertEquals(2, queue.pollBatch(2, out));
+        assertEquals(Arrays.asList("15/106/206", "15/101/201"), out);
+
+        out.clear();
+        assertEquals(1, queue.pollBatch(4, out));
+        assertEquals(Arrays.asList("15/110/210"), out);
+
+        // 현재 줌 요청이 다 빠진 뒤에야 이웃 줌을 꺼냅니다.
+        out.clear();
+        assertEquals(2, queue.pollBatch(4, out));
+        assertEquals(Arrays.asList("14/52/102", "14/53/103"), out);
+        assertEquals(0, queue.pollBatch(4, out));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.test_navigation;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * ReplayTrace 입력 형식과 TraceReplayer의 재생 순서, 배속 계산을 검증하는 단위 테스트입니다.
+ */
+public class TraceReplayerTest {
+
+    /** 전달받은 이벤트를 문자열로 남기는 대상 */
+    private static class RecordingSink implements TraceReplayer.Sink {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onLocation(double latitude, double longitude) {
+            events.add(String.format(Locale.US, "L %.5f %.5f", latitude, longitude));
+        }
+
+        @Override
+        public void onHeading(float heading) {
+            events.add(String.format(Locale.US, "H %.1f", heading));
+        }
+
+        @Override
+        public void onVehicle(int id, int type, double latitude, double longitude, float heading, float speed) {
+            events.add(String.format(Locale.US, "V %d %d", id, type));
+        }
+    }
+
+    private static String nmea(String body) {
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum ^= body.charAt(i);
+        }
+        return String.format(Locale.US, "$%s*%02X", body, sum);
+    }
+
+    @Test
+    public void csvStreams_areMergedInTimeOrder() throws IOException {
+        ReplayTrace trace = new ReplayTrace();
+        trace.readLocationsCsv(new StringReader(
+                "time_ms,lat,lon,heading\n# comment\n1000,37.0,127.0,90\n1200,37.1,127.1,\n"));
+        trace.readHeadingsCsv(new StringReader("1100,45\n1200,50\n"));
+        trace.readVehiclesCsv(new StringReader("1000,7,1,37.0,127.0,0,10\n"));
+        trace.sort();
+
+        RecordingSink sink = new RecordingSink();
+        TraceReplayer replayer = new TraceReplayer(trace, sink, TraceReplayer.SPEED_MAX);
+        replayer.start(0);
+        assertEquals(6, replayer.step(0, Integer.MAX_VALUE));
+        assertTrue(replayer.isFinished());
+        // 같은 시각의 이벤트는 읽어 들인 순서를 유지합니다.
+        assertEquals("[L 37.00000 127.00000, H 90.0, V 7 1, H 45.0, L 37.10000 127.10000, H 50.0]",
+                sink.events.toString());
+        assertEquals(200, trace.getDurationMillis());
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedCsv_isRejectedWithLineNumber() throws IOException {
+        new ReplayTrace().readVehiclesCsv(new StringReader("1000,7,1,37.0\n"));
+    }
+
+    @Test
+    public void nmea_parsesRmcGgaAndHdt() throws IOException {
+        String log = String.join("\n",
+                nmea("GPRMC,235959.50,A,3723.5339,N,12657.5329,E,10.0,084.4,230394,,"),
+                nmea("GPGGA,235959.50,3723.5339,N,12657.5329,E,1,08,0.9,545.4,M,46.9,M,,"),
+                nmea("HEHDT,90.5,T"),
+                nmea("GPRMC,000000.50,A,3723.5400,N,12657.5400,E,10.0,085.0,240394,,"),
+                nmea("GPRMC,000001.50,V,3723.5500,N,12657.5500,E,,,240394,,"),
+                "$GPGGA,000001.50,3723.5500,N,12657.5500,E,1,08,0.9,545.4,M,46.9,M,,*00");
+        ReplayTrace trace = new ReplayTrace();
+        assertEquals(2, trace.readNmea(new StringReader(log)));
+        trace.sort();
+
+        assertEquals(5, trace.size());
+        assertEquals(ReplayTrace.KIND_LOCATION, trace.getKind(0));
+        assertEquals(37 + 23.5339 / 60, trace.getLatitude(0), 1e-9);
+        assertEquals(126 + 57.5329 / 60, trace.getLongitude(0), 1e-9);
+        assertEquals(84.4f, trace.getHeading(1), 0f);
+        assertEquals(90.5f, trace.getHeading(2), 0f);
+        // 자정을 넘겨도 시간은 계속 증가합니다.
+        assertEquals(1000, trace.getDurationMillis());
+    }
+
+    @Test
+    public void acceleratedReplay_followsRecordedSpacing() {
+        ReplayTrace trace = new ReplayTrace();
+        for (int i = 0; i < 10; i++) {
+            trace.addLocation(5000 + i * 100L, 37.0 + i * 1e-4, 127.0);
+        }
+        RecordingSink sink = new RecordingSink();
+        TraceReplayer replayer = new TraceReplayer(trace, sink, 10.0);
+
+        long start = 1_000_000_000L;
+        replayer.start(start);
+        assertEquals(1, replayer.step(start, Integer.MAX_VALUE));
+        // 10배속이면 100ms 간격이 10ms가 됩니다.
+        assertEquals(10_000_000L, replayer.nanosUntilNextEvent(start));
+        assertEquals(0, replayer.step(start + 9_999_999L, Integer.MAX_VALUE));
+        assertEquals(1, replayer.step(start + 10_000_000L, Integer.MAX_VALUE));
+        assertEquals(3, replayer.step(start + 45_000_000L, Integer.MAX_VALUE));
+        assertEquals(2, replayer.step(start + 100_000_000L, 2));
+        assertEquals(3, replayer.step(start + 100_000_000L, Integer.MAX_VALUE));
+        assertTrue(replayer.isFinished());
+        assertEquals(-1, replayer.nanosUntilNextEvent(start + 100_000_000L));
+        assertEquals(10, replayer.getLateness().getCount());
+        assertEquals(100.0, replayer.getUpdatesPerSecond(0), 1e-9);
+    }
+
+    @Test
+    public void maxSpeedReplay_isDeterministic() {
+        ReplayTrace trace = new ReplayTrace();
+        for (int i = 0; i < 1000; i++) {
+            trace.addLocation(i * 100L, 37.0 + i * 1e-5, 127.0);
+            trace.addHeading(i * 100L + 50, i % 360);
+        }
+        trace.sort();
+
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        TraceReplayer replayer = new TraceReplayer(trace, first, TraceReplayer.SPEED_MAX);
+        assertEquals(2000, replayer.runBlocking());
+        assertEquals(2000, new TraceReplayer(trace, second, TraceReplayer.SPEED_MAX).runBlocking());
+
+        assertEquals(first.events, second.events);
+        assertEquals(2000, replayer.getDispatchLatency().getCount());
+        assertEquals(0, replayer.getLateness().getCount());
+        assertTrue(replayer.getUpdatesPerSecond(System.nanoTime()) > 0);
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.test_navigation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * TripLog의 기록과 다시 열기, 끊긴 꼬리 복구, 압축, 스레드 사이 대기열, 긴 경로를 다시 불러오는 시간을 검증하는 단위 테스트입니다.
+ */
+public class TripLogTest {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("triplog", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        file = new File(dir, "trip.log");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void reopen_restoresAllFields() throws IOException {
+        try (TripLog log = new TripLog(file, null)) {
+            for (int i = 0; i < 1000; i++) {
+                log.append(1000L * i, LAT + i * 1e-5, LON - i * 1e-5, i % 360, i * 0.01f);
+            }
+            log.append(1_000_000, LAT, LON, Float.NaN, Float.NaN);
+            assertEquals(1001, log.size());
+        }
+
+        List<long[]> records = new ArrayList<>();
+        List<float[]> values = new ArrayList<>();
+        try (TripLog log = new TripLog(file, (time, lat, lon, heading, speed) -> {
+            records.add(new long[]{time, Math.round(lat * 1e7), Math.round(lon * 1e7)});
+            values.add(new float[]{heading, speed});
+        })) {
+            assertEquals(1001, log.getRecoveredCount());
+            assertEquals(0, log.getDiscardedBytes());
+        }
+        assertEquals(1001, records.size());
+        assertEquals(500_000, records.get(500)[0]);
+        assertEquals(Math.round((LAT + 500 * 1e-5) * 1e7), records.get(500)[1]);
+        assertEquals(Math.round((LON - 500 * 1e-5) * 1e7), records.get(500)[2]);
+        assertEquals(140f, values.get(500)[0], 0.01f);
+        assertEquals(5f, values.get(500)[1], 0.01f);
+        assertTrue(Float.isNaN(values.get(1000)[0]));
+        assertTrue(Float.isNaN(values.get(1000)[1]));
+    }
+
+    @Test
+    public void flushInterval_writesBufferedRecordsWithoutClose() throws IOException {
+        TripLog writer = new TripLog(file, 1000, 10_000, null);
+        writer.append(0, LAT, LON, 0f, 0f);
+        writer.append(500, LAT, LON, 0f, 0f);
+        // 쓰기 간격 전이므로 아직 파일에는 헤더만 있습니다.
+        assertEquals(TripLog.HEADER_SIZE, file.length());
+        writer.append(1000, LAT, LON, 0f, 0f);
+        assertEquals(TripLog.HEADER_SIZE + 3 * TripLog.RECORD_SIZE, file.length());
+
+        // 닫지 않고 죽은 것처럼 다른 인스턴스로 엽니다.
+        try (TripLog reader = new TripLog(file, null)) {
+            assertEquals(3, reader.getRecoveredCount());
+        }
+    }
+
+    @Test
+    public void tornTail_isTruncatedToLastValidRecord() throws IOException {
+        try (TripLog log = new TripLog(file, null)) {
+            for (int i = 0; i < 100; i++) {
+                log.append(i, LAT + i * 1e-5, LON, 0f, 10f);
+            }
+        }
+        // 쓰다가 끊긴 반쪽 레코드
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[TripLog.RECORD_SIZE / 2]);
+        }
+        try (TripLog log = new TripLog(file, null)) {
+            assertEquals(100, log.getRecoveredCount());
+            assertEquals(TripLog.RECORD_SIZE / 2, log.getDiscardedBytes());
+            log.append(100, LAT, LON, 0f, 10f);
+        }
+        try (TripLog log = new TripLog(file, null)) {
+            assertEquals(101, log.getRecoveredCount());
+        }
+
+        // 중간 레코드가 손상되면 그 앞까지만 복구합니다.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(TripLog.HEADER_SIZE + 50L * TripLog.RECORD_SIZE + 9);
+            raf.write(0x5A);
+        }
+        try (TripLog log = new TripLog(file, null)) {
+            assertEquals(50, log.getRecoveredCount());
+            assertEquals(51L * TripLog.RECORD_SIZE, log.getDiscardedBytes());
+        }
+        assertEquals(TripLog.HEADER_SIZE + 50L * TripLog.RECORD_SIZE, file.length());
+    }
+
+    @Test
+    public void compact_thinsOnlyOldRecords() throws IOException {
+        double step = 1 / TileMath.METERS_PER_DEGREE;
+        try (TripLog log = new TripLog(file, null)) {
+            // 1m 간격으로 2000점, 앞 1000점이 오래된 구간
+            for (int i = 0; i < 2000; i++) {
+                log.append(i, LAT + i * step, LON, 0f, 1f);
+            }
+            int removed = log.compact(1000, 9.5);
+            // 오래된 구간은 약 10m마다 한 점 + 마지막 점만 남습니다.
+            assertEquals(1000 - 101, removed);
+            assertEquals(1101, log.size());
+            log.append(2000, LAT, LON, 0f, 1f);
+        }
+        final long[] last = {-1};
+        final int[] outOfOrder = {0};
+        try (TripLog log = new TripLog(file, (time, lat, lon, heading, speed) -> {
+            if (time <= last[0]) {
+                outOfOrder[0]++;
+            }
+            last[0] = time;
+        })) {
+            assertEquals(1102, log.getRecoveredCount());
+        }
+        assertEquals(0, outOfOrder[0]);
+        assertFalse(new File(file.getPath() + ".compact").exists());
+    }
+
+    @Test
+    public void clear_removesAllRecords() throws IOException {
+        try (TripLog log = new TripLog(file, null)) {
+            log.append(0, LAT, LON, 0f, 0f);
+            log.flush();
+            log.append(1, LAT, LON, 0f, 0f);
+            log.clear();
+            assertEquals(0, log.size());
+            log.append(2, LAT, LON, 0f, 0f);
+        }
+        try (TripLog log = new TripLog(file, null)) {
+            assertEquals(1, log.getRecoveredCount());
+        }
+    }
+
+    @Test
+    public void queue_drainsInOrderAcrossThreadsAndClearsInSequence() throws Exception {
+        int points = 100_000;
+        int clearAt = 60_000;
+        TripLogQueue queue = new TripLogQueue(256);
+        try (TripLog log = new TripLog(file, null)) {
+            // 생산자: 가득 차면 기다렸다가 다시 넣습니다. 중간에 비우기 표시를 넣습니다.
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < points; i++) {
+                    if (i == clearAt) {
+                        while (!queue.offerClear()) {
+                            Thread.yield();
+                        }
+                    }
+                    while (!queue.offer(i, LAT + i * 1e-7, LON, 0f, 0f)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producer.start();
+            while (producer.isAlive() || queue.size() > 0) {
+                queue.drainTo(log);
+            }
+            producer.join();
+            assertEquals(points - clearAt, log.size());
+        }
+
+        List<Long> times = new ArrayList<>();
+        try (TripLog log = new TripLog(file, (time, lat, lon, heading, speed) -> times.add(time))) {
+            assertEquals(points - clearAt, log.getRecoveredCount());
+        }
+        for (int i = 0; i < times.size(); i++) {
+            assertEquals(clearAt + i, (long) times.get(i));
+        }
+    }
+
+    @Test
+    public void queue_requestsOneDrainUntilDrained() throws IOException {
+        TripLogQueue queue = new TripLogQueue(4);
+        assertTrue(queue.requestDrain());
+        assertFalse(queue.requestDrain());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i, LAT, LON, 0f, 0f));
+        }
+        assertFalse(queue.offer(4, LAT, LON, 0f, 0f));
+        assertEquals(1, queue.getDroppedCount());
+
+        assertEquals(4, queue.drainTo(null));
+        assertEquals(0, queue.size());
+        assertTrue(queue.requestDrain());
+    }
+
+    @Test
+    public void reload_millionPointTrip() throws IOException {
+        int points = 1_000_000;
+        double metersPerDegreeLon = TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(LAT));
+        try (TripLog log = new TripLog(file, null)) {
+            double lat = LAT;
+            double lon = LON;
+            for (int i = 0; i < points; i++) {
+                // 1초 간격, 약 15m/s로 천천히 도는 주행 궤적
+                double bearing = i * 0.1;
+                lat += 15 * Math.cos(Math.toRadians(bearing)) / TileMath.METERS_PER_DEGREE;
+                lon += 15 * Math.sin(Math.toRadians(bearing)) / metersPerDegreeLon;
+                log.append(1000L * i, lat, lon, (float) bearing, 15f);
+            }
+        }
+
+        // 기록 읽기만
+        long start = System.nanoTime();
+        try (TripLog log = new TripLog(file, null)) {
+            assertEquals(points, log.getRecoveredCount());
+        }
+        long scanNanos = System.nanoTime() - start;
+
+        // 읽으면서 경로 저장소에 다시 채우기 (앱 시작 시 경로 복원과 같음)
+        PathStore store = new PathStore(points);
+        start = System.nanoTime();
+        try (TripLog log = new TripLog(file, (time, lat, lon, heading, speed) -> store.add(lat, lon))) {
+            assertEquals(points, log.getRecoveredCount());
+        }
+        long reloadNanos = System.nanoTime() - start;
+
+        assertEquals(points, store.size());
+        assertTrue("reload took " + reloadNanos / 1_000_000 + " ms (scan " + scanNanos / 1_000_000
+                + " ms, file " + file.length() / 1024 + " KB)", reloadNanos < 5_000_000_000L);
+    }
+}
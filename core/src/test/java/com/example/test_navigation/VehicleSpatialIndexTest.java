@@ -0,0 +1,218 @@
+package com.example.test_navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * VehicleSpatialIndex의 반경/최근접/전방 질의를 전수 비교 결과와 대조하고, 이동과 제거 후에도 색인이 맞는지 검증하는 단위 테스트입니다.
+ */
+public class VehicleSpatialIndexTest {
+
+    private static final double LAT = 37.392231;
+    private static final double LON = 126.958882;
+    private static final int VEHICLES = 2000;
+    private static final double TOLERANCE = 0.5;
+
+    private final Random random = new Random(7);
+    private final double[] point = new double[2];
+    private VehicleSpatialIndex index;
+    private double[] lats;
+    private double[] lons;
+    private float[] headings;
+    private boolean[] present;
+
+    @Before
+    public void setUp() {
+        index = new VehicleSpatialIndex();
+        lats = new double[VEHICLES];
+        lons = new double[VEHICLES];
+        headings = new float[VEHICLES];
+        present = new boolean[VEHICLES];
+        for (int id = 0; id < VEHICLES; id++) {
+            move(id, LAT, LON, 2000);
+        }
+    }
+
+    private void move(int id, double lat, double lon, double radius) {
+        GeoMath.randomPointInRadius(random, lat, lon, radius, point);
+        lats[id] = point[0];
+        lons[id] = point[1];
+        headings[id] = random.nextFloat() * 360f;
+        present[id] = true;
+        index.update(id, lats[id], lons[id], headings[id]);
+    }
+
+    /** 모든 차량을 전수 비교하여 조건에 맞는 차량을 가까운 순으로 반환합니다. */
+    private int[] bruteForce(double lat, double lon, double radius, float heading, double halfAngle,
+                             double maxHeadingDelta) {
+        return IntStream.range(0, VEHICLES)
+                .filter(id -> present[id])
+                .filter(id -> GeoMath.distanceMeters(lat, lon, lats[id], lons[id]) <= radius)
+                .filter(id -> halfAngle < 0 || isAhead(lat, lon, heading, halfAngle, maxHeadingDelta, id))
+                .boxed()
+                .sorted((a, b) -> Double.compare(GeoMath.distanceMeters(lat, lon, lats[a], lons[a]),
+                        GeoMath.distanceMeters(lat, lon, lats[b], lons[b])))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private boolean isAhead(double lat, double lon, float heading, double halfAngle, double maxHeadingDelta, int id) {
+        double north = (lats[id] - lat) * TileMath.METERS_PER_DEGREE;
+        double east = (lons[id] - lon) * TileMath.METERS_PER_DEGREE * Math.cos(Math.toRadians(lat));
+        double bearing = Math.toDegrees(Math.atan2(east, north));
+        return angleBetween(bearing, heading) <= halfAngle && angleBetween(headings[id], heading) <= maxHeadingDelta;
+    }
+
+    private static double angleBetween(double a, double b) {
+        double d = Math.abs(((a - b) % 360 + 360) % 360);
+        return Math.min(d, 360 - d);
+    }
+
+    /**
+     * 색인은 원점 위도의 코사인을, 전수 비교는 두 점 중간 위도의 코사인을 쓰므로 경계에서 수 cm 차이가 납니다.
+     * 경계 양쪽 {@link #TOLERANCE}만큼은 어느 쪽이든 허용합니다.
+     */
+    private void assertWithinRadius(double lat, double lon, double radius) {
+        int[] out = new int[VEHICLES];
+        int n = index.findWithinRadius(lat, lon, radius, out);
+        int[] actual = Arrays.copyOf(out, n);
+        Arrays.sort(actual);
+        for (int id : bruteForce(lat, lon, radius - TOLERANCE, 0f, -1, 180)) {
+            assertTrue("missing " + id, Arrays.binarySearch(actual, id) >= 0);
+        }
+        int[] outer = bruteForce(lat, lon, radius + TOLERANCE, 0f, -1, 180);
+        Arrays.sort(outer);
+        for (int id : actual) {
+            assertTrue("unexpected " + id, Arrays.binarySearch(outer, id) >= 0);
+        }
+    }
+
+    @Test
+    public void findWithinRadius_matchesBruteForce() {
+        for (int q = 0; q < 50; q++) {
+            GeoMath.randomPointInRadius(random, LAT, LON, 2000, point);
+            assertWithinRadius(point[0], point[1], 50 + random.nextDouble() * 400);
+        }
+    }
+
+    @Test
+    public void findNearest_matchesBruteForce() {
+        int[] out = new int[10];
+        double[] distances = new double[10];
+        for (int q = 0; q < 50; q++) {
+            GeoMath.randomPointInRadius(random, LAT, LON, 2500, point);
+            int n = index.findNearest(point[0], point[1], 1000, out, distances);
+            int[] expected = bruteForce(point[0], point[1], 1000, 0f, -1, 180);
+            assertEquals(Math.min(10, expected.length), n);
+            for (int i = 0; i < n; i++) {
+                assertEquals(GeoMath.distanceMeters(point[0], point[1], lats[expected[i]], lons[expected[i]]),
+                        distances[i], TOLERANCE);
+                if (i > 0) {
+                    assertTrue(distances[i] >= distances[i - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findNearest_withUnboundedRadiusStopsAfterAllVehicles() {
+        VehicleSpatialIndex small = new VehicleSpatialIndex();
+        small.update(1, LAT, LON, 0f);
+        small.update(2, LAT + 0.01, LON, 0f);
+        int[] out = new int[5];
+        assertEquals(2, small.findNearest(LAT, LON, Double.MAX_VALUE, out, null));
+        assertEquals(1, out[0]);
+        assertEquals(2, out[1]);
+    }
+
+    @Test
+    public void findAhead_matchesBruteForce() {
+        int[] out = new int[3];
+        double[] distances = new double[3];
+        for (int q = 0; q < 50; q++) {
+            GeoMath.randomPointInRadius(random, LAT, LON, 1500, point);
+            float heading = random.nextFloat() * 360f;
+            int n = index.findAhead(point[0], point[1], heading, 20, 300, 45, out, distances);
+            int[] expected = bruteForce(point[0], point[1], 300, heading, 20, 45);
+            assertEquals(Math.min(3, expected.length), n);
+            for (int i = 0; i < n; i++) {
+                assertEquals(GeoMath.distanceMeters(point[0], point[1], lats[expected[i]], lons[expected[i]]),
+                        distances[i], TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void findAhead_picksClosestVehicleInFront() {
+        VehicleSpatialIndex road = new VehicleSpatialIndex();
+        double step = 20 / TileMath.METERS_PER_DEGREE;
+        road.update(1, LAT - step, LON, 0f);       // 뒤
+        road.update(2, LAT + 2 * step, LON, 0f);   // 앞, 40m
+        road.update(3, LAT + step, LON, 180f);     // 앞, 20m, 마주 오는 차량
+        road.update(4, LAT + 3 * step, LON, 0f);   // 앞, 60m
+        int[] out = new int[1];
+        double[] distances = new double[1];
+        assertEquals(1, road.findAhead(LAT, LON, 0f, 15, 150, 45, out, distances));
+        assertEquals(2, out[0]);
+        assertEquals(40, distances[0], 0.01);
+
+        // 방향을 보지 않으면 마주 오는 차량이 가장 가깝습니다.
+        assertEquals(1, road.findAhead(LAT, LON, 0f, 15, 150, 180, out, null));
+        assertEquals(3, out[0]);
+    }
+
+    @Test
+    public void updatesAndRemovals_keepIndexConsistent() {
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 200; i++) {
+                int id = random.nextInt(VEHICLES);
+                if (present[id] && random.nextInt(4) == 0) {
+                    assertTrue(index.remove(id));
+                    present[id] = false;
+                } else if (present[id]) {
+                    // 칸 경계를 넘나드는 작은 이동
+                    move(id, lats[id], lons[id], 80);
+                } else {
+                    move(id, LAT, LON, 2000);
+                }
+            }
+            GeoMath.randomPointInRadius(random, LAT, LON, 2000, point);
+            assertWithinRadius(point[0], point[1], 300);
+        }
+        int expectedSize = 0;
+        for (int id = 0; id < VEHICLES; id++) {
+            assertEquals(present[id], index.contains(id));
+            expectedSize += present[id] ? 1 : 0;
+        }
+        assertEquals(expectedSize, index.size());
+    }
+
+    @Test
+    public void distantQuery_movesOriginAndStillMatches() {
+        // 원점에서 100km 떨어진 곳으로 모든 차량과 질의를 옮깁니다.
+        double farLat = LAT + 1.0;
+        for (int id = 0; id < VEHICLES; id++) {
+            move(id, farLat, LON, 2000);
+        }
+        assertWithinRadius(farLat, LON, 500);
+        assertWithinRadius(farLat + 0.005, LON - 0.005, 250);
+    }
+
+    @Test
+    public void distanceMeters_isCloseToHaversine() {
+        double lat2 = LAT + 0.02;
+        double lon2 = LON + 0.03;
+        double phi1 = Math.toRadians(LAT);
+        double phi2 = Math.toRadians(lat2);
+        double a = Math.pow(Math.sin((phi2 - phi1) / 2), 2)
+                + Math.cos(phi1) * Math.cos(phi2) * Math.pow(Math.sin(Math.toRadians(lon2 - LON) / 2), 2);
+        double haversine = 2 * 6371008.8 * Math.asin(Math.sqrt(a));
+        assertEquals(haversine, GeoMath.distanceMeters(LAT, LON, lat2, lon2), haversine * 0.002);
+    }
+}
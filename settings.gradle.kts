@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "test_navigation"
 include(":app")
+include(":core")
+include(":benchmark")
  
\ No newline at end of file